@@ -115,6 +115,32 @@ public abstract class AbstractFlywayTask extends Task {
      */
     private String initDescription;
 
+    /**
+     * Whether to coordinate concurrent migrations using a native advisory lock (PostgreSQL, MySQL, SQL Server and
+     * Oracle with EXECUTE on DBMS_LOCK) instead of locking the metadata table. Flyway falls back to locking the metadata
+     * table on databases without advisory lock support. (default: {@code false})<br/>Also configurable with Ant Property: ${flyway.advisoryLock}
+     */
+    private boolean advisoryLock;
+
+    /**
+     * The maximum time to wait for the advisory lock, in seconds. A negative value waits indefinitely. (default: {@code -1})<br/>Also configurable with Ant Property: ${flyway.lockTimeout}
+     */
+    private Integer lockTimeout;
+
+    /**
+     * The maximum number of connections to use concurrently when cleaning the database. {@code 1} cleans everything
+     * sequentially on a single connection. (default: {@code 1})<br/>Also configurable with Ant Property:
+     * ${flyway.cleanParallelism}
+     */
+    private Integer cleanParallelism;
+
+    /**
+     * Whether to clean the schemas by dropping and recreating them with the same owner and privileges, instead of
+     * dropping all their objects one by one. Only supported by H2, Hsql and PostgreSQL. (default: {@code false})<br/>Also
+     * configurable with Ant Property: ${flyway.recreateSchemasOnClean}
+     */
+    private boolean recreateSchemasOnClean;
+
     /**
      * @param classpath The classpath used to load the JDBC driver and the migrations.<br/>Also configurable with Ant
      *                  Property: ${flyway.classpath}
@@ -223,6 +249,41 @@ public abstract class AbstractFlywayTask extends Task {
         this.initDescription = initDescription;
     }
 
+    /**
+     * @param advisoryLock Whether to coordinate concurrent migrations using a native advisory lock (PostgreSQL, MySQL, SQL Server and
+     *                     Oracle with EXECUTE on DBMS_LOCK) instead of locking the metadata table. Flyway falls back to locking the metadata
+     *                     table on databases without advisory lock support. (default: {@code false})<br/>Also configurable with Ant Property: ${flyway.advisoryLock}
+     */
+    public void setAdvisoryLock(boolean advisoryLock) {
+        this.advisoryLock = advisoryLock;
+    }
+
+    /**
+     * @param lockTimeout The maximum time to wait for the advisory lock, in seconds. A negative value waits indefinitely. (default: {@code -1})<br/>Also configurable with Ant Property: ${flyway.lockTimeout}
+     */
+    public void setLockTimeout(int lockTimeout) {
+        this.lockTimeout = lockTimeout;
+    }
+
+    /**
+     * @param cleanParallelism The maximum number of connections to use concurrently when cleaning the database.
+     *                         {@code 1} cleans everything sequentially on a single connection. (default: {@code 1})<br/>Also
+     *                         configurable with Ant Property: ${flyway.cleanParallelism}
+     */
+    public void setCleanParallelism(int cleanParallelism) {
+        this.cleanParallelism = cleanParallelism;
+    }
+
+    /**
+     * @param recreateSchemasOnClean Whether to clean the schemas by dropping and recreating them with the same owner
+     *                               and privileges, instead of dropping all their objects one by one. Only supported by
+     *                               H2, Hsql and PostgreSQL. (default: {@code false})<br/>Also configurable with Ant
+     *                               Property: ${flyway.recreateSchemasOnClean}
+     */
+    public void setRecreateSchemasOnClean(boolean recreateSchemasOnClean) {
+        this.recreateSchemasOnClean = recreateSchemasOnClean;
+    }
+
     /**
      * Creates the datasource base on the provided parameters.
      *
@@ -270,6 +331,22 @@ public abstract class AbstractFlywayTask extends Task {
         return value;
     }
 
+    /**
+     * Retrieves an integer value either from an Ant property or if not set, directly.
+     *
+     * @param value          The integer value to check.
+     * @param flywayProperty The flyway Ant property. Ex. 'url' for 'flyway.url'
+     * @return The integer value. {@code null} if neither is set.
+     */
+    protected Integer useValueIfPropertyNotSet(Integer value, String flywayProperty) {
+        String propertyValue = getProject().getProperty("flyway." + flywayProperty);
+        if (propertyValue != null) {
+            return Integer.valueOf(propertyValue);
+        }
+
+        return value;
+    }
+
     /**
      * Prepares the classpath this task runs in, so that it includes both the classpath for Flyway and the classpath for
      * the JDBC drivers and migrations.
@@ -325,6 +402,16 @@ public abstract class AbstractFlywayTask extends Task {
             if (initDescriptionValue != null) {
                 flyway.setInitDescription(initDescriptionValue);
             }
+            flyway.setAdvisoryLock(useValueIfPropertyNotSet(advisoryLock, "advisoryLock"));
+            Integer lockTimeoutValue = useValueIfPropertyNotSet(lockTimeout, "lockTimeout");
+            if (lockTimeoutValue != null) {
+                flyway.setLockTimeout(lockTimeoutValue);
+            }
+            Integer cleanParallelismValue = useValueIfPropertyNotSet(cleanParallelism, "cleanParallelism");
+            if (cleanParallelismValue != null) {
+                flyway.setCleanParallelism(cleanParallelismValue);
+            }
+            flyway.setRecreateSchemasOnClean(useValueIfPropertyNotSet(recreateSchemasOnClean, "recreateSchemasOnClean"));
 
             doExecute(flyway);
         } catch (Exception e) {
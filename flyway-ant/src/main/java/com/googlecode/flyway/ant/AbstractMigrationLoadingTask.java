@@ -114,6 +114,47 @@ public abstract class AbstractMigrationLoadingTask extends AbstractFlywayTask {
      */
     private String placeholderSuffix;
 
+    /**
+     * Whether Sql migrations should be streamed instead of being loaded and parsed upfront. (default: {@code false})
+     * <p>Statements are then read and executed one at a time, which keeps the memory usage bounded by the size of the
+     * largest statement instead of the size of the whole script.</p>
+     * Also configurable with Ant Property: ${flyway.stream}
+     */
+    private boolean stream;
+
+    /**
+     * The maximum number of consecutive data manipulation statements (INSERT, UPDATE, DELETE, MERGE) of a Sql migration
+     * to send to the database as a single JDBC batch. {@code 0} disables batching. (default: {@code 0})<br/>Also configurable with Ant Property: ${flyway.batchSize}
+     */
+    private Integer batchSize;
+
+    /**
+     * Whether to store a fingerprint of the available migrations next to the metadata table once the schema is fully
+     * migrated, and to skip migrate and validate entirely while it still matches. (default: {@code false})<br/>Also configurable with Ant Property: ${flyway.fingerprint}
+     */
+    private boolean fingerprint;
+
+    /**
+     * Whether to read the migrations of the classpath locations covered by the migration manifest
+     * (META-INF/flyway/migrations.idx) from it instead of scanning the classpath. The manifest must be regenerated
+     * whenever migrations are added. (default: {@code false})<br/>Also configurable with Ant Property: ${flyway.useManifest}
+     */
+    private boolean useManifest;
+
+    /**
+     * The number of most recently applied migrations whose checksum is compared with the one of the available migration
+     * during validation. {@code 0} validates the checksums of all applied migrations. (default: {@code 0})<br/>Also
+     * configurable with Ant Property: ${flyway.checksumValidationLimit}
+     */
+    private Integer checksumValidationLimit;
+
+    /**
+     * The maximum number of directories to list concurrently when scanning filesystem locations for sql migrations.
+     * {@code 1} lists them one by one. (default: {@code 1})<br/>Also configurable with Ant Property:
+     * ${flyway.scanParallelism}
+     */
+    private Integer scanParallelism;
+
     /**
      * Do not use. For Ant itself.
      *
@@ -204,6 +245,61 @@ public abstract class AbstractMigrationLoadingTask extends AbstractFlywayTask {
         this.placeholderSuffix = placeholderSuffix;
     }
 
+    /**
+     * @param stream Whether Sql migrations should be streamed instead of being loaded and parsed upfront. (default: {@code false})
+     *               <p>Statements are then read and executed one at a time, which keeps the memory usage bounded by the size of the
+     *               largest statement instead of the size of the whole script.</p>
+     *               Also configurable with Ant Property: ${flyway.stream}
+     */
+    public void setStream(boolean stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * @param batchSize The maximum number of consecutive data manipulation statements (INSERT, UPDATE, DELETE, MERGE) of a Sql migration
+     *                  to send to the database as a single JDBC batch. {@code 0} disables batching. (default: {@code 0})<br/>Also configurable with Ant Property: ${flyway.batchSize}
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param fingerprint Whether to store a fingerprint of the available migrations next to the metadata table once the schema is fully
+     *                    migrated, and to skip migrate and validate entirely while it still matches. (default: {@code false})<br/>Also configurable with Ant Property: ${flyway.fingerprint}
+     */
+    public void setFingerprint(boolean fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @param useManifest Whether to read the migrations of the classpath locations covered by the migration manifest
+     *                    (META-INF/flyway/migrations.idx) from it instead of scanning the classpath. The manifest must
+     *                    be regenerated whenever migrations are added. (default: {@code false})<br/>Also configurable
+     *                    with Ant Property: ${flyway.useManifest}
+     */
+    public void setUseManifest(boolean useManifest) {
+        this.useManifest = useManifest;
+    }
+
+    /**
+     * @param checksumValidationLimit The number of most recently applied migrations whose checksum is compared with
+     *                                the one of the available migration during validation. {@code 0} validates the
+     *                                checksums of all applied migrations. (default: {@code 0})<br/>Also configurable
+     *                                with Ant Property: ${flyway.checksumValidationLimit}
+     */
+    public void setChecksumValidationLimit(int checksumValidationLimit) {
+        this.checksumValidationLimit = checksumValidationLimit;
+    }
+
+    /**
+     * @param scanParallelism The maximum number of directories to list concurrently when scanning filesystem
+     *                        locations for sql migrations. {@code 1} lists them one by one. (default: {@code 1})<br/>Also
+     *                        configurable with Ant Property: ${flyway.scanParallelism}
+     */
+    public void setScanParallelism(int scanParallelism) {
+        this.scanParallelism = scanParallelism;
+    }
+
     /**
      * Adds a placeholder from a nested &lt;placeholder&gt; element. Called by Ant.
      *
@@ -267,6 +363,21 @@ public abstract class AbstractMigrationLoadingTask extends AbstractFlywayTask {
         if (placeholderSuffixValue != null) {
             flyway.setPlaceholderSuffix(placeholderSuffixValue);
         }
+        flyway.setStream(useValueIfPropertyNotSet(stream, "stream"));
+        Integer batchSizeValue = useValueIfPropertyNotSet(batchSize, "batchSize");
+        if (batchSizeValue != null) {
+            flyway.setBatchSize(batchSizeValue);
+        }
+        flyway.setFingerprint(useValueIfPropertyNotSet(fingerprint, "fingerprint"));
+        flyway.setUseManifest(useValueIfPropertyNotSet(useManifest, "useManifest"));
+        Integer checksumValidationLimitValue = useValueIfPropertyNotSet(checksumValidationLimit, "checksumValidationLimit");
+        if (checksumValidationLimitValue != null) {
+            flyway.setChecksumValidationLimit(checksumValidationLimitValue);
+        }
+        Integer scanParallelismValue = useValueIfPropertyNotSet(scanParallelism, "scanParallelism");
+        if (scanParallelismValue != null) {
+            flyway.setScanParallelism(scanParallelismValue);
+        }
 
         doExecuteWithMigrationConfig(flyway);
     }
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing, comparing and sorting migration versions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MigrationVersionBenchmark {
+    /**
+     * The number of versions to work with.
+     */
+    private static final int COUNT = 100000;
+
+    /**
+     * Version strings in the formats found in the wild: plain numbers, dotted, underscored and timestamps.
+     */
+    private String[] versionStrings;
+
+    /**
+     * The parsed versions in random order.
+     */
+    private MigrationVersion[] versions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        versionStrings = new String[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            switch (i % 4) {
+                case 0:
+                    versionStrings[i] = String.valueOf(i);
+                    break;
+                case 1:
+                    versionStrings[i] = (i / 100) + "." + (i % 100) + "." + random.nextInt(10);
+                    break;
+                case 2:
+                    versionStrings[i] = (i / 100) + "_" + (i % 100) + "_0";
+                    break;
+                default:
+                    versionStrings[i] = String.valueOf(20140101000000L + i);
+            }
+        }
+
+        versions = new MigrationVersion[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            versions[i] = MigrationVersion.fromVersion(versionStrings[random.nextInt(COUNT)]);
+        }
+    }
+
+    @Benchmark
+    public MigrationVersion[] parse() {
+        MigrationVersion[] result = new MigrationVersion[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            result[i] = MigrationVersion.fromVersion(versionStrings[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public MigrationVersion[] parseAndSort() {
+        MigrationVersion[] result = parse();
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Benchmark
+    public int compare() {
+        int result = 0;
+        for (int i = 1; i < COUNT; i++) {
+            result += versions[i - 1].compareTo(versions[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public MigrationVersion[] sort() {
+        MigrationVersion[] sorted = versions.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
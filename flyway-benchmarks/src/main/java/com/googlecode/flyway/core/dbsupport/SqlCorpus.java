@@ -0,0 +1,272 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.dbsupport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the sql script corpora the parsing benchmarks run against.
+ */
+public class SqlCorpus {
+    /**
+     * Prevents instantiation.
+     */
+    private SqlCorpus() {
+        // Do nothing
+    }
+
+    /**
+     * Generates a data dump consisting of single-line INSERT statements, as produced by most export tools.
+     *
+     * @param statements The number of statements to generate.
+     * @param delimiter  The delimiter of the dialect. A delimiter alone on its own line is emitted on a separate line.
+     * @return The lines of the script.
+     */
+    public static List<String> insertDump(int statements, String delimiter) {
+        List<String> lines = new ArrayList<String>();
+        lines.add("-- Data dump");
+        for (int i = 0; i < statements; i++) {
+            String insert = "INSERT INTO customer (id, name, email, note, created) VALUES (" + i + ", 'Customer " + i
+                    + "', 'customer" + i + "@example.com', 'It''s customer #" + i + "; no -- comment here', '2014-01-01')";
+            addStatement(lines, insert, delimiter);
+        }
+        return lines;
+    }
+
+    /**
+     * Generates the dialect-specific block constructs the builders have to track across lines.
+     *
+     * @param dialect    The name of the dialect.
+     * @param statements The number of blocks to generate.
+     * @return The lines of the script.
+     */
+    public static List<String> blocks(String dialect, int statements) {
+        if ("Oracle".equals(dialect)) {
+            return plSqlPackages(statements);
+        }
+        if ("PostgreSQL".equals(dialect)) {
+            return dollarQuotedFunctions(statements);
+        }
+        if ("MySQL".equals(dialect)) {
+            return delimiterBlocks(statements);
+        }
+        if ("SQLServer".equals(dialect)) {
+            return transactSqlBatches(statements);
+        }
+        if ("DB2".equals(dialect)) {
+            return beginEndProcedures(statements);
+        }
+        if ("Hsql".equals(dialect)) {
+            return atomicTriggers(statements);
+        }
+        if ("H2".equals(dialect)) {
+            return dollarQuotedAliases(statements);
+        }
+        return commentedDdl(statements);
+    }
+
+    /**
+     * Generates PL/SQL package specifications and bodies, terminated by / on its own line.
+     *
+     * @param statements The number of packages to generate.
+     * @return The lines of the script.
+     */
+    static List<String> plSqlPackages(int statements) {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < statements; i++) {
+            lines.add("CREATE OR REPLACE PACKAGE pkg_" + i + " AS");
+            lines.add("  PROCEDURE touch(p_id IN NUMBER);");
+            lines.add("  FUNCTION label(p_id IN NUMBER) RETURN VARCHAR2;");
+            lines.add("END pkg_" + i + ";");
+            lines.add("/");
+            lines.add("CREATE OR REPLACE PACKAGE BODY pkg_" + i + " AS");
+            lines.add("  PROCEDURE touch(p_id IN NUMBER) IS");
+            lines.add("  BEGIN");
+            lines.add("    /* keep the audit trail; up to date */");
+            lines.add("    UPDATE customer SET note = q'[It's touched; again]' WHERE id = p_id;");
+            lines.add("  END touch;");
+            lines.add("  FUNCTION label(p_id IN NUMBER) RETURN VARCHAR2 IS");
+            lines.add("    v_name VARCHAR2(100);");
+            lines.add("  BEGIN");
+            lines.add("    SELECT name INTO v_name FROM customer WHERE id = p_id; -- exactly one row");
+            lines.add("    RETURN 'Customer: ' || v_name || ';';");
+            lines.add("  END label;");
+            lines.add("END pkg_" + i + ";");
+            lines.add("/");
+        }
+        return lines;
+    }
+
+    /**
+     * Generates PostgreSQL functions whose bodies are dollar quoted.
+     *
+     * @param statements The number of functions to generate.
+     * @return The lines of the script.
+     */
+    static List<String> dollarQuotedFunctions(int statements) {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < statements; i++) {
+            String tag = (i % 2 == 0) ? "$$" : "$body$";
+            lines.add("CREATE OR REPLACE FUNCTION touch_" + i + "(p_id INTEGER) RETURNS TEXT AS " + tag);
+            lines.add("DECLARE");
+            lines.add("  v_name TEXT;");
+            lines.add("BEGIN");
+            lines.add("  UPDATE customer SET note = 'It''s touched; again' WHERE id = p_id;");
+            lines.add("  SELECT name INTO v_name FROM customer WHERE id = p_id; -- exactly one row");
+            lines.add("  RETURN 'Customer: ' || v_name || ';';");
+            lines.add("END;");
+            lines.add(tag + " LANGUAGE plpgsql;");
+        }
+        return lines;
+    }
+
+    /**
+     * Generates MySQL stored procedures wrapped in DELIMITER directives.
+     *
+     * @param statements The number of procedures to generate.
+     * @return The lines of the script.
+     */
+    static List<String> delimiterBlocks(int statements) {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < statements; i++) {
+            lines.add("DELIMITER $$");
+            lines.add("CREATE PROCEDURE touch_" + i + "(IN p_id INT)");
+            lines.add("BEGIN");
+            lines.add("  # keep the audit trail; up to date");
+            lines.add("  UPDATE `customer` SET note = 'It\\'s touched; again' WHERE id = p_id;");
+            lines.add("  SELECT name FROM customer WHERE id = p_id; -- exactly one row");
+            lines.add("END $$");
+            lines.add("DELIMITER ;");
+            lines.add("CALL touch_" + i + "(" + i + ");");
+        }
+        return lines;
+    }
+
+    /**
+     * Generates Transact-SQL batches separated by GO.
+     *
+     * @param statements The number of batches to generate.
+     * @return The lines of the script.
+     */
+    static List<String> transactSqlBatches(int statements) {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < statements; i++) {
+            lines.add("CREATE PROCEDURE [dbo].[touch_" + i + "] @id INT");
+            lines.add("AS");
+            lines.add("BEGIN");
+            lines.add("  SET NOCOUNT ON;");
+            lines.add("  UPDATE [customer] SET [note] = N'It''s touched; again' WHERE [id] = @id;");
+            lines.add("  SELECT [name] FROM [customer] WHERE [id] = @id; -- exactly one row");
+            lines.add("END");
+            lines.add("GO");
+        }
+        return lines;
+    }
+
+    /**
+     * Generates DB2 SQL procedures with BEGIN ... END bodies.
+     *
+     * @param statements The number of procedures to generate.
+     * @return The lines of the script.
+     */
+    static List<String> beginEndProcedures(int statements) {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < statements; i++) {
+            lines.add("CREATE PROCEDURE touch_" + i + " (IN p_id INTEGER)");
+            lines.add("LANGUAGE SQL");
+            lines.add("BEGIN");
+            lines.add("  UPDATE customer SET note = 'It''s touched; again' WHERE id = p_id;");
+            lines.add("  DELETE FROM audit WHERE customer_id = p_id; -- start over");
+            lines.add("END;");
+        }
+        return lines;
+    }
+
+    /**
+     * Generates Hsql triggers with BEGIN ATOMIC ... END bodies.
+     *
+     * @param statements The number of triggers to generate.
+     * @return The lines of the script.
+     */
+    static List<String> atomicTriggers(int statements) {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < statements; i++) {
+            lines.add("CREATE TRIGGER touch_" + i + " AFTER INSERT ON customer");
+            lines.add("REFERENCING NEW ROW AS newrow FOR EACH ROW");
+            lines.add("BEGIN ATOMIC");
+            lines.add("  INSERT INTO audit (customer_id, note) VALUES (newrow.id, 'It''s new; welcome');");
+            lines.add("  UPDATE customer SET note = 'audited' WHERE id = newrow.id;");
+            lines.add("END;");
+        }
+        return lines;
+    }
+
+    /**
+     * Generates H2 Java function aliases whose source is dollar quoted.
+     *
+     * @param statements The number of aliases to generate.
+     * @return The lines of the script.
+     */
+    static List<String> dollarQuotedAliases(int statements) {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < statements; i++) {
+            lines.add("CREATE ALIAS label_" + i + " AS $$");
+            lines.add("String label(String name) {");
+            lines.add("    return \"Customer: \" + name + \";\";");
+            lines.add("}");
+            lines.add("$$;");
+        }
+        return lines;
+    }
+
+    /**
+     * Generates multi-line DDL interleaved with single- and multi-line comments.
+     *
+     * @param statements The number of tables to generate.
+     * @return The lines of the script.
+     */
+    static List<String> commentedDdl(int statements) {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < statements; i++) {
+            lines.add("/*");
+            lines.add(" * Table " + i + "; holds the audit trail.");
+            lines.add(" */");
+            lines.add("CREATE TABLE audit_" + i + " (");
+            lines.add("  id INT NOT NULL, -- the key");
+            lines.add("  note VARCHAR(100) DEFAULT 'It''s new; welcome',");
+            lines.add("  PRIMARY KEY (id)");
+            lines.add(");");
+        }
+        return lines;
+    }
+
+    /**
+     * Adds this single-line statement followed by this delimiter.
+     *
+     * @param lines     The lines to add to.
+     * @param statement The statement, without delimiter.
+     * @param delimiter The delimiter.
+     */
+    private static void addStatement(List<String> lines, String statement, String delimiter) {
+        if (";".equals(delimiter)) {
+            lines.add(statement + delimiter);
+        } else {
+            lines.add(statement);
+            lines.add(delimiter);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.dbsupport;
+
+import com.googlecode.flyway.core.dbsupport.db2.DB2DbSupport;
+import com.googlecode.flyway.core.dbsupport.derby.DerbyDbSupport;
+import com.googlecode.flyway.core.dbsupport.h2.H2DbSupport;
+import com.googlecode.flyway.core.dbsupport.hsql.HsqlDbSupport;
+import com.googlecode.flyway.core.dbsupport.mysql.MySQLDbSupport;
+import com.googlecode.flyway.core.dbsupport.oracle.OracleDbSupport;
+import com.googlecode.flyway.core.dbsupport.postgresql.PostgreSQLDbSupport;
+import com.googlecode.flyway.core.dbsupport.sqlserver.SQLServerDbSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks splitting sql scripts into statements with the statement builder of every dialect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlScriptBenchmark {
+    /**
+     * The dialect whose statement builder to use.
+     */
+    @Param({"DB2", "Derby", "H2", "Hsql", "MySQL", "Oracle", "PostgreSQL", "SQLServer"})
+    public String dialect;
+
+    /**
+     * The number of statements or blocks in each generated script.
+     */
+    @Param({"10000"})
+    public int statements;
+
+    /**
+     * The script doing the parsing.
+     */
+    private SqlScript sqlScript;
+
+    /**
+     * A large data dump of single-line INSERT statements.
+     */
+    private List<String> insertDump;
+
+    /**
+     * The block constructs specific to this dialect.
+     */
+    private List<String> blocks;
+
+    @Setup
+    public void setUp() {
+        DbSupport dbSupport = createDbSupport(dialect);
+        sqlScript = new SqlScript(dbSupport);
+        insertDump = SqlCorpus.insertDump(statements, dbSupport.createSqlStatementBuilder().getDefaultDelimiter().getDelimiter());
+        blocks = SqlCorpus.blocks(dialect, statements);
+    }
+
+    @Benchmark
+    public List<SqlStatement> insertDump() {
+        return sqlScript.linesToStatements(insertDump);
+    }
+
+    @Benchmark
+    public List<SqlStatement> blocks() {
+        return sqlScript.linesToStatements(blocks);
+    }
+
+    /**
+     * Creates the DbSupport for this dialect. No connection is needed for parsing.
+     *
+     * @param dialect The name of the dialect.
+     * @return The DbSupport.
+     */
+    private static DbSupport createDbSupport(String dialect) {
+        if ("DB2".equals(dialect)) {
+            return new DB2DbSupport(null);
+        }
+        if ("Derby".equals(dialect)) {
+            return new DerbyDbSupport(null);
+        }
+        if ("H2".equals(dialect)) {
+            return new H2DbSupport(null);
+        }
+        if ("Hsql".equals(dialect)) {
+            return new HsqlDbSupport(null);
+        }
+        if ("MySQL".equals(dialect)) {
+            return new MySQLDbSupport(null);
+        }
+        if ("Oracle".equals(dialect)) {
+            return new OracleDbSupport(null);
+        }
+        if ("PostgreSQL".equals(dialect)) {
+            return new PostgreSQLDbSupport(null);
+        }
+        if ("SQLServer".equals(dialect)) {
+            return new SQLServerDbSupport(null);
+        }
+        throw new IllegalArgumentException("Unknown dialect: " + dialect);
+    }
+}
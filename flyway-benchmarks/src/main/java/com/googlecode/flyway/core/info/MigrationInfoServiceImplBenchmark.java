@@ -0,0 +1,106 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.info;
+
+import com.googlecode.flyway.core.api.MigrationType;
+import com.googlecode.flyway.core.api.MigrationVersion;
+import com.googlecode.flyway.core.metadatatable.AppliedMigration;
+import com.googlecode.flyway.core.resolver.ResolvedMigration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks merging the resolved and the applied migrations into the migration infos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MigrationInfoServiceImplBenchmark {
+    /**
+     * The number of resolved migrations.
+     */
+    @Param({"10000"})
+    public int migrations;
+
+    /**
+     * The percentage of the resolved migrations that has already been applied.
+     */
+    @Param({"0", "90", "100"})
+    public int appliedPercentage;
+
+    /**
+     * The service doing the merge.
+     */
+    private MigrationInfoServiceImpl migrationInfoService;
+
+    /**
+     * The resolved migrations.
+     */
+    private List<ResolvedMigration> resolvedMigrations;
+
+    /**
+     * The applied migrations.
+     */
+    private List<AppliedMigration> appliedMigrations;
+
+    @Setup
+    public void setUp() {
+        migrationInfoService = new MigrationInfoServiceImpl(null, null, MigrationVersion.LATEST, false);
+
+        resolvedMigrations = new ArrayList<ResolvedMigration>();
+        appliedMigrations = new ArrayList<AppliedMigration>();
+        int applied = migrations * appliedPercentage / 100;
+        for (int i = 1; i <= migrations; i++) {
+            MigrationVersion version = MigrationVersion.fromVersion("1." + i);
+            String script = "V1_" + i + "__Migration_" + i + ".sql";
+
+            ResolvedMigration resolvedMigration = new ResolvedMigration();
+            resolvedMigration.setVersion(version);
+            resolvedMigration.setDescription("Migration " + i);
+            resolvedMigration.setScript(script);
+            resolvedMigration.setChecksum(i);
+            resolvedMigration.setType(MigrationType.SQL);
+            resolvedMigrations.add(resolvedMigration);
+
+            if (i <= applied) {
+                appliedMigrations.add(new AppliedMigration(i, i, version, "Migration " + i, MigrationType.SQL,
+                        script, i, new Date(), "flyway", 10, true));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<MigrationInfoImpl> merge() {
+        return migrationInfoService.mergeAvailableAndAppliedMigrations(resolvedMigrations, appliedMigrations);
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.metadatatable;
+
+import com.googlecode.flyway.core.api.MigrationVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks turning the version strings of a metadata table into sorted versions, as done each time the table is
+ * read, with and without the version interning of MetaDataTableImpl.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetaDataTableImplBenchmark {
+    /**
+     * The number of applied migrations in the metadata table.
+     */
+    private static final int COUNT = 100000;
+
+    /**
+     * The version strings, as read from the metadata table.
+     */
+    private String[] versionStrings;
+
+    @Setup
+    public void setUp() {
+        versionStrings = new String[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            versionStrings[i] = (i / 1000) + "." + ((i / 10) % 100) + "." + (i % 10);
+        }
+
+        // A previous read of the metadata table interned all versions
+        for (String versionString : versionStrings) {
+            MetaDataTableImpl.internVersion(versionString);
+        }
+    }
+
+    @Benchmark
+    public MigrationVersion[] parse() {
+        MigrationVersion[] result = new MigrationVersion[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            result[i] = MigrationVersion.fromVersion(versionStrings[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public MigrationVersion[] intern() {
+        MigrationVersion[] result = new MigrationVersion[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            result[i] = MetaDataTableImpl.internVersion(versionStrings[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public MigrationVersion[] parseAndSort() {
+        MigrationVersion[] result = parse();
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Benchmark
+    public MigrationVersion[] internAndSort() {
+        MigrationVersion[] result = intern();
+        Arrays.sort(result);
+        return result;
+    }
+}
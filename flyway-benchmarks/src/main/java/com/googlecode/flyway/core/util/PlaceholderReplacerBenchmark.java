@@ -0,0 +1,107 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks replacing the placeholders of a large script, both as a whole and line by line as streaming does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceholderReplacerBenchmark {
+    /**
+     * The number of lines in the script.
+     */
+    @Param({"10000"})
+    public int lines;
+
+    /**
+     * Every how many lines a placeholder occurs. 1 means every line contains one.
+     */
+    @Param({"1", "100"})
+    public int placeholderEvery;
+
+    /**
+     * The replacer under test.
+     */
+    private PlaceholderReplacer placeholderReplacer;
+
+    /**
+     * The script as a whole.
+     */
+    private String script;
+
+    /**
+     * The script split into lines.
+     */
+    private String[] scriptLines;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> placeholders = new HashMap<String, String>();
+        for (int i = 0; i < 20; i++) {
+            placeholders.put("placeholder" + i, "value" + i);
+        }
+        placeholderReplacer = new PlaceholderReplacer(placeholders, "${", "}");
+
+        StringBuilder builder = new StringBuilder();
+        scriptLines = new String[lines];
+        for (int i = 0; i < lines; i++) {
+            String line;
+            if (i % placeholderEvery == 0) {
+                line = "INSERT INTO ${placeholder" + (i % 20) + "}.customer (id, name) VALUES (" + i + ", 'Customer " + i + "');";
+            } else {
+                line = "INSERT INTO customer (id, name) VALUES (" + i + ", 'Customer " + i + "');";
+            }
+            scriptLines[i] = line;
+            builder.append(line).append("\n");
+        }
+        script = builder.toString();
+    }
+
+    @Benchmark
+    public String wholeScript() {
+        return placeholderReplacer.replacePlaceholders(script);
+    }
+
+    @Benchmark
+    public int lineByLine() {
+        int length = 0;
+        for (String line : scriptLines) {
+            length += placeholderReplacer.replacePlaceholders(line).length();
+        }
+        return length;
+    }
+}
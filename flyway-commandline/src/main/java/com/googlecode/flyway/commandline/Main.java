@@ -232,9 +232,20 @@ public class Main {
         LOG.info("initVersion            : Version to tag schema with when executing init");
         LOG.info("initDescription        : Description to tag schema with when executing init");
         LOG.info("initOnMigrate          : Init on migrate against uninitialized non-empty schema");
+        LOG.info("stream                 : Stream Sql migrations instead of loading them upfront");
+        LOG.info("batchSize              : Max number of consecutive DML statements to batch");
+        LOG.info("advisoryLock           : Use an advisory lock instead of locking metadata table");
+        LOG.info("lockTimeout            : Max seconds to wait for the advisory lock");
+        LOG.info("fingerprint            : Skip migrate and validate when migrations are unchanged");
+        LOG.info("useManifest            : Read classpath migrations from the manifest");
+        LOG.info("checksumValidationLimit: Number of latest checksums to validate (0 = all)");
+        LOG.info("cleanParallelism       : Max number of connections to clean with");
+        LOG.info("recreateSchemasOnClean : Clean by dropping and recreating the schemas");
+        LOG.info("scanParallelism        : Max number of directories to scan concurrently");
         LOG.info("configFile             : Config file to use (default: conf/flyway.properties)");
         LOG.info("configFileEncoding     : Encoding of the config file (default: UTF-8)");
         LOG.info("jarDir                 : Dir for Jdbc drivers & Java migrations (default: jars)");
+        LOG.info("cacheFile              : File to cache resolved Sql migrations in between runs");
         LOG.info("");
         LOG.info("Add -X to print debug output");
         LOG.info("");
@@ -267,9 +278,11 @@ public class Main {
             System.exit(1);
         }
 
-        for (File file : files) {
-            addJarOrDirectoryToClasspath(file.getPath());
+        String[] names = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            names[i] = files[i].getPath();
         }
+        addJarsOrDirectoriesToClasspath(names);
     }
 
     /**
@@ -280,13 +293,29 @@ public class Main {
      */
     /* private -> for testing */
     static void addJarOrDirectoryToClasspath(String name) throws IOException {
-        LOG.debug("Adding location to classpath: " + name);
+        addJarsOrDirectoriesToClasspath(name);
+    }
+
+    /**
+     * Adds the jars and directories with these names to the classpath, using a single classloader for all of them.
+     *
+     * @param names The names of the jars and directories to add.
+     * @throws IOException when a jar or directory could not be found.
+     */
+    private static void addJarsOrDirectoriesToClasspath(String... names) throws IOException {
+        if (names.length == 0) {
+            return;
+        }
+
+        URL[] urls = new URL[names.length];
+        for (int i = 0; i < names.length; i++) {
+            LOG.debug("Adding location to classpath: " + names[i]);
+            urls[i] = new File(names[i]).toURI().toURL();
+        }
 
-        // Add the jar or dir to the classpath
+        // Add the jars and dirs to the classpath
         // Chain the current thread classloader
-        URLClassLoader urlClassLoader = new URLClassLoader(
-                new URL[]{new File(name).toURI().toURL()},
-                Thread.currentThread().getContextClassLoader());
+        URLClassLoader urlClassLoader = new URLClassLoader(urls, Thread.currentThread().getContextClassLoader());
 
         // Replace the thread classloader - assumes
         // you have permissions to do so
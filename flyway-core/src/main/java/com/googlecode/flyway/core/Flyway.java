@@ -15,14 +15,17 @@
  */
 package com.googlecode.flyway.core;
 
+import com.googlecode.flyway.core.api.ExecutionResult;
 import com.googlecode.flyway.core.api.FlywayException;
 import com.googlecode.flyway.core.api.MigrationInfo;
 import com.googlecode.flyway.core.api.MigrationInfoService;
 import com.googlecode.flyway.core.api.MigrationVersion;
 import com.googlecode.flyway.core.command.DbClean;
+import com.googlecode.flyway.core.command.DbFingerprint;
 import com.googlecode.flyway.core.command.DbInit;
 import com.googlecode.flyway.core.command.DbMigrate;
 import com.googlecode.flyway.core.command.DbSchemas;
+import com.googlecode.flyway.core.command.DbSnapshot;
 import com.googlecode.flyway.core.command.DbValidate;
 import com.googlecode.flyway.core.dbsupport.DbSupport;
 import com.googlecode.flyway.core.dbsupport.DbSupportFactory;
@@ -33,8 +36,14 @@ import com.googlecode.flyway.core.metadatatable.MetaDataTableImpl;
 import com.googlecode.flyway.core.metadatatable.MetaDataTableRow;
 import com.googlecode.flyway.core.migration.SchemaVersion;
 import com.googlecode.flyway.core.resolver.CompositeMigrationResolver;
+import com.googlecode.flyway.core.resolver.MigrationManifest;
 import com.googlecode.flyway.core.resolver.MigrationResolver;
+import com.googlecode.flyway.core.resolver.ResolutionCache;
+import com.googlecode.flyway.core.resolver.ResolvedMigration;
+import com.googlecode.flyway.core.resolver.sql.SqlMigrationExecutor;
+import com.googlecode.flyway.core.util.Location;
 import com.googlecode.flyway.core.util.Locations;
+import com.googlecode.flyway.core.util.ParallelExecutor;
 import com.googlecode.flyway.core.util.StringUtils;
 import com.googlecode.flyway.core.util.jdbc.DriverDataSource;
 import com.googlecode.flyway.core.util.jdbc.JdbcUtils;
@@ -44,12 +53,19 @@ import com.googlecode.flyway.core.validation.ValidationErrorMode;
 import com.googlecode.flyway.core.validation.ValidationMode;
 
 import javax.sql.DataSource;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 
 /**
  * This is the centre point of Flyway, and for most users, the only class they will ever have to deal with.
@@ -195,11 +211,117 @@ public class Flyway {
      */
     private boolean outOfOrder;
 
+    /**
+     * Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     * <p>When streaming, statements are read and executed one at a time, which keeps the memory usage bounded by the
+     * size of the largest statement instead of the size of the whole script. This is useful for very large
+     * migrations such as data loads.</p>
+     * <p>(default: {@code false})</p>
+     */
+    private boolean stream;
+
+    /**
+     * The maximum number of consecutive data manipulation statements (INSERT, UPDATE, DELETE, MERGE) of a sql migration
+     * to send to the database as a single JDBC batch.
+     * <p>Batching saves a network round trip per statement, which greatly speeds up migrations loading large amounts of
+     * data. Other statements are still executed one by one, in order. {@code 0} disables batching.</p>
+     * <p>(default: {@code 0})</p>
+     */
+    private int batchSize;
+
+    /**
+     * The maximum number of directories to list concurrently when scanning filesystem locations for sql migrations.
+     * <p>Listing several directories at once hides the latency of network filesystems holding deep migration trees.
+     * {@code 1} lists them one by one.</p>
+     * <p>(default: {@code 1})</p>
+     */
+    private int scanParallelism = 1;
+
+    /**
+     * Whether to coordinate concurrent migrations using a native advisory lock (PostgreSQL, MySQL, SQL Server and
+     * Oracle with EXECUTE on DBMS_LOCK) instead of locking the metadata table.
+     * <p>Advisory locks do not block readers of the metadata table. Flyway falls back to locking the metadata table
+     * on databases without advisory lock support.</p>
+     * <p>(default: {@code false})</p>
+     */
+    private boolean advisoryLock;
+
+    /**
+     * The maximum time to wait for the advisory lock (in seconds). A negative value waits indefinitely.
+     * <p>(default: {@code -1})</p>
+     */
+    private int lockTimeout = -1;
+
+    /**
+     * Whether to store a fingerprint of the available migrations next to the metadata table once the schema is fully
+     * migrated, and to skip migrate and validate entirely while it still matches.
+     * <p>This turns the startup check of an up-to-date schema into a single read without any lock. The fingerprint
+     * covers the version, type and checksum of all migrations up to the target, and is invalidated as soon as the
+     * metadata table changes.</p>
+     * <p>(default: {@code false})</p>
+     */
+    private boolean fingerprint;
+
+    /**
+     * Whether to read the migrations of the classpath locations covered by the migration manifest
+     * ({@link MigrationManifest#PATH}) from it instead of scanning the classpath.
+     * <p>The manifest must be regenerated whenever migrations are added, as migrations it doesn't list are not found
+     * in the locations it covers.</p>
+     * <p>(default: {@code false})</p>
+     */
+    private boolean useManifest;
+
+    /**
+     * The number of most recently applied migrations whose checksum is compared with the one of the available
+     * migration during validation. {@code 0} validates the checksums of all applied migrations.
+     * <p>The contents of the other applied migrations are never read, which keeps the cost of validation on long-lived
+     * databases proportional to the recent changes instead of the full history. Changes to older migrations go
+     * unnoticed.</p>
+     * <p>(default: {@code 0})</p>
+     */
+    private int checksumValidationLimit;
+
+    /**
+     * The file in which to cache the sql migrations resolved from filesystem locations between runs. {@code null} to
+     * disable the cache.
+     * <p>Migrations whose file still has the same size and last modification time are taken from the cache instead of
+     * being read again to calculate their checksum.</p>
+     * <p>(default: {@code null})</p>
+     */
+    private String cacheFile;
+
+    /**
+     * The maximum number of connections to use concurrently when cleaning the database.
+     * <p>With several schemas, each schema is cleaned on a connection of its own. With a single schema, the tables
+     * that don't depend on each other (through foreign keys or views) are dropped concurrently on databases that can
+     * tell these dependencies: H2, PostgreSQL and Oracle, where this also covers views and types. A single schema is
+     * always cleaned sequentially on all other databases. Whatever couldn't be cleaned concurrently is then cleaned
+     * sequentially as usual. {@code 1} cleans everything sequentially on a single connection.</p>
+     * <p>(default: {@code 1})</p>
+     */
+    private int cleanParallelism = 1;
+
+    /**
+     * Whether to clean the schemas by dropping and recreating them with the same owner and privileges, instead of
+     * dropping all their objects one by one. This is much faster on databases that can drop a schema with all its
+     * contents (H2, Hsql and PostgreSQL). The schemas are cleaned normally on all other databases, including SQL
+     * Server, which has no DROP SCHEMA ... CASCADE.
+     * <p>On PostgreSQL, the comments of the schemas are restored too. Schemas with default privileges for new objects
+     * are cleaned normally, as these would be lost.</p>
+     * <p>(default: {@code false})</p>
+     */
+    private boolean recreateSchemasOnClean;
+
     /**
      * The dataSource to use to access the database. Must have the necessary privileges to execute ddl.
      */
     private DataSource dataSource;
 
+    /**
+     * The snapshots taken by {@link #reset()} so far, by database and set of schemas.
+     */
+    private final Map<String, DbSnapshot.Snapshot> snapshots = new HashMap<String, DbSnapshot.Snapshot>();
+
     /**
      * Creates a new instance of Flyway. This is your starting point.
      */
@@ -469,6 +591,113 @@ public class Flyway {
         return outOfOrder;
     }
 
+    /**
+     * Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     * <p>When streaming, statements are read and executed one at a time, which keeps the memory usage bounded by the
+     * size of the largest statement instead of the size of the whole script.</p>
+     *
+     * @return {@code true} if sql migrations should be streamed, {@code false} if not. (default: {@code false})
+     */
+    public boolean isStream() {
+        return stream;
+    }
+
+    /**
+     * Retrieves the maximum number of consecutive data manipulation statements (INSERT, UPDATE, DELETE, MERGE) of a sql
+     * migration to send to the database as a single JDBC batch.
+     *
+     * @return The maximum batch size. {@code 0} if batching is disabled. (default: {@code 0})
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Retrieves the maximum number of directories to list concurrently when scanning filesystem locations for sql
+     * migrations.
+     *
+     * @return The maximum number of directories. {@code 1} if they are listed one by one. (default: {@code 1})
+     */
+    public int getScanParallelism() {
+        return scanParallelism;
+    }
+
+    /**
+     * Whether to coordinate concurrent migrations using a native advisory lock (PostgreSQL, MySQL, SQL Server and
+     * Oracle with EXECUTE on DBMS_LOCK) instead of locking the metadata table.
+     *
+     * @return {@code true} if advisory locks should be used, {@code false} if not. (default: {@code false})
+     */
+    public boolean isAdvisoryLock() {
+        return advisoryLock;
+    }
+
+    /**
+     * Retrieves the maximum time to wait for the advisory lock.
+     *
+     * @return The timeout in seconds. A negative value waits indefinitely. (default: {@code -1})
+     */
+    public int getLockTimeout() {
+        return lockTimeout;
+    }
+
+    /**
+     * Whether to store a fingerprint of the available migrations next to the metadata table once the schema is fully
+     * migrated, and to skip migrate and validate entirely while it still matches.
+     *
+     * @return {@code true} if the fingerprint should be used, {@code false} if not. (default: {@code false})
+     */
+    public boolean isFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Whether to read the migrations of the classpath locations covered by the migration manifest from it instead of
+     * scanning the classpath.
+     *
+     * @return {@code true} if the manifest should be used, {@code false} if not. (default: {@code false})
+     */
+    public boolean isUseManifest() {
+        return useManifest;
+    }
+
+    /**
+     * Retrieves the number of most recently applied migrations whose checksum is compared with the one of the available
+     * migration during validation.
+     *
+     * @return The number of migrations. {@code 0} if all checksums are validated. (default: {@code 0})
+     */
+    public int getChecksumValidationLimit() {
+        return checksumValidationLimit;
+    }
+
+    /**
+     * Retrieves the file in which to cache the sql migrations resolved from filesystem locations between runs.
+     *
+     * @return The path of the cache file. {@code null} if the cache is disabled. (default: {@code null})
+     */
+    public String getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * Retrieves the maximum number of connections to use concurrently when cleaning the database.
+     *
+     * @return The maximum number of connections. {@code 1} if everything is cleaned sequentially. (default: {@code 1})
+     */
+    public int getCleanParallelism() {
+        return cleanParallelism;
+    }
+
+    /**
+     * Checks whether the schemas are cleaned by dropping and recreating them.
+     *
+     * @return {@code true} if they are, {@code false} if their objects are dropped one by one. (default: {@code false})
+     */
+    public boolean isRecreateSchemasOnClean() {
+        return recreateSchemasOnClean;
+    }
+
     /**
      * Retrieves the dataSource to use to access the database. Must have the necessary privileges to execute ddl.
      *
@@ -808,6 +1037,128 @@ public class Flyway {
         this.outOfOrder = outOfOrder;
     }
 
+    /**
+     * Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     * <p>When streaming, statements are read and executed one at a time, which keeps the memory usage bounded by the
+     * size of the largest statement instead of the size of the whole script.</p>
+     *
+     * @param stream {@code true} if sql migrations should be streamed, {@code false} if not. (default: {@code false})
+     */
+    public void setStream(boolean stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Sets the maximum number of consecutive data manipulation statements (INSERT, UPDATE, DELETE, MERGE) of a sql
+     * migration to send to the database as a single JDBC batch.
+     * <p>Batching saves a network round trip per statement, which greatly speeds up migrations loading large amounts of
+     * data. Other statements are still executed one by one, in order.</p>
+     *
+     * @param batchSize The maximum batch size. {@code 0} to disable batching. (default: {@code 0})
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets the maximum number of directories to list concurrently when scanning filesystem locations for sql
+     * migrations.
+     * <p>Listing several directories at once hides the latency of network filesystems holding deep migration trees.</p>
+     *
+     * @param scanParallelism The maximum number of directories. {@code 1} to list them one by one. (default: {@code 1})
+     */
+    public void setScanParallelism(int scanParallelism) {
+        this.scanParallelism = scanParallelism;
+    }
+
+    /**
+     * Whether to coordinate concurrent migrations using a native advisory lock (PostgreSQL, MySQL, SQL Server and
+     * Oracle with EXECUTE on DBMS_LOCK) instead of locking the metadata table.
+     * <p>Advisory locks do not block readers of the metadata table. Flyway falls back to locking the metadata table
+     * on databases without advisory lock support.</p>
+     *
+     * @param advisoryLock {@code true} if advisory locks should be used, {@code false} if not. (default: {@code false})
+     */
+    public void setAdvisoryLock(boolean advisoryLock) {
+        this.advisoryLock = advisoryLock;
+    }
+
+    /**
+     * Sets the maximum time to wait for the advisory lock. Migration fails if the lock can't be acquired in time.
+     *
+     * @param lockTimeout The timeout in seconds. A negative value waits indefinitely. (default: {@code -1})
+     */
+    public void setLockTimeout(int lockTimeout) {
+        this.lockTimeout = lockTimeout;
+    }
+
+    /**
+     * Whether to store a fingerprint of the available migrations next to the metadata table once the schema is fully
+     * migrated, and to skip migrate and validate entirely while it still matches.
+     * <p>This turns the startup check of an up-to-date schema into a single read without any lock. The fingerprint
+     * is stored in a table named like the metadata table with a {@code _fp} suffix.</p>
+     *
+     * @param fingerprint {@code true} if the fingerprint should be used, {@code false} if not. (default: {@code false})
+     */
+    public void setFingerprint(boolean fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Whether to read the migrations of the classpath locations covered by the migration manifest
+     * ({@link MigrationManifest#PATH}) from it instead of scanning the classpath. The manifest must be regenerated
+     * whenever migrations are added, as migrations it doesn't list are not found in the locations it covers.
+     *
+     * @param useManifest {@code true} if the manifest should be used, {@code false} if not. (default: {@code false})
+     */
+    public void setUseManifest(boolean useManifest) {
+        this.useManifest = useManifest;
+    }
+
+    /**
+     * Sets the number of most recently applied migrations whose checksum is compared with the one of the available
+     * migration during validation. The contents of the other applied migrations are never read, but changes to them
+     * go unnoticed.
+     *
+     * @param checksumValidationLimit The number of migrations. {@code 0} to validate all checksums. (default: {@code 0})
+     */
+    public void setChecksumValidationLimit(int checksumValidationLimit) {
+        this.checksumValidationLimit = checksumValidationLimit;
+    }
+
+    /**
+     * Sets the file in which to cache the sql migrations resolved from filesystem locations between runs. Migrations
+     * whose file still has the same size and last modification time are then not read again.
+     *
+     * @param cacheFile The path of the cache file. {@code null} to disable the cache. (default: {@code null})
+     */
+    public void setCacheFile(String cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Sets the maximum number of connections to use concurrently when cleaning the database. Several schemas are then
+     * cleaned concurrently, and so are the independent tables of a single schema on H2, PostgreSQL and Oracle.
+     *
+     * @param cleanParallelism The maximum number of connections. {@code 1} to clean everything sequentially.
+     *                         (default: {@code 1})
+     */
+    public void setCleanParallelism(int cleanParallelism) {
+        this.cleanParallelism = cleanParallelism;
+    }
+
+    /**
+     * Sets whether to clean the schemas by dropping and recreating them with the same owner and privileges, on
+     * databases that can drop a schema with all its contents (H2, Hsql and PostgreSQL). SQL Server isn't supported as
+     * it has no DROP SCHEMA ... CASCADE.
+     *
+     * @param recreateSchemasOnClean {@code true} to recreate the schemas, {@code false} to drop their objects one by
+     *                               one. (default: {@code false})
+     */
+    public void setRecreateSchemasOnClean(boolean recreateSchemasOnClean) {
+        this.recreateSchemasOnClean = recreateSchemasOnClean;
+    }
+
     /**
      * Starts the database migration. All pending migrations will be applied in order.
      * Calling migrate on an up-to-date database has no effect.
@@ -818,65 +1169,206 @@ public class Flyway {
     public int migrate() throws FlywayException {
         return execute(new Command<Integer>() {
             public Integer execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
-                MigrationResolver migrationResolver = createMigrationResolver(dbSupport);
-                MetaDataTable metaDataTable =
-                        new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), migrationResolver);
+                return doMigrate(connectionMetaDataTable, connectionUserObjects, dbSupport, schemas,
+                        createMigrationResolver(dbSupport));
+            }
+        });
+    }
 
-                if (validateOnMigrate) {
-                    doValidate(connectionMetaDataTable, migrationResolver, metaDataTable, schemas);
+    /**
+     * Migrates each of these schemas on its own, exactly as {@link #migrate()} would if it was the only schema managed
+     * by Flyway. This is meant for schema-per-tenant setups with many identical schemas.
+     * <p>The available migrations are resolved and parsed only once and shared by all schemas. The schemas are
+     * migrated concurrently, each with its own connections and metadata table. A failure for one schema doesn't
+     * affect the others.</p>
+     * <p>The migrations are resolved on connections which are released again before the schemas are migrated, so no
+     * more than two connections per schema being migrated are in use at any time.</p>
+     * <p>Derby, and other databases which lock their system catalog for the duration of a ddl transaction, can't
+     * migrate several schemas concurrently: their concurrent ddl transactions deadlock. Use a parallelism of 1 for
+     * them.</p>
+     *
+     * @param parallelism   The maximum number of schemas to migrate concurrently. Each of them uses two connections.
+     *                      Must be 1 on Derby.
+     * @param tenantSchemas The schemas to migrate.
+     * @return The number of successfully applied migrations or the failure for each schema, in the same order.
+     * @throws FlywayException when the migrations could not be resolved.
+     */
+    public List<ExecutionResult<Integer>> migrateTenants(int parallelism, String... tenantSchemas) throws FlywayException {
+        final MigrationResolver migrationResolver = execute(new Command<MigrationResolver>() {
+            public MigrationResolver execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
+                return createSharedMigrationResolver(dbSupport);
+            }
+        });
+
+        Map<String, Callable<Integer>> tasks = new LinkedHashMap<String, Callable<Integer>>();
+        for (final String tenantSchema : tenantSchemas) {
+            tasks.put(tenantSchema, new Callable<Integer>() {
+                public Integer call() {
+                    return execute(dataSource, new String[]{tenantSchema}, new Command<Integer>() {
+                        public Integer execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
+                            return doMigrate(connectionMetaDataTable, connectionUserObjects, dbSupport, schemas, migrationResolver);
+                        }
+                    });
                 }
+            });
+        }
 
-                new DbSchemas(connectionMetaDataTable, schemas, metaDataTable).create();
+        List<ExecutionResult<Integer>> results = ParallelExecutor.execute(parallelism, tasks);
+        int failed = 0;
+        for (ExecutionResult<Integer> result : results) {
+            if (!result.isSuccess()) {
+                LOG.error("Migration of schema " + result.getName() + " failed: " + result.getException().getMessage());
+                failed++;
+            }
+        }
+        LOG.info("Migrated " + (results.size() - failed) + " of " + results.size() + " schemas"
+                + (failed == 0 ? "" : " (" + failed + " failed)"));
+        return results;
+    }
+
+    /**
+     * Migrates each of these databases, as {@link #migrate()} would for each of them. This is meant for sharded
+     * setups with many identical databases.
+     * <p>The available migrations are resolved and parsed only once and shared by all databases of the same type. The
+     * databases are migrated concurrently. A failure or timeout for one database, including a database that can't be
+     * reached, doesn't affect the others.</p>
+     *
+     * @param dataSources The dataSources to use to access the databases.
+     * @param parallelism The maximum number of databases to migrate concurrently. Each of them uses two connections.
+     * @param timeout     The maximum time to spend on each database (in seconds). A negative value waits
+     *                    indefinitely. A database that times out is reported as failed, but its migration can't be
+     *                    aborted and may still complete in the background.
+     * @return The number of successfully applied migrations or the failure for each database, in the same order.
+     * @throws FlywayException when the migrations could not be resolved against the first database that can be
+     *                         reached.
+     */
+    public List<ExecutionResult<Integer>> migrate(List<DataSource> dataSources, int parallelism, int timeout) throws FlywayException {
+        return execute(dataSources, parallelism, timeout, new SharedResolverCommand<Integer>() {
+            public Integer execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas, MigrationResolver migrationResolver) {
+                return doMigrate(connectionMetaDataTable, connectionUserObjects, dbSupport, schemas, migrationResolver);
+            }
+        });
+    }
 
-                if (!metaDataTable.hasSchemasMarker() && !metaDataTable.hasInitMarker() && !metaDataTable.hasAppliedMigrations()) {
-                    List<Schema> nonEmptySchemas = new ArrayList<Schema>();
-                    for (Schema schema : schemas) {
-                        if (!schema.empty()) {
-                            nonEmptySchemas.add(schema);
-                        }
-                    }
+    /**
+     * Validates the applied migrations of each of these databases, as {@link #validate()} would for each of them. The
+     * available migrations are resolved only once and shared by all databases.
+     *
+     * @param dataSources The dataSources to use to access the databases.
+     * @param parallelism The maximum number of databases to validate concurrently. Each of them uses two connections.
+     * @param timeout     The maximum time to spend on each database (in seconds). A negative value waits
+     *                    indefinitely.
+     * @return The outcome of the validation of each database, in the same order. A database that can't be reached is
+     * reported as failed.
+     * @throws FlywayException when the migrations could not be resolved against the first database that can be
+     *                         reached.
+     */
+    public List<ExecutionResult<Void>> validate(List<DataSource> dataSources, int parallelism, int timeout) throws FlywayException {
+        return execute(dataSources, parallelism, timeout, new SharedResolverCommand<Void>() {
+            public Void execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas, MigrationResolver migrationResolver) {
+                doValidate(connectionMetaDataTable, dbSupport, schemas, migrationResolver);
+                return null;
+            }
+        });
+    }
 
-                    if (initOnMigrate || disableInitCheck || nonEmptySchemas.isEmpty()) {
-                        if (initOnMigrate && !nonEmptySchemas.isEmpty()) {
-                            new DbInit(connectionMetaDataTable, metaDataTable, initVersion, initDescription).init();
-                        }
-                    } else {
-                        if (nonEmptySchemas.size() == 1) {
-                            Schema schema = nonEmptySchemas.get(0);
-                            //Check whether we only have an empty metadata table in an otherwise empty schema
-                            if (schema.allTables().length != 1 || !schema.getTable(table).exists()) {
-                                throw new FlywayException("Found non-empty schema " + schema
-                                        + " without metadata table! Use init()"
-                                        + " or set initOnMigrate to true to initialize the metadata table.");
-                            }
-                        } else {
-                            throw new FlywayException("Found non-empty schemas "
-                                    + StringUtils.collectionToCommaDelimitedString(nonEmptySchemas)
-                                    + " without metadata table! Use init()"
-                                    + " or set initOnMigrate to true to initialize the metadata table.");
-                        }
-                    }
-                }
+    /**
+     * Performs the actual migration. All set up must have taken place beforehand.
+     *
+     * @param connectionMetaDataTable The database connection for the metadata table changes.
+     * @param connectionUserObjects   The database connection for user object changes.
+     * @param dbSupport               The database-specific support for these connections.
+     * @param schemas                 The schemas managed by Flyway.
+     * @param migrationResolver       The migration resolver.
+     * @return The number of successfully applied migrations.
+     */
+    private int doMigrate(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport,
+                          Schema[] schemas, MigrationResolver migrationResolver) {
+        return doMigrate(connectionMetaDataTable, connectionUserObjects, dbSupport,
+                DbSupportFactory.createDbSupport(connectionUserObjects), schemas, migrationResolver);
+    }
+
+    /**
+     * Performs the actual migration.
+     *
+     * @param connectionMetaDataTable The database connection for the metadata table changes.
+     * @param connectionUserObjects   The database connection for user object changes.
+     * @param dbSupport               The database-specific support for the metadata table connection.
+     * @param dbSupportUserObjects    The database-specific support for the user objects connection.
+     * @param schemas                 The schemas managed by Flyway.
+     * @param migrationResolver       The migration resolver.
+     * @return The number of successfully applied migrations.
+     */
+    int doMigrate(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport,
+                  DbSupport dbSupportUserObjects, Schema[] schemas, MigrationResolver migrationResolver) {
+        MetaDataTable metaDataTable =
+                new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), migrationResolver, advisoryLock, lockTimeout);
+
+        DbFingerprint dbFingerprint = null;
+        if (fingerprint) {
+            dbFingerprint = new DbFingerprint(connectionMetaDataTable, dbSupport, schemas[0].getTable(table),
+                    migrationResolver, target);
+            if (dbFingerprint.isUpToDate()) {
+                return 0;
+            }
+        }
+
+        if (validateOnMigrate) {
+            doValidate(connectionMetaDataTable, dbSupport, migrationResolver, metaDataTable, schemas);
+        }
 
-                DbSupport dbSupportUserObjects = DbSupportFactory.createDbSupport(connectionUserObjects);
-                Schema originalSchemaUserObjects = dbSupport.getCurrentSchema();
-                boolean schemaChange = !schemas[0].equals(originalSchemaUserObjects);
-                if (schemaChange) {
-                    dbSupportUserObjects.setCurrentSchema(schemas[0]);
+        new DbSchemas(connectionMetaDataTable, schemas, metaDataTable).create();
+
+        if (!metaDataTable.hasSchemasMarker() && !metaDataTable.hasInitMarker() && !metaDataTable.hasAppliedMigrations()) {
+            List<Schema> nonEmptySchemas = new ArrayList<Schema>();
+            for (Schema schema : schemas) {
+                if (!schema.empty()) {
+                    nonEmptySchemas.add(schema);
                 }
+            }
 
-                DbMigrate dbMigrator =
-                        new DbMigrate(connectionMetaDataTable, connectionUserObjects, dbSupport, metaDataTable,
-                                schemas[0], migrationResolver, target, ignoreFailedFutureMigration, outOfOrder);
-                try {
-                    return dbMigrator.migrate();
-                } finally {
-                    if (schemaChange) {
-                        dbSupportUserObjects.setCurrentSchema(originalSchemaUserObjects);
+            if (initOnMigrate || disableInitCheck || nonEmptySchemas.isEmpty()) {
+                if (initOnMigrate && !nonEmptySchemas.isEmpty()) {
+                    new DbInit(connectionMetaDataTable, metaDataTable, initVersion, initDescription).init();
+                }
+            } else {
+                if (nonEmptySchemas.size() == 1) {
+                    Schema schema = nonEmptySchemas.get(0);
+                    //Check whether we only have an empty metadata table in an otherwise empty schema
+                    if (schema.allTables().length != 1 || !schema.getTable(table).exists()) {
+                        throw new FlywayException("Found non-empty schema " + schema
+                                + " without metadata table! Use init()"
+                                + " or set initOnMigrate to true to initialize the metadata table.");
                     }
+                } else {
+                    throw new FlywayException("Found non-empty schemas "
+                            + StringUtils.collectionToCommaDelimitedString(nonEmptySchemas)
+                            + " without metadata table! Use init()"
+                            + " or set initOnMigrate to true to initialize the metadata table.");
                 }
             }
-        });
+        }
+
+        Schema originalSchemaUserObjects = dbSupport.getCurrentSchema();
+        boolean schemaChange = !schemas[0].equals(originalSchemaUserObjects);
+        if (schemaChange) {
+            dbSupportUserObjects.setCurrentSchema(schemas[0]);
+        }
+
+        DbMigrate dbMigrator =
+                new DbMigrate(connectionMetaDataTable, connectionUserObjects, dbSupport, metaDataTable,
+                        schemas[0], migrationResolver, target, ignoreFailedFutureMigration, outOfOrder);
+        try {
+            int migrationSuccessCount = dbMigrator.migrate();
+            if (dbFingerprint != null) {
+                dbFingerprint.store(metaDataTable, outOfOrder);
+            }
+            return migrationSuccessCount;
+        } finally {
+            if (schemaChange) {
+                dbSupportUserObjects.setCurrentSchema(originalSchemaUserObjects);
+            }
+        }
     }
 
     /**
@@ -887,32 +1379,52 @@ public class Flyway {
     public void validate() throws FlywayException {
         execute(new Command<Void>() {
             public Void execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
-                MigrationResolver migrationResolver = createMigrationResolver(dbSupport);
-                MetaDataTable metaDataTable =
-                        new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), migrationResolver);
-
-                doValidate(connectionMetaDataTable, migrationResolver, metaDataTable, schemas);
+                doValidate(connectionMetaDataTable, dbSupport, schemas, createMigrationResolver(dbSupport));
                 return null;
             }
         });
     }
 
+    /**
+     * Validates the applied migrations against the available ones, unless the migration fingerprint shows the schema
+     * is up to date.
+     *
+     * @param connectionMetaDataTable The database connection for the metadata table.
+     * @param dbSupport               The database-specific support for this connection.
+     * @param schemas                 The schemas managed by Flyway.
+     * @param migrationResolver       The migration resolver.
+     */
+    void doValidate(Connection connectionMetaDataTable, DbSupport dbSupport, Schema[] schemas,
+                    MigrationResolver migrationResolver) {
+        MetaDataTable metaDataTable =
+                new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), migrationResolver);
+
+        if (fingerprint && new DbFingerprint(connectionMetaDataTable, dbSupport, schemas[0].getTable(table),
+                migrationResolver, target).isUpToDate()) {
+            return;
+        }
+
+        doValidate(connectionMetaDataTable, dbSupport, migrationResolver, metaDataTable, schemas);
+    }
+
     /**
      * Performs the actual validation. All set up must have taken place beforehand.
      *
      * @param connectionMetaDataTable The database connection for the metadata table.
+     * @param dbSupport               The database-specific support for this connection.
      * @param migrationResolver       The migration resolver;
      * @param metaDataTable           The metadata table.
      * @param schemas                 The schemas managed by Flyway.
      */
-    private void doValidate(Connection connectionMetaDataTable, MigrationResolver migrationResolver,
+    private void doValidate(Connection connectionMetaDataTable, DbSupport dbSupport, MigrationResolver migrationResolver,
                             MetaDataTable metaDataTable, Schema[] schemas) {
         String validationError =
-                new DbValidate(connectionMetaDataTable, metaDataTable, migrationResolver, target, outOfOrder).validate();
+                new DbValidate(connectionMetaDataTable, metaDataTable, migrationResolver, target, outOfOrder,
+                        checksumValidationLimit).validate();
 
         if (validationError != null) {
             if (cleanOnValidationError) {
-                new DbClean(connectionMetaDataTable, metaDataTable, schemas).clean();
+                doClean(connectionMetaDataTable, dbSupport, schemas, migrationResolver);
             } else {
                 throw new FlywayException("Validate failed. Found differences between applied migrations and available migrations: " + validationError);
             }
@@ -928,14 +1440,77 @@ public class Flyway {
     public void clean() {
         execute(new Command<Void>() {
             public Void execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
-                MetaDataTableImpl metaDataTable =
-                        new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), createMigrationResolver(dbSupport));
-                new DbClean(connectionMetaDataTable, metaDataTable, schemas).clean();
+                doClean(connectionMetaDataTable, dbSupport, schemas, createMigrationResolver(dbSupport));
                 return null;
             }
         });
     }
 
+    /**
+     * Drops all objects in these schemas.
+     *
+     * @param connectionMetaDataTable The database connection for the metadata table.
+     * @param dbSupport               The database-specific support for this connection.
+     * @param schemas                 The schemas managed by Flyway.
+     * @param migrationResolver       The migration resolver.
+     */
+    void doClean(Connection connectionMetaDataTable, DbSupport dbSupport, Schema[] schemas,
+                 MigrationResolver migrationResolver) {
+        MetaDataTableImpl metaDataTable =
+                new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), migrationResolver);
+        new DbClean(connectionMetaDataTable, metaDataTable, schemas, dataSource, cleanParallelism,
+                recreateSchemasOnClean).clean();
+    }
+
+    /**
+     * Resets the configured schemas to the latest version. This is equivalent to {@code clean()} followed by
+     * {@code migrate()}, except that the fully migrated schemas are restored from a snapshot taken by a previous reset
+     * instead of replaying all migrations. The snapshot is held in memory by this Flyway instance until
+     * {@link #releaseSnapshots()} is called, and taken again whenever the available migrations or the placeholders
+     * change. Snapshots are currently only supported by H2. On all other databases, reset logs a warning and simply
+     * falls back to {@code clean()} followed by {@code migrate()}.
+     * <p>This is meant for resetting test databases between tests.</p>
+     *
+     * @return The number of successfully applied migrations. 0 if the schemas were restored from a snapshot.
+     * @throws FlywayException when the reset failed.
+     */
+    public int reset() throws FlywayException {
+        return execute(new Command<Integer>() {
+            public Integer execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
+                MigrationResolver migrationResolver = createMigrationResolver(dbSupport);
+                if (!dbSupport.supportsSnapshots()) {
+                    LOG.warn("Snapshots are not supported by this database. Resetting by clean followed by migrate ...");
+                    doClean(connectionMetaDataTable, dbSupport, schemas, migrationResolver);
+                    return doMigrate(connectionMetaDataTable, connectionUserObjects, dbSupport, schemas,
+                            migrationResolver);
+                }
+
+                DbSnapshot dbSnapshot = new DbSnapshot(connectionMetaDataTable, dbSupport, schemas, migrationResolver,
+                        target, placeholders, snapshots);
+
+                doClean(connectionMetaDataTable, dbSupport, schemas, migrationResolver);
+                if (dbSnapshot.restore()) {
+                    return 0;
+                }
+
+                int migrationSuccessCount = doMigrate(connectionMetaDataTable, connectionUserObjects, dbSupport, schemas,
+                        migrationResolver);
+                dbSnapshot.take();
+                return migrationSuccessCount;
+            }
+        });
+    }
+
+    /**
+     * Releases the snapshots taken by {@link #reset()}, freeing the memory they hold. The next reset migrates the
+     * schemas again.
+     */
+    public void releaseSnapshots() {
+        synchronized (snapshots) {
+            snapshots.clear();
+        }
+    }
+
     /**
      * Returns the status (current version) of the database.
      *
@@ -980,13 +1555,45 @@ public class Flyway {
     public MigrationInfoService info() {
         return execute(new Command<MigrationInfoService>() {
             public MigrationInfoService execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
-                MigrationResolver migrationResolver = createMigrationResolver(dbSupport);
-                MetaDataTable metaDataTable =
-                        new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), migrationResolver);
+                return doInfo(dbSupport, schemas, createMigrationResolver(dbSupport));
+            }
+        });
+    }
 
-                MigrationInfoServiceImpl migrationInfoService = new MigrationInfoServiceImpl(migrationResolver, metaDataTable, target, outOfOrder);
-                migrationInfoService.refresh();
-                return migrationInfoService;
+    /**
+     * Retrieves the complete information about all the migrations.
+     *
+     * @param dbSupport         The database-specific support.
+     * @param schemas           The schemas managed by Flyway.
+     * @param migrationResolver The migration resolver.
+     * @return All migrations sorted by version, oldest first.
+     */
+    MigrationInfoService doInfo(DbSupport dbSupport, Schema[] schemas, MigrationResolver migrationResolver) {
+        MetaDataTable metaDataTable =
+                new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), migrationResolver);
+
+        MigrationInfoServiceImpl migrationInfoService = new MigrationInfoServiceImpl(migrationResolver, metaDataTable, target, outOfOrder);
+        migrationInfoService.refresh();
+        return migrationInfoService;
+    }
+
+    /**
+     * Retrieves the complete information about all the migrations of each of these databases, as {@link #info()}
+     * would for each of them. The available migrations are resolved only once and shared by all databases.
+     *
+     * @param dataSources The dataSources to use to access the databases.
+     * @param parallelism The maximum number of databases to query concurrently. Each of them uses two connections.
+     * @param timeout     The maximum time to spend on each database (in seconds). A negative value waits
+     *                    indefinitely.
+     * @return The info or the failure for each database, in the same order. A database that can't be reached is
+     * reported as failed.
+     * @throws FlywayException when the migrations could not be resolved against the first database that can be
+     *                         reached.
+     */
+    public List<ExecutionResult<MigrationInfoService>> info(List<DataSource> dataSources, int parallelism, int timeout) throws FlywayException {
+        return execute(dataSources, parallelism, timeout, new SharedResolverCommand<MigrationInfoService>() {
+            public MigrationInfoService execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas, MigrationResolver migrationResolver) {
+                return doInfo(dbSupport, schemas, migrationResolver);
             }
         });
     }
@@ -999,16 +1606,28 @@ public class Flyway {
     public void init() throws FlywayException {
         execute(new Command<Void>() {
             public Void execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
-                MigrationResolver migrationResolver = createMigrationResolver(dbSupport);
-                MetaDataTable metaDataTable =
-                        new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), migrationResolver);
-                new DbSchemas(connectionMetaDataTable, schemas, metaDataTable).create();
-                new DbInit(connectionMetaDataTable, metaDataTable, initVersion, initDescription).init();
+                doInit(connectionMetaDataTable, dbSupport, schemas, createMigrationResolver(dbSupport));
                 return null;
             }
         });
     }
 
+    /**
+     * Creates and initializes the metadata table in the first of these schemas.
+     *
+     * @param connectionMetaDataTable The database connection for the metadata table.
+     * @param dbSupport               The database-specific support for this connection.
+     * @param schemas                 The schemas managed by Flyway.
+     * @param migrationResolver       The migration resolver.
+     */
+    void doInit(Connection connectionMetaDataTable, DbSupport dbSupport, Schema[] schemas,
+                MigrationResolver migrationResolver) {
+        MetaDataTable metaDataTable =
+                new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), migrationResolver);
+        new DbSchemas(connectionMetaDataTable, schemas, metaDataTable).create();
+        new DbInit(connectionMetaDataTable, metaDataTable, initVersion, initDescription).init();
+    }
+
     /**
      * Repairs the Flyway metadata table after a failed migration. User objects left behind must still be cleaned up
      * manually.
@@ -1018,12 +1637,103 @@ public class Flyway {
     public void repair() throws FlywayException {
         execute(new Command<Void>() {
             public Void execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
-                new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), createMigrationResolver(dbSupport)).repair();
+                doRepair(dbSupport, schemas, createMigrationResolver(dbSupport));
                 return null;
             }
         });
     }
 
+    /**
+     * Repairs the metadata table in the first of these schemas.
+     *
+     * @param dbSupport         The database-specific support.
+     * @param schemas           The schemas managed by Flyway.
+     * @param migrationResolver The migration resolver.
+     */
+    void doRepair(DbSupport dbSupport, Schema[] schemas, MigrationResolver migrationResolver) {
+        new MetaDataTableImpl(dbSupport, schemas[0].getTable(table), migrationResolver).repair();
+    }
+
+    /**
+     * Opens a session to execute several commands in a row against the configured DataSource and schemas. The
+     * session keeps its connections open and reuses the database-specific support, the schemas and the available
+     * migrations for all its commands, instead of setting them up again for each of them.
+     * <p>The DataSource, the schemas and all the settings used to resolve the available migrations (locations,
+     * encoding, placeholders, sql migration prefix and suffix, ...) are fixed when the session is opened. Changing them
+     * afterwards only affects sessions opened later.</p>
+     * <p>The session must be closed once done. It is not thread-safe.</p>
+     *
+     * @return The new session.
+     * @throws FlywayException when the session could not be opened.
+     */
+    public FlywaySession openSession() throws FlywayException {
+        if (dataSource == null) {
+            throw new FlywayException("DataSource not set! Check your configuration!");
+        }
+
+        Connection connectionMetaDataTable = null;
+        Connection connectionUserObjects = null;
+        try {
+            connectionMetaDataTable = JdbcUtils.openConnection(dataSource);
+            connectionUserObjects = JdbcUtils.openConnection(dataSource);
+
+            DbSupport dbSupport = DbSupportFactory.createDbSupport(connectionMetaDataTable);
+            LOG.debug("DDL Transactions Supported: " + dbSupport.supportsDdlTransactions());
+
+            Schema[] schemas = createSchemas(dbSupport, schemaNames);
+            if (schemaNames.length == 0) {
+                setSchemas(schemas[0].getName());
+            }
+
+            return new FlywaySession(this, connectionMetaDataTable, connectionUserObjects, dbSupport,
+                    DbSupportFactory.createDbSupport(connectionUserObjects), schemas, createMigrationResolver(dbSupport));
+        } catch (RuntimeException e) {
+            JdbcUtils.closeConnection(connectionUserObjects);
+            JdbcUtils.closeConnection(connectionMetaDataTable);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the migration manifest of the classpath locations to this file. This is meant to be done at build time,
+     * with the file ending up at {@link MigrationManifest#PATH} on the runtime classpath. With {@link #setUseManifest}
+     * enabled, the migrations of the locations it covers are then read from the manifest instead of being found by
+     * scanning the classpath.
+     * <p>No database connection is required.</p>
+     *
+     * @param outputFile The file to write the manifest to.
+     * @return The number of migrations in the manifest.
+     * @throws FlywayException when the manifest could not be written.
+     */
+    public int writeManifest(File outputFile) throws FlywayException {
+        MigrationManifest manifest = new CompositeMigrationResolver(null, locations, encoding, sqlMigrationPrefix,
+                sqlMigrationSuffix, placeholders, placeholderPrefix, placeholderSuffix, stream, batchSize, 1, null, false)
+                .createManifest();
+
+        File parentDir = outputFile.getParentFile();
+        if ((parentDir != null) && !parentDir.exists() && !parentDir.mkdirs()) {
+            throw new FlywayException("Unable to create directory: " + parentDir.getAbsolutePath());
+        }
+
+        try {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(outputFile), "UTF-8");
+            try {
+                manifest.write(writer);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new FlywayException("Unable to write migration manifest: " + outputFile.getAbsolutePath(), e);
+        }
+
+        int count = 0;
+        for (Location location : locations.getLocations()) {
+            count += manifest.getMigrations(location).size();
+        }
+        LOG.info("Wrote migration manifest with " + count + " migrations to " + outputFile.getAbsolutePath());
+        return count;
+    }
+
     /**
      * Creates the MigrationResolver.
      *
@@ -1032,7 +1742,30 @@ public class Flyway {
      * @return A new, fully configured, MigrationResolver instance.
      */
     private MigrationResolver createMigrationResolver(DbSupport dbSupport) {
-        return new CompositeMigrationResolver(dbSupport, locations, encoding, sqlMigrationPrefix, sqlMigrationSuffix, placeholders, placeholderPrefix, placeholderSuffix);
+        ResolutionCache resolutionCache = null;
+        if (StringUtils.hasText(cacheFile)) {
+            resolutionCache = ResolutionCache.load(new File(cacheFile), sqlMigrationPrefix, sqlMigrationSuffix);
+        }
+
+        return new CompositeMigrationResolver(dbSupport, locations, encoding, sqlMigrationPrefix, sqlMigrationSuffix, placeholders, placeholderPrefix, placeholderSuffix, stream, batchSize, scanParallelism, resolutionCache, useManifest);
+    }
+
+    /**
+     * Creates the MigrationResolver for migrations that will be executed against several schemas or databases. The
+     * migrations are resolved immediately and sql migrations keep their parsed scripts in memory, so both only
+     * happen once.
+     *
+     * @param dbSupport The database-specific support.
+     * @return A new, fully resolved MigrationResolver.
+     */
+    private MigrationResolver createSharedMigrationResolver(DbSupport dbSupport) {
+        MigrationResolver migrationResolver = createMigrationResolver(dbSupport);
+        for (ResolvedMigration resolvedMigration : migrationResolver.resolveMigrations()) {
+            if (resolvedMigration.getExecutor() instanceof SqlMigrationExecutor) {
+                ((SqlMigrationExecutor) resolvedMigration.getExecutor()).setCacheSqlScript(true);
+            }
+        }
+        return migrationResolver;
     }
 
     /**
@@ -1139,6 +1872,50 @@ public class Flyway {
         if (outOfOrderProp != null) {
             setOutOfOrder(Boolean.parseBoolean(outOfOrderProp));
         }
+        String streamProp = properties.getProperty("flyway.stream");
+        if (streamProp != null) {
+            setStream(Boolean.parseBoolean(streamProp));
+        }
+        String batchSizeProp = properties.getProperty("flyway.batchSize");
+        if (batchSizeProp != null) {
+            setBatchSize(Integer.parseInt(batchSizeProp));
+        }
+        String scanParallelismProp = properties.getProperty("flyway.scanParallelism");
+        if (scanParallelismProp != null) {
+            setScanParallelism(Integer.parseInt(scanParallelismProp));
+        }
+        String advisoryLockProp = properties.getProperty("flyway.advisoryLock");
+        if (advisoryLockProp != null) {
+            setAdvisoryLock(Boolean.parseBoolean(advisoryLockProp));
+        }
+        String lockTimeoutProp = properties.getProperty("flyway.lockTimeout");
+        if (lockTimeoutProp != null) {
+            setLockTimeout(Integer.parseInt(lockTimeoutProp));
+        }
+        String fingerprintProp = properties.getProperty("flyway.fingerprint");
+        if (fingerprintProp != null) {
+            setFingerprint(Boolean.parseBoolean(fingerprintProp));
+        }
+        String useManifestProp = properties.getProperty("flyway.useManifest");
+        if (useManifestProp != null) {
+            setUseManifest(Boolean.parseBoolean(useManifestProp));
+        }
+        String checksumValidationLimitProp = properties.getProperty("flyway.checksumValidationLimit");
+        if (checksumValidationLimitProp != null) {
+            setChecksumValidationLimit(Integer.parseInt(checksumValidationLimitProp));
+        }
+        String cacheFileProp = properties.getProperty("flyway.cacheFile");
+        if (cacheFileProp != null) {
+            setCacheFile(cacheFileProp);
+        }
+        String cleanParallelismProp = properties.getProperty("flyway.cleanParallelism");
+        if (cleanParallelismProp != null) {
+            setCleanParallelism(Integer.parseInt(cleanParallelismProp));
+        }
+        String recreateSchemasOnCleanProp = properties.getProperty("flyway.recreateSchemasOnClean");
+        if (recreateSchemasOnCleanProp != null) {
+            setRecreateSchemasOnClean(Boolean.parseBoolean(recreateSchemasOnCleanProp));
+        }
 
         Map<String, String> placeholdersFromProps = new HashMap<String, String>();
         for (Object property : properties.keySet()) {
@@ -1160,7 +1937,27 @@ public class Flyway {
      * @param <T>     The type of the result.
      * @return The result of the command.
      */
-    /*private -> testing*/ <T> T execute(Command<T> command) {
+    /*private -> testing*/ <T> T execute(final Command<T> command) {
+        return execute(dataSource, schemaNames, new Command<T>() {
+            public T execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
+                if (schemaNames.length == 0) {
+                    setSchemas(schemas[0].getName());
+                }
+                return command.execute(connectionMetaDataTable, connectionUserObjects, dbSupport, schemas);
+            }
+        });
+    }
+
+    /**
+     * Executes this command against this DataSource and these schemas with proper resource handling and cleanup.
+     *
+     * @param dataSource  The dataSource to use to access the database.
+     * @param schemaNames The schemas managed by Flyway. The current schema of the connection if none.
+     * @param command     The command to execute.
+     * @param <T>         The type of the result.
+     * @return The result of the command.
+     */
+    private <T> T execute(DataSource dataSource, String[] schemaNames, Command<T> command) {
         T result;
 
         Connection connectionMetaDataTable = null;
@@ -1177,25 +1974,7 @@ public class Flyway {
             DbSupport dbSupport = DbSupportFactory.createDbSupport(connectionMetaDataTable);
             LOG.debug("DDL Transactions Supported: " + dbSupport.supportsDdlTransactions());
 
-            if (schemaNames.length == 0) {
-                Schema currentSchema = dbSupport.getCurrentSchema();
-                if (currentSchema == null) {
-                    throw new FlywayException("Unable to determine schema for the metadata table." +
-                            " Set a default schema for the connection or specify one using the schemas property!");
-                }
-                setSchemas(currentSchema.getName());
-            }
-
-            if (schemaNames.length == 1) {
-                LOG.debug("Schema: " + schemaNames[0]);
-            } else {
-                LOG.debug("Schemas: " + StringUtils.arrayToCommaDelimitedString(schemaNames));
-            }
-
-            Schema[] schemas = new Schema[schemaNames.length];
-            for (int i = 0; i < schemaNames.length; i++) {
-                schemas[i] = dbSupport.getSchema(schemaNames[i]);
-            }
+            Schema[] schemas = createSchemas(dbSupport, schemaNames);
 
             result = command.execute(connectionMetaDataTable, connectionUserObjects, dbSupport, schemas);
         } finally {
@@ -1205,6 +1984,119 @@ public class Flyway {
         return result;
     }
 
+    /**
+     * Creates the schemas with these names.
+     *
+     * @param dbSupport   The database-specific support.
+     * @param schemaNames The schemas managed by Flyway. The current schema of the connection if none.
+     * @return The schemas.
+     * @throws FlywayException when no schema was specified and the current schema of the connection is unknown.
+     */
+    private Schema[] createSchemas(DbSupport dbSupport, String[] schemaNames) {
+        if (schemaNames.length == 0) {
+            Schema currentSchema = dbSupport.getCurrentSchema();
+            if (currentSchema == null) {
+                throw new FlywayException("Unable to determine schema for the metadata table." +
+                        " Set a default schema for the connection or specify one using the schemas property!");
+            }
+            schemaNames = new String[]{currentSchema.getName()};
+        }
+
+        if (schemaNames.length == 1) {
+            LOG.debug("Schema: " + schemaNames[0]);
+        } else {
+            LOG.debug("Schemas: " + StringUtils.arrayToCommaDelimitedString(schemaNames));
+        }
+
+        Schema[] schemas = new Schema[schemaNames.length];
+        for (int i = 0; i < schemaNames.length; i++) {
+            schemas[i] = dbSupport.getSchema(schemaNames[i]);
+        }
+        return schemas;
+    }
+
+    /**
+     * Executes this command concurrently against each of these DataSources, sharing the available migrations between
+     * all databases of the same type. The migrations are resolved upfront against the first database that can be
+     * reached, whose connection is closed again before the command is executed against any of the databases.
+     *
+     * @param dataSources The dataSources to use to access the databases.
+     * @param parallelism The maximum number of databases to execute the command against concurrently.
+     * @param timeout     The maximum execution time for each database (in seconds). A negative value waits
+     *                    indefinitely.
+     * @param command     The command to execute.
+     * @param <T>         The type of the result.
+     * @return The outcome of the command for each database, in the same order. A database that can't be reached is
+     * reported as failed.
+     * @throws FlywayException when the migrations could not be resolved.
+     */
+    private <T> List<ExecutionResult<T>> execute(List<DataSource> dataSources, int parallelism, int timeout,
+                                                 final SharedResolverCommand<T> command) {
+        DbSupport reachableDbSupport = null;
+        MigrationResolver resolvedMigrationResolver = null;
+        for (int i = 0; (i < dataSources.size()) && (reachableDbSupport == null); i++) {
+            Connection connection;
+            try {
+                connection = JdbcUtils.openConnection(dataSources.get(i));
+            } catch (FlywayException e) {
+                LOG.debug("Unable to resolve the migrations against " + getDataSourceName(dataSources.get(i), i)
+                        + ": " + e.getMessage());
+                continue;
+            }
+
+            try {
+                reachableDbSupport = DbSupportFactory.createDbSupport(connection);
+                resolvedMigrationResolver = createSharedMigrationResolver(reachableDbSupport);
+            } finally {
+                JdbcUtils.closeConnection(connection);
+            }
+        }
+
+        final DbSupport sharedDbSupport = reachableDbSupport;
+        final MigrationResolver sharedMigrationResolver = resolvedMigrationResolver;
+
+        Map<String, Callable<T>> tasks = new LinkedHashMap<String, Callable<T>>();
+        for (int i = 0; i < dataSources.size(); i++) {
+            final DataSource dataSource = dataSources.get(i);
+            tasks.put(getDataSourceName(dataSource, i), new Callable<T>() {
+                public T call() {
+                    return execute(dataSource, schemaNames, new Command<T>() {
+                        public T execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas) {
+                            MigrationResolver migrationResolver = sharedMigrationResolver;
+                            if ((sharedDbSupport == null) || (dbSupport.getClass() != sharedDbSupport.getClass())) {
+                                migrationResolver = createMigrationResolver(dbSupport);
+                            }
+                            return command.execute(connectionMetaDataTable, connectionUserObjects, dbSupport, schemas, migrationResolver);
+                        }
+                    });
+                }
+            });
+        }
+
+        List<ExecutionResult<T>> results = ParallelExecutor.execute(parallelism, timeout, tasks);
+        for (ExecutionResult<T> result : results) {
+            if (!result.isSuccess()) {
+                LOG.error(result.getName() + " failed: " + result.getException().getMessage());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Retrieves a name for this DataSource to identify it in the results.
+     *
+     * @param dataSource The dataSource.
+     * @param index      The index of the dataSource in the list of dataSources.
+     * @return The name.
+     */
+    private String getDataSourceName(DataSource dataSource, int index) {
+        String name = "#" + (index + 1);
+        if (dataSource instanceof DriverDataSource) {
+            name += " " + ((DriverDataSource) dataSource).getUrl();
+        }
+        return name;
+    }
+
     /**
      * A Flyway command that can be executed.
      *
@@ -1222,4 +2114,23 @@ public class Flyway {
          */
         T execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas);
     }
+
+    /**
+     * A Flyway command that can be executed with a migration resolver shared with other executions.
+     *
+     * @param <T> The result type of the command.
+     */
+    private interface SharedResolverCommand<T> {
+        /**
+         * Execute the operation.
+         *
+         * @param connectionMetaDataTable The database connection for the metadata table changes.
+         * @param connectionUserObjects   The database connection for user object changes.
+         * @param dbSupport               The database-specific support for these connections.
+         * @param schemas                 The schemas managed by Flyway.
+         * @param migrationResolver       The shared migration resolver.
+         * @return The result of the operation.
+         */
+        T execute(Connection connectionMetaDataTable, Connection connectionUserObjects, DbSupport dbSupport, Schema[] schemas, MigrationResolver migrationResolver);
+    }
 }
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core;
+
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.api.MigrationInfoService;
+import com.googlecode.flyway.core.dbsupport.DbSupport;
+import com.googlecode.flyway.core.dbsupport.Schema;
+import com.googlecode.flyway.core.resolver.MigrationResolver;
+import com.googlecode.flyway.core.util.jdbc.JdbcUtils;
+
+import java.sql.Connection;
+
+/**
+ * A session to execute several Flyway commands in a row against the same database. Unlike the commands of
+ * {@link Flyway} itself, which each set everything up from scratch, all commands of a session share the same
+ * connections, database-specific support, schemas and available migrations.
+ * <p>Sessions are opened with {@link Flyway#openSession()} and must be closed once done:</p>
+ * <pre>
+ * FlywaySession session = flyway.openSession();
+ * try {
+ *     session.validate();
+ *     session.migrate();
+ *     MigrationInfoService info = session.info();
+ * } finally {
+ *     session.close();
+ * }
+ * </pre>
+ * <p>The DataSource and the schemas are fixed when the session is opened, and so are all the settings used to resolve
+ * the available migrations: the locations, the encoding, the sql migration prefix and suffix, the placeholders with
+ * their prefix and suffix, streaming, the batch size, the scan parallelism, the cache file and the use of the
+ * manifest. All other configuration is read from the Flyway instance on each command. A session is not
+ * thread-safe.</p>
+ */
+public class FlywaySession {
+    /**
+     * The Flyway instance the session was opened from.
+     */
+    private final Flyway flyway;
+
+    /**
+     * The database connection for the metadata table changes.
+     */
+    private final Connection connectionMetaDataTable;
+
+    /**
+     * The database connection for user object changes.
+     */
+    private final Connection connectionUserObjects;
+
+    /**
+     * The database-specific support for the metadata table connection.
+     */
+    private final DbSupport dbSupport;
+
+    /**
+     * The database-specific support for the user objects connection.
+     */
+    private final DbSupport dbSupportUserObjects;
+
+    /**
+     * The schemas managed by Flyway.
+     */
+    private final Schema[] schemas;
+
+    /**
+     * The migration resolver, which only resolves the available migrations once for all commands.
+     */
+    private final MigrationResolver migrationResolver;
+
+    /**
+     * Whether the session has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates a new session.
+     *
+     * @param flyway                  The Flyway instance the session was opened from.
+     * @param connectionMetaDataTable The database connection for the metadata table changes.
+     * @param connectionUserObjects   The database connection for user object changes.
+     * @param dbSupport               The database-specific support for the metadata table connection.
+     * @param dbSupportUserObjects    The database-specific support for the user objects connection.
+     * @param schemas                 The schemas managed by Flyway.
+     * @param migrationResolver       The migration resolver.
+     */
+    FlywaySession(Flyway flyway, Connection connectionMetaDataTable, Connection connectionUserObjects,
+                  DbSupport dbSupport, DbSupport dbSupportUserObjects, Schema[] schemas,
+                  MigrationResolver migrationResolver) {
+        this.flyway = flyway;
+        this.connectionMetaDataTable = connectionMetaDataTable;
+        this.connectionUserObjects = connectionUserObjects;
+        this.dbSupport = dbSupport;
+        this.dbSupportUserObjects = dbSupportUserObjects;
+        this.schemas = schemas;
+        this.migrationResolver = migrationResolver;
+    }
+
+    /**
+     * Starts the database migration. All pending migrations will be applied in order.
+     *
+     * @return The number of successfully applied migrations.
+     * @throws FlywayException when the migration failed.
+     * @see Flyway#migrate()
+     */
+    public int migrate() throws FlywayException {
+        checkOpen();
+        return flyway.doMigrate(connectionMetaDataTable, connectionUserObjects, dbSupport, dbSupportUserObjects,
+                schemas, migrationResolver);
+    }
+
+    /**
+     * Validate applied migration with classpath migrations to detect accidental changes.
+     *
+     * @throws FlywayException when the validation failed.
+     * @see Flyway#validate()
+     */
+    public void validate() throws FlywayException {
+        checkOpen();
+        flyway.doValidate(connectionMetaDataTable, dbSupport, schemas, migrationResolver);
+    }
+
+    /**
+     * Retrieves the complete information about all the migrations including applied, pending and current migrations
+     * with details and status.
+     *
+     * @return All migrations sorted by version, oldest first.
+     * @throws FlywayException when the info retrieval failed.
+     * @see Flyway#info()
+     */
+    public MigrationInfoService info() throws FlywayException {
+        checkOpen();
+        return flyway.doInfo(dbSupport, schemas, migrationResolver);
+    }
+
+    /**
+     * Drops all objects (tables, views, procedures, triggers, ...) in the configured schemas.
+     *
+     * @throws FlywayException when the clean fails.
+     * @see Flyway#clean()
+     */
+    public void clean() throws FlywayException {
+        checkOpen();
+        flyway.doClean(connectionMetaDataTable, dbSupport, schemas, migrationResolver);
+    }
+
+    /**
+     * Creates and initializes the Flyway metadata table.
+     *
+     * @throws FlywayException when the schema initialization failed.
+     * @see Flyway#init()
+     */
+    public void init() throws FlywayException {
+        checkOpen();
+        flyway.doInit(connectionMetaDataTable, dbSupport, schemas, migrationResolver);
+    }
+
+    /**
+     * Repairs the Flyway metadata table after a failed migration.
+     *
+     * @throws FlywayException when the metadata table repair failed.
+     * @see Flyway#repair()
+     */
+    public void repair() throws FlywayException {
+        checkOpen();
+        flyway.doRepair(dbSupport, schemas, migrationResolver);
+    }
+
+    /**
+     * Closes the connections of this session. Closing a session that is already closed has no effect.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        JdbcUtils.closeConnection(connectionUserObjects);
+        JdbcUtils.closeConnection(connectionMetaDataTable);
+    }
+
+    /**
+     * Checks that this session is still open.
+     *
+     * @throws FlywayException when it has been closed.
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new FlywayException("Flyway session already closed");
+        }
+    }
+}
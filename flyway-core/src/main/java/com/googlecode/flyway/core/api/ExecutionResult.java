@@ -0,0 +1,107 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.api;
+
+/**
+ * The outcome of a command executed against one of several schemas or databases in a single run. A failure for one of
+ * them doesn't affect the others.
+ *
+ * @param <T> The type of the result of the command.
+ */
+public class ExecutionResult<T> {
+    /**
+     * The name of the schema or database the command was executed against.
+     */
+    private final String name;
+
+    /**
+     * The result of the command. {@code null} if it failed.
+     */
+    private final T result;
+
+    /**
+     * The exception the command failed with. {@code null} if it succeeded.
+     */
+    private final Exception exception;
+
+    /**
+     * The execution time of the command (in ms).
+     */
+    private final long executionTime;
+
+    /**
+     * Creates a new execution result.
+     *
+     * @param name          The name of the schema or database the command was executed against.
+     * @param result        The result of the command. {@code null} if it failed.
+     * @param exception     The exception the command failed with. {@code null} if it succeeded.
+     * @param executionTime The execution time of the command (in ms).
+     */
+    public ExecutionResult(String name, T result, Exception exception, long executionTime) {
+        this.name = name;
+        this.result = result;
+        this.exception = exception;
+        this.executionTime = executionTime;
+    }
+
+    /**
+     * @return The name of the schema or database the command was executed against.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The result of the command. {@code null} if it failed.
+     */
+    public T getResult() {
+        return result;
+    }
+
+    /**
+     * @return The exception the command failed with. {@code null} if it succeeded.
+     */
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+     * @return The execution time of the command (in ms).
+     */
+    public long getExecutionTime() {
+        return executionTime;
+    }
+
+    /**
+     * @return {@code true} if the command succeeded, {@code false} if it failed.
+     */
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    @Override
+    public String toString() {
+        String outcome;
+        if (!isSuccess()) {
+            outcome = "Failed (" + exception.getMessage() + ")";
+        } else if (result == null) {
+            outcome = "Success";
+        } else {
+            outcome = "Success (" + result + ")";
+        }
+        return name + ": " + outcome + " in " + executionTime + " ms";
+    }
+}
@@ -15,9 +15,7 @@
  */
 package com.googlecode.flyway.core.api;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Arrays;
 
 /**
  * A version of a migration.
@@ -36,14 +34,14 @@ public final class MigrationVersion implements Comparable<MigrationVersion> {
     public static final MigrationVersion LATEST = new MigrationVersion(Long.MAX_VALUE, "<< Latest Version >>");
 
     /**
-     * Compiled pattern for matching proper version format
+     * The individual parts this version string is composed of, without trailing zeroes. Ex. 1.2.3.4.0 -> [1, 2, 3, 4]
      */
-    private static Pattern splitPattern = Pattern.compile("\\.(?=\\d)");
+    private final long[] versionParts;
 
     /**
-     * The individual parts this version string is composed of. Ex. 1.2.3.4.0 -> [1, 2, 3, 4, 0]
+     * The hash code of the version parts. Versions are hashed and compared a lot, so this is only calculated once.
      */
-    private final List<Long> versionParts;
+    private final int hashCode;
 
     /**
      * The printable text to represent the version.
@@ -71,6 +69,7 @@ public final class MigrationVersion implements Comparable<MigrationVersion> {
     public MigrationVersion(String version) {
         String normalizedVersion = version.replace('_', '.');
         this.versionParts = tokenizeToLongs(normalizedVersion);
+        this.hashCode = Arrays.hashCode(versionParts);
         this.displayText = normalizedVersion;
     }
 
@@ -82,8 +81,8 @@ public final class MigrationVersion implements Comparable<MigrationVersion> {
      * @param displayText The alternative text to display instead of the version number.
      */
     private MigrationVersion(Long version, String displayText) {
-        this.versionParts = new ArrayList<Long>();
-        this.versionParts.add(version);
+        this.versionParts = version == null ? new long[0] : new long[]{version};
+        this.hashCode = Arrays.hashCode(versionParts);
         this.displayText = displayText;
     }
 
@@ -111,12 +110,12 @@ public final class MigrationVersion implements Comparable<MigrationVersion> {
 
         MigrationVersion version1 = (MigrationVersion) o;
 
-        return compareTo(version1) == 0;
+        return (hashCode == version1.hashCode) && (compareTo(version1) == 0);
     }
 
     @Override
     public int hashCode() {
-        return versionParts == null ? 0 : versionParts.hashCode();
+        return hashCode;
     }
 
     public int compareTo(MigrationVersion o) {
@@ -139,43 +138,90 @@ public final class MigrationVersion implements Comparable<MigrationVersion> {
         if (o == LATEST) {
             return Integer.MIN_VALUE;
         }
-        final List<Long> elements1 = versionParts;
-        final List<Long> elements2 = o.versionParts;
-        int largestNumberOfElements = Math.max(elements1.size(), elements2.size());
+        final long[] elements1 = versionParts;
+        final long[] elements2 = o.versionParts;
+        int largestNumberOfElements = Math.max(elements1.length, elements2.length);
         for (int i = 0; i < largestNumberOfElements; i++) {
-            final int compared = getOrZero(elements1, i).compareTo(getOrZero(elements2, i));
-            if (compared != 0) {
-                return compared;
+            long element1 = i < elements1.length ? elements1[i] : 0;
+            long element2 = i < elements2.length ? elements2[i] : 0;
+            if (element1 != element2) {
+                return element1 < element2 ? -1 : 1;
             }
         }
         return 0;
     }
 
-    private Long getOrZero(List<Long> elements, int i) {
-        return i < elements.size() ? elements.get(i) : 0;
-    }
-
     /**
-     * Splits this string into list of Long
+     * Splits this string into its numeric parts, without trailing zeroes. The parts are separated by dots and consist
+     * of digits only, except for an optional sign in front of the first one.
      *
-     * @param str        The string to split.
+     * @param str The string to split.
      * @return The resulting array.
      */
-    private List<Long> tokenizeToLongs(String str) {
-        List<Long> numbers = new ArrayList<Long>();
-        for (String number : splitPattern.split(str)) {
-            try {
-                numbers.add(Long.valueOf(number));
-            } catch (NumberFormatException e) {
-                throw new FlywayException(
-                    "Invalid version containing non-numeric characters. Only 0..9 and . are allowed. Invalid version: "
-                    + str);
+    private static long[] tokenizeToLongs(String str) {
+        int length = str.length();
+
+        int numberOfParts = 1;
+        for (int i = 0; i < length; i++) {
+            if (str.charAt(i) == '.') {
+                numberOfParts++;
             }
         }
-        for (int i = numbers.size() - 1; i > 0; i--) {
-            if (numbers.get(i) != 0) break;
-            numbers.remove(i);
+
+        long[] numbers = new long[numberOfParts];
+        int part = 0;
+        int i = 0;
+        boolean negative = false;
+        if ((length > 0) && ((str.charAt(0) == '-') || (str.charAt(0) == '+'))) {
+            negative = str.charAt(0) == '-';
+            i++;
+        }
+
+        int digits = 0;
+        long number = 0;
+        for (; i <= length; i++) {
+            char c = i < length ? str.charAt(i) : '.';
+            if (c == '.') {
+                if (digits == 0) {
+                    throw invalidVersion(str);
+                }
+                numbers[part++] = negative ? -number : number;
+                negative = false;
+                digits = 0;
+                number = 0;
+            } else if ((c >= '0') && (c <= '9')) {
+                int digit = c - '0';
+                if (number > (Long.MAX_VALUE - digit) / 10) {
+                    throw invalidVersion(str);
+                }
+                number = number * 10 + digit;
+                digits++;
+            } else {
+                throw invalidVersion(str);
+            }
         }
-        return numbers;
+
+        int significantParts = numberOfParts;
+        while ((significantParts > 1) && (numbers[significantParts - 1] == 0)) {
+            significantParts--;
+        }
+        if (significantParts == numberOfParts) {
+            return numbers;
+        }
+        long[] result = new long[significantParts];
+        System.arraycopy(numbers, 0, result, 0, significantParts);
+        return result;
+    }
+
+    /**
+     * Creates the exception to throw for this invalid version string.
+     *
+     * @param str The invalid version string.
+     * @return The exception.
+     */
+    private static FlywayException invalidVersion(String str) {
+        return new FlywayException(
+                "Invalid version containing non-numeric characters. Only 0..9 and . are allowed. Invalid version: "
+                + str);
     }
 }
@@ -15,17 +15,32 @@
  */
 package com.googlecode.flyway.core.command;
 
+import com.googlecode.flyway.core.api.ExecutionResult;
 import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.dbsupport.CleanPlan;
+import com.googlecode.flyway.core.dbsupport.DbSupportFactory;
+import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
 import com.googlecode.flyway.core.dbsupport.Schema;
 import com.googlecode.flyway.core.metadatatable.MetaDataTable;
+import com.googlecode.flyway.core.util.ParallelExecutor;
 import com.googlecode.flyway.core.util.StopWatch;
 import com.googlecode.flyway.core.util.TimeFormat;
+import com.googlecode.flyway.core.util.jdbc.JdbcUtils;
 import com.googlecode.flyway.core.util.jdbc.TransactionCallback;
 import com.googlecode.flyway.core.util.jdbc.TransactionTemplate;
 import com.googlecode.flyway.core.util.logging.Log;
 import com.googlecode.flyway.core.util.logging.LogFactory;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Main workflow for cleaning the database.
@@ -48,17 +63,40 @@ public class DbClean {
      */
     private final Schema[] schemas;
 
+    /**
+     * The datasource to obtain additional connections from. {@code null} to clean sequentially on {@link #connection}.
+     */
+    private final DataSource dataSource;
+
+    /**
+     * The maximum number of connections to use concurrently.
+     */
+    private final int parallelism;
+
+    /**
+     * Whether to clean the schemas by dropping and recreating them, where the database supports it.
+     */
+    private final boolean recreateSchemas;
+
     /**
      * Creates a new database cleaner.
      *
-     * @param connection    The connection to use.
-     * @param metaDataTable The metadata table.
-     * @param schemas       The schemas to clean.
+     * @param connection      The connection to use.
+     * @param metaDataTable   The metadata table.
+     * @param schemas         The schemas to clean.
+     * @param dataSource      The datasource to obtain additional connections from. {@code null} to clean sequentially.
+     * @param parallelism     The maximum number of connections to use concurrently. {@code 1} to clean sequentially.
+     * @param recreateSchemas Whether to clean the schemas by dropping and recreating them, where the database
+     *                        supports it.
      */
-    public DbClean(Connection connection, MetaDataTable metaDataTable, Schema[] schemas) {
+    public DbClean(Connection connection, MetaDataTable metaDataTable, Schema[] schemas,
+                   DataSource dataSource, int parallelism, boolean recreateSchemas) {
         this.connection = connection;
         this.metaDataTable = metaDataTable;
         this.schemas = schemas;
+        this.dataSource = dataSource;
+        this.parallelism = parallelism;
+        this.recreateSchemas = recreateSchemas;
     }
 
     /**
@@ -74,15 +112,152 @@ public class DbClean {
             LOG.error("Error while checking whether the schemas should be dropped", e);
         }
 
+        if (!dropSchemas && recreateSchemas) {
+            for (Schema schema : schemas) {
+                recreateSchema(schema);
+            }
+            return;
+        }
+
+        if (!dropSchemas && (dataSource != null) && (parallelism > 1)) {
+            if (schemas.length > 1) {
+                cleanSchemasConcurrently();
+            } else {
+                cleanSchemaConcurrently(schemas[0]);
+            }
+            return;
+        }
+
         for (Schema schema : schemas) {
             if (dropSchemas) {
                 dropSchema(schema);
             } else {
-                cleanSchema(schema);
+                cleanSchema(connection, schema);
+            }
+        }
+    }
+
+    /**
+     * Cleans all schemas concurrently, each on a connection of its own. The schemas that failed, for example due to
+     * dependencies between objects of different schemas, are cleaned again sequentially afterwards.
+     */
+    private void cleanSchemasConcurrently() {
+        Map<String, Callable<Void>> tasks = new LinkedHashMap<String, Callable<Void>>();
+        for (final Schema schema : schemas) {
+            tasks.put(schema.toString(), new Callable<Void>() {
+                public Void call() {
+                    Connection schemaConnection = JdbcUtils.openConnection(dataSource);
+                    try {
+                        cleanSchema(schemaConnection,
+                                DbSupportFactory.createDbSupport(schemaConnection).getSchema(schema.getName()));
+                    } finally {
+                        JdbcUtils.closeConnection(schemaConnection);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        List<ExecutionResult<Void>> results = ParallelExecutor.execute(parallelism, tasks);
+        for (int i = 0; i < schemas.length; i++) {
+            if (!results.get(i).isSuccess()) {
+                LOG.warn("Concurrent clean of schema " + schemas[i] + " failed (" + results.get(i).getException().getMessage()
+                        + "). Cleaning it again sequentially ...");
+                cleanSchema(connection, schemas[i]);
             }
         }
     }
 
+    /**
+     * Drops the independent objects of this schema concurrently, following its clean plan, and then cleans it
+     * sequentially to drop the remaining objects. The schema is simply cleaned sequentially if it has no clean plan
+     * or if the concurrent drops failed.
+     *
+     * @param schema The schema to clean.
+     */
+    private void cleanSchemaConcurrently(Schema schema) {
+        CleanPlan cleanPlan = schema.createCleanPlan();
+        List<List<String>> waves = cleanPlan == null ? null : cleanPlan.getWaves();
+        if (waves == null) {
+            LOG.debug("Unable to determine the dependencies between the objects of schema " + schema
+                    + ". Cleaning it sequentially.");
+            cleanSchema(connection, schema);
+            return;
+        }
+
+        LOG.debug("Dropping the objects of schema " + schema + " in " + waves.size()
+                + " waves using up to " + parallelism + " connections ...");
+        BlockingQueue<Connection> connections = new LinkedBlockingQueue<Connection>();
+        try {
+            for (List<String> wave : waves) {
+                if (!executeConcurrently(wave, connections)) {
+                    LOG.warn("Concurrent clean of schema " + schema + " failed. Cleaning it sequentially ...");
+                    break;
+                }
+            }
+        } finally {
+            for (Connection workerConnection : connections) {
+                JdbcUtils.closeConnection(workerConnection);
+            }
+        }
+
+        cleanSchema(connection, schema);
+    }
+
+    /**
+     * Executes these independent statements concurrently. Each worker takes a connection from the pool, or opens a new
+     * one if none is available, and gives it back once the statement has been executed.
+     *
+     * @param statements  The statements to execute.
+     * @param connections The pool of worker connections.
+     * @return {@code true} if all statements were executed successfully, {@code false} if at least one failed.
+     */
+    private boolean executeConcurrently(List<String> statements, final BlockingQueue<Connection> connections) {
+        Map<String, Callable<Void>> tasks = new LinkedHashMap<String, Callable<Void>>();
+        for (final String statement : statements) {
+            tasks.put(statement, new Callable<Void>() {
+                public Void call() {
+                    Connection workerConnection = connections.poll();
+                    if (workerConnection == null) {
+                        workerConnection = JdbcUtils.openConnection(dataSource);
+                    }
+                    try {
+                        execute(workerConnection, statement);
+                    } finally {
+                        connections.add(workerConnection);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        for (ExecutionResult<Void> result : ParallelExecutor.execute(parallelism, tasks)) {
+            if (!result.isSuccess()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Executes this statement in a transaction of its own.
+     *
+     * @param connection The connection to use.
+     * @param statement  The statement to execute.
+     */
+    private void execute(final Connection connection, final String statement) {
+        new TransactionTemplate(connection).execute(new TransactionCallback<Void>() {
+            public Void doInTransaction() {
+                try {
+                    new JdbcTemplate(connection, Types.NULL).execute(statement);
+                } catch (SQLException e) {
+                    throw new FlywayException("Unable to execute statement: " + statement, e);
+                }
+                return null;
+            }
+        });
+    }
+
     /**
      * Drops this schema.
      *
@@ -104,13 +279,35 @@ public class DbClean {
                 schema, TimeFormat.format(stopWatch.getTotalTimeMillis())));
     }
 
+    /**
+     * Cleans this schema by dropping and recreating it.
+     *
+     * @param schema The schema to recreate.
+     * @throws FlywayException when the recreation failed.
+     */
+    private void recreateSchema(final Schema schema) {
+        LOG.debug("Recreating schema " + schema + " ...");
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        new TransactionTemplate(connection).execute(new TransactionCallback<Void>() {
+            public Void doInTransaction() {
+                schema.recreate();
+                return null;
+            }
+        });
+        stopWatch.stop();
+        LOG.info(String.format("Cleaned schema %s by recreating it (execution time %s)",
+                schema, TimeFormat.format(stopWatch.getTotalTimeMillis())));
+    }
+
     /**
      * Cleans this schema of all objects.
      *
-     * @param schema The schema to clean.
+     * @param connection The connection to use.
+     * @param schema     The schema to clean, living on this connection.
      * @throws FlywayException when clean failed.
      */
-    private void cleanSchema(final Schema schema) {
+    private void cleanSchema(Connection connection, final Schema schema) {
         LOG.debug("Cleaning schema " + schema + " ...");
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
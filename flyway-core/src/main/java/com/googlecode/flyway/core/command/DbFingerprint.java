@@ -0,0 +1,316 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.command;
+
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.api.MigrationInfo;
+import com.googlecode.flyway.core.api.MigrationType;
+import com.googlecode.flyway.core.api.MigrationVersion;
+import com.googlecode.flyway.core.dbsupport.DbSupport;
+import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
+import com.googlecode.flyway.core.dbsupport.Table;
+import com.googlecode.flyway.core.info.MigrationInfoServiceImpl;
+import com.googlecode.flyway.core.metadatatable.AppliedMigration;
+import com.googlecode.flyway.core.metadatatable.MetaDataTable;
+import com.googlecode.flyway.core.resolver.ChecksumCalculator;
+import com.googlecode.flyway.core.resolver.MigrationResolver;
+import com.googlecode.flyway.core.resolver.ResolvedMigration;
+import com.googlecode.flyway.core.util.jdbc.RowMapper;
+import com.googlecode.flyway.core.util.jdbc.TransactionCallback;
+import com.googlecode.flyway.core.util.jdbc.TransactionTemplate;
+import com.googlecode.flyway.core.util.logging.Log;
+import com.googlecode.flyway.core.util.logging.LogFactory;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of the fingerprint of the set of migrations a schema was last fully migrated with.
+ *
+ * <p>The fingerprint is stored in a small side table next to the metadata table (named like the metadata table with
+ * a {@code _fp} suffix), together with the highest installed rank of the metadata table at that time. As long as
+ * both still match, the schema is known to be up to date and valid for this set of migrations, and migrate and
+ * validate can return immediately without taking any lock.</p>
+ */
+public class DbFingerprint {
+    private static final Log LOG = LogFactory.getLog(DbFingerprint.class);
+
+    /**
+     * The suffix appended to the name of the metadata table to get the name of the fingerprint table.
+     */
+    private static final String TABLE_SUFFIX = "_fp";
+
+    /**
+     * The connection to use.
+     */
+    private final Connection connectionMetaDataTable;
+
+    /**
+     * Database-specific functionality.
+     */
+    private final DbSupport dbSupport;
+
+    /**
+     * The metadata table used by flyway.
+     */
+    private final Table table;
+
+    /**
+     * The table holding the fingerprint.
+     */
+    private final Table fingerprintTable;
+
+    /**
+     * The migration resolver.
+     */
+    private final MigrationResolver migrationResolver;
+
+    /**
+     * The target version of the migration.
+     */
+    private final MigrationVersion target;
+
+    /**
+     * Creates a new fingerprint checker.
+     *
+     * @param connectionMetaDataTable The connection to use.
+     * @param dbSupport               Database-specific functionality.
+     * @param table                   The metadata table used by flyway.
+     * @param migrationResolver       The migration resolver.
+     * @param target                  The target version of the migration.
+     */
+    public DbFingerprint(Connection connectionMetaDataTable, DbSupport dbSupport, Table table,
+                         MigrationResolver migrationResolver, MigrationVersion target) {
+        this.connectionMetaDataTable = connectionMetaDataTable;
+        this.dbSupport = dbSupport;
+        this.table = table;
+        this.fingerprintTable = table.getSchema().getTable(table.getName() + TABLE_SUFFIX);
+        this.migrationResolver = migrationResolver;
+        this.target = target;
+    }
+
+    /**
+     * Checks whether the stored fingerprint matches the available migrations and the metadata table hasn't changed
+     * since it was stored.
+     *
+     * @return {@code true} if the schema is up to date, {@code false} if a full validation or migration is required.
+     */
+    public boolean isUpToDate() {
+        final String fingerprint = calculateFingerprint(migrationResolver.resolveMigrations(), target);
+
+        boolean upToDate = new TransactionTemplate(connectionMetaDataTable).execute(new TransactionCallback<Boolean>() {
+            public Boolean doInTransaction() {
+                try {
+                    return doIsUpToDate(fingerprint);
+                } catch (SQLException e) {
+                    throw new FlywayException("Unable to read the migration fingerprint from " + fingerprintTable, e);
+                }
+            }
+        });
+
+        if (upToDate) {
+            LOG.info("Schema " + table.getSchema() + " is up to date (fingerprint " + fingerprint + ")");
+        } else {
+            LOG.debug("Fingerprint " + fingerprint + " does not match " + fingerprintTable + ". Full check required.");
+        }
+        return upToDate;
+    }
+
+    /**
+     * Checks whether the stored fingerprint matches this one and the metadata table hasn't changed since.
+     *
+     * @param fingerprint The fingerprint of the available migrations.
+     * @return {@code true} if it does, {@code false} if not.
+     * @throws SQLException when the fingerprint table could not be read.
+     */
+    private boolean doIsUpToDate(String fingerprint) throws SQLException {
+        if (!fingerprintTable.exists()) {
+            return false;
+        }
+
+        JdbcTemplate jdbcTemplate = dbSupport.getJdbcTemplate();
+        String installedRank = dbSupport.quote("installed_rank");
+        List<Boolean> matches = jdbcTemplate.query("SELECT f." + dbSupport.quote("fingerprint")
+                + ", f." + installedRank + ", (SELECT MAX(" + installedRank + ") FROM " + table + ")"
+                + " FROM " + fingerprintTable + " f", new FingerprintRowMapper(fingerprint));
+
+        return (matches.size() == 1) && matches.get(0);
+    }
+
+    /**
+     * Stores the fingerprint of the available migrations if the schema is now fully migrated and valid for them.
+     * Nothing is stored otherwise, so the next run will perform a full check again.
+     *
+     * @param metaDataTable The metadata table.
+     * @param outOfOrder    Allows migrations to be run "out of order".
+     */
+    public void store(final MetaDataTable metaDataTable, final boolean outOfOrder) {
+        try {
+            new TransactionTemplate(connectionMetaDataTable).execute(new TransactionCallback<Void>() {
+                public Void doInTransaction() {
+                    metaDataTable.lock();
+
+                    List<AppliedMigration> appliedMigrations = metaDataTable.allAppliedMigrations();
+                    int maxInstalledRank = 0;
+                    for (AppliedMigration appliedMigration : appliedMigrations) {
+                        maxInstalledRank = Math.max(maxInstalledRank, appliedMigration.getInstalledRank());
+                    }
+
+                    MigrationInfoServiceImpl migrationInfoService =
+                            new MigrationInfoServiceImpl(migrationResolver, metaDataTable, target, outOfOrder);
+                    migrationInfoService.refresh();
+                    if (!isComplete(migrationInfoService)) {
+                        LOG.debug("Schema " + table.getSchema() + " is not fully migrated. Not storing fingerprint.");
+                        return null;
+                    }
+
+                    String fingerprint = calculateFingerprint(migrationResolver.resolveMigrations(), target);
+                    try {
+                        doStore(fingerprint, maxInstalledRank);
+                    } catch (SQLException e) {
+                        throw new FlywayException("Unable to store the migration fingerprint in " + fingerprintTable, e);
+                    }
+                    LOG.debug("Stored fingerprint " + fingerprint + " in " + fingerprintTable);
+                    return null;
+                }
+            });
+        } finally {
+            metaDataTable.unlock();
+        }
+    }
+
+    /**
+     * Replaces the stored fingerprint, creating the fingerprint table if necessary.
+     *
+     * @param fingerprint      The new fingerprint.
+     * @param maxInstalledRank The highest installed rank of the metadata table.
+     * @throws SQLException when the fingerprint could not be stored.
+     */
+    private void doStore(String fingerprint, int maxInstalledRank) throws SQLException {
+        JdbcTemplate jdbcTemplate = dbSupport.getJdbcTemplate();
+        if (fingerprintTable.exists()) {
+            jdbcTemplate.execute("DELETE FROM " + fingerprintTable);
+        } else {
+            jdbcTemplate.execute("CREATE TABLE " + fingerprintTable + " ("
+                    + dbSupport.quote("fingerprint") + " VARCHAR(40) NOT NULL, "
+                    + dbSupport.quote("installed_rank") + " INT NOT NULL)");
+        }
+        jdbcTemplate.execute("INSERT INTO " + fingerprintTable + " VALUES (?, ?)", fingerprint, maxInstalledRank);
+    }
+
+    /**
+     * Checks whether every available migration up to the target has been applied successfully and the schema is
+     * valid, with nothing pending, ignored, failed or unknown to this set of migrations.
+     *
+     * @param migrationInfoService The refreshed migration info service.
+     * @return {@code true} if it is, {@code false} if not.
+     */
+    /* private -> for testing */
+    static boolean isComplete(MigrationInfoServiceImpl migrationInfoService) {
+        for (MigrationInfo migrationInfo : migrationInfoService.all()) {
+            switch (migrationInfo.getState()) {
+                case SUCCESS:
+                case OUT_OF_ORDER:
+                case ABOVE_TARGET:
+                case PREINIT:
+                    break;
+                case MISSING_SUCCESS:
+                    if ((migrationInfo.getType() != MigrationType.SCHEMA)
+                            && (migrationInfo.getType() != MigrationType.INIT)) {
+                        return false;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+        }
+
+        return migrationInfoService.validate() == null;
+    }
+
+    /**
+     * Calculates the fingerprint of these migrations, taking into account the version, type and checksum of all
+     * migrations up to the target.
+     *
+     * @param resolvedMigrations The available migrations, sorted by version.
+     * @param target             The target version of the migration.
+     * @return The fingerprint, as a hexadecimal string of 40 characters.
+     */
+    /* private -> for testing */
+    static String calculateFingerprint(List<ResolvedMigration> resolvedMigrations, MigrationVersion target) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new FlywayException("Unable to calculate migration fingerprint", e);
+        }
+
+        List<ResolvedMigration> targetMigrations = new ArrayList<ResolvedMigration>();
+        for (ResolvedMigration resolvedMigration : resolvedMigrations) {
+            if (resolvedMigration.getVersion().compareTo(target) <= 0) {
+                targetMigrations.add(resolvedMigration);
+            }
+        }
+        ChecksumCalculator.calculateChecksums(targetMigrations);
+
+        for (ResolvedMigration resolvedMigration : targetMigrations) {
+            String entry = resolvedMigration.getVersion() + ":" + resolvedMigration.getType()
+                    + ":" + resolvedMigration.getChecksum() + "\n";
+            try {
+                digest.update(entry.getBytes("UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                throw new FlywayException("Unable to calculate migration fingerprint", e);
+            }
+        }
+
+        StringBuilder fingerprint = new StringBuilder();
+        for (byte b : digest.digest()) {
+            fingerprint.append(Character.forDigit((b >> 4) & 0xF, 16));
+            fingerprint.append(Character.forDigit(b & 0xF, 16));
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * Maps a row of the fingerprint table to whether it matches the expected fingerprint and the current highest
+     * installed rank of the metadata table.
+     */
+    private static class FingerprintRowMapper implements RowMapper<Boolean> {
+        /**
+         * The expected fingerprint.
+         */
+        private final String fingerprint;
+
+        /**
+         * Creates a new FingerprintRowMapper.
+         *
+         * @param fingerprint The expected fingerprint.
+         */
+        private FingerprintRowMapper(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public Boolean mapRow(ResultSet rs) throws SQLException {
+            return fingerprint.equals(rs.getString(1)) && (rs.getInt(2) == rs.getInt(3));
+        }
+    }
+}
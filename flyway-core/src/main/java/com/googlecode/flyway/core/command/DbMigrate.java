@@ -129,15 +129,18 @@ public class DbMigrate {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
 
+        // The metadata table keeps the applied migrations in memory and only reads them again when it detects a
+        // change by another client. Refreshing this single service after each migration is therefore cheap.
+        final MigrationInfoServiceImpl infoService =
+                new MigrationInfoServiceImpl(migrationResolver, metaDataTable, target, outOfOrder);
+
         int migrationSuccessCount = 0;
         while (true) {
             final boolean firstRun = migrationSuccessCount == 0;
-            MigrationVersion result = new TransactionTemplate(connectionMetaDataTable, false).execute(new TransactionCallback<MigrationVersion>() {
+            MigrationVersion result = executeLocked(new TransactionCallback<MigrationVersion>() {
                 public MigrationVersion doInTransaction() {
                     metaDataTable.lock();
 
-                    MigrationInfoServiceImpl infoService =
-                            new MigrationInfoServiceImpl(migrationResolver, metaDataTable, target, outOfOrder);
                     infoService.refresh();
 
                     MigrationVersion currentSchemaVersion = MigrationVersion.EMPTY;
@@ -200,6 +203,20 @@ public class DbMigrate {
         return migrationSuccessCount;
     }
 
+    /**
+     * Executes this callback in a transaction and releases the lock on the metadata table once it completes.
+     *
+     * @param callback The callback to execute, which acquires the lock.
+     * @return The result of the callback.
+     */
+    private <T> T executeLocked(TransactionCallback<T> callback) {
+        try {
+            return new TransactionTemplate(connectionMetaDataTable, false).execute(callback);
+        } finally {
+            metaDataTable.unlock();
+        }
+    }
+
     /**
      * Logs the summary of this migration run.
      *
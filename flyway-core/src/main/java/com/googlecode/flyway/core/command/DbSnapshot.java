@@ -0,0 +1,229 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.command;
+
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.api.MigrationVersion;
+import com.googlecode.flyway.core.dbsupport.DbSupport;
+import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
+import com.googlecode.flyway.core.dbsupport.Schema;
+import com.googlecode.flyway.core.resolver.MigrationResolver;
+import com.googlecode.flyway.core.util.StopWatch;
+import com.googlecode.flyway.core.util.StringUtils;
+import com.googlecode.flyway.core.util.TimeFormat;
+import com.googlecode.flyway.core.util.jdbc.TransactionCallback;
+import com.googlecode.flyway.core.util.jdbc.TransactionTemplate;
+import com.googlecode.flyway.core.util.logging.Log;
+import com.googlecode.flyway.core.util.logging.LogFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps snapshots of fully migrated schemas, so they can be reset to that state without replaying all migrations.
+ *
+ * <p>Snapshots are held in memory by the Flyway instance that took them, in the map passed in. There is at most one
+ * per database and set of schemas. It is only restored as long as the fingerprint of the available migrations and the
+ * placeholders still match the ones it was taken with, and is replaced by the next snapshot otherwise.</p>
+ */
+public class DbSnapshot {
+    private static final Log LOG = LogFactory.getLog(DbSnapshot.class);
+
+    /**
+     * The snapshots taken so far, by database and set of schemas.
+     */
+    private final Map<String, Snapshot> snapshots;
+
+    /**
+     * The connection to use.
+     */
+    private final Connection connection;
+
+    /**
+     * Database-specific functionality.
+     */
+    private final DbSupport dbSupport;
+
+    /**
+     * The schemas to take the snapshot of.
+     */
+    private final Schema[] schemas;
+
+    /**
+     * The migration resolver.
+     */
+    private final MigrationResolver migrationResolver;
+
+    /**
+     * The target version of the migration.
+     */
+    private final MigrationVersion target;
+
+    /**
+     * The placeholders replaced in sql migrations.
+     */
+    private final Map<String, String> placeholders;
+
+    /**
+     * Creates a new snapshot manager.
+     *
+     * @param connection        The connection to use.
+     * @param dbSupport         Database-specific functionality.
+     * @param schemas           The schemas to take the snapshot of.
+     * @param migrationResolver The migration resolver.
+     * @param target            The target version of the migration.
+     * @param placeholders      The placeholders replaced in sql migrations.
+     * @param snapshots         The snapshots taken so far, by database and set of schemas.
+     */
+    public DbSnapshot(Connection connection, DbSupport dbSupport, Schema[] schemas,
+                      MigrationResolver migrationResolver, MigrationVersion target, Map<String, String> placeholders,
+                      Map<String, Snapshot> snapshots) {
+        this.connection = connection;
+        this.dbSupport = dbSupport;
+        this.schemas = schemas;
+        this.migrationResolver = migrationResolver;
+        this.target = target;
+        this.placeholders = new HashMap<String, String>(placeholders);
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Restores the snapshot taken for the available migrations into the schemas. The schemas must have been cleaned
+     * beforehand.
+     *
+     * @return {@code true} if the snapshot was restored, {@code false} if there is no matching snapshot and the
+     * schemas must be migrated instead.
+     */
+    public boolean restore() {
+        if (!dbSupport.supportsSnapshots()) {
+            LOG.debug("Snapshots are not supported by this database. Schemas must be migrated.");
+            return false;
+        }
+
+        String fingerprint = DbFingerprint.calculateFingerprint(migrationResolver.resolveMigrations(), target);
+
+        final Snapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(getKey());
+        }
+        if ((snapshot == null) || !snapshot.matches(fingerprint, placeholders)) {
+            LOG.debug("No snapshot found for fingerprint " + fingerprint + ". Schemas must be migrated.");
+            return false;
+        }
+
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        new TransactionTemplate(connection).execute(new TransactionCallback<Void>() {
+            public Void doInTransaction() {
+                JdbcTemplate jdbcTemplate = dbSupport.getJdbcTemplate();
+                for (String statement : snapshot.statements) {
+                    try {
+                        jdbcTemplate.executeStatement(statement);
+                    } catch (SQLException e) {
+                        throw new FlywayException("Unable to restore snapshot of schemas "
+                                + StringUtils.arrayToCommaDelimitedString(schemas) + ": " + statement, e);
+                    }
+                }
+                return null;
+            }
+        });
+        stopWatch.stop();
+
+        LOG.info("Restored snapshot of schemas " + StringUtils.arrayToCommaDelimitedString(schemas)
+                + " (fingerprint " + fingerprint + ", execution time " + TimeFormat.format(stopWatch.getTotalTimeMillis()) + ")");
+        return true;
+    }
+
+    /**
+     * Takes a snapshot of the fully migrated schemas for the available migrations, replacing the one previously taken
+     * for these schemas. Does nothing if the database doesn't support snapshots.
+     */
+    public void take() {
+        if (!dbSupport.supportsSnapshots()) {
+            return;
+        }
+
+        String fingerprint = DbFingerprint.calculateFingerprint(migrationResolver.resolveMigrations(), target);
+        List<String> statements = dbSupport.snapshot(schemas);
+
+        synchronized (snapshots) {
+            snapshots.put(getKey(), new Snapshot(fingerprint, placeholders, statements));
+        }
+        LOG.debug("Took snapshot of schemas " + StringUtils.arrayToCommaDelimitedString(schemas)
+                + " (fingerprint " + fingerprint + ", " + statements.size() + " statements)");
+    }
+
+    /**
+     * @return The key identifying the database and schemas of the snapshot.
+     */
+    private String getKey() {
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            return metaData.getURL() + "|" + metaData.getUserName() + "|"
+                    + StringUtils.arrayToCommaDelimitedString(schemas);
+        } catch (SQLException e) {
+            throw new FlywayException("Unable to read the database url and user", e);
+        }
+    }
+
+    /**
+     * A snapshot of fully migrated schemas.
+     */
+    public static class Snapshot {
+        /**
+         * The fingerprint of the migrations the schemas were migrated with.
+         */
+        private final String fingerprint;
+
+        /**
+         * The placeholders the schemas were migrated with.
+         */
+        private final Map<String, String> placeholders;
+
+        /**
+         * The statements to execute to restore the schemas.
+         */
+        private final List<String> statements;
+
+        /**
+         * Creates a new snapshot.
+         *
+         * @param fingerprint  The fingerprint of the migrations the schemas were migrated with.
+         * @param placeholders The placeholders the schemas were migrated with.
+         * @param statements   The statements to execute to restore the schemas.
+         */
+        private Snapshot(String fingerprint, Map<String, String> placeholders, List<String> statements) {
+            this.fingerprint = fingerprint;
+            this.placeholders = placeholders;
+            this.statements = statements;
+        }
+
+        /**
+         * Checks whether this snapshot was taken for these migrations and placeholders.
+         *
+         * @param fingerprint  The fingerprint of the available migrations.
+         * @param placeholders The current placeholders.
+         * @return {@code true} if it was, {@code false} if not.
+         */
+        private boolean matches(String fingerprint, Map<String, String> placeholders) {
+            return this.fingerprint.equals(fingerprint) && this.placeholders.equals(placeholders);
+        }
+    }
+}
@@ -65,6 +65,11 @@ public class DbValidate {
      */
     private boolean outOfOrder;
 
+    /**
+     * The number of most recently applied migrations whose checksum is validated. {@code 0} for all.
+     */
+    private final int checksumValidationLimit;
+
     /**
      * Creates a new database validator.
      *
@@ -73,15 +78,18 @@ public class DbValidate {
      * @param migrationResolver       The migration resolver.
      * @param target                  The target version of the migration.
      * @param outOfOrder              Allows migrations to be run "out of order".
+     * @param checksumValidationLimit The number of most recently applied migrations whose checksum is validated.
+     *                                {@code 0} for all.
      */
     public DbValidate(Connection connectionMetaDataTable,
                       MetaDataTable metaDataTable, MigrationResolver migrationResolver,
-                      MigrationVersion target, boolean outOfOrder) {
+                      MigrationVersion target, boolean outOfOrder, int checksumValidationLimit) {
         this.connectionMetaDataTable = connectionMetaDataTable;
         this.metaDataTable = metaDataTable;
         this.migrationResolver = migrationResolver;
         this.target = target;
         this.outOfOrder = outOfOrder;
+        this.checksumValidationLimit = checksumValidationLimit;
     }
 
     /**
@@ -107,7 +115,7 @@ public class DbValidate {
                 }
 
                 int count = migrationInfoService.all().length;
-                String validationError = migrationInfoService.validate();
+                String validationError = migrationInfoService.validate(checksumValidationLimit);
                 return Pair.of(count, validationError);
             }
         });
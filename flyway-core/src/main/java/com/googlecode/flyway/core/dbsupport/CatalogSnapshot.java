@@ -0,0 +1,118 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.dbsupport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The objects of a schema, as read from the database catalog in a single sweep. This saves querying the catalog once
+ * per object type, which is slow on databases with large catalogs, such as Oracle.
+ */
+public class CatalogSnapshot {
+    /**
+     * The names of the objects of each type, by type, in the order in which they were added.
+     */
+    private final Map<String, List<String>> names = new HashMap<String, List<String>>();
+
+    /**
+     * The details of the objects of each type, by type, in the same order as their names.
+     */
+    private final Map<String, List<String>> details = new HashMap<String, List<String>>();
+
+    /**
+     * The dependencies between the objects, as pairs of dependent object name and dependency object name.
+     */
+    private final List<String[]> dependencies = new ArrayList<String[]>();
+
+    /**
+     * Adds this object to the snapshot.
+     *
+     * @param type The type of the object.
+     * @param name The name of the object.
+     */
+    public void addObject(String type, String name) {
+        addObject(type, name, null);
+    }
+
+    /**
+     * Adds this object to the snapshot.
+     *
+     * @param type   The type of the object.
+     * @param name   The name of the object.
+     * @param detail The additional information required to drop the object (the table of a constraint, ...).
+     *               {@code null} if none.
+     */
+    public void addObject(String type, String name, String detail) {
+        if (!names.containsKey(type)) {
+            names.put(type, new ArrayList<String>());
+            details.put(type, new ArrayList<String>());
+        }
+        names.get(type).add(name);
+        details.get(type).add(detail);
+    }
+
+    /**
+     * Retrieves the names of the objects of this type.
+     *
+     * @param type The type of the objects.
+     * @return The names of the objects. An empty list if there are none.
+     */
+    public List<String> getNames(String type) {
+        List<String> objectNames = names.get(type);
+        if (objectNames == null) {
+            return new ArrayList<String>();
+        }
+        return objectNames;
+    }
+
+    /**
+     * Retrieves the details of the objects of this type.
+     *
+     * @param type The type of the objects.
+     * @return The details of the objects, in the same order as their names. An empty list if there are none.
+     */
+    public List<String> getDetails(String type) {
+        List<String> objectDetails = details.get(type);
+        if (objectDetails == null) {
+            return new ArrayList<String>();
+        }
+        return objectDetails;
+    }
+
+    /**
+     * Records that this object depends on this other object.
+     *
+     * @param dependent  The name of the dependent object.
+     * @param dependency The name of the object it depends on.
+     */
+    public void addDependency(String dependent, String dependency) {
+        dependencies.add(new String[]{dependent, dependency});
+    }
+
+    /**
+     * Adds the dependencies between the objects of this snapshot to this clean plan.
+     *
+     * @param cleanPlan The clean plan.
+     */
+    public void addDependenciesTo(CleanPlan cleanPlan) {
+        for (String[] dependency : dependencies) {
+            cleanPlan.addDependency(dependency[0], dependency[1]);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.dbsupport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The statements for dropping a set of objects of a schema, along with the dependencies between these objects.
+ *
+ * <p>An object can only be dropped once all the objects depending on it have been dropped. The statements are
+ * therefore grouped into consecutive waves. The statements of a wave are independent of each other and can be
+ * executed concurrently.</p>
+ */
+public class CleanPlan {
+    /**
+     * The drop statement of each object, by object name, in the order in which the objects were added.
+     */
+    private final Map<String, String> statements = new LinkedHashMap<String, String>();
+
+    /**
+     * The objects each object depends on, by object name.
+     */
+    private final Map<String, List<String>> dependencies = new HashMap<String, List<String>>();
+
+    /**
+     * Adds this object to the plan.
+     *
+     * @param object    The name of the object.
+     * @param statement The statement for dropping it.
+     */
+    public void addDrop(String object, String statement) {
+        statements.put(object, statement);
+    }
+
+    /**
+     * Records that this object depends on this other object and must therefore be dropped first. Dependencies between
+     * objects that are not part of the plan and dependencies of an object on itself are ignored.
+     *
+     * @param dependent  The name of the dependent object.
+     * @param dependency The name of the object it depends on.
+     */
+    public void addDependency(String dependent, String dependency) {
+        if (dependent.equals(dependency)) {
+            return;
+        }
+
+        List<String> objects = dependencies.get(dependent);
+        if (objects == null) {
+            objects = new ArrayList<String>();
+            dependencies.put(dependent, objects);
+        }
+        objects.add(dependency);
+    }
+
+    /**
+     * @return The drop statements, in the order in which the objects were added.
+     */
+    public List<String> getStatements() {
+        return new ArrayList<String>(statements.values());
+    }
+
+    /**
+     * Groups the drop statements into consecutive waves of independent statements.
+     *
+     * @return The waves, in the order in which they must be executed. {@code null} if the dependencies are circular,
+     * in which case the objects must be dropped in the order in which they were added.
+     */
+    public List<List<String>> getWaves() {
+        Map<String, Integer> remainingDependents = new HashMap<String, Integer>();
+        for (String object : statements.keySet()) {
+            remainingDependents.put(object, 0);
+        }
+        for (String object : statements.keySet()) {
+            for (String dependency : getDependencies(object)) {
+                remainingDependents.put(dependency, remainingDependents.get(dependency) + 1);
+            }
+        }
+
+        List<String> wave = new ArrayList<String>();
+        for (String object : statements.keySet()) {
+            if (remainingDependents.get(object) == 0) {
+                wave.add(object);
+            }
+        }
+
+        List<List<String>> waves = new ArrayList<List<String>>();
+        int dropped = 0;
+        while (!wave.isEmpty()) {
+            List<String> waveStatements = new ArrayList<String>();
+            List<String> nextWave = new ArrayList<String>();
+            for (String object : wave) {
+                waveStatements.add(statements.get(object));
+                dropped++;
+
+                for (String dependency : getDependencies(object)) {
+                    int count = remainingDependents.get(dependency) - 1;
+                    remainingDependents.put(dependency, count);
+                    if (count == 0) {
+                        nextWave.add(dependency);
+                    }
+                }
+            }
+            waves.add(waveStatements);
+            wave = nextWave;
+        }
+
+        if (dropped < statements.size()) {
+            return null;
+        }
+        return waves;
+    }
+
+    /**
+     * Retrieves the objects of the plan this object depends on.
+     *
+     * @param object The name of the object.
+     * @return The names of the objects it depends on.
+     */
+    private List<String> getDependencies(String object) {
+        List<String> result = new ArrayList<String>();
+        List<String> objects = dependencies.get(object);
+        if (objects != null) {
+            for (String dependency : objects) {
+                if (statements.containsKey(dependency)) {
+                    result.add(dependency);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -16,8 +16,11 @@
 package com.googlecode.flyway.core.dbsupport;
 
 import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.util.StringUtils;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Abstraction for database-specific functionality.
@@ -28,6 +31,11 @@ public abstract class DbSupport {
      */
     protected final JdbcTemplate jdbcTemplate;
 
+    /**
+     * Whether this database supports advisory locks. {@code null} if it hasn't been checked yet.
+     */
+    private Boolean advisoryLocksSupported;
+
     /**
      * Creates a new DbSupport instance with this JdbcTemplate.
      *
@@ -168,4 +176,134 @@ public abstract class DbSupport {
      * @return {@code true} if this database use a catalog to represent a schema. {@code false} if a schema is simply a schema.
      */
     public abstract boolean catalogIsSchema();
+
+    /**
+     * Checks whether this database supports advisory (application-level) locks. Unlike table locks, these do not
+     * block readers of the locked table.
+     *
+     * @return {@code true} if it does, {@code false} if table locks must be used instead.
+     */
+    public boolean supportsAdvisoryLocks() {
+        if (advisoryLocksSupported == null) {
+            try {
+                advisoryLocksSupported = doSupportsAdvisoryLocks();
+            } catch (SQLException e) {
+                throw new FlywayException("Unable to check whether the database supports advisory locks", e);
+            }
+        }
+        return advisoryLocksSupported;
+    }
+
+    /**
+     * Checks whether this database supports advisory (application-level) locks.
+     *
+     * @return {@code true} if it does, {@code false} if table locks must be used instead.
+     * @throws SQLException when the check failed.
+     */
+    protected boolean doSupportsAdvisoryLocks() throws SQLException {
+        return false;
+    }
+
+    /**
+     * Acquires the exclusive advisory lock with this name. It is held until the end of the current transaction, or
+     * until {@link #releaseAdvisoryLock(String)} is called for databases where such locks belong to the session.
+     *
+     * @param name    The name of the lock.
+     * @param timeout The maximum time to wait for the lock (in seconds). A negative value waits indefinitely.
+     * @throws FlywayException when the database doesn't support advisory locks or the lock could not be acquired
+     *                         within the timeout.
+     */
+    public void acquireAdvisoryLock(String name, int timeout) {
+        if (!supportsAdvisoryLocks()) {
+            throw new FlywayException("Advisory locks are not supported by this database. Lock the metadata table instead.");
+        }
+
+        boolean acquired;
+        try {
+            acquired = doAcquireAdvisoryLock(name, timeout);
+        } catch (SQLException e) {
+            throw new FlywayException("Unable to acquire advisory lock " + name, e);
+        }
+
+        if (!acquired) {
+            throw new FlywayException("Unable to acquire advisory lock " + name + " within " + timeout + " seconds");
+        }
+    }
+
+    /**
+     * Acquires the exclusive advisory lock with this name. Only called when {@link #doSupportsAdvisoryLocks()} returns
+     * {@code true}, so databases overriding that method must override this one as well.
+     *
+     * @param name    The name of the lock.
+     * @param timeout The maximum time to wait for the lock (in seconds). A negative value waits indefinitely.
+     * @return {@code true} if the lock was acquired, {@code false} if the timeout expired.
+     * @throws SQLException when the lock could not be acquired.
+     */
+    protected boolean doAcquireAdvisoryLock(String name, int timeout) throws SQLException {
+        return false;
+    }
+
+    /**
+     * Releases the advisory lock with this name, if it isn't released automatically at the end of the transaction.
+     *
+     * @param name The name of the lock.
+     */
+    public void releaseAdvisoryLock(String name) {
+        try {
+            doReleaseAdvisoryLock(name);
+        } catch (SQLException e) {
+            throw new FlywayException("Unable to release advisory lock " + name, e);
+        }
+    }
+
+    /**
+     * Releases the advisory lock with this name, if it isn't released automatically at the end of the transaction.
+     *
+     * @param name The name of the lock.
+     * @throws SQLException when the lock could not be released.
+     */
+    protected void doReleaseAdvisoryLock(String name) throws SQLException {
+        // Transaction-scoped by default. Nothing to do.
+    }
+
+    /**
+     * Checks whether this database supports taking snapshots of schemas with {@link #snapshot(Schema...)}.
+     *
+     * @return {@code true} if it does, {@code false} if not.
+     */
+    public boolean supportsSnapshots() {
+        return false;
+    }
+
+    /**
+     * Takes a snapshot of the structure and the data of these schemas.
+     *
+     * @param schemas The schemas to take the snapshot of.
+     * @return The statements to execute in order to recreate the contents of the schemas once they have been cleaned.
+     * @throws FlywayException when the database doesn't support snapshots or the snapshot could not be taken.
+     */
+    public List<String> snapshot(Schema... schemas) {
+        if (!supportsSnapshots()) {
+            throw new FlywayException("Snapshots are not supported by this database");
+        }
+
+        try {
+            return doSnapshot(schemas);
+        } catch (SQLException e) {
+            throw new FlywayException("Unable to take a snapshot of schemas "
+                    + StringUtils.arrayToCommaDelimitedString(schemas), e);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the structure and the data of these schemas. Only called when {@link #supportsSnapshots()}
+     * returns {@code true}, so databases overriding that method must override this one as well.
+     *
+     * @param schemas The schemas to take the snapshot of.
+     * @return The statements to execute in order to recreate the contents of the schemas once they have been cleaned.
+     * @throws SQLException when the snapshot could not be taken.
+     */
+    protected List<String> doSnapshot(Schema... schemas) throws SQLException {
+        return new ArrayList<String>();
+    }
 }
@@ -233,6 +233,37 @@ public class JdbcTemplate {
         }
     }
 
+    /**
+     * Executes these sql statements as a single batch using an ordinary Statement.
+     *
+     * @param sqls The statements to execute.
+     * @return The update counts of the statements, in order.
+     * @throws SQLException when the execution failed. This is a {@link java.sql.BatchUpdateException} when the
+     *                      driver was able to report which statements of the batch were executed.
+     */
+    public int[] executeBatch(List<String> sqls) throws SQLException {
+        Statement statement = null;
+        try {
+            statement = connection.createStatement();
+            for (String sql : sqls) {
+                statement.addBatch(sql);
+            }
+            return statement.executeBatch();
+        } finally {
+            JdbcUtils.closeStatement(statement);
+        }
+    }
+
+    /**
+     * Checks whether the database and its driver support batch updates.
+     *
+     * @return {@code true} if they do, {@code false} if not.
+     * @throws SQLException when the database metadata could not be retrieved.
+     */
+    public boolean supportsBatchUpdates() throws SQLException {
+        return connection.getMetaData().supportsBatchUpdates();
+    }
+
     /**
      * Executes this update sql statement.
      *
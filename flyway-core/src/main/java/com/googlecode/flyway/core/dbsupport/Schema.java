@@ -27,6 +27,11 @@ import java.util.List;
  * Represents a database schema.
  */
 public abstract class Schema {
+    /**
+     * The maximum number of drop statements to send to the database in a single round trip.
+     */
+    private static final int DROP_BATCH_SIZE = 100;
+
     /**
      * The Jdbc Template for communicating with the DB.
      */
@@ -42,6 +47,11 @@ public abstract class Schema {
      */
     protected final String name;
 
+    /**
+     * The snapshot of the catalog of this schema for the clean in progress. {@code null} if none has been taken yet.
+     */
+    private CatalogSnapshot catalogSnapshot;
+
     /**
      * Creates a new schema.
      *
@@ -148,6 +158,8 @@ public abstract class Schema {
             doClean();
         } catch (SQLException e) {
             throw new FlywayException("Unable to clean schema " + this, e);
+        } finally {
+            catalogSnapshot = null;
         }
     }
 
@@ -158,6 +170,126 @@ public abstract class Schema {
      */
     protected abstract void doClean() throws SQLException;
 
+    /**
+     * Cleans this schema by dropping and recreating it with the same owner and privileges. This is much faster than
+     * dropping all objects one by one on databases that support dropping a schema with all its contents. The schema
+     * is cleaned normally on all other databases.
+     */
+    public void recreate() {
+        try {
+            if (!doRecreate()) {
+                doClean();
+            }
+        } catch (SQLException e) {
+            throw new FlywayException("Unable to recreate schema " + this, e);
+        } finally {
+            catalogSnapshot = null;
+        }
+    }
+
+    /**
+     * Drops this schema with all its contents and recreates it with the same owner and privileges.
+     *
+     * @return {@code true} if the schema was recreated, {@code false} if this isn't supported and the schema must be
+     * cleaned instead.
+     * @throws SQLException when the schema could not be recreated.
+     */
+    protected boolean doRecreate() throws SQLException {
+        return false;
+    }
+
+    /**
+     * Executes these drop statements in order, sending them to the database in batches to save a round trip per
+     * statement.
+     *
+     * @param statements The drop statements to execute.
+     * @throws SQLException when a statement could not be executed.
+     */
+    protected final void executeDropStatements(List<String> statements) throws SQLException {
+        for (int i = 0; i < statements.size(); i += DROP_BATCH_SIZE) {
+            List<String> batch = statements.subList(i, Math.min(i + DROP_BATCH_SIZE, statements.size()));
+            if (batch.size() == 1) {
+                jdbcTemplate.execute(batch.get(0));
+            } else {
+                doExecuteDropBatch(batch);
+            }
+        }
+    }
+
+    /**
+     * Executes these drop statements in order as a single batch. This uses JDBC batching when the driver supports it
+     * and falls back to executing the statements one by one otherwise.
+     *
+     * @param statements The drop statements to execute. At least two.
+     * @throws SQLException when a statement could not be executed.
+     */
+    protected void doExecuteDropBatch(List<String> statements) throws SQLException {
+        if (jdbcTemplate.supportsBatchUpdates()) {
+            jdbcTemplate.executeBatch(statements);
+            return;
+        }
+
+        for (String statement : statements) {
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    /**
+     * Creates the plan for dropping the objects of this schema concurrently. The plan doesn't have to cover all
+     * objects, as the schema is always cleaned normally afterwards to drop the remaining ones.
+     *
+     * @return The plan. {@code null} if the dependencies between the objects of this schema can't be determined.
+     */
+    public CleanPlan createCleanPlan() {
+        try {
+            return doCreateCleanPlan();
+        } catch (SQLException e) {
+            throw new FlywayException("Unable to create the clean plan for schema " + this, e);
+        } finally {
+            catalogSnapshot = null;
+        }
+    }
+
+    /**
+     * Creates the plan for dropping the objects of this schema concurrently.
+     *
+     * @return The plan. {@code null} if the dependencies between the objects of this schema can't be determined.
+     * @throws SQLException when the plan could not be created.
+     */
+    protected CleanPlan doCreateCleanPlan() throws SQLException {
+        return null;
+    }
+
+    /**
+     * Retrieves the snapshot of the catalog of this schema. The catalog is only read on first access. The snapshot is
+     * then reused until the clean (or the creation of the clean plan) completes, so it doesn't reflect the objects
+     * dropped in the meantime.
+     *
+     * @return The snapshot.
+     * @throws SQLException when the catalog could not be read.
+     */
+    protected final CatalogSnapshot getCatalogSnapshot() throws SQLException {
+        if (catalogSnapshot == null) {
+            catalogSnapshot = doSnapshotCatalog();
+        }
+        return catalogSnapshot;
+    }
+
+    /**
+     * Reads the objects of this schema from the database catalog in as few queries as possible. The default
+     * implementation only holds the tables, as listed by {@link #doAllTables()}, without any dependencies.
+     *
+     * @return The snapshot of the catalog.
+     * @throws SQLException when the catalog could not be read.
+     */
+    protected CatalogSnapshot doSnapshotCatalog() throws SQLException {
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+        for (Table table : doAllTables()) {
+            catalogSnapshot.addObject("TABLE", table.getName());
+        }
+        return catalogSnapshot;
+    }
+
     /**
      * Retrieves all the tables in this schema.
      *
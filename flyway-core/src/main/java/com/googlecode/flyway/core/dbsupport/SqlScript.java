@@ -17,16 +17,17 @@ package com.googlecode.flyway.core.dbsupport;
 
 import com.googlecode.flyway.core.api.FlywayException;
 import com.googlecode.flyway.core.command.FlywaySqlScriptException;
-import com.googlecode.flyway.core.util.StringUtils;
+import com.googlecode.flyway.core.util.PlaceholderReplacer;
 import com.googlecode.flyway.core.util.logging.Log;
 import com.googlecode.flyway.core.util.logging.LogFactory;
 
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.sql.BatchUpdateException;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -34,7 +35,6 @@ import java.util.List;
  * comments are stripped and ignored.
  */
 public class SqlScript {
-
     private static final Log LOG = LogFactory.getLog(SqlScript.class);
 
     /**
@@ -43,10 +43,20 @@ public class SqlScript {
     private final DbSupport dbSupport;
 
     /**
-     * The sql statements contained in this script.
+     * The sql statements contained in this script. {@code null} if this script is streamed.
      */
     private final List<SqlStatement> sqlStatements;
 
+    /**
+     * The reader for the source of this script if it is streamed. {@code null} if it was parsed upfront.
+     */
+    private final Reader sqlScriptReader;
+
+    /**
+     * The placeholder replacer to apply to the lines of this script if it is streamed.
+     */
+    private final PlaceholderReplacer placeholderReplacer;
+
     /**
      * Creates a new sql script from this source with these placeholders to replace.
      *
@@ -56,6 +66,24 @@ public class SqlScript {
     public SqlScript(String sqlScriptSource, DbSupport dbSupport) {
         this.dbSupport = dbSupport;
         this.sqlStatements = parse(sqlScriptSource);
+        this.sqlScriptReader = null;
+        this.placeholderReplacer = null;
+    }
+
+    /**
+     * Creates a new streamed sql script. Statements are read from the reader one at a time and are executed as soon as
+     * they are terminated. This keeps the memory usage bounded by the size of the largest statement instead of the size
+     * of the whole script. A streamed script can only be executed once.
+     *
+     * @param sqlScriptReader     The reader for the source of the sql script. It is closed after execution.
+     * @param placeholderReplacer The placeholder replacer to apply to the lines of the script as they are read.
+     * @param dbSupport           The database-specific support.
+     */
+    public SqlScript(Reader sqlScriptReader, PlaceholderReplacer placeholderReplacer, DbSupport dbSupport) {
+        this.dbSupport = dbSupport;
+        this.sqlStatements = null;
+        this.sqlScriptReader = sqlScriptReader;
+        this.placeholderReplacer = placeholderReplacer;
     }
 
     /**
@@ -66,12 +94,14 @@ public class SqlScript {
     SqlScript(DbSupport dbSupport) {
         this.dbSupport = dbSupport;
         this.sqlStatements = null;
+        this.sqlScriptReader = null;
+        this.placeholderReplacer = null;
     }
 
     /**
      * For increased testability.
      *
-     * @return The sql statements contained in this script.
+     * @return The sql statements contained in this script. {@code null} if this script is streamed.
      */
     public List<SqlStatement> getSqlStatements() {
         return sqlStatements;
@@ -83,128 +113,188 @@ public class SqlScript {
      * @param jdbcTemplate The jdbc template to use to execute this script.
      */
     public void execute(final JdbcTemplate jdbcTemplate) {
-        for (SqlStatement sqlStatement : sqlStatements) {
-            String sql = sqlStatement.getSql();
-            LOG.debug("Executing SQL: " + sql);
-
-            try {
-                jdbcTemplate.executeStatement(sql);
-            } catch (SQLException e) {
-                throw new FlywaySqlScriptException(sqlStatement.getLineNumber(), sql, e);
-            }
-        }
+        execute(jdbcTemplate, 0);
     }
 
     /**
-     * Parses this script source into statements.
+     * Executes this script against the database, sending runs of consecutive data manipulation statements as JDBC
+     * batches. This saves one round trip per statement, which makes a big difference for scripts loading large
+     * amounts of data over slow links.
      *
-     * @param sqlScriptSource The script source to parse.
-     * @return The parsed statements.
+     * @param jdbcTemplate The jdbc template to use to execute this script.
+     * @param batchSize    The maximum number of statements per batch. {@code 0} or {@code 1} to execute every
+     *                     statement on its own.
      */
-    /* private -> for testing */
-    List<SqlStatement> parse(String sqlScriptSource) {
-        return linesToStatements(readLines(new StringReader(sqlScriptSource)));
+    public void execute(final JdbcTemplate jdbcTemplate, int batchSize) {
+        if ((batchSize > 1) && !supportsBatchUpdates(jdbcTemplate)) {
+            LOG.debug("Batch updates are not supported by the database. Executing statements one by one.");
+            batchSize = 0;
+        }
+
+        if (sqlStatements != null) {
+            execute(jdbcTemplate, sqlStatements.iterator(), batchSize);
+            return;
+        }
+
+        SqlStatementIterator sqlStatementIterator = new SqlStatementIterator(sqlScriptReader, placeholderReplacer, dbSupport);
+        try {
+            execute(jdbcTemplate, sqlStatementIterator, batchSize);
+        } finally {
+            sqlStatementIterator.close();
+        }
     }
 
     /**
-     * Turns these lines in a series of statements.
+     * Executes these statements against the database.
      *
-     * @param lines The lines to analyse.
-     * @return The statements contained in these lines (in order).
+     * @param jdbcTemplate  The jdbc template to use to execute the statements.
+     * @param sqlStatements The statements to execute.
+     * @param batchSize     The maximum number of statements per batch. {@code 0} or {@code 1} to disable batching.
      */
-    /* private -> for testing */
-    List<SqlStatement> linesToStatements(List<String> lines) {
-        List<SqlStatement> statements = new ArrayList<SqlStatement>();
+    private void execute(JdbcTemplate jdbcTemplate, Iterator<SqlStatement> sqlStatements, int batchSize) {
+        List<SqlStatement> batch = new ArrayList<SqlStatement>();
+        while (sqlStatements.hasNext()) {
+            SqlStatement sqlStatement = sqlStatements.next();
+
+            if ((batchSize > 1) && sqlStatement.isBatchable()) {
+                batch.add(sqlStatement);
+                if (batch.size() >= batchSize) {
+                    executeBatch(jdbcTemplate, batch);
+                }
+                continue;
+            }
 
-        boolean inMultilineComment = false;
-        Delimiter nonStandardDelimiter = null;
-        SqlStatementBuilder sqlStatementBuilder = dbSupport.createSqlStatementBuilder();
+            executeBatch(jdbcTemplate, batch);
+            executeStatement(jdbcTemplate, sqlStatement);
+        }
+        executeBatch(jdbcTemplate, batch);
+    }
 
-        for (int lineNumber = 1; lineNumber <= lines.size(); lineNumber++) {
-            String line = lines.get(lineNumber - 1);
+    /**
+     * Executes this statement on its own against the database.
+     *
+     * @param jdbcTemplate The jdbc template to use to execute the statement.
+     * @param sqlStatement The statement to execute.
+     */
+    private void executeStatement(JdbcTemplate jdbcTemplate, SqlStatement sqlStatement) {
+        String sql = sqlStatement.getSql();
+        LOG.debug("Executing SQL: " + sql);
 
-            if (sqlStatementBuilder.isEmpty()) {
-                if (!StringUtils.hasText(line)) {
-                    // Skip empty line between statements.
-                    continue;
-                }
+        try {
+            jdbcTemplate.executeStatement(sql);
+        } catch (SQLException e) {
+            throw new FlywaySqlScriptException(sqlStatement.getLineNumber(), sql, e);
+        }
+    }
 
-                String trimmedLine = line.trim();
-
-                if (!sqlStatementBuilder.isCommentDirective(trimmedLine)) {
-                    if (trimmedLine.startsWith("/*")) {
-                        inMultilineComment = true;
-                    }
-
-                    if (inMultilineComment) {
-                        if (trimmedLine.endsWith("*/")) {
-                            inMultilineComment = false;
-                        }
-                        // Skip line part of a multi-line comment
-                        continue;
-                    }
-
-                    if (sqlStatementBuilder.isSingleLineComment(trimmedLine)) {
-                        // Skip single-line comment
-                        continue;
-                    }
-                }
+    /**
+     * Executes these statements as a single batch against the database and clears the list afterwards.
+     *
+     * @param jdbcTemplate The jdbc template to use to execute the statements.
+     * @param batch        The statements to execute. Nothing happens if it is empty.
+     */
+    private void executeBatch(JdbcTemplate jdbcTemplate, List<SqlStatement> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
 
-                Delimiter newDelimiter = sqlStatementBuilder.extractNewDelimiterFromLine(line);
-                if (newDelimiter != null) {
-                    nonStandardDelimiter = newDelimiter;
-                    // Skip this line as it was an explicit delimiter change directive outside of any statements.
-                    continue;
-                }
+        if (batch.size() == 1) {
+            executeStatement(jdbcTemplate, batch.get(0));
+            batch.clear();
+            return;
+        }
 
-                sqlStatementBuilder.setLineNumber(lineNumber);
+        List<String> sqls = new ArrayList<String>(batch.size());
+        for (SqlStatement sqlStatement : batch) {
+            LOG.debug("Batching SQL: " + sqlStatement.getSql());
+            sqls.add(sqlStatement.getSql());
+        }
 
-                // Start a new statement, marking it with this line number.
-                if (nonStandardDelimiter != null) {
-                    sqlStatementBuilder.setDelimiter(nonStandardDelimiter);
-                }
-            }
+        LOG.debug("Executing batch of " + sqls.size() + " statements starting at line " + batch.get(0).getLineNumber());
+        try {
+            jdbcTemplate.executeBatch(sqls);
+        } catch (BatchUpdateException e) {
+            SqlStatement failedStatement = batch.get(getFailedStatementIndex(e.getUpdateCounts(), batch.size()));
+            throw new FlywaySqlScriptException(failedStatement.getLineNumber(), failedStatement.getSql(), e);
+        } catch (SQLException e) {
+            SqlStatement firstStatement = batch.get(0);
+            throw new FlywaySqlScriptException(firstStatement.getLineNumber(), firstStatement.getSql(), e);
+        }
 
-            sqlStatementBuilder.addLine(line);
+        batch.clear();
+    }
 
-            if (sqlStatementBuilder.isTerminated()) {
-                SqlStatement sqlStatement = sqlStatementBuilder.getSqlStatement();
-                statements.add(sqlStatement);
-                LOG.debug("Found statement at line " + sqlStatement.getLineNumber() + ": " + sqlStatement.getSql());
+    /**
+     * Determines which statement of a batch failed based on the update counts reported by the driver.
+     *
+     * @param updateCounts The update counts of the failed batch.
+     * @param batchSize    The number of statements in the batch.
+     * @return The index of the failed statement. {@code 0} if it could not be determined.
+     */
+    /* private -> for testing */
+    static int getFailedStatementIndex(int[] updateCounts, int batchSize) {
+        if (updateCounts == null) {
+            return 0;
+        }
 
-                sqlStatementBuilder = dbSupport.createSqlStatementBuilder();
+        if (updateCounts.length < batchSize) {
+            // The driver stopped at the first failure: all statements before it succeeded.
+            return updateCounts.length;
+        }
+
+        // The driver continued after the failure: look for the first statement marked as failed.
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                return i;
             }
         }
+        return 0;
+    }
 
-        // Catch any statements not followed by delimiter.
-        if (!sqlStatementBuilder.isEmpty()) {
-            statements.add(sqlStatementBuilder.getSqlStatement());
+    /**
+     * Checks whether the database behind this jdbc template supports batch updates.
+     *
+     * @param jdbcTemplate The jdbc template to check.
+     * @return {@code true} if it does, {@code false} if not.
+     */
+    private static boolean supportsBatchUpdates(JdbcTemplate jdbcTemplate) {
+        try {
+            return jdbcTemplate.supportsBatchUpdates();
+        } catch (SQLException e) {
+            throw new FlywayException("Unable to check whether the database supports batch updates", e);
         }
+    }
 
+    /**
+     * Parses this script source into statements.
+     *
+     * @param sqlScriptSource The script source to parse.
+     * @return The parsed statements.
+     */
+    /* private -> for testing */
+    List<SqlStatement> parse(String sqlScriptSource) {
+        List<SqlStatement> statements = new ArrayList<SqlStatement>();
+        Iterator<SqlStatement> iterator =
+                new SqlStatementIterator(new StringReader(sqlScriptSource), PlaceholderReplacer.NO_PLACEHOLDERS, dbSupport);
+        while (iterator.hasNext()) {
+            statements.add(iterator.next());
+        }
         return statements;
     }
 
     /**
-     * Parses the textual data provided by this reader into a list of lines.
+     * Turns these lines in a series of statements.
      *
-     * @param reader The reader for the textual data.
-     * @return The list of lines (in order).
-     * @throws IllegalStateException Thrown when the textual data parsing failed.
+     * @param lines The lines to analyse.
+     * @return The statements contained in these lines (in order).
      */
-    private List<String> readLines(Reader reader) {
-        List<String> lines = new ArrayList<String>();
-
-        BufferedReader bufferedReader = new BufferedReader(reader);
-        String line;
-
-        try {
-            while ((line = bufferedReader.readLine()) != null) {
-                lines.add(line);
-            }
-        } catch (IOException e) {
-            throw new FlywayException("Cannot parse lines", e);
+    /* private -> for testing */
+    List<SqlStatement> linesToStatements(List<String> lines) {
+        StringBuilder source = new StringBuilder();
+        for (String line : lines) {
+            source.append(line).append("\n");
         }
 
-        return lines;
+        return parse(source.toString());
     }
 }
@@ -59,4 +59,64 @@ public class SqlStatement {
     public String getSql() {
         return sql;
     }
+
+    /**
+     * Checks whether this statement can be sent to the database as part of a JDBC batch. This is the case for plain
+     * data manipulation statements (INSERT, UPDATE, DELETE and MERGE), which neither return a result set nor change
+     * the structure of the database. Statements with a RETURNING clause (PostgreSQL, Oracle) are excluded, as they
+     * return a result set.
+     *
+     * @return {@code true} if it can, {@code false} if it must be executed on its own.
+     */
+    public boolean isBatchable() {
+        int start = 0;
+        while ((start < sql.length()) && (sql.charAt(start) <= ' ')) {
+            start++;
+        }
+
+        boolean dataManipulation = startsWithKeyword(start, "INSERT")
+                || startsWithKeyword(start, "UPDATE")
+                || startsWithKeyword(start, "DELETE")
+                || startsWithKeyword(start, "MERGE");
+        return dataManipulation && !containsKeyword("RETURNING");
+    }
+
+    /**
+     * Checks whether the sql of this statement contains this keyword as a word of its own, ignoring case.
+     *
+     * @param keyword The keyword to look for.
+     * @return {@code true} if it does, {@code false} if not.
+     */
+    private boolean containsKeyword(String keyword) {
+        for (int i = 0; i <= sql.length() - keyword.length(); i++) {
+            if (sql.regionMatches(true, i, keyword, 0, keyword.length())
+                    && ((i == 0) || !isWordCharacter(sql.charAt(i - 1)))
+                    && ((i + keyword.length() == sql.length()) || !isWordCharacter(sql.charAt(i + keyword.length())))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param c The character to check.
+     * @return {@code true} if this character can be part of an identifier or keyword, {@code false} if not.
+     */
+    private static boolean isWordCharacter(char c) {
+        return Character.isLetterOrDigit(c) || (c == '_');
+    }
+
+    /**
+     * Checks whether the sql of this statement has this keyword at this position.
+     *
+     * @param start   The position to check.
+     * @param keyword The keyword to look for.
+     * @return {@code true} if the keyword is present and followed by whitespace, {@code false} if not.
+     */
+    private boolean startsWithKeyword(int start, String keyword) {
+        int end = start + keyword.length();
+        return sql.regionMatches(true, start, keyword, 0, keyword.length())
+                && (end < sql.length())
+                && (sql.charAt(end) <= ' ');
+    }
 }
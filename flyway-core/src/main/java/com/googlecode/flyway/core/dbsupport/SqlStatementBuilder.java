@@ -15,13 +15,11 @@
  */
 package com.googlecode.flyway.core.dbsupport;
 
-import com.googlecode.flyway.core.util.StringUtils;
-
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Builds a SQL statement, one line at a time.
+ * <p>Every line is scanned exactly once by a character-level lexer which keeps track of string literals, quoted
+ * identifiers, alternate quotes and comments across lines. Database-specific subclasses plug into this lexer through
+ * the protected hooks of this class.</p>
  */
 public class SqlStatementBuilder {
     /**
@@ -45,19 +43,15 @@ public class SqlStatementBuilder {
     private boolean terminated;
 
     /**
-     * Are we currently inside a ' multi-line string literal.
-     */
-    private boolean insideQuoteStringLiteral = false;
-
-    /**
-     * Are we currently inside an alternate multi-line string literal.
+     * The quote that is expected to close the string literal, quoted identifier or alternate quote we are currently
+     * inside of. {@code null} if we are not inside any of these.
      */
-    private boolean insideAlternateQuoteStringLiteral = false;
+    private String closeQuote;
 
     /**
-     * The alternate quote that is expected to close the string literal.
+     * Whether a backslash escapes the character following it inside the current string literal.
      */
-    private String alternateQuote;
+    private boolean backslashEscapesInsideQuote;
 
     /**
      * Are we inside a multi-line /*  *&#47; comment.
@@ -143,7 +137,7 @@ public class SqlStatementBuilder {
      * @return {@code true} if it is, {@code false} if not.
      */
     public boolean isSingleLineComment(String line) {
-        return line.startsWith("--");
+        return isSingleLineCommentStart(line, 0);
     }
 
     /**
@@ -158,32 +152,110 @@ public class SqlStatementBuilder {
             statement.append("\n");
         }
 
-        String lineSimplified = simplifyLine(line);
+        int lineStart = statement.length();
+        statement.append(line);
 
-        if (endsWithOpenMultilineStringLiteral(lineSimplified)) {
-            statement.append(line);
+        if (endsWithOpenMultilineStringLiteral(line)) {
             return;
         }
 
-        delimiter = changeDelimiterIfNecessary(lineSimplified, delimiter);
+        delimiter = changeDelimiterIfNecessary(line, delimiter);
 
-        statement.append(line);
-
-        if (lineTerminatesStatement(lineSimplified, delimiter)) {
-            //TODO: Check if the delimiter can be stripped from the existing statement instead
-            statement = new StringBuilder(stripDelimiter(statement.toString(), delimiter));
-            terminated = true;
+        if (!insideMultiLineComment) {
+            int delimiterIndex = findTerminatingDelimiter(line, delimiter);
+            if (delimiterIndex >= 0) {
+                statement.setLength(lineStart + delimiterIndex);
+                terminated = true;
+            }
         }
     }
 
     /**
-     * Simplifies this line to make it easier to parse.
+     * Simplifies this line to make it easier to parse. Whitespace is collapsed and trimmed and all characters are
+     * converted to upper case.
      *
      * @param line The line to simplify.
      * @return The simplified line.
      */
     protected String simplifyLine(String line) {
-        return line.replaceAll("\\s+", " ").trim().toUpperCase();
+        StringBuilder simplified = new StringBuilder(line.length());
+        boolean whitespace = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c <= ' ') {
+                whitespace = true;
+                continue;
+            }
+            if (whitespace && (simplified.length() > 0)) {
+                simplified.append(' ');
+            }
+            whitespace = false;
+            simplified.append(Character.toUpperCase(c));
+        }
+        return simplified.toString();
+    }
+
+    /**
+     * Checks whether this line starts with this prefix, ignoring case and leading whitespace.
+     *
+     * @param line   The line to check.
+     * @param prefix The prefix to look for, without whitespace.
+     * @return {@code true} if it does, {@code false} if not.
+     */
+    protected static boolean startsWithIgnoreCase(String line, String prefix) {
+        int start = 0;
+        while ((start < line.length()) && (line.charAt(start) <= ' ')) {
+            start++;
+        }
+        return line.regionMatches(true, start, prefix, 0, prefix.length());
+    }
+
+    /**
+     * Checks whether this line ends with this suffix, ignoring case and trailing whitespace.
+     *
+     * @param line   The line to check.
+     * @param suffix The suffix to look for, without whitespace.
+     * @return {@code true} if it does, {@code false} if not.
+     */
+    protected static boolean endsWithIgnoreCase(String line, String suffix) {
+        int end = line.length();
+        while ((end > 0) && (line.charAt(end - 1) <= ' ')) {
+            end--;
+        }
+        int start = end - suffix.length();
+        return (start >= 0) && line.regionMatches(true, start, suffix, 0, suffix.length());
+    }
+
+    /**
+     * Checks whether this line contains these words, one after the other and separated by whitespace, ignoring case.
+     *
+     * @param line  The line to check.
+     * @param words The words to look for.
+     * @return {@code true} if it does, {@code false} if not.
+     */
+    protected static boolean containsWordsIgnoreCase(String line, String... words) {
+        for (int start = 0; start < line.length(); start++) {
+            int index = start;
+            boolean matches = true;
+            for (int i = 0; matches && (i < words.length); i++) {
+                if (i > 0) {
+                    int whitespaceStart = index;
+                    while ((index < line.length()) && (line.charAt(index) <= ' ')) {
+                        index++;
+                    }
+                    matches = index > whitespaceStart;
+                }
+                if (matches && line.regionMatches(true, index, words[i], 0, words[i].length())) {
+                    index += words[i].length();
+                } else {
+                    matches = false;
+                }
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -200,45 +272,59 @@ public class SqlStatementBuilder {
     }
 
     /**
-     * Checks whether this line terminates the current statement.
+     * Looks for this delimiter at the end of this line.
      *
      * @param line      The line to check.
      * @param delimiter The current delimiter.
-     * @return {@code true} if it does, {@code false} if it doesn't.
+     * @return The index of the delimiter within the line if it terminates the statement, {@code -1} if it doesn't.
      */
-    private boolean lineTerminatesStatement(String line, Delimiter delimiter) {
+    private static int findTerminatingDelimiter(String line, Delimiter delimiter) {
         if (delimiter == null) {
-            return false;
+            return -1;
         }
 
-        String upperCaseDelimiter = delimiter.getDelimiter().toUpperCase();
+        String delimiterText = delimiter.getDelimiter();
+        int end = line.length();
+        while ((end > 0) && (line.charAt(end - 1) <= ' ')) {
+            end--;
+        }
+
+        int start = end - delimiterText.length();
+        if ((start < 0) || !line.regionMatches(true, start, delimiterText, 0, delimiterText.length())) {
+            return -1;
+        }
 
         if (delimiter.isAloneOnLine()) {
-            return line.equals(upperCaseDelimiter);
+            for (int i = 0; i < start; i++) {
+                if (line.charAt(i) > ' ') {
+                    return -1;
+                }
+            }
         }
 
-        return line.endsWith(upperCaseDelimiter);
+        return start;
     }
 
     /**
-     * Strips this delimiter from this sql statement.
+     * Checks whether a single-line comment starts at this position of the line.
      *
-     * @param sql       The statement to parse.
-     * @param delimiter The delimiter to strip.
-     * @return The sql statement without delimiter.
+     * @param line  The line to analyse.
+     * @param index The position within the line.
+     * @return {@code true} if it does, {@code false} if not.
      */
-    /* private -> testing */
-    static String stripDelimiter(String sql, Delimiter delimiter) {
-        return sql.substring(0, sql.toLowerCase().lastIndexOf(delimiter.getDelimiter().toLowerCase()));
+    protected boolean isSingleLineCommentStart(String line, int index) {
+        return line.startsWith("--", index);
     }
 
     /**
-     * Extracts the alternate open quote from this token (if any).
+     * Extracts the alternate open quote starting at this position of the line (if any). This is only called at the
+     * start of a token, outside of string literals and comments.
      *
-     * @param token The token to check.
+     * @param line  The line to analyse.
+     * @param index The position within the line.
      * @return The alternate open quote. {@code null} if none.
      */
-    protected String extractAlternateOpenQuote(String token) {
+    protected String extractAlternateOpenQuote(String line, int index) {
         return null;
     }
 
@@ -252,6 +338,14 @@ public class SqlStatementBuilder {
         return openQuote;
     }
 
+    /**
+     * @return {@code true} if a backslash escapes the following character inside string literals, {@code false} if
+     *         it is a regular character.
+     */
+    protected boolean isBackslashEscapeSupported() {
+        return false;
+    }
+
     /**
      * Checks whether this line ends the statement with an open multi-line string literal (which will be
      * continued on the next line).
@@ -261,140 +355,109 @@ public class SqlStatementBuilder {
      *         literal. {@code false} if not.
      */
     protected boolean endsWithOpenMultilineStringLiteral(String line) {
-        //Ignore all special characters that naturally occur in SQL, but are not opening or closing string literals
-        String[] tokens = StringUtils.tokenizeToStringArray(line, " @<>;:=|(),");
-
-        List<TokenType> delimitingTokens = extractStringLiteralDelimitingTokens(tokens);
-
-        for (TokenType delimitingToken : delimitingTokens) {
-            if (!insideQuoteStringLiteral && !insideAlternateQuoteStringLiteral
-                    && TokenType.MULTI_LINE_COMMENT.equals(delimitingToken)) {
-                insideMultiLineComment = !insideMultiLineComment;
-            }
-
-            if (!insideQuoteStringLiteral && !insideAlternateQuoteStringLiteral && !insideMultiLineComment
-                    && TokenType.SINGLE_LINE_COMMENT.equals(delimitingToken)) {
-                return false;
-            }
-
-            if (!insideMultiLineComment && !insideQuoteStringLiteral &&
-                    TokenType.ALTERNATE_QUOTE.equals(delimitingToken)) {
-                insideAlternateQuoteStringLiteral = !insideAlternateQuoteStringLiteral;
-            }
-
-            if (!insideMultiLineComment && !insideAlternateQuoteStringLiteral &&
-                    TokenType.QUOTE.equals(delimitingToken)) {
-                insideQuoteStringLiteral = !insideQuoteStringLiteral;
+        int length = line.length();
+        int index = 0;
+        while (index < length) {
+            if (closeQuote != null) {
+                index = skipQuotedText(line, index);
+            } else if (insideMultiLineComment) {
+                int end = line.indexOf("*/", index);
+                if (end < 0) {
+                    break;
+                }
+                insideMultiLineComment = false;
+                index = end + 2;
+            } else {
+                index = skipUnquotedCharacter(line, index);
             }
         }
 
-        return insideQuoteStringLiteral || insideAlternateQuoteStringLiteral;
+        return closeQuote != null;
     }
 
     /**
-     * Extract the type of all tokens that potentially delimit string literals.
+     * Analyses the character at this position of the line, outside of any string literal or comment.
      *
-     * @param tokens The tokens to analyse.
-     * @return The list of potentially delimiting string literals token types per token. Tokens that do not have any
-     *         impact on string delimiting are discarded.
-     */
-    private List<TokenType> extractStringLiteralDelimitingTokens(String[] tokens) {
-        List<TokenType> delimitingTokens = new ArrayList<TokenType>();
-        for (String token : tokens) {
-            String cleanToken = removeCharsetCasting(removeEscapedQuotes(token));
-
-            if (alternateQuote == null) {
-                String alternateQuoteFromToken = extractAlternateOpenQuote(cleanToken);
-                if (alternateQuoteFromToken != null) {
-                    String closeQuote = computeAlternateCloseQuote(alternateQuoteFromToken);
-                    if (cleanToken.length() >= (alternateQuoteFromToken.length() + closeQuote.length())
-                            && cleanToken.startsWith(alternateQuoteFromToken) && cleanToken.endsWith(closeQuote)) {
-                        //Skip $$abc$$, ...
-                        continue;
-                    }
-
-                    alternateQuote = closeQuote;
-                    delimitingTokens.add(TokenType.ALTERNATE_QUOTE);
-
-                    if (cleanToken.startsWith("\"") && cleanToken.endsWith("'")) {
-                        // add QUOTE token for cases where token starts with a " and ends with a '
-                        delimitingTokens.add(TokenType.QUOTE);
-                    }
+     * @param line  The line to analyse.
+     * @param index The position within the line.
+     * @return The position of the next character to analyse.
+     */
+    private int skipUnquotedCharacter(String line, int index) {
+        char c = line.charAt(index);
 
-                    continue;
-                }
-            }
-            if ((alternateQuote != null) && cleanToken.endsWith(alternateQuote)) {
-                alternateQuote = null;
-                delimitingTokens.add(TokenType.ALTERNATE_QUOTE);
-                continue;
-            }
+        if ((c == '\'') || (c == '"')) {
+            closeQuote = (c == '\'') ? "'" : "\"";
+            backslashEscapesInsideQuote = isBackslashEscapeSupported();
+            return index + 1;
+        }
 
-            if ((cleanToken.length() >= 2) && cleanToken.startsWith("'") && cleanToken.endsWith("'")) {
-                //Skip '', 'abc', ...
-                continue;
-            }
-            if (cleanToken.startsWith("'") || cleanToken.endsWith("'")) {
-                delimitingTokens.add(TokenType.QUOTE);
-            }
+        if ((c == '/') && line.startsWith("*", index + 1)) {
+            insideMultiLineComment = true;
+            return index + 2;
+        }
 
-            if (isSingleLineComment(cleanToken)) {
-                delimitingTokens.add(TokenType.SINGLE_LINE_COMMENT);
-            }
+        if (isSingleLineCommentStart(line, index)) {
+            int endOfLine = line.indexOf('\n', index);
+            return (endOfLine < 0) ? line.length() : endOfLine + 1;
+        }
 
-            if ((cleanToken.length() >= 4) && cleanToken.startsWith("/*") && cleanToken.endsWith("*/")) {
-                //Skip /**/, /*comment*/, ...
-                continue;
-            }
-            if (cleanToken.startsWith("/*") || cleanToken.endsWith("*/")) {
-                delimitingTokens.add(TokenType.MULTI_LINE_COMMENT);
+        if (isTokenStart(line, index)) {
+            String alternateOpenQuote = extractAlternateOpenQuote(line, index);
+            if (alternateOpenQuote != null) {
+                closeQuote = computeAlternateCloseQuote(alternateOpenQuote);
+                backslashEscapesInsideQuote = false;
+                return index + alternateOpenQuote.length();
             }
         }
 
-        return delimitingTokens;
+        return index + 1;
     }
 
     /**
-     * Removes escaped quotes from this token.
-     * @param token The token to parse.
-     * @return The cleaned token.
+     * Skips the text of the string literal, quoted identifier or alternate quote we are currently inside of.
+     *
+     * @param line  The line to analyse.
+     * @param index The position within the line to start at.
+     * @return The position right after the closing quote, or the end of the line if the quote isn't closed on it.
      */
-    protected String removeEscapedQuotes(String token) {
-        return StringUtils.replaceAll(token, "''", "");
-    }
+    private int skipQuotedText(String line, int index) {
+        if (backslashEscapesInsideQuote) {
+            char quote = closeQuote.charAt(0);
+            for (int i = index; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    closeQuote = null;
+                    return i + 1;
+                }
+            }
+            return line.length();
+        }
 
-    /**
-     * Removes charset casting that prefixes string literals.
-     * Must be implemented in dialect specific sub classes.
-     * @param token The token to parse.
-     * @return The cleaned token.
-     */
-    protected String removeCharsetCasting(String token) {
-        return token;
+        // An escaped quote ('') simply closes and immediately reopens the literal.
+        int end = line.indexOf(closeQuote, index);
+        if (end < 0) {
+            return line.length();
+        }
+        end += closeQuote.length();
+        closeQuote = null;
+        return end;
     }
 
     /**
-     * The types of tokens relevant for string delimiter related parsing.
+     * Checks whether a new token starts at this position of the line.
+     *
+     * @param line  The line to analyse.
+     * @param index The position within the line.
+     * @return {@code true} if it does, {@code false} if the character is part of the same identifier or keyword as the
+     *         one preceding it.
      */
-    private static enum TokenType {
-        /**
-         * Token opens or closes a ' string literal
-         */
-        QUOTE,
-
-        /**
-         * Token opens or closes an alternate string literal
-         */
-        ALTERNATE_QUOTE,
-
-        /**
-         * Token starts end of line comment
-         */
-        SINGLE_LINE_COMMENT,
-
-        /**
-         * Token opens or closes multi-line comment
-         */
-        MULTI_LINE_COMMENT
+    private static boolean isTokenStart(String line, int index) {
+        if (index == 0) {
+            return true;
+        }
+        char previous = line.charAt(index - 1);
+        return !Character.isLetterOrDigit(previous) && (previous != '_') && (previous != '$');
     }
 }
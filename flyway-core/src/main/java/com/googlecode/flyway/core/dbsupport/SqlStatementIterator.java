@@ -0,0 +1,217 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.dbsupport;
+
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.util.PlaceholderReplacer;
+import com.googlecode.flyway.core.util.StringUtils;
+import com.googlecode.flyway.core.util.logging.Log;
+import com.googlecode.flyway.core.util.logging.LogFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily parses the statements of a sql script, reading it one line at a time. Only the statement currently being
+ * built is held in memory, which allows scripts of arbitrary size to be executed.
+ */
+public class SqlStatementIterator implements Iterator<SqlStatement> {
+    private static final Log LOG = LogFactory.getLog(SqlStatementIterator.class);
+
+    /**
+     * The database-specific support.
+     */
+    private final DbSupport dbSupport;
+
+    /**
+     * The reader for the script source.
+     */
+    private final BufferedReader reader;
+
+    /**
+     * The placeholder replacer to apply to each line as it is read.
+     */
+    private final PlaceholderReplacer placeholderReplacer;
+
+    /**
+     * The number of the last line read.
+     */
+    private int lineNumber;
+
+    /**
+     * Whether the last line read was part of a multi-line comment.
+     */
+    private boolean inMultilineComment;
+
+    /**
+     * The delimiter set by an explicit delimiter change directive. {@code null} if none was encountered yet.
+     */
+    private Delimiter nonStandardDelimiter;
+
+    /**
+     * The next statement to return. {@code null} if it hasn't been parsed yet.
+     */
+    private SqlStatement next;
+
+    /**
+     * Whether the end of the script has been reached.
+     */
+    private boolean finished;
+
+    /**
+     * Creates a new iterator over the statements of this script.
+     *
+     * @param reader              The reader for the script source. It is closed once the end of the script is reached.
+     * @param placeholderReplacer The placeholder replacer to apply to each line as it is read.
+     * @param dbSupport           The database-specific support.
+     */
+    public SqlStatementIterator(Reader reader, PlaceholderReplacer placeholderReplacer, DbSupport dbSupport) {
+        this.reader = new BufferedReader(reader);
+        this.placeholderReplacer = placeholderReplacer;
+        this.dbSupport = dbSupport;
+    }
+
+    public boolean hasNext() {
+        if ((next == null) && !finished) {
+            next = readNextStatement();
+        }
+        return next != null;
+    }
+
+    public SqlStatement next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        SqlStatement sqlStatement = next;
+        next = null;
+        return sqlStatement;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Reads lines until the next statement is terminated.
+     *
+     * @return The next statement or {@code null} if the end of the script has been reached.
+     */
+    private SqlStatement readNextStatement() {
+        SqlStatementBuilder sqlStatementBuilder = dbSupport.createSqlStatementBuilder();
+
+        String line;
+        while ((line = readLine()) != null) {
+            if (sqlStatementBuilder.isEmpty()) {
+                if (!StringUtils.hasText(line)) {
+                    // Skip empty line between statements.
+                    continue;
+                }
+
+                String trimmedLine = line.trim();
+
+                if (!sqlStatementBuilder.isCommentDirective(trimmedLine)) {
+                    if (trimmedLine.startsWith("/*")) {
+                        inMultilineComment = true;
+                    }
+
+                    if (inMultilineComment) {
+                        if (trimmedLine.endsWith("*/")) {
+                            inMultilineComment = false;
+                        }
+                        // Skip line part of a multi-line comment
+                        continue;
+                    }
+
+                    if (sqlStatementBuilder.isSingleLineComment(trimmedLine)) {
+                        // Skip single-line comment
+                        continue;
+                    }
+                }
+
+                Delimiter newDelimiter = sqlStatementBuilder.extractNewDelimiterFromLine(line);
+                if (newDelimiter != null) {
+                    nonStandardDelimiter = newDelimiter;
+                    // Skip this line as it was an explicit delimiter change directive outside of any statements.
+                    continue;
+                }
+
+                sqlStatementBuilder.setLineNumber(lineNumber);
+
+                // Start a new statement, marking it with this line number.
+                if (nonStandardDelimiter != null) {
+                    sqlStatementBuilder.setDelimiter(nonStandardDelimiter);
+                }
+            }
+
+            sqlStatementBuilder.addLine(line);
+
+            if (sqlStatementBuilder.isTerminated()) {
+                SqlStatement sqlStatement = sqlStatementBuilder.getSqlStatement();
+                LOG.debug("Found statement at line " + sqlStatement.getLineNumber() + ": " + sqlStatement.getSql());
+                return sqlStatement;
+            }
+        }
+
+        // Catch any statements not followed by delimiter.
+        if (!sqlStatementBuilder.isEmpty()) {
+            return sqlStatementBuilder.getSqlStatement();
+        }
+
+        return null;
+    }
+
+    /**
+     * Reads the next line of the script and replaces its placeholders.
+     *
+     * @return The line or {@code null} if the end of the script has been reached.
+     */
+    private String readLine() {
+        String line;
+        try {
+            line = reader.readLine();
+        } catch (IOException e) {
+            throw new FlywayException("Unable to read line " + (lineNumber + 1) + " of sql script", e);
+        }
+
+        if (line == null) {
+            finished = true;
+            close();
+            return null;
+        }
+
+        lineNumber++;
+        if ((lineNumber == 1) && line.startsWith("\ufeff")) {
+            //Strip UTF-8 BOM if necessary
+            line = line.substring(1);
+        }
+
+        return placeholderReplacer.replacePlaceholders(line);
+    }
+
+    /**
+     * Closes the underlying reader.
+     */
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            //Ignore
+        }
+    }
+}
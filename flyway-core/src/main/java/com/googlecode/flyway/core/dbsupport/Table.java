@@ -190,6 +190,19 @@ public abstract class Table extends SchemaObject {
         return columnSize;
     }
 
+    /**
+     * Retrieves the statement for dropping this table, so it can be executed along with the drop statements of other
+     * objects.
+     *
+     * @return The drop statement.
+     */
+    public abstract String getDropStatement();
+
+    @Override
+    protected void doDrop() throws SQLException {
+        jdbcTemplate.execute(getDropStatement());
+    }
+
     /**
      * Locks this table in this schema using a read/write pessimistic lock until the end of the current transaction.
      */
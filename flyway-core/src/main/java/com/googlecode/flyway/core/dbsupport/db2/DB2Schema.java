@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import com.googlecode.flyway.core.dbsupport.CatalogSnapshot;
 import com.googlecode.flyway.core.dbsupport.DbSupport;
 import com.googlecode.flyway.core.dbsupport.Function;
 import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
@@ -74,35 +75,31 @@ public class DB2Schema extends Schema {
     protected void doClean() throws SQLException {
         // MQTs are dropped when the backing views or tables are dropped
         // Indexes in DB2 are dropped when the corresponding table is dropped
+        CatalogSnapshot catalogSnapshot = getCatalogSnapshot();
 
         // drop versioned table link
-        for (String dropVersioningStatement : generateDropVersioningStatement()) {
-            jdbcTemplate.execute(dropVersioningStatement);
+        for (String tableName : catalogSnapshot.getNames("VERSIONED TABLE")) {
+            jdbcTemplate.execute("ALTER TABLE " + getTable(tableName) + " DROP VERSIONING");
         }
 
         // views
-        for (String dropStatement : generateDropStatements(name, "V", "VIEW")) {
-            jdbcTemplate.execute(dropStatement);
-        }
+        executeDropStatements(generateDropStatements("VIEW", catalogSnapshot.getNames("VIEW")));
 
         // aliases
-        for (String dropStatement : generateDropStatements(name, "A", "ALIAS")) {
-            jdbcTemplate.execute(dropStatement);
-        }
+        executeDropStatements(generateDropStatements("ALIAS", catalogSnapshot.getNames("ALIAS")));
 
-        for (Table table : allTables()) {
-            table.drop();
+        // tables
+        List<String> tableDropStatements = new ArrayList<String>();
+        for (String tableName : catalogSnapshot.getNames("TABLE")) {
+            tableDropStatements.add(getTable(tableName).getDropStatement());
         }
+        executeDropStatements(tableDropStatements);
 
         // sequences
-        for (String dropStatement : generateDropStatementsForSequences(name)) {
-            jdbcTemplate.execute(dropStatement);
-        }
+        executeDropStatements(generateDropStatements("SEQUENCE", catalogSnapshot.getNames("SEQUENCE")));
 
         // procedures
-        for (String dropStatement : generateDropStatementsForProcedures(name)) {
-            jdbcTemplate.execute(dropStatement);
-        }
+        executeDropStatements(generateDropStatements("PROCEDURE", catalogSnapshot.getNames("PROCEDURE")));
 
         for (Function function : allFunctions()) {
             function.drop();
@@ -113,82 +110,41 @@ public class DB2Schema extends Schema {
         }
     }
 
-
-
-    /**
-     * Generates DROP statements for the procedures in this schema.
-     *
-     * @param schema The schema of the objects.
-     * @return The drop statements.
-     * @throws SQLException when the statements could not be generated.
-     */
-    private List<String> generateDropStatementsForProcedures(String schema) throws SQLException {
-        String dropProcGenQuery = "select rtrim(PROCNAME) from SYSCAT.PROCEDURES where PROCSCHEMA = '" + schema + "'";
-        return buildDropStatements("DROP PROCEDURE", dropProcGenQuery, schema);
-    }
-
-    /**
-     * Generates DROP statements for the sequences in this schema.
-     *
-     * @param schema The schema of the objects.
-     * @return The drop statements.
-     * @throws SQLException when the statements could not be generated.
-     */
-    private List<String> generateDropStatementsForSequences(String schema) throws SQLException {
-        String dropSeqGenQuery = "select rtrim(SEQNAME) from SYSCAT.SEQUENCES where SEQSCHEMA = '" + schema
-                + "' and SEQTYPE='S'";
-        return buildDropStatements("DROP SEQUENCE", dropSeqGenQuery, schema);
+    @Override
+    protected CatalogSnapshot doSnapshotCatalog() throws SQLException {
+        List<Map<String, String>> objects = jdbcTemplate.queryForList(
+                "select case TYPE when 'V' then 'VIEW' when 'A' then 'ALIAS' else 'TABLE' end as OBJECT_TYPE,"
+                        + " rtrim(TABNAME) as OBJECT_NAME from SYSCAT.TABLES where TYPE in ('T', 'V', 'A') and TABSCHEMA = ?"
+                        + " union all select 'VERSIONED TABLE', rtrim(TABNAME) from SYSCAT.TABLES"
+                        + " where TEMPORALTYPE <> 'N' and TABSCHEMA = ?"
+                        + " union all select 'SEQUENCE', rtrim(SEQNAME) from SYSCAT.SEQUENCES"
+                        + " where SEQTYPE = 'S' and SEQSCHEMA = ?"
+                        + " union all select 'PROCEDURE', rtrim(PROCNAME) from SYSCAT.PROCEDURES where PROCSCHEMA = ?",
+                name, name, name, name);
+
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+        for (Map<String, String> object : objects) {
+            // Trim the padding added by the union of the type literals
+            catalogSnapshot.addObject(object.get("OBJECT_TYPE").trim(), object.get("OBJECT_NAME"));
+        }
+        return catalogSnapshot;
     }
 
     /**
-     * Generates DROP statements for this type of table, representing this type of object in this schema.
+     * Generates DROP statements for these objects of this type in this schema.
      *
-     * @param schema     The schema of the objects.
-     * @param tableType  The type of table (Can be T, V, S, ...).
-     * @param objectType The type of object.
+     * @param objectType  The type of the objects (VIEW, ALIAS, ...).
+     * @param objectNames The names of the objects.
      * @return The drop statements.
-     * @throws SQLException when the statements could not be generated.
-     */
-    private List<String> generateDropStatements(String schema, String tableType, String objectType) throws SQLException {
-        String dropTablesGenQuery = "select rtrim(TABNAME) from SYSCAT.TABLES where TYPE='" + tableType + "' and TABSCHEMA = '"
-                + schema + "'";
-        return buildDropStatements("DROP " + objectType, dropTablesGenQuery, schema);
-    }
-
-    /**
-     * Builds the drop statements for database objects in this schema.
-     *
-     * @param dropPrefix The drop command for the database object (e.g. 'drop table').
-     * @param query      The query to get all present database objects
-     * @param schema     The schema for which to build the statements.
-     * @return The statements.
-     * @throws SQLException when the drop statements could not be built.
      */
-    private List<String> buildDropStatements(final String dropPrefix, final String query, String schema) throws SQLException {
+    private List<String> generateDropStatements(String objectType, List<String> objectNames) {
         List<String> dropStatements = new ArrayList<String>();
-        List<String> dbObjects = jdbcTemplate.queryForStringList(query);
-        for (String dbObject : dbObjects) {
-            dropStatements.add(dropPrefix + " " + dbSupport.quote(schema, dbObject));
+        for (String objectName : objectNames) {
+            dropStatements.add("DROP " + objectType + " " + dbSupport.quote(name, objectName));
         }
         return dropStatements;
     }
 
-    /**
-     * Returns all tables that have versioning associated with them.
-     *
-     * @return
-     * @throws SQLException
-     */
-    private List<String> generateDropVersioningStatement() throws SQLException {
-        List<String> dropVersioningStatements = new ArrayList<String>();
-        Table[] versioningTables = findTables("select rtrim(TABNAME) from SYSCAT.TABLES where TEMPORALTYPE <> 'N' and TABSCHEMA = ?", name);
-        for(Table table : versioningTables) {
-            dropVersioningStatements.add("ALTER TABLE " + table.toString() + " DROP VERSIONING");
-        }
-
-        return dropVersioningStatements;
-    }
-
     private Table[] findTables(String sqlQuery, String ... params) throws SQLException {
         List<String> tableNames = jdbcTemplate.queryForStringList(sqlQuery, params);
         Table[] tables = new Table[tableNames.size()];
@@ -36,7 +36,7 @@ public class DB2SqlStatementBuilder extends SqlStatementBuilder {
     @Override
     protected Delimiter changeDelimiterIfNecessary(String line, Delimiter delimiter) {
         if (StringUtils.countOccurrencesOf(statementStart, " ") < 4) {
-            statementStart += line;
+            statementStart += simplifyLine(line);
             statementStart += " ";
         }
 
@@ -46,11 +46,11 @@ public class DB2SqlStatementBuilder extends SqlStatementBuilder {
                 || statementStart.startsWith("CREATE OR REPLACE FUNCTION")
                 || statementStart.startsWith("CREATE OR REPLACE PROCEDURE")
                 || statementStart.startsWith("CREATE OR REPLACE TRIGGER")) {
-            if (line.startsWith("BEGIN")) {
+            if (startsWithIgnoreCase(line, "BEGIN")) {
                 insideBeginEndBlock = true;
             }
 
-            if (line.endsWith("END;")) {
+            if (endsWithIgnoreCase(line, "END;")) {
                 insideBeginEndBlock = false;
             }
         }
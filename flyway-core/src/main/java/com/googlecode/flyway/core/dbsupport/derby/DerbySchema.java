@@ -64,23 +64,19 @@ public class DerbySchema extends Schema {
 
     @Override
     protected void doClean() throws SQLException {
-        for (String statement : generateDropStatementsForConstraints()) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatementsForConstraints());
 
         List<String> viewNames = listObjectNames("TABLE", "TABLETYPE='V'");
-        for (String statement : generateDropStatements("VIEW", viewNames, "")) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatements("VIEW", viewNames, ""));
 
+        List<String> tableDropStatements = new ArrayList<String>();
         for (Table table : allTables()) {
-            table.drop();
+            tableDropStatements.add(table.getDropStatement());
         }
+        executeDropStatements(tableDropStatements);
 
         List<String> sequenceNames = listObjectNames("SEQUENCE", "");
-        for (String statement : generateDropStatements("SEQUENCE", sequenceNames, "RESTRICT")) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatements("SEQUENCE", sequenceNames, "RESTRICT"));
     }
 
     /**
@@ -39,8 +39,8 @@ public class DerbyTable extends Table {
     }
 
     @Override
-    protected void doDrop() throws SQLException {
-        jdbcTemplate.execute("DROP TABLE " + dbSupport.quote(schema.getName(), name));
+    public String getDropStatement() {
+        return "DROP TABLE " + dbSupport.quote(schema.getName(), name);
     }
 
     @Override
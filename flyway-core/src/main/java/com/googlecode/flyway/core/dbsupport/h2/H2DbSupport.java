@@ -19,12 +19,15 @@ import com.googlecode.flyway.core.dbsupport.DbSupport;
 import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
 import com.googlecode.flyway.core.dbsupport.Schema;
 import com.googlecode.flyway.core.dbsupport.SqlStatementBuilder;
+import com.googlecode.flyway.core.util.StringUtils;
 import com.googlecode.flyway.core.util.jdbc.JdbcUtils;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * H2 database specific support
@@ -100,4 +103,24 @@ public class H2DbSupport extends DbSupport {
     public boolean catalogIsSchema() {
         return false;
     }
+
+    @Override
+    public boolean supportsSnapshots() {
+        return true;
+    }
+
+    @Override
+    protected List<String> doSnapshot(Schema... schemas) throws SQLException {
+        List<String> script = jdbcTemplate.queryForStringList(
+                "SCRIPT SCHEMA " + StringUtils.arrayToCommaDelimitedString(schemas));
+
+        List<String> statements = new ArrayList<String>();
+        for (String statement : script) {
+            // Skip the row count comments and the users, which aren't part of the schemas
+            if (!statement.startsWith("--") && !statement.startsWith("CREATE USER ")) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
 }
\ No newline at end of file
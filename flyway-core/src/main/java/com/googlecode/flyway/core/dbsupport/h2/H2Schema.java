@@ -15,6 +15,8 @@
  */
 package com.googlecode.flyway.core.dbsupport.h2;
 
+import com.googlecode.flyway.core.dbsupport.CatalogSnapshot;
+import com.googlecode.flyway.core.dbsupport.CleanPlan;
 import com.googlecode.flyway.core.dbsupport.DbSupport;
 import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
 import com.googlecode.flyway.core.dbsupport.Schema;
@@ -26,6 +28,7 @@ import com.googlecode.flyway.core.util.logging.LogFactory;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * H2 implementation of Schema.
@@ -33,6 +36,11 @@ import java.util.List;
 public class H2Schema extends Schema {
     private static final Log LOG = LogFactory.getLog(H2Schema.class);
 
+    /**
+     * The error code raised for a statement with a syntax error.
+     */
+    private static final int SYNTAX_ERROR = 42001;
+
     /**
      * Creates a new H2 schema.
      *
@@ -65,27 +73,43 @@ public class H2Schema extends Schema {
     }
 
     @Override
-    protected void doClean() throws SQLException {
-        for (Table table : allTables()) {
-            table.drop();
+    protected boolean doRecreate() throws SQLException {
+        if ("PUBLIC".equals(name)) {
+            // The main schema can't be dropped
+            return false;
         }
 
-        List<String> sequenceNames = listObjectNames("SEQUENCE", "IS_GENERATED = false");
-        for (String statement : generateDropStatements("SEQUENCE", sequenceNames, "")) {
-            jdbcTemplate.execute(statement);
+        String owner = jdbcTemplate.queryForString(
+                "SELECT SCHEMA_OWNER FROM INFORMATION_SCHEMA.SCHEMATA WHERE SCHEMA_NAME = ?", name);
+        try {
+            jdbcTemplate.execute("DROP SCHEMA " + dbSupport.quote(name) + " CASCADE");
+        } catch (SQLException e) {
+            if (e.getErrorCode() != SYNTAX_ERROR) {
+                throw e;
+            }
+            // H2 1.3 doesn't know CASCADE, but always drops the schema with all its contents
+            jdbcTemplate.execute("DROP SCHEMA " + dbSupport.quote(name));
         }
+        jdbcTemplate.execute("CREATE SCHEMA " + dbSupport.quote(name) + " AUTHORIZATION " + dbSupport.quote(owner));
+        return true;
+    }
 
-        List<String> constantNames = listObjectNames("CONSTANT", "");
-        for (String statement : generateDropStatements("CONSTANT", constantNames, "")) {
-            jdbcTemplate.execute(statement);
+    @Override
+    protected void doClean() throws SQLException {
+        CatalogSnapshot catalogSnapshot = getCatalogSnapshot();
+
+        List<String> tableDropStatements = new ArrayList<String>();
+        for (String tableName : catalogSnapshot.getNames("TABLE")) {
+            tableDropStatements.add(getTable(tableName).getDropStatement());
         }
+        executeDropStatements(tableDropStatements);
+        executeDropStatements(generateDropStatements("SEQUENCE", catalogSnapshot.getNames("SEQUENCE"), ""));
+        executeDropStatements(generateDropStatements("CONSTANT", catalogSnapshot.getNames("CONSTANT"), ""));
 
-        List<String> domainNames = listObjectNames("DOMAIN", "");
+        List<String> domainNames = catalogSnapshot.getNames("DOMAIN");
         if (!domainNames.isEmpty()) {
             if (name.equals(dbSupport.getCurrentSchema().getName())) {
-                for (String statement : generateDropStatementsForCurrentSchema("DOMAIN", domainNames, "")) {
-                    jdbcTemplate.execute(statement);
-                }
+                executeDropStatements(generateDropStatementsForCurrentSchema("DOMAIN", domainNames, ""));
             } else {
                 LOG.error("Unable to drop DOMAIN objects in schema " + dbSupport.quote(name)
                         + " due to H2 bug! (More info: http://code.google.com/p/h2database/issues/detail?id=306)");
@@ -93,6 +117,46 @@ public class H2Schema extends Schema {
         }
     }
 
+    @Override
+    protected CleanPlan doCreateCleanPlan() throws SQLException {
+        CatalogSnapshot catalogSnapshot = getCatalogSnapshot();
+
+        CleanPlan cleanPlan = new CleanPlan();
+        for (String tableName : catalogSnapshot.getNames("TABLE")) {
+            cleanPlan.addDrop(tableName, getTable(tableName).getDropStatement());
+        }
+        catalogSnapshot.addDependenciesTo(cleanPlan);
+        return cleanPlan;
+    }
+
+    @Override
+    protected CatalogSnapshot doSnapshotCatalog() throws SQLException {
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+
+        List<Map<String, String>> objects = jdbcTemplate.queryForList(
+                "SELECT 'TABLE' AS OBJECT_TYPE, TABLE_NAME AS OBJECT_NAME FROM INFORMATION_SCHEMA.TABLES"
+                        + " WHERE TABLE_SCHEMA = ? AND TABLE_TYPE = 'TABLE'"
+                        + " UNION ALL SELECT 'SEQUENCE', SEQUENCE_NAME FROM INFORMATION_SCHEMA.SEQUENCES"
+                        + " WHERE SEQUENCE_SCHEMA = ? AND IS_GENERATED = false"
+                        + " UNION ALL SELECT 'CONSTANT', CONSTANT_NAME FROM INFORMATION_SCHEMA.CONSTANTS"
+                        + " WHERE CONSTANT_SCHEMA = ?"
+                        + " UNION ALL SELECT 'DOMAIN', DOMAIN_NAME FROM INFORMATION_SCHEMA.DOMAINS"
+                        + " WHERE DOMAIN_SCHEMA = ?",
+                name, name, name, name);
+        for (Map<String, String> object : objects) {
+            catalogSnapshot.addObject(object.get("OBJECT_TYPE"), object.get("OBJECT_NAME"));
+        }
+
+        List<Map<String, String>> foreignKeys = jdbcTemplate.queryForList(
+                "SELECT DISTINCT FKTABLE_NAME, PKTABLE_NAME FROM INFORMATION_SCHEMA.CROSS_REFERENCES"
+                        + " WHERE FKTABLE_SCHEMA = ? AND PKTABLE_SCHEMA = ?", name, name);
+        for (Map<String, String> foreignKey : foreignKeys) {
+            catalogSnapshot.addDependency(foreignKey.get("FKTABLE_NAME"), foreignKey.get("PKTABLE_NAME"));
+        }
+
+        return catalogSnapshot;
+    }
+
     /**
      * Generate the statements for dropping all the objects of this type in this schema.
      *
@@ -22,8 +22,8 @@ import com.googlecode.flyway.core.dbsupport.SqlStatementBuilder;
  */
 public class H2SqlStatementBuilder extends SqlStatementBuilder {
     @Override
-    protected String extractAlternateOpenQuote(String token) {
-        if (token.startsWith("$$")) {
+    protected String extractAlternateOpenQuote(String line, int index) {
+        if (line.startsWith("$$", index)) {
             return "$$";
         }
         return null;
@@ -39,8 +39,8 @@ public class H2Table extends Table {
     }
 
     @Override
-    protected void doDrop() throws SQLException {
-        jdbcTemplate.execute("DROP TABLE " + dbSupport.quote(schema.getName(), name) + " CASCADE");
+    public String getDropStatement() {
+        return "DROP TABLE " + dbSupport.quote(schema.getName(), name) + " CASCADE";
     }
 
     @Override
@@ -60,15 +60,38 @@ public class HsqlSchema extends Schema {
         jdbcTemplate.execute("DROP SCHEMA " + dbSupport.quote(name) + " CASCADE");
     }
 
+    @Override
+    protected boolean doRecreate() throws SQLException {
+        String owner = jdbcTemplate.queryForString(
+                "SELECT SCHEMA_OWNER FROM INFORMATION_SCHEMA.SCHEMATA WHERE SCHEMA_NAME = ?", name);
+        jdbcTemplate.execute("DROP SCHEMA " + dbSupport.quote(name) + " CASCADE");
+
+        // The default schema is only emptied, not dropped
+        if (!doExists()) {
+            jdbcTemplate.execute("CREATE SCHEMA " + dbSupport.quote(name) + " AUTHORIZATION " + dbSupport.quote(owner));
+        }
+        return true;
+    }
+
     @Override
     protected void doClean() throws SQLException {
+        executeDropStatements(generateDropStatementsForTables());
+
+        executeDropStatements(generateDropStatementsForSequences());
+    }
+
+    /**
+     * Generates the statements to drop the tables in this schema.
+     *
+     * @return The drop statements.
+     */
+    private List<String> generateDropStatementsForTables() {
+        List<String> statements = new ArrayList<String>();
         for (Table table : allTables()) {
-            table.drop();
+            statements.add(table.getDropStatement());
         }
 
-        for (String statement : generateDropStatementsForSequences()) {
-            jdbcTemplate.execute(statement);
-        }
+        return statements;
     }
 
     /**
@@ -29,11 +29,11 @@ public class HsqlSqlStatementBuilder extends SqlStatementBuilder {
 
     @Override
     protected Delimiter changeDelimiterIfNecessary(String line, Delimiter delimiter) {
-        if (line.contains("BEGIN ATOMIC")) {
+        if (containsWordsIgnoreCase(line, "BEGIN", "ATOMIC")) {
             insideAtomicBlock = true;
         }
 
-        if (line.endsWith("END;")) {
+        if (endsWithIgnoreCase(line, "END;")) {
             insideAtomicBlock = false;
         }
 
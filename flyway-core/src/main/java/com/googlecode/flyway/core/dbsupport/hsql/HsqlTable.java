@@ -56,8 +56,8 @@ public class HsqlTable extends Table {
     }
 
     @Override
-    protected void doDrop() throws SQLException {
-        jdbcTemplate.execute("DROP TABLE " + dbSupport.quote(schema.getName(), name) + " CASCADE");
+    public String getDropStatement() {
+        return "DROP TABLE " + dbSupport.quote(schema.getName(), name) + " CASCADE";
     }
 
     @Override
@@ -94,4 +94,35 @@ public class MySQLDbSupport extends DbSupport {
     public boolean catalogIsSchema() {
         return true;
     }
+
+    @Override
+    protected boolean doSupportsAdvisoryLocks() throws SQLException {
+        return true;
+    }
+
+    @Override
+    protected boolean doAcquireAdvisoryLock(String name, int timeout) throws SQLException {
+        // Negative timeouts only mean infinite as of MySQL 5.5.8. Use a year instead.
+        int seconds = (timeout < 0) ? 31536000 : timeout;
+        return jdbcTemplate.queryForInt("SELECT GET_LOCK(?, " + seconds + ")", toLockName(name)) == 1;
+    }
+
+    @Override
+    protected void doReleaseAdvisoryLock(String name) throws SQLException {
+        // GET_LOCK locks belong to the session and survive the end of the transaction.
+        jdbcTemplate.queryForInt("SELECT RELEASE_LOCK(?)", toLockName(name));
+    }
+
+    /**
+     * Converts this name into one that is valid for GET_LOCK, which only accepts up to 64 characters.
+     *
+     * @param name The name of the lock.
+     * @return The valid name.
+     */
+    private String toLockName(String name) {
+        if (name.length() <= 64) {
+            return name;
+        }
+        return "Flyway-" + Integer.toHexString(name.hashCode());
+    }
 }
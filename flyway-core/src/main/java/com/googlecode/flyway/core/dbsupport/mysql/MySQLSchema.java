@@ -68,19 +68,26 @@ public class MySQLSchema extends Schema {
 
     @Override
     protected void doClean() throws SQLException {
-        for (String statement : cleanRoutines()) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(cleanRoutines());
 
-        for (String statement : cleanViews()) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(cleanViews());
 
         jdbcTemplate.execute("SET FOREIGN_KEY_CHECKS = 0");
+        executeDropStatements(cleanTables());
+        jdbcTemplate.execute("SET FOREIGN_KEY_CHECKS = 1");
+    }
+
+    /**
+     * Generate the statements to clean the tables in this schema.
+     *
+     * @return The list of statements.
+     */
+    private List<String> cleanTables() {
+        List<String> statements = new ArrayList<String>();
         for (Table table : allTables()) {
-            table.drop();
+            statements.add(table.getDropStatement());
         }
-        jdbcTemplate.execute("SET FOREIGN_KEY_CHECKS = 1");
+        return statements;
     }
 
     /**
@@ -17,9 +17,6 @@ package com.googlecode.flyway.core.dbsupport.mysql;
 
 import com.googlecode.flyway.core.dbsupport.Delimiter;
 import com.googlecode.flyway.core.dbsupport.SqlStatementBuilder;
-import com.googlecode.flyway.core.util.StringUtils;
-
-import java.util.regex.Pattern;
 
 /**
  * SqlStatementBuilder supporting MySQL-specific delimiter changes.
@@ -29,17 +26,17 @@ public class MySQLSqlStatementBuilder extends SqlStatementBuilder {
      * The keyword that indicates a change in delimiter.
      */
     private static final String DELIMITER_KEYWORD = "DELIMITER";
-    private final String[] charSets = {
-            "ARMSCII8", "ASCII", "BIG5", "BINARY", "CP1250", "CP1251", "CP1256", "CP1257", "CP850", "CP852", "CP866", "CP932",
-            "DEC8", "EUCJPMS", "EUCKR", "GB2312", "GBK", "GEOSTD8", "GREEK", "HEBREW", "HP8", "KEYBCS2", "KOI8R", "KOI8U", "LATIN1",
-            "LATIN2", "LATIN5", "LATIN7", "MACCE", "MACROMAN", "SJIS", "SWE7", "TIS620", "UCS2", "UJIS", "UTF8"
-    };
+
+    /**
+     * The prefix of a comment directive, which must be followed by a 5-digit version number and a space.
+     */
+    private static final String COMMENT_DIRECTIVE_PREFIX = "/*!";
 
     private boolean isInMultiLineCommentDirective = false;
 
     @Override
     public Delimiter extractNewDelimiterFromLine(String line) {
-        if (line.toUpperCase().startsWith(DELIMITER_KEYWORD)) {
+        if (line.regionMatches(true, 0, DELIMITER_KEYWORD, 0, DELIMITER_KEYWORD.length())) {
             return new Delimiter(line.substring(DELIMITER_KEYWORD.length()).trim(), false);
         }
 
@@ -48,8 +45,9 @@ public class MySQLSqlStatementBuilder extends SqlStatementBuilder {
 
     @Override
     protected Delimiter changeDelimiterIfNecessary(String line, Delimiter delimiter) {
-        if (line.toUpperCase().startsWith(DELIMITER_KEYWORD)) {
-            return new Delimiter(line.substring(DELIMITER_KEYWORD.length()).trim(), false);
+        String trimmedLine = line.trim();
+        if (trimmedLine.regionMatches(true, 0, DELIMITER_KEYWORD, 0, DELIMITER_KEYWORD.length())) {
+            return new Delimiter(trimmedLine.substring(DELIMITER_KEYWORD.length()).trim(), false);
         }
 
         return delimiter;
@@ -57,70 +55,71 @@ public class MySQLSqlStatementBuilder extends SqlStatementBuilder {
 
     @Override
     public boolean isCommentDirective(String line) {
+        boolean startsWithCommentDirective = startsWithCommentDirective(line);
+
         // single-line comment directive
-        if (line.matches("^" + Pattern.quote("/*!") + "\\d{5} .*" + Pattern.quote("*/") + ";?")) {
+        if (startsWithCommentDirective && endsWithCommentEnd(line, COMMENT_DIRECTIVE_PREFIX.length() + 6)) {
             return true;
         }
         // last line of multi-line comment directive
-        if (isInMultiLineCommentDirective && line.matches(".*" + Pattern.quote("*/") + ";?")) {
+        if (isInMultiLineCommentDirective && endsWithCommentEnd(line, 0)) {
             isInMultiLineCommentDirective = false;
             return true;
         }
         // start of multi-line comment directive
-        if (line.matches("^" + Pattern.quote("/*!") + "\\d{5} .*")) {
+        if (startsWithCommentDirective) {
             isInMultiLineCommentDirective = true;
             return true;
         }
         return isInMultiLineCommentDirective;
     }
 
-    @Override
-    public boolean isSingleLineComment(String line) {
-        return line.startsWith("--") || line.startsWith("#");
+    /**
+     * Checks whether this line starts with a comment directive (/*!12345 ).
+     *
+     * @param line The line to check.
+     * @return {@code true} if it does, {@code false} if not.
+     */
+    private static boolean startsWithCommentDirective(String line) {
+        int versionEnd = COMMENT_DIRECTIVE_PREFIX.length() + 5;
+        if (!line.startsWith(COMMENT_DIRECTIVE_PREFIX) || (line.length() <= versionEnd) || (line.charAt(versionEnd) != ' ')) {
+            return false;
+        }
+        for (int i = COMMENT_DIRECTIVE_PREFIX.length(); i < versionEnd; i++) {
+            if (!Character.isDigit(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    @Override
-    protected String removeEscapedQuotes(String token) {
-        String noEscapedBackslashes = StringUtils.replaceAll(token, "\\\\", "");
-        String noBackslashEscapes = StringUtils.replaceAll(StringUtils.replaceAll(noEscapedBackslashes, "\\'", ""), "\\\"", "");
-        return StringUtils.replaceAll(noBackslashEscapes, "''", "");
+    /**
+     * Checks whether this line ends with the end of a comment, optionally followed by a semicolon.
+     *
+     * @param line      The line to check.
+     * @param fromIndex The index from which the end of the comment may start.
+     * @return {@code true} if it does, {@code false} if not.
+     */
+    private static boolean endsWithCommentEnd(String line, int fromIndex) {
+        int end = line.endsWith(";") ? line.length() - 1 : line.length();
+        return (end - 2 >= fromIndex) && line.startsWith("*/", end - 2);
     }
 
     @Override
-    protected String removeCharsetCasting(String token) {
-        if (token.startsWith("_")) {
-            for (String charSet : charSets) {
-                String cast = "_" + charSet;
-                if (token.startsWith(cast)) {
-                    return token.substring(cast.length());
-                }
-            }
-        }
-        // If no matches are found for charset casting then return token
-        return token;
+    protected boolean isSingleLineCommentStart(String line, int index) {
+        return line.startsWith("--", index) || line.startsWith("#", index);
     }
 
     @Override
-    protected String extractAlternateOpenQuote(String token) {
-        if (token.startsWith("\"")) {
-            return "\"";
-        }
-        // to be a valid bitfield or hex literal the token must be at leas three characters in length
-        // i.e. b'' otherwise token may be string literal ending in [space]b'
-        if (token.startsWith("B'") && token.length() > 2) {
-            return "B'";
-        }
-        if (token.startsWith("X'") && token.length() > 2) {
-            return "X'";
-        }
-        return null;
+    protected boolean isBackslashEscapeSupported() {
+        return true;
     }
 
     @Override
-    protected String computeAlternateCloseQuote(String openQuote) {
-        if ("B'".equals(openQuote) || "X'".equals(openQuote)) {
-            return "'";
+    protected String extractAlternateOpenQuote(String line, int index) {
+        if (line.startsWith("`", index)) {
+            return "`";
         }
-        return openQuote;
+        return null;
     }
 }
@@ -28,6 +28,11 @@ import java.sql.Types;
  * Oracle-specific support.
  */
 public class OracleDbSupport extends DbSupport {
+    /**
+     * The error code raised when an advisory lock could not be acquired within the timeout.
+     */
+    private static final int ADVISORY_LOCK_TIMEOUT = 20001;
+
     /**
      * Creates a new instance.
      *
@@ -86,4 +91,33 @@ public class OracleDbSupport extends DbSupport {
     public boolean catalogIsSchema() {
         return false;
     }
+
+    @Override
+    protected boolean doSupportsAdvisoryLocks() throws SQLException {
+        // DBMS_LOCK requires an explicit EXECUTE grant, which is missing by default
+        return jdbcTemplate.queryForInt(
+                "SELECT COUNT(*) FROM all_procedures WHERE owner = 'SYS' AND object_name = 'DBMS_LOCK'") > 0;
+    }
+
+    @Override
+    protected boolean doAcquireAdvisoryLock(String name, int timeout) throws SQLException {
+        // Numeric user lock ids avoid DBMS_LOCK.ALLOCATE_UNIQUE, which commits the current transaction.
+        int lockId = (name.hashCode() & 0x7FFFFFFF) % 1073741824;
+        // 32767 is DBMS_LOCK.MAXWAIT
+        int seconds = (timeout < 0) ? 32767 : timeout;
+
+        try {
+            jdbcTemplate.execute("DECLARE result INTEGER; BEGIN"
+                    + " result := DBMS_LOCK.REQUEST(" + lockId + ", DBMS_LOCK.X_MODE, " + seconds + ", TRUE);"
+                    + " IF result = 1 THEN RAISE_APPLICATION_ERROR(-" + ADVISORY_LOCK_TIMEOUT + ", 'Timeout'); END IF;"
+                    + " IF result NOT IN (0, 4) THEN RAISE_APPLICATION_ERROR(-20002, 'DBMS_LOCK.REQUEST failed: ' || result); END IF;"
+                    + " END;");
+        } catch (SQLException e) {
+            if (e.getErrorCode() == ADVISORY_LOCK_TIMEOUT) {
+                return false;
+            }
+            throw e;
+        }
+        return true;
+    }
 }
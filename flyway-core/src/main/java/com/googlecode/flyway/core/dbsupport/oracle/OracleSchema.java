@@ -16,16 +16,22 @@
 package com.googlecode.flyway.core.dbsupport.oracle;
 
 import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.dbsupport.CatalogSnapshot;
+import com.googlecode.flyway.core.dbsupport.CleanPlan;
 import com.googlecode.flyway.core.dbsupport.DbSupport;
 import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
 import com.googlecode.flyway.core.dbsupport.Schema;
 import com.googlecode.flyway.core.dbsupport.Table;
+import com.googlecode.flyway.core.util.StringUtils;
 import com.googlecode.flyway.core.util.logging.Log;
 import com.googlecode.flyway.core.util.logging.LogFactory;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Oracle implementation of Schema.
@@ -73,59 +79,56 @@ public class OracleSchema extends Schema {
 
         jdbcTemplate.execute("PURGE RECYCLEBIN");
 
-        for (String statement : generateDropStatementsForSpatialExtensions()) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatementsForSpatialExtensions());
 
-        for (String statement : generateDropStatementsForQueueTables()) {
-            //for dropping queue tables, a special grant is required:
-            //GRANT EXECUTE ON DBMS_AQADM TO flyway;
-            jdbcTemplate.execute(statement);
-        }
+        //for dropping queue tables, a special grant is required:
+        //GRANT EXECUTE ON DBMS_AQADM TO flyway;
+        executeDropStatements(generateDropStatementsForQueueTables());
 
-        for (String statement : generateDropStatementsForObjectType("TRIGGER", "")) {
-            jdbcTemplate.execute(statement);
-        }
+        // Only take the snapshot now, as dropping queue tables and spatial indexes drops their internal tables as well
+        CatalogSnapshot catalogSnapshot = getCatalogSnapshot();
 
-        for (String statement : generateDropStatementsForObjectType("SEQUENCE", "")) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatementsForObjectType("TRIGGER", ""));
 
-        for (String statement : generateDropStatementsForObjectType("FUNCTION", "")) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatementsForObjectType("SEQUENCE", ""));
 
-        for (String statement : generateDropStatementsForObjectType("MATERIALIZED VIEW", "PRESERVE TABLE")) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatementsForObjectType("FUNCTION", ""));
 
-        for (String statement : generateDropStatementsForObjectType("PACKAGE", "")) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatementsForObjectType("MATERIALIZED VIEW", "PRESERVE TABLE"));
 
-        for (String statement : generateDropStatementsForObjectType("PROCEDURE", "")) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatementsForObjectType("PACKAGE", ""));
 
-        for (String statement : generateDropStatementsForObjectType("SYNONYM", "")) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatementsForObjectType("PROCEDURE", ""));
 
-        for (String statement : generateDropStatementsForObjectType("VIEW", "CASCADE CONSTRAINTS")) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(generateDropStatementsForObjectType("SYNONYM", ""));
 
-        for (Table table : allTables()) {
-            table.drop();
-        }
+        executeDropStatements(generateDropStatementsForObjectType("VIEW", "CASCADE CONSTRAINTS"));
 
-        for (String statement : generateDropStatementsForXmlTables()) {
-            jdbcTemplate.execute(statement);
+        List<String> tableDropStatements = new ArrayList<String>();
+        for (String tableName : catalogSnapshot.getNames("TABLE")) {
+            tableDropStatements.add(getTable(tableName).getDropStatement());
         }
+        executeDropStatements(tableDropStatements);
+
+        executeDropStatements(generateDropStatementsForXmlTables());
 
-        for (String statement : generateDropStatementsForObjectType("TYPE", "FORCE")) {
-            jdbcTemplate.execute(statement);
+        executeDropStatements(generateDropStatementsForTypes());
+    }
+
+    /**
+     * Executes these drop statements as a single anonymous PL/SQL block, as Oracle doesn't accept DDL in JDBC batches.
+     *
+     * @param statements The drop statements to execute. At least two.
+     * @throws SQLException when a statement could not be executed.
+     */
+    @Override
+    protected void doExecuteDropBatch(List<String> statements) throws SQLException {
+        StringBuilder block = new StringBuilder("BEGIN\n");
+        for (String statement : statements) {
+            block.append("  EXECUTE IMMEDIATE '").append(StringUtils.replaceAll(statement, "'", "''")).append("';\n");
         }
+        block.append("END;");
+        jdbcTemplate.executeStatement(block.toString());
     }
 
     /**
@@ -170,18 +173,32 @@ public class OracleSchema extends Schema {
      * @throws SQLException when the drop statements could not be generated.
      */
     private List<String> generateDropStatementsForObjectType(String objectType, String extraArguments) throws SQLException {
-        String query = "SELECT object_name FROM all_objects WHERE object_type = ? AND owner = ?"
-                // Ignore Spatial Index Sequences as they get dropped automatically when the index gets dropped.
-                + " AND object_name NOT LIKE 'MDRS_%$'";
-
-        List<String> objectNames = jdbcTemplate.queryForStringList(query, objectType, name);
         List<String> dropStatements = new ArrayList<String>();
-        for (String objectName : objectNames) {
+        for (String objectName : getCatalogSnapshot().getNames(objectType)) {
             dropStatements.add("DROP " + objectType + " " + dbSupport.quote(name, objectName) + " " + extraArguments);
         }
         return dropStatements;
     }
 
+    /**
+     * Generates the drop statements for the types that still exist. Unlike the other objects, these are not taken from
+     * the catalog snapshot, as Oracle implicitly drops some of them along with other objects, such as the types
+     * generated for the pipelined functions of packages.
+     *
+     * @return The complete drop statements, ready to execute.
+     * @throws SQLException when the drop statements could not be generated.
+     */
+    private List<String> generateDropStatementsForTypes() throws SQLException {
+        List<String> dropStatements = new ArrayList<String>();
+
+        List<String> typeNames = jdbcTemplate.queryForStringList(
+                "SELECT object_name FROM all_objects WHERE owner = ? AND object_type = 'TYPE'", name);
+        for (String typeName : typeNames) {
+            dropStatements.add("DROP TYPE " + dbSupport.quote(name, typeName) + " FORCE");
+        }
+        return dropStatements;
+    }
+
     /**
      * Generates the drop statements for Oracle Spatial Extensions-related database objects.
      *
@@ -242,9 +259,117 @@ public class OracleSchema extends Schema {
         return jdbcTemplate.queryForInt("SELECT COUNT(*) FROM all_views WHERE owner = 'MDSYS' AND view_name = 'USER_SDO_GEOM_METADATA'") > 0;
     }
 
+    @Override
+    protected CleanPlan doCreateCleanPlan() throws SQLException {
+        if (jdbcTemplate.queryForInt("SELECT COUNT(*) FROM all_queue_tables WHERE owner = ?", name) > 0) {
+            // Queue tables and their internal tables can only be dropped through DBMS_AQADM by the regular clean
+            return null;
+        }
+
+        CatalogSnapshot catalogSnapshot = getCatalogSnapshot();
+
+        Set<String> plannedObjects = new HashSet<String>();
+        plannedObjects.addAll(catalogSnapshot.getNames("VIEW"));
+        plannedObjects.addAll(catalogSnapshot.getNames("TYPE"));
+        for (String tableName : catalogSnapshot.getNames("TABLE")) {
+            // The container tables of materialized views are dropped along with them by the regular clean
+            if (!catalogSnapshot.getNames("MATERIALIZED VIEW").contains(tableName)) {
+                plannedObjects.add(tableName);
+            }
+        }
+
+        List<Map<String, String>> dependencies = jdbcTemplate.queryForList(
+                // Views depending on tables and views, and tables and types using types
+                "SELECT name AS dependent, referenced_name AS dependency FROM all_dependencies"
+                        + " WHERE owner = ? AND referenced_owner = ?"
+                        + " AND type IN ('VIEW', 'TABLE', 'MATERIALIZED VIEW', 'TYPE')"
+                        + " AND referenced_type IN ('VIEW', 'TABLE', 'TYPE')"
+                        // Tables referencing other tables through foreign keys
+                        + " UNION ALL"
+                        + " SELECT c.table_name, r.table_name FROM all_constraints c"
+                        + " INNER JOIN all_constraints r ON c.r_owner = r.owner AND c.r_constraint_name = r.constraint_name"
+                        + " WHERE c.owner = ? AND c.constraint_type = 'R' AND r.owner = ?",
+                name, name, name, name);
+
+        // Types still used by tables that are not part of the plan (such as the storage tables of nested tables) can
+        // only be dropped after them, by the regular clean
+        boolean excludedType = true;
+        while (excludedType) {
+            excludedType = false;
+            for (Map<String, String> dependency : dependencies) {
+                String dependencyName = dependency.get("DEPENDENCY");
+                if (!plannedObjects.contains(dependency.get("DEPENDENT"))
+                        && catalogSnapshot.getNames("TYPE").contains(dependencyName)
+                        && plannedObjects.remove(dependencyName)) {
+                    excludedType = true;
+                }
+            }
+        }
+
+        CleanPlan cleanPlan = new CleanPlan();
+        for (String viewName : catalogSnapshot.getNames("VIEW")) {
+            cleanPlan.addDrop(viewName, "DROP VIEW " + dbSupport.quote(name, viewName) + " CASCADE CONSTRAINTS");
+        }
+        for (String tableName : catalogSnapshot.getNames("TABLE")) {
+            if (plannedObjects.contains(tableName)) {
+                cleanPlan.addDrop(tableName, getTable(tableName).getDropStatement());
+            }
+        }
+        for (String typeName : catalogSnapshot.getNames("TYPE")) {
+            if (plannedObjects.contains(typeName)) {
+                cleanPlan.addDrop(typeName, "DROP TYPE " + dbSupport.quote(name, typeName) + " FORCE");
+            }
+        }
+        for (Map<String, String> dependency : dependencies) {
+            cleanPlan.addDependency(dependency.get("DEPENDENT"), dependency.get("DEPENDENCY"));
+        }
+        return cleanPlan;
+    }
+
+    @Override
+    protected CatalogSnapshot doSnapshotCatalog() throws SQLException {
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+
+        List<Map<String, String>> objects = jdbcTemplate.queryForList(
+                "SELECT object_type, object_name FROM all_objects WHERE owner = ?"
+                        + " AND object_type IN ('TRIGGER', 'SEQUENCE', 'FUNCTION', 'MATERIALIZED VIEW', 'PACKAGE',"
+                        + " 'PROCEDURE', 'SYNONYM', 'VIEW', 'TYPE')"
+                        // Ignore Spatial Index Sequences as they get dropped automatically when the index gets dropped.
+                        + " AND object_name NOT LIKE 'MDRS_%$'"
+                        // Ignore the types generated for the pipelined functions of packages, as they get dropped
+                        // automatically along with the package.
+                        + " AND object_name NOT LIKE 'SYS_PLSQL_%'", name);
+        for (Map<String, String> object : objects) {
+            catalogSnapshot.addObject(object.get("OBJECT_TYPE"), object.get("OBJECT_NAME"));
+        }
+
+        for (String tableName : listTableNames()) {
+            catalogSnapshot.addObject("TABLE", tableName);
+        }
+
+        return catalogSnapshot;
+    }
+
     @Override
     protected Table[] doAllTables() throws SQLException {
-        List<String> tableNames = jdbcTemplate.queryForStringList(
+        List<String> tableNames = listTableNames();
+
+        Table[] tables = new Table[tableNames.size()];
+        for (int i = 0; i < tableNames.size(); i++) {
+            tables[i] = new OracleTable(jdbcTemplate, dbSupport, this, tableNames.get(i));
+        }
+        return tables;
+    }
+
+    /**
+     * Lists the names of the tables in this schema, excluding the tables Oracle drops automatically along with other
+     * objects.
+     *
+     * @return The names of the tables.
+     * @throws SQLException when the table names could not be listed.
+     */
+    private List<String> listTableNames() throws SQLException {
+        return jdbcTemplate.queryForStringList(
                 "SELECT table_name FROM all_tables WHERE owner = ?"
                         // Ignore Recycle bin objects
                         + " AND table_name NOT LIKE 'BIN$%'"
@@ -260,12 +385,6 @@ public class OracleSchema extends Schema {
                         + " AND nested != 'YES'"
                         // Ignore Nested Tables
                         + " AND secondary != 'Y'", name);
-
-        Table[] tables = new Table[tableNames.size()];
-        for (int i = 0; i < tableNames.size(); i++) {
-            tables[i] = new OracleTable(jdbcTemplate, dbSupport, this, tableNames.get(i));
-        }
-        return tables;
     }
 
     @Override
@@ -35,12 +35,13 @@ public class OracleSqlStatementBuilder extends SqlStatementBuilder {
 
     @Override
     protected Delimiter changeDelimiterIfNecessary(String line, Delimiter delimiter) {
-        if (line.matches("DECLARE|DECLARE\\s.*") || line.matches("BEGIN|BEGIN\\s.*")) {
+        String trimmedLine = line.trim();
+        if (startsWithKeyword(trimmedLine, "DECLARE") || startsWithKeyword(trimmedLine, "BEGIN")) {
             return PLSQL_DELIMITER;
         }
 
         if (StringUtils.countOccurrencesOf(statementStart, " ") < 4) {
-            statementStart += line;
+            statementStart += simplifyLine(line);
             statementStart += " ";
         }
 
@@ -60,28 +61,40 @@ public class OracleSqlStatementBuilder extends SqlStatementBuilder {
         return delimiter;
     }
 
-    @Override
-    protected String simplifyLine(String line) {
-        String simplifiedQQuotes = StringUtils.replaceAll(StringUtils.replaceAll(line, "q'(", "q'["), ")'", "]'");
-        return super.simplifyLine(simplifiedQQuotes);
+    /**
+     * Checks whether this line starts with this keyword, followed by either whitespace or nothing.
+     *
+     * @param line    The trimmed line to check.
+     * @param keyword The keyword to look for.
+     * @return {@code true} if it does, {@code false} if not.
+     */
+    private static boolean startsWithKeyword(String line, String keyword) {
+        return line.regionMatches(true, 0, keyword, 0, keyword.length())
+                && ((line.length() == keyword.length()) || (line.charAt(keyword.length()) <= ' '));
     }
 
     @Override
-    protected String extractAlternateOpenQuote(String token) {
-        if (token.startsWith("Q'") && (token.length() >= 3)) {
-            return token.substring(0, 3);
+    protected String extractAlternateOpenQuote(String line, int index) {
+        int quoteIndex = index;
+        char c = line.charAt(quoteIndex);
+        if ((c == 'N') || (c == 'n')) {
+            // National character q-quote: nq'[...]'
+            quoteIndex++;
+            if (quoteIndex >= line.length()) {
+                return null;
+            }
+            c = line.charAt(quoteIndex);
         }
-        if (token.startsWith("N'")) {
-            return "N'";
+
+        if (((c == 'Q') || (c == 'q')) && line.startsWith("'", quoteIndex + 1) && (quoteIndex + 2 < line.length())) {
+            return line.substring(index, quoteIndex + 3);
         }
         return null;
     }
 
     @Override
     protected String computeAlternateCloseQuote(String openQuote) {
-        if (openQuote.equals("N'")) return "'";
-
-        char specialChar = openQuote.charAt(2);
+        char specialChar = openQuote.charAt(openQuote.length() - 1);
         switch (specialChar) {
             case '[':
                 return "]'";
@@ -22,6 +22,7 @@ import com.googlecode.flyway.core.dbsupport.SqlStatementBuilder;
 import com.googlecode.flyway.core.util.StringUtils;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
 
@@ -29,6 +30,16 @@ import java.sql.Types;
  * PostgreSQL-specific support.
  */
 public class PostgreSQLDbSupport extends DbSupport {
+    /**
+     * The first key of all advisory locks taken by Flyway, to keep them apart from the ones of the application.
+     */
+    private static final int ADVISORY_LOCK_NAMESPACE = 0x466C7977;
+
+    /**
+     * The SQL state for a lock that could not be acquired within lock_timeout.
+     */
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
     /**
      * Creates a new instance.
      *
@@ -97,4 +108,37 @@ public class PostgreSQLDbSupport extends DbSupport {
     public boolean catalogIsSchema() {
         return false;
     }
+
+    @Override
+    protected boolean doSupportsAdvisoryLocks() throws SQLException {
+        // Transaction-level advisory locks appeared in 9.1, lock_timeout in 9.3
+        DatabaseMetaData metaData = jdbcTemplate.getMetaData();
+        int majorVersion = metaData.getDatabaseMajorVersion();
+        int minorVersion = metaData.getDatabaseMinorVersion();
+        return (majorVersion > 9) || ((majorVersion == 9) && (minorVersion >= 3));
+    }
+
+    @Override
+    protected boolean doAcquireAdvisoryLock(String name, int timeout) throws SQLException {
+        String previousLockTimeout = null;
+        if (timeout >= 0) {
+            previousLockTimeout = jdbcTemplate.queryForString("SHOW lock_timeout");
+            // 0 disables the timeout on PostgreSQL, so always wait at least 1 ms.
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + Math.max(1, timeout * 1000));
+        }
+
+        try {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(?, ?)", ADVISORY_LOCK_NAMESPACE, name.hashCode());
+        } catch (SQLException e) {
+            if (LOCK_NOT_AVAILABLE.equals(e.getSQLState())) {
+                return false;
+            }
+            throw e;
+        }
+
+        if (previousLockTimeout != null) {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '" + previousLockTimeout + "'");
+        }
+        return true;
+    }
 }
@@ -15,11 +15,15 @@
  */
 package com.googlecode.flyway.core.dbsupport.postgresql;
 
+import com.googlecode.flyway.core.dbsupport.CatalogSnapshot;
+import com.googlecode.flyway.core.dbsupport.CleanPlan;
 import com.googlecode.flyway.core.dbsupport.DbSupport;
 import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
 import com.googlecode.flyway.core.dbsupport.Schema;
 import com.googlecode.flyway.core.dbsupport.Table;
 import com.googlecode.flyway.core.dbsupport.Type;
+import com.googlecode.flyway.core.util.logging.Log;
+import com.googlecode.flyway.core.util.logging.LogFactory;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -30,6 +34,8 @@ import java.util.Map;
  * PostgreSQL implementation of Schema.
  */
 public class PostgreSQLSchema extends Schema {
+    private static final Log LOG = LogFactory.getLog(PostgreSQLSchema.class);
+
     /**
      * Creates a new PostgreSQL schema.
      *
@@ -64,43 +70,151 @@ public class PostgreSQLSchema extends Schema {
         jdbcTemplate.execute("DROP SCHEMA " + dbSupport.quote(name) + " CASCADE");
     }
 
+    /**
+     * Drops this schema with all its contents and recreates it with the same owner, privileges and comment. Default
+     * privileges for the new objects of the schema (ALTER DEFAULT PRIVILEGES ... IN SCHEMA) would however be lost, so
+     * schemas that have some are cleaned instead.
+     *
+     * @return {@code true} if the schema was recreated, {@code false} if it has default privileges and must be cleaned
+     * instead.
+     * @throws SQLException when the schema could not be recreated.
+     */
     @Override
-    protected void doClean() throws SQLException {
-        for (Table table : allTables()) {
-            table.drop();
+    protected boolean doRecreate() throws SQLException {
+        int defaultPrivilegesCount = jdbcTemplate.queryForInt(
+                "SELECT COUNT(*) FROM pg_default_acl d, pg_namespace n"
+                        + " WHERE d.defaclnamespace = n.oid AND n.nspname = ?", name);
+        if (defaultPrivilegesCount > 0) {
+            LOG.warn("Schema " + this + " has default privileges that would be lost by recreating it."
+                    + " Cleaning it instead ...");
+            return false;
         }
 
-        for (String statement : generateDropStatementsForSequences()) {
-            jdbcTemplate.execute(statement);
-        }
+        String owner = jdbcTemplate.queryForString(
+                "SELECT pg_get_userbyid(nspowner) FROM pg_namespace WHERE nspname = ?", name);
+        String comment = jdbcTemplate.queryForString(
+                "SELECT quote_literal(obj_description(oid, 'pg_namespace')) FROM pg_namespace WHERE nspname = ?", name);
+        List<Map<String, String>> privileges = jdbcTemplate.queryForList(
+                "SELECT CASE WHEN a.grantee = 0 THEN 'PUBLIC' ELSE quote_ident(pg_get_userbyid(a.grantee)) END AS grantee,"
+                        + " a.privilege_type,"
+                        + " CASE WHEN a.is_grantable THEN ' WITH GRANT OPTION' ELSE '' END AS grant_option"
+                        + " FROM pg_namespace n, aclexplode(n.nspacl) a WHERE n.nspname = ?", name);
 
-        for (String statement : generateDropStatementsForBaseTypes(true)) {
-            jdbcTemplate.execute(statement);
+        jdbcTemplate.execute("DROP SCHEMA " + dbSupport.quote(name) + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + dbSupport.quote(name) + " AUTHORIZATION " + dbSupport.quote(owner));
+        for (Map<String, String> privilege : privileges) {
+            jdbcTemplate.execute("GRANT " + privilege.get("privilege_type") + " ON SCHEMA " + dbSupport.quote(name)
+                    + " TO " + privilege.get("grantee") + privilege.get("grant_option"));
         }
-
-        for (String statement : generateDropStatementsForAggregates()) {
-            jdbcTemplate.execute(statement);
+        if (comment != null) {
+            jdbcTemplate.execute("COMMENT ON SCHEMA " + dbSupport.quote(name) + " IS " + comment);
         }
+        return true;
+    }
+
+    @Override
+    protected void doClean() throws SQLException {
+        executeDropStatements(generateDropStatementsForTables());
 
-        for (String statement : generateDropStatementsForRoutines()) {
-            jdbcTemplate.execute(statement);
+        executeDropStatements(generateDropStatementsForSequences());
+
+        executeDropStatements(generateDropStatementsForBaseTypes(true));
+
+        executeDropStatements(generateDropStatementsForAggregates());
+
+        executeDropStatements(generateDropStatementsForRoutines());
+
+        executeDropStatements(generateDropStatementsForEnums());
+
+        executeDropStatements(generateDropStatementsForDomains());
+
+        executeDropStatements(generateDropStatementsForBaseTypes(false));
+
+        for (Type type : allTypes()) {
+            type.drop();
         }
+    }
+
+    @Override
+    protected CleanPlan doCreateCleanPlan() throws SQLException {
+        CatalogSnapshot catalogSnapshot = getCatalogSnapshot();
 
-        for (String statement : generateDropStatementsForEnums()) {
-            jdbcTemplate.execute(statement);
+        CleanPlan cleanPlan = new CleanPlan();
+        for (String viewName : catalogSnapshot.getNames("VIEW")) {
+            cleanPlan.addDrop(viewName, "DROP VIEW IF EXISTS " + dbSupport.quote(name, viewName) + " CASCADE");
         }
+        for (String tableName : catalogSnapshot.getNames("TABLE")) {
+            cleanPlan.addDrop(tableName, getTable(tableName).getDropStatement());
+        }
+        catalogSnapshot.addDependenciesTo(cleanPlan);
+        return cleanPlan;
+    }
 
-        for (String statement : generateDropStatementsForDomains()) {
-            jdbcTemplate.execute(statement);
+    @Override
+    protected CatalogSnapshot doSnapshotCatalog() throws SQLException {
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+
+        String namespace = "(SELECT oid FROM pg_catalog.pg_namespace WHERE nspname = ?)";
+        List<Map<String, String>> objects = jdbcTemplate.queryForList(
+                // Tables (excluding child tables, as they are dropped with the parent table when using cascade),
+                // views and sequences
+                "SELECT CASE c.relkind WHEN 'v' THEN 'VIEW' WHEN 'S' THEN 'SEQUENCE' ELSE 'TABLE' END AS object_type,"
+                        + " c.relname AS object_name"
+                        + " FROM pg_catalog.pg_class c"
+                        + " WHERE c.relnamespace = " + namespace
+                        + " AND (c.relkind IN ('v', 'S') OR (c.relkind = 'r'"
+                        + " AND NOT EXISTS (SELECT inhrelid FROM pg_catalog.pg_inherits WHERE inhrelid = c.oid)))"
+                        // Enums, domains and base types
+                        + " UNION ALL"
+                        + " SELECT CASE t.typtype WHEN 'e' THEN 'ENUM' WHEN 'd' THEN 'DOMAIN' ELSE 'BASE TYPE' END,"
+                        + " t.typname"
+                        + " FROM pg_catalog.pg_type t"
+                        + " WHERE t.typnamespace = " + namespace
+                        + " AND (t.typtype IN ('e', 'd') OR t.typcategory IN ('P', 'U'))",
+                name, name);
+        for (Map<String, String> object : objects) {
+            catalogSnapshot.addObject(object.get("object_type"), object.get("object_name"));
         }
 
-        for (String statement : generateDropStatementsForBaseTypes(false)) {
-            jdbcTemplate.execute(statement);
+        List<Map<String, String>> dependencies = jdbcTemplate.queryForList(
+                // Views depending on tables and other views
+                "SELECT dependent.relname AS dependent, source.relname AS dependency"
+                        + " FROM pg_catalog.pg_depend d"
+                        + " INNER JOIN pg_catalog.pg_rewrite r ON d.objid = r.oid"
+                        + " INNER JOIN pg_catalog.pg_class dependent ON r.ev_class = dependent.oid"
+                        + " INNER JOIN pg_catalog.pg_class source ON d.refobjid = source.oid"
+                        + " WHERE dependent.relnamespace = " + namespace
+                        + " AND source.relnamespace = " + namespace
+                        // Tables referencing other tables through foreign keys
+                        + " UNION"
+                        + " SELECT dependent.relname, source.relname"
+                        + " FROM pg_catalog.pg_constraint c"
+                        + " INNER JOIN pg_catalog.pg_class dependent ON c.conrelid = dependent.oid"
+                        + " INNER JOIN pg_catalog.pg_class source ON c.confrelid = source.oid"
+                        + " WHERE c.contype = 'f'"
+                        + " AND dependent.relnamespace = " + namespace
+                        + " AND source.relnamespace = " + namespace,
+                name, name, name, name);
+        for (Map<String, String> dependency : dependencies) {
+            catalogSnapshot.addDependency(dependency.get("dependent"), dependency.get("dependency"));
         }
 
-        for (Type type : allTypes()) {
-            type.drop();
+        return catalogSnapshot;
+    }
+
+    /**
+     * Generates the statements for dropping the tables in this schema.
+     *
+     * @return The drop statements.
+     * @throws SQLException when the clean statements could not be generated.
+     */
+    private List<String> generateDropStatementsForTables() throws SQLException {
+        List<String> statements = new ArrayList<String>();
+        for (String tableName : getCatalogSnapshot().getNames("TABLE")) {
+            statements.add(getTable(tableName).getDropStatement());
         }
+
+        return statements;
     }
 
     /**
@@ -110,12 +224,8 @@ public class PostgreSQLSchema extends Schema {
      * @throws SQLException when the clean statements could not be generated.
      */
     private List<String> generateDropStatementsForSequences() throws SQLException {
-        List<String> sequenceNames =
-                jdbcTemplate.queryForStringList(
-                        "SELECT sequence_name FROM information_schema.sequences WHERE sequence_schema=?", name);
-
         List<String> statements = new ArrayList<String>();
-        for (String sequenceName : sequenceNames) {
+        for (String sequenceName : getCatalogSnapshot().getNames("SEQUENCE")) {
             statements.add("DROP SEQUENCE IF EXISTS " + dbSupport.quote(name, sequenceName));
         }
 
@@ -130,10 +240,7 @@ public class PostgreSQLSchema extends Schema {
      * @throws SQLException when the clean statements could not be generated.
      */
     private List<String> generateDropStatementsForBaseTypes(boolean recreate) throws SQLException {
-        List<String> typeNames =
-                jdbcTemplate.queryForStringList(
-                        "select typname from pg_catalog.pg_type where typcategory in ('P', 'U') and typnamespace in (select oid from pg_catalog.pg_namespace where nspname = ?)",
-                        name);
+        List<String> typeNames = getCatalogSnapshot().getNames("BASE TYPE");
 
         List<String> statements = new ArrayList<String>();
         for (String typeName : typeNames) {
@@ -150,7 +257,9 @@ public class PostgreSQLSchema extends Schema {
     }
 
     /**
-     * Generates the statements for dropping the aggregates in this schema.
+     * Generates the statements for dropping the aggregates in this schema. Unlike the other objects, aggregates and
+     * routines are not taken from the catalog snapshot, as their signature may refer to types that have been dropped
+     * along with the tables in the meantime.
      *
      * @return The drop statements.
      * @throws SQLException when the clean statements could not be generated.
@@ -198,13 +307,9 @@ public class PostgreSQLSchema extends Schema {
      * @throws SQLException when the clean statements could not be generated.
      */
     private List<String> generateDropStatementsForEnums() throws SQLException {
-        List<String> enumNames =
-                jdbcTemplate.queryForStringList(
-                        "SELECT t.typname FROM pg_catalog.pg_type t INNER JOIN pg_catalog.pg_namespace n ON n.oid = t.typnamespace WHERE n.nspname = ? and t.typtype = 'e'", name);
-
         List<String> statements = new ArrayList<String>();
-        for (String enumName : enumNames) {
-            statements.add("DROP TYPE " + dbSupport.quote(name, enumName));
+        for (String enumName : getCatalogSnapshot().getNames("ENUM")) {
+            statements.add("DROP TYPE IF EXISTS " + dbSupport.quote(name, enumName));
         }
 
         return statements;
@@ -217,13 +322,10 @@ public class PostgreSQLSchema extends Schema {
      * @throws SQLException when the clean statements could not be generated.
      */
     private List<String> generateDropStatementsForDomains() throws SQLException {
-        List<String> domainNames =
-                jdbcTemplate.queryForStringList(
-                        "SELECT domain_name FROM information_schema.domains WHERE domain_schema=?", name);
-
+        // Domains based on a dropped base type have been dropped along with it
         List<String> statements = new ArrayList<String>();
-        for (String domainName : domainNames) {
-            statements.add("DROP DOMAIN " + dbSupport.quote(name, domainName));
+        for (String domainName : getCatalogSnapshot().getNames("DOMAIN")) {
+            statements.add("DROP DOMAIN IF EXISTS " + dbSupport.quote(name, domainName));
         }
 
         return statements;
@@ -17,24 +17,26 @@ package com.googlecode.flyway.core.dbsupport.postgresql;
 
 import com.googlecode.flyway.core.dbsupport.SqlStatementBuilder;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * SqlStatementBuilder supporting PostgreSQL specific syntax.
  */
 public class PostgreSQLSqlStatementBuilder extends SqlStatementBuilder {
-    /**
-     * Matches $$, $BODY$, $xyz123$, ...
-     */
-    /*private -> for testing*/
-    static final String DOLLAR_QUOTE_REGEX = "\\$[A-Za-z0-9_]*\\$.*";
-
     @Override
-    protected String extractAlternateOpenQuote(String token) {
-        Matcher matcher = Pattern.compile(DOLLAR_QUOTE_REGEX).matcher(token);
-        if (matcher.find()) {
-            return token.substring(matcher.start(), matcher.end());
+    protected String extractAlternateOpenQuote(String line, int index) {
+        if (line.charAt(index) != '$') {
+            return null;
+        }
+
+        for (int i = index + 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '$') {
+                return line.substring(index, i + 1);
+            }
+            boolean tagCharacter = ((c >= 'A') && (c <= 'Z')) || ((c >= 'a') && (c <= 'z'))
+                    || ((c >= '0') && (c <= '9')) || (c == '_');
+            if (!tagCharacter) {
+                return null;
+            }
         }
         return null;
     }
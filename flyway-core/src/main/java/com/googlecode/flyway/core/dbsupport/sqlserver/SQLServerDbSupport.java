@@ -102,4 +102,28 @@ public class SQLServerDbSupport extends DbSupport {
     public boolean catalogIsSchema() {
         return false;
     }
+
+    @Override
+    protected boolean doSupportsAdvisoryLocks() throws SQLException {
+        return true;
+    }
+
+    @Override
+    protected boolean doAcquireAdvisoryLock(String name, int timeout) throws SQLException {
+        int milliseconds = (timeout < 0) ? -1 : timeout * 1000;
+        int result = jdbcTemplate.queryForInt("SET NOCOUNT ON;"
+                + " DECLARE @result INT;"
+                + " EXEC @result = sp_getapplock @Resource = ?, @LockMode = 'Exclusive', @LockOwner = 'Transaction',"
+                + " @LockTimeout = " + milliseconds + ";"
+                + " SET NOCOUNT OFF;"
+                + " SELECT @result", name);
+
+        if (result == -1) {
+            return false;
+        }
+        if (result < 0) {
+            throw new SQLException("sp_getapplock failed with result " + result);
+        }
+        return true;
+    }
 }
@@ -15,12 +15,15 @@
  */
 package com.googlecode.flyway.core.dbsupport.sqlserver;
 
+import com.googlecode.flyway.core.dbsupport.CatalogSnapshot;
 import com.googlecode.flyway.core.dbsupport.DbSupport;
 import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
 import com.googlecode.flyway.core.dbsupport.Schema;
 import com.googlecode.flyway.core.dbsupport.Table;
+import com.googlecode.flyway.core.util.jdbc.JdbcUtils;
 
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -73,160 +76,116 @@ public class SQLServerSchema extends Schema {
 
     @Override
     protected void doClean() throws SQLException {
-        for (String statement : cleanForeignKeys()) {
-            jdbcTemplate.execute(statement);
-        }
+        CatalogSnapshot catalogSnapshot = getCatalogSnapshot();
 
-        for (String statement : cleanDefaultConstraints()) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(cleanConstraints(catalogSnapshot, "F"));
 
-        for (String statement : cleanRoutines()) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(cleanConstraints(catalogSnapshot, "C"));
 
-        for (String statement : cleanViews()) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(cleanConstraints(catalogSnapshot, "D"));
 
-        for (Table table : allTables()) {
-            table.drop();
-        }
+        executeDropStatements(cleanObjects(catalogSnapshot, "PROCEDURE"));
 
-        for (String statement : cleanTypes()) {
-            jdbcTemplate.execute(statement);
-        }
+        executeDropStatements(cleanObjects(catalogSnapshot, "FUNCTION"));
 
-        for (String statement : cleanSynonyms()) {
-            jdbcTemplate.execute(statement);
-        }
-    }
+        executeDropStatements(cleanObjects(catalogSnapshot, "VIEW"));
 
-    /**
-     * Cleans the foreign keys in this schema.
-     *
-     * @return The drop statements.
-     * @throws SQLException when the clean statements could not be generated.
-     */
-    private List<String> cleanForeignKeys() throws SQLException {
-        @SuppressWarnings({"unchecked"})
-        List<Map<String, String>> constraintNames =
-                jdbcTemplate.queryForList(
-                        "SELECT table_name, constraint_name FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS" +
-                                " WHERE constraint_type in ('FOREIGN KEY','CHECK') and table_schema=?",
-                        name);
-
-        List<String> statements = new ArrayList<String>();
-        for (Map<String, String> row : constraintNames) {
-            String tableName = row.get("table_name");
-            String constraintName = row.get("constraint_name");
-            statements.add("ALTER TABLE " + dbSupport.quote(name, tableName) + " DROP CONSTRAINT " + dbSupport.quote(constraintName));
+        List<String> tableDropStatements = new ArrayList<String>();
+        for (String tableName : catalogSnapshot.getNames("TABLE")) {
+            tableDropStatements.add(getTable(tableName).getDropStatement());
         }
-        return statements;
-    }
+        executeDropStatements(tableDropStatements);
 
-    /**
-     * Cleans the default constraints in this schema.
-     *
-     * @return The drop statements.
-     * @throws SQLException when the clean statements could not be generated.
-     */
-    private List<String> cleanDefaultConstraints() throws SQLException {
-        @SuppressWarnings({"unchecked"})
-        List<Map<String, String>> constraintNames =
-                jdbcTemplate.queryForList(
-                        "select t.name as table_name, d.name as constraint_name" +
-                                " from sys.tables t" +
-                                " inner join sys.default_constraints d on d.parent_object_id = t.object_id\n" +
-                                " inner join sys.schemas s on s.schema_id = t.schema_id\n" +
-                                " where s.name = ?",
-                        name);
+        executeDropStatements(cleanObjects(catalogSnapshot, "TYPE"));
 
-        List<String> statements = new ArrayList<String>();
-        for (Map<String, String> row : constraintNames) {
-            String tableName = row.get("table_name");
-            String constraintName = row.get("constraint_name");
-            statements.add("ALTER TABLE " + dbSupport.quote(name, tableName) + " DROP CONSTRAINT " + dbSupport.quote(constraintName));
-        }
-        return statements;
+        executeDropStatements(cleanObjects(catalogSnapshot, "SYNONYM"));
     }
 
     /**
-     * Cleans the routines in this schema.
+     * Executes these drop statements as a single T-SQL batch.
      *
-     * @return The drop statements.
-     * @throws SQLException when the clean statements could not be generated.
+     * @param statements The drop statements to execute. At least two.
+     * @throws SQLException when a statement could not be executed.
      */
-    private List<String> cleanRoutines() throws SQLException {
-        @SuppressWarnings({"unchecked"})
-        List<Map<String, String>> routineNames =
-                jdbcTemplate.queryForList("SELECT routine_name, routine_type FROM INFORMATION_SCHEMA.ROUTINES" +
-                        " WHERE routine_schema=?",
-                        name);
+    @Override
+    protected void doExecuteDropBatch(List<String> statements) throws SQLException {
+        StringBuilder batch = new StringBuilder();
+        for (String statement : statements) {
+            batch.append(statement).append(";\n");
+        }
 
-        List<String> statements = new ArrayList<String>();
-        for (Map<String, String> row : routineNames) {
-            String routineName = row.get("routine_name");
-            String routineType = row.get("routine_type");
-            statements.add("DROP " + routineType + " " + dbSupport.quote(name, routineName));
+        Statement statement = null;
+        try {
+            statement = jdbcTemplate.getConnection().createStatement();
+            boolean hasResultSet = statement.execute(batch.toString());
+
+            // Step through the results of all statements, as errors after the first one only surface this way
+            while (hasResultSet || (statement.getUpdateCount() != -1)) {
+                hasResultSet = statement.getMoreResults();
+            }
+        } finally {
+            JdbcUtils.closeStatement(statement);
         }
-        return statements;
     }
 
-    /**
-     * Cleans the views in this schema.
-     *
-     * @return The drop statements.
-     * @throws SQLException when the clean statements could not be generated.
-     */
-    private List<String> cleanViews() throws SQLException {
-        List<String> viewNames =
-                jdbcTemplate.queryForStringList("SELECT table_name FROM INFORMATION_SCHEMA.VIEWS WHERE table_schema=?",
-                        name);
+    @Override
+    protected CatalogSnapshot doSnapshotCatalog() throws SQLException {
+        List<Map<String, String>> objects =
+                jdbcTemplate.queryForList(
+                        "SELECT CASE WHEN o.type IN ('F', 'C', 'D') THEN RTRIM(o.type)" +
+                                " WHEN o.type IN ('P', 'PC') THEN 'PROCEDURE'" +
+                                " WHEN o.type = 'V' THEN 'VIEW'" +
+                                " WHEN o.type = 'U' THEN 'TABLE'" +
+                                " WHEN o.type = 'SN' THEN 'SYNONYM'" +
+                                " ELSE 'FUNCTION' END AS object_type," +
+                                " o.name AS object_name, OBJECT_NAME(o.parent_object_id) AS table_name" +
+                                " FROM sys.objects o INNER JOIN sys.schemas s ON o.schema_id = s.schema_id" +
+                                " WHERE s.name = ? AND o.is_ms_shipped = 0" +
+                                " AND (o.type IN ('P', 'PC', 'FN', 'IF', 'TF', 'FS', 'FT', 'V', 'U', 'SN')" +
+                                // Foreign key, check and default constraints of tables
+                                " OR (o.type IN ('F', 'C', 'D') AND o.parent_object_id <> 0))" +
+                                " UNION ALL" +
+                                " SELECT 'TYPE', t.name, NULL FROM sys.types t INNER JOIN sys.schemas s ON t.schema_id = s.schema_id" +
+                                " WHERE t.is_user_defined = 1 AND s.name = ?",
+                        name, name);
 
-        List<String> statements = new ArrayList<String>();
-        for (String viewName : viewNames) {
-            statements.add("DROP VIEW " + dbSupport.quote(name, viewName));
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+        for (Map<String, String> row : objects) {
+            catalogSnapshot.addObject(row.get("object_type"), row.get("object_name"), row.get("table_name"));
         }
-        return statements;
+        return catalogSnapshot;
     }
 
     /**
-     * Cleans the types in this schema.
+     * Cleans the constraints of this type (F for foreign keys, C for checks, D for defaults) in this schema.
      *
+     * @param catalogSnapshot The snapshot of the catalog of this schema.
+     * @param constraintType  The type of constraint.
      * @return The drop statements.
-     * @throws SQLException when the clean statements could not be generated.
      */
-    private List<String> cleanTypes() throws SQLException {
-        List<String> typeNames =
-                jdbcTemplate.queryForStringList(
-                        "SELECT t.name FROM sys.types t INNER JOIN sys.schemas s ON t.schema_id = s.schema_id" +
-                                " WHERE t.is_user_defined = 1 AND s.name = ?",
-                        name);
+    private List<String> cleanConstraints(CatalogSnapshot catalogSnapshot, String constraintType) {
+        List<String> constraintNames = catalogSnapshot.getNames(constraintType);
+        List<String> tableNames = catalogSnapshot.getDetails(constraintType);
 
         List<String> statements = new ArrayList<String>();
-        for (String typeName : typeNames) {
-            statements.add("DROP TYPE " + dbSupport.quote(name, typeName));
+        for (int i = 0; i < constraintNames.size(); i++) {
+            statements.add("ALTER TABLE " + dbSupport.quote(name, tableNames.get(i))
+                    + " DROP CONSTRAINT " + dbSupport.quote(constraintNames.get(i)));
         }
         return statements;
     }
 
     /**
-     * Cleans the synonyms in this schema.
+     * Cleans the objects of this type in this schema.
      *
+     * @param catalogSnapshot The snapshot of the catalog of this schema.
+     * @param objectType      The type of object (VIEW, TYPE, ...).
      * @return The drop statements.
-     * @throws SQLException when the clean statements could not be generated.
      */
-    private List<String> cleanSynonyms() throws SQLException {
-        List<String> synonymNames =
-                jdbcTemplate.queryForStringList(
-                        "SELECT sn.name FROM sys.synonyms sn INNER JOIN sys.schemas s ON sn.schema_id = s.schema_id" +
-                                " WHERE s.name = ?",
-                        name);
-
+    private List<String> cleanObjects(CatalogSnapshot catalogSnapshot, String objectType) {
         List<String> statements = new ArrayList<String>();
-        for (String synonymName : synonymNames) {
-            statements.add("DROP SYNONYM " + dbSupport.quote(name, synonymName));
+        for (String objectName : catalogSnapshot.getNames(objectType)) {
+            statements.add("DROP " + objectType + " " + dbSupport.quote(name, objectName));
         }
         return statements;
     }
@@ -28,15 +28,15 @@ public class SQLServerSqlStatementBuilder extends SqlStatementBuilder {
     }
 
     @Override
-    protected String extractAlternateOpenQuote(String token) {
-        if (token.startsWith("N'")) {
-            return "N'";
+    protected String extractAlternateOpenQuote(String line, int index) {
+        if (line.startsWith("[", index)) {
+            return "[";
         }
         return null;
     }
 
     @Override
     protected String computeAlternateCloseQuote(String openQuote) {
-        return "'";
+        return "]";
     }
 }
@@ -45,6 +45,12 @@ public class MigrationInfoImpl implements MigrationInfo {
      */
     private final MigrationInfoContext context;
 
+    /**
+     * The state of the migration. {@code null} if it hasn't been calculated yet. The context is complete by the time
+     * the state is first asked for, so it is only calculated once.
+     */
+    private MigrationState state;
+
     /**
      * Creates a new MigrationInfoImpl.
      *
@@ -66,6 +72,13 @@ public class MigrationInfoImpl implements MigrationInfo {
         return resolvedMigration;
     }
 
+    /**
+     * @return The applied migration to aggregate the info from.
+     */
+    public AppliedMigration getAppliedMigration() {
+        return appliedMigration;
+    }
+
     public MigrationType getType() {
         if (resolvedMigration != null) {
             return resolvedMigration.getType();
@@ -102,6 +115,18 @@ public class MigrationInfoImpl implements MigrationInfo {
     }
 
     public MigrationState getState() {
+        if (state == null) {
+            state = calculateState();
+        }
+        return state;
+    }
+
+    /**
+     * Calculates the state of this migration from the resolved and applied migrations and the context.
+     *
+     * @return The state.
+     */
+    private MigrationState calculateState() {
         if (appliedMigration == null) {
             if (resolvedMigration.getVersion().compareTo(context.init) < 0) {
                 return MigrationState.PREINIT;
@@ -163,6 +188,17 @@ public class MigrationInfoImpl implements MigrationInfo {
      * @return The error message, or {@code null} if everything is fine.
      */
     public String validate() {
+        return validate(true);
+    }
+
+    /**
+     * Validates this migrationInfo for consistency.
+     *
+     * @param validateChecksum Whether the checksum of the applied migration should be compared with the one of the
+     *                         available migration. This requires the contents of the available migration to be read.
+     * @return The error message, or {@code null} if everything is fine.
+     */
+    public String validate(boolean validateChecksum) {
         if ((resolvedMigration == null)
                 && (appliedMigration.getType() != MigrationType.SCHEMA)
                 && (appliedMigration.getType() != MigrationType.INIT)) {
@@ -175,7 +211,8 @@ public class MigrationInfoImpl implements MigrationInfo {
                     return String.format("Migration Type mismatch for migration %s: DB=%s, Classpath=%s",
                             appliedMigration.getScript(), appliedMigration.getType(), resolvedMigration.getType());
                 }
-                if (!ObjectUtils.nullSafeEquals(resolvedMigration.getChecksum(), appliedMigration.getChecksum())) {
+                if (validateChecksum
+                        && !ObjectUtils.nullSafeEquals(resolvedMigration.getChecksum(), appliedMigration.getChecksum())) {
                     return String.format("Migration Checksum mismatch for migration %s: DB=%s, Classpath=%s",
                             appliedMigration.getScript(), appliedMigration.getChecksum(), resolvedMigration.getChecksum());
                 }
@@ -22,16 +22,16 @@ import com.googlecode.flyway.core.api.MigrationType;
 import com.googlecode.flyway.core.api.MigrationVersion;
 import com.googlecode.flyway.core.metadatatable.AppliedMigration;
 import com.googlecode.flyway.core.metadatatable.MetaDataTable;
+import com.googlecode.flyway.core.resolver.ChecksumCalculator;
 import com.googlecode.flyway.core.resolver.MigrationResolver;
 import com.googlecode.flyway.core.resolver.ResolvedMigration;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 
 /**
  * Default implementation of MigrationInfoService.
@@ -65,6 +65,41 @@ public class MigrationInfoServiceImpl implements MigrationInfoService {
      */
     private List<MigrationInfoImpl> migrationInfos;
 
+    /**
+     * The most recently applied migration at the last refresh. {@code null} if none.
+     */
+    private MigrationInfoImpl current;
+
+    /**
+     * The migrations which are pending at the last refresh.
+     */
+    private List<MigrationInfoImpl> pendingMigrationInfos;
+
+    /**
+     * The migrations which are applied at the last refresh.
+     */
+    private List<MigrationInfoImpl> appliedMigrationInfos;
+
+    /**
+     * The migrations which are resolved at the last refresh.
+     */
+    private List<MigrationInfoImpl> resolvedMigrationInfos;
+
+    /**
+     * The migrations which failed at the last refresh.
+     */
+    private List<MigrationInfoImpl> failedMigrationInfos;
+
+    /**
+     * The future migrations at the last refresh.
+     */
+    private List<MigrationInfoImpl> futureMigrationInfos;
+
+    /**
+     * The out of order migrations at the last refresh.
+     */
+    private List<MigrationInfoImpl> outOfOrderMigrationInfos;
+
     /**
      * Creates a new MigrationInfoServiceImpl.
      *
@@ -88,6 +123,44 @@ public class MigrationInfoServiceImpl implements MigrationInfoService {
         List<AppliedMigration> appliedMigrations = metaDataTable.allAppliedMigrations();
 
         migrationInfos = mergeAvailableAndAppliedMigrations(availableMigrations, appliedMigrations);
+        indexStates();
+    }
+
+    /**
+     * Calculates the state of every migration once and indexes the migrations by state, so the accessors don't have
+     * to go through all migrations again.
+     */
+    private void indexStates() {
+        current = null;
+        pendingMigrationInfos = new ArrayList<MigrationInfoImpl>();
+        appliedMigrationInfos = new ArrayList<MigrationInfoImpl>();
+        resolvedMigrationInfos = new ArrayList<MigrationInfoImpl>();
+        failedMigrationInfos = new ArrayList<MigrationInfoImpl>();
+        futureMigrationInfos = new ArrayList<MigrationInfoImpl>();
+        outOfOrderMigrationInfos = new ArrayList<MigrationInfoImpl>();
+
+        for (MigrationInfoImpl migrationInfo : migrationInfos) {
+            MigrationState state = migrationInfo.getState();
+            if (state == MigrationState.PENDING) {
+                pendingMigrationInfos.add(migrationInfo);
+            }
+            if (state.isApplied()) {
+                appliedMigrationInfos.add(migrationInfo);
+                current = migrationInfo;
+            }
+            if (state.isResolved()) {
+                resolvedMigrationInfos.add(migrationInfo);
+            }
+            if (state.isFailed()) {
+                failedMigrationInfos.add(migrationInfo);
+            }
+            if ((state == MigrationState.FUTURE_SUCCESS) || (state == MigrationState.FUTURE_FAILED)) {
+                futureMigrationInfos.add(migrationInfo);
+            }
+            if (state == MigrationState.OUT_OF_ORDER) {
+                outOfOrderMigrationInfos.add(migrationInfo);
+            }
+        }
     }
 
     /**
@@ -103,78 +176,104 @@ public class MigrationInfoServiceImpl implements MigrationInfoService {
         context.outOfOrder = outOfOrder;
         context.target = target;
 
-        Map<MigrationVersion, ResolvedMigration> resolvedMigrationsMap = new TreeMap<MigrationVersion, ResolvedMigration>();
-        for (ResolvedMigration resolvedMigration : resolvedMigrations) {
-            MigrationVersion version = resolvedMigration.getVersion();
-            if (version.compareTo(context.lastResolved) > 0) {
-                context.lastResolved = version;
-            }
-            resolvedMigrationsMap.put(version, resolvedMigration);
+        List<ResolvedMigration> sortedResolvedMigrations = sortByVersion(resolvedMigrations);
+        if (!sortedResolvedMigrations.isEmpty()) {
+            context.lastResolved = sortedResolvedMigrations.get(sortedResolvedMigrations.size() - 1).getVersion();
         }
 
-        Map<MigrationVersion, AppliedMigration> appliedMigrationsMap = new TreeMap<MigrationVersion, AppliedMigration>();
+        List<AppliedMigration> sortedAppliedMigrations = sortByVersion(appliedMigrations);
+        if (!sortedAppliedMigrations.isEmpty()) {
+            context.lastApplied = sortedAppliedMigrations.get(sortedAppliedMigrations.size() - 1).getVersion();
+        }
         for (AppliedMigration appliedMigration : appliedMigrations) {
-            MigrationVersion version = appliedMigration.getVersion();
-            if (version.compareTo(context.lastApplied) > 0) {
-                context.lastApplied = version;
-            }
             if (appliedMigration.getType() == MigrationType.INIT) {
-                context.init = version;
+                context.init = appliedMigration.getVersion();
             }
-            appliedMigrationsMap.put(version, appliedMigration);
         }
 
-        Set<MigrationVersion> allVersions = new HashSet<MigrationVersion>();
-        allVersions.addAll(resolvedMigrationsMap.keySet());
-        allVersions.addAll(appliedMigrationsMap.keySet());
-
+        // Both lists are sorted by version, so they can be merged in a single pass.
+        // Of several migrations with the same version, the last one wins.
         List<MigrationInfoImpl> migrationInfos = new ArrayList<MigrationInfoImpl>();
-        for (MigrationVersion version : allVersions) {
-            ResolvedMigration resolvedMigration = resolvedMigrationsMap.get(version);
-            AppliedMigration appliedMigration = appliedMigrationsMap.get(version);
-            migrationInfos.add(new MigrationInfoImpl(resolvedMigration, appliedMigration, context));
-        }
+        int resolvedIndex = 0;
+        int appliedIndex = 0;
+        while ((resolvedIndex < sortedResolvedMigrations.size()) || (appliedIndex < sortedAppliedMigrations.size())) {
+            ResolvedMigration resolvedMigration = null;
+            if (resolvedIndex < sortedResolvedMigrations.size()) {
+                resolvedMigration = sortedResolvedMigrations.get(resolvedIndex);
+                if ((resolvedIndex + 1 < sortedResolvedMigrations.size())
+                        && (resolvedMigration.compareTo(sortedResolvedMigrations.get(resolvedIndex + 1)) == 0)) {
+                    resolvedIndex++;
+                    continue;
+                }
+            }
+
+            AppliedMigration appliedMigration = null;
+            if (appliedIndex < sortedAppliedMigrations.size()) {
+                appliedMigration = sortedAppliedMigrations.get(appliedIndex);
+                if ((appliedIndex + 1 < sortedAppliedMigrations.size())
+                        && (appliedMigration.compareTo(sortedAppliedMigrations.get(appliedIndex + 1)) == 0)) {
+                    appliedIndex++;
+                    continue;
+                }
+            }
 
-        Collections.sort(migrationInfos);
+            int compared;
+            if (resolvedMigration == null) {
+                compared = 1;
+            } else if (appliedMigration == null) {
+                compared = -1;
+            } else {
+                compared = resolvedMigration.getVersion().compareTo(appliedMigration.getVersion());
+            }
+
+            if (compared < 0) {
+                migrationInfos.add(new MigrationInfoImpl(resolvedMigration, null, context));
+                resolvedIndex++;
+            } else if (compared > 0) {
+                migrationInfos.add(new MigrationInfoImpl(null, appliedMigration, context));
+                appliedIndex++;
+            } else {
+                migrationInfos.add(new MigrationInfoImpl(resolvedMigration, appliedMigration, context));
+                resolvedIndex++;
+                appliedIndex++;
+            }
+        }
 
         return migrationInfos;
     }
 
+    /**
+     * Sorts these migrations by version, unless they already are, as is normally the case.
+     *
+     * @param migrations The migrations to sort.
+     * @param <T>        The type of migrations.
+     * @return The migrations, sorted by version.
+     */
+    private static <T extends Comparable<T>> List<T> sortByVersion(List<T> migrations) {
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i - 1).compareTo(migrations.get(i)) > 0) {
+                List<T> sortedMigrations = new ArrayList<T>(migrations);
+                Collections.sort(sortedMigrations);
+                return sortedMigrations;
+            }
+        }
+        return migrations;
+    }
+
     public MigrationInfo[] all() {
         return migrationInfos.toArray(new MigrationInfoImpl[migrationInfos.size()]);
     }
 
     public MigrationInfo current() {
-        for (int i = migrationInfos.size() - 1; i >= 0; i--) {
-            MigrationInfo migrationInfo = migrationInfos.get(i);
-            if (migrationInfo.getState().isApplied()) {
-                return migrationInfo;
-            }
-        }
-
-        return null;
+        return current;
     }
 
     public MigrationInfoImpl[] pending() {
-        List<MigrationInfoImpl> pendingMigrations = new ArrayList<MigrationInfoImpl>();
-        for (MigrationInfoImpl migrationInfo : migrationInfos) {
-            if (MigrationState.PENDING == migrationInfo.getState()) {
-                pendingMigrations.add(migrationInfo);
-            }
-        }
-
-        return pendingMigrations.toArray(new MigrationInfoImpl[pendingMigrations.size()]);
+        return pendingMigrationInfos.toArray(new MigrationInfoImpl[pendingMigrationInfos.size()]);
     }
 
     public MigrationInfo[] applied() {
-        List<MigrationInfo> appliedMigrations = new ArrayList<MigrationInfo>();
-        for (MigrationInfo migrationInfo : migrationInfos) {
-            if (migrationInfo.getState().isApplied()) {
-                appliedMigrations.add(migrationInfo);
-            }
-        }
-
-        return appliedMigrations.toArray(new MigrationInfo[appliedMigrations.size()]);
+        return appliedMigrationInfos.toArray(new MigrationInfo[appliedMigrationInfos.size()]);
     }
 
     /**
@@ -183,14 +282,7 @@ public class MigrationInfoServiceImpl implements MigrationInfoService {
      * @return The resolved migrations. An empty array if none.
      */
     public MigrationInfo[] resolved() {
-        List<MigrationInfo> resolvedMigrations = new ArrayList<MigrationInfo>();
-        for (MigrationInfo migrationInfo : migrationInfos) {
-            if (migrationInfo.getState().isResolved()) {
-                resolvedMigrations.add(migrationInfo);
-            }
-        }
-
-        return resolvedMigrations.toArray(new MigrationInfo[resolvedMigrations.size()]);
+        return resolvedMigrationInfos.toArray(new MigrationInfo[resolvedMigrationInfos.size()]);
     }
 
     /**
@@ -199,14 +291,7 @@ public class MigrationInfoServiceImpl implements MigrationInfoService {
      * @return The failed migrations. An empty array if none.
      */
     public MigrationInfo[] failed() {
-        List<MigrationInfo> failedMigrations = new ArrayList<MigrationInfo>();
-        for (MigrationInfo migrationInfo : migrationInfos) {
-            if (migrationInfo.getState().isFailed()) {
-                failedMigrations.add(migrationInfo);
-            }
-        }
-
-        return failedMigrations.toArray(new MigrationInfo[failedMigrations.size()]);
+        return failedMigrationInfos.toArray(new MigrationInfo[failedMigrationInfos.size()]);
     }
 
     /**
@@ -215,15 +300,7 @@ public class MigrationInfoServiceImpl implements MigrationInfoService {
      * @return The future migrations. An empty array if none.
      */
     public MigrationInfo[] future() {
-        List<MigrationInfo> futureMigrations = new ArrayList<MigrationInfo>();
-        for (MigrationInfo migrationInfo : migrationInfos) {
-            if ((migrationInfo.getState() == MigrationState.FUTURE_SUCCESS)
-                    || (migrationInfo.getState() == MigrationState.FUTURE_FAILED)) {
-                futureMigrations.add(migrationInfo);
-            }
-        }
-
-        return futureMigrations.toArray(new MigrationInfo[futureMigrations.size()]);
+        return futureMigrationInfos.toArray(new MigrationInfo[futureMigrationInfos.size()]);
     }
 
     /**
@@ -232,14 +309,7 @@ public class MigrationInfoServiceImpl implements MigrationInfoService {
      * @return The out of order migrations. An empty array if none.
      */
     public MigrationInfo[] outOfOrder() {
-        List<MigrationInfo> outOfOrderMigrations = new ArrayList<MigrationInfo>();
-        for (MigrationInfo migrationInfo : migrationInfos) {
-            if (migrationInfo.getState() == MigrationState.OUT_OF_ORDER) {
-                outOfOrderMigrations.add(migrationInfo);
-            }
-        }
-
-        return outOfOrderMigrations.toArray(new MigrationInfo[outOfOrderMigrations.size()]);
+        return outOfOrderMigrationInfos.toArray(new MigrationInfo[outOfOrderMigrationInfos.size()]);
     }
 
     /**
@@ -248,12 +318,59 @@ public class MigrationInfoServiceImpl implements MigrationInfoService {
      * @return The error message, or {@code null} if everything is fine.
      */
     public String validate() {
+        return validate(0);
+    }
+
+    /**
+     * Validate all migrations for consistency, only comparing the checksums of the most recently applied migrations
+     * with the ones of the available migrations. The contents of the other available migrations are never read.
+     *
+     * @param checksumValidationLimit The number of most recently applied migrations whose checksum is validated.
+     *                                {@code 0} to validate the checksums of all applied migrations.
+     * @return The error message, or {@code null} if everything is fine.
+     */
+    public String validate(int checksumValidationLimit) {
+        Set<MigrationVersion> checksumVersions = new HashSet<MigrationVersion>();
+        List<ResolvedMigration> checksumMigrations = new ArrayList<ResolvedMigration>();
+        for (MigrationInfoImpl migrationInfo : findChecksumValidated(checksumValidationLimit)) {
+            checksumVersions.add(migrationInfo.getVersion());
+            checksumMigrations.add(migrationInfo.getResolvedMigration());
+        }
+        ChecksumCalculator.calculateChecksums(checksumMigrations);
+
         for (MigrationInfoImpl migrationInfo : migrationInfos) {
-            String message = migrationInfo.validate();
+            String message = migrationInfo.validate(checksumVersions.contains(migrationInfo.getVersion()));
             if (message != null) {
                 return message;
             }
         }
         return null;
     }
+
+    /**
+     * Finds the migrations which are both available and applied whose checksum should be validated.
+     *
+     * @param checksumValidationLimit The number of most recently applied migrations whose checksum is validated.
+     *                                {@code 0} for all.
+     * @return The matching migrations, most recently applied first.
+     */
+    private List<MigrationInfoImpl> findChecksumValidated(int checksumValidationLimit) {
+        List<MigrationInfoImpl> result = new ArrayList<MigrationInfoImpl>();
+        for (MigrationInfoImpl migrationInfo : migrationInfos) {
+            if ((migrationInfo.getResolvedMigration() != null) && (migrationInfo.getAppliedMigration() != null)) {
+                result.add(migrationInfo);
+            }
+        }
+
+        Collections.sort(result, new Comparator<MigrationInfoImpl>() {
+            public int compare(MigrationInfoImpl o1, MigrationInfoImpl o2) {
+                return o2.getAppliedMigration().getInstalledRank() - o1.getAppliedMigration().getInstalledRank();
+            }
+        });
+
+        if ((checksumValidationLimit > 0) && (result.size() > checksumValidationLimit)) {
+            return result.subList(0, checksumValidationLimit);
+        }
+        return result;
+    }
 }
@@ -25,10 +25,17 @@ import java.util.List;
  */
 public interface MetaDataTable {
     /**
-     * Acquires an exclusive read-write lock on the metadata table. This lock will be released automatically on commit.
+     * Acquires an exclusive lock on the metadata table. This lock will be released automatically on commit, unless the
+     * database only offers session-level locks, in which case {@link #unlock()} releases it.
      */
     void lock();
 
+    /**
+     * Releases the lock acquired by {@link #lock()} if it isn't released automatically on commit. Must be called once
+     * the transaction in which the lock was acquired has ended.
+     */
+    void unlock();
+
     /**
      * Adds this migration as executed to the metadata table.
      *
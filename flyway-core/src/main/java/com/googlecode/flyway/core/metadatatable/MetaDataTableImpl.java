@@ -35,11 +35,13 @@ import com.googlecode.flyway.core.util.logging.LogFactory;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Supports reading and writing to the metadata table.
@@ -47,6 +49,18 @@ import java.util.Map;
 public class MetaDataTableImpl implements MetaDataTable {
     private static final Log LOG = LogFactory.getLog(MetaDataTableImpl.class);
 
+    /**
+     * The maximum number of versions to intern.
+     */
+    private static final int MAX_INTERNED_VERSIONS = 100000;
+
+    /**
+     * The versions read from metadata tables so far, by version string. Every command reads the metadata table again,
+     * so each distinct version is only parsed once and shared between all reads.
+     */
+    private static final ConcurrentMap<String, MigrationVersion> INTERNED_VERSIONS =
+            new ConcurrentHashMap<String, MigrationVersion>();
+
     /**
      * Flag indicating whether the upgrade has already been executed.
      */
@@ -72,6 +86,50 @@ public class MetaDataTableImpl implements MetaDataTable {
      */
     private final JdbcTemplate jdbcTemplate;
 
+    /**
+     * Whether to coordinate concurrent migrations using an advisory lock instead of a lock on the metadata table,
+     * where the database supports it.
+     */
+    private final boolean advisoryLock;
+
+    /**
+     * The maximum time to wait for the advisory lock (in seconds). A negative value waits indefinitely.
+     */
+    private final int lockTimeout;
+
+    /**
+     * Whether the database supports advisory locks. {@code null} if it hasn't been checked yet.
+     */
+    private Boolean advisoryLocksSupported;
+
+    /**
+     * Whether an advisory lock is currently held and must be released by {@link #unlock()}.
+     */
+    private boolean advisoryLockHeld;
+
+    /**
+     * The applied migrations as last read from the metadata table, kept up to date in memory as new migrations are
+     * added (sorted by version rank). {@code null} if they haven't been read yet.
+     */
+    private List<AppliedMigration> cachedAppliedMigrations;
+
+    /**
+     * The highest installed rank amongst the cached applied migrations.
+     */
+    private int cachedMaxInstalledRank;
+
+    /**
+     * Whether the cached applied migrations have been checked against the metadata table since the lock was last
+     * acquired. As long as the lock is held, nobody else can change the table and the ranks of new migrations can be
+     * computed from the cache alone.
+     */
+    private boolean cacheCheckedUnderLock;
+
+    /**
+     * Whether the lock on the metadata table is currently held.
+     */
+    private boolean locked;
+
     /**
      * Creates a new instance of the metadata table support.
      *
@@ -80,10 +138,28 @@ public class MetaDataTableImpl implements MetaDataTable {
      * @param migrationResolver For resolving available migrations.
      */
     public MetaDataTableImpl(DbSupport dbSupport, Table table, MigrationResolver migrationResolver) {
+        this(dbSupport, table, migrationResolver, false, -1);
+    }
+
+    /**
+     * Creates a new instance of the metadata table support.
+     *
+     * @param dbSupport         Database-specific functionality.
+     * @param table             The metadata table used by flyway.
+     * @param migrationResolver For resolving available migrations.
+     * @param advisoryLock      Whether to coordinate concurrent migrations using an advisory lock instead of a lock
+     *                          on the metadata table, where the database supports it.
+     * @param lockTimeout       The maximum time to wait for the advisory lock (in seconds). A negative value waits
+     *                          indefinitely.
+     */
+    public MetaDataTableImpl(DbSupport dbSupport, Table table, MigrationResolver migrationResolver,
+                             boolean advisoryLock, int lockTimeout) {
         this.jdbcTemplate = dbSupport.getJdbcTemplate();
         this.dbSupport = dbSupport;
         this.table = table;
         this.migrationResolver = migrationResolver;
+        this.advisoryLock = advisoryLock;
+        this.lockTimeout = lockTimeout;
     }
 
     /**
@@ -112,25 +188,77 @@ public class MetaDataTableImpl implements MetaDataTable {
 
         SqlScript sqlScript = new SqlScript(sourceNoPlaceholders, dbSupport);
         sqlScript.execute(jdbcTemplate);
+        cachedAppliedMigrations = null;
 
         LOG.debug("Metadata table " + table + " created.");
     }
 
     public void lock() {
         createIfNotExists();
-        table.lock();
+        if (useAdvisoryLock()) {
+            LOG.debug("Acquiring advisory lock " + getAdvisoryLockName() + "...");
+            dbSupport.acquireAdvisoryLock(getAdvisoryLockName(), lockTimeout);
+            advisoryLockHeld = true;
+            LOG.debug("Advisory lock acquired: " + getAdvisoryLockName());
+        } else {
+            table.lock();
+        }
+        locked = true;
+        cacheCheckedUnderLock = false;
+    }
+
+    public void unlock() {
+        locked = false;
+        cacheCheckedUnderLock = false;
+        if (advisoryLockHeld) {
+            advisoryLockHeld = false;
+            dbSupport.releaseAdvisoryLock(getAdvisoryLockName());
+        }
+    }
+
+    /**
+     * Checks whether an advisory lock should be used instead of locking the metadata table.
+     *
+     * @return {@code true} if advisory locks are enabled and supported by the database, {@code false} if not.
+     */
+    private boolean useAdvisoryLock() {
+        if (!advisoryLock) {
+            return false;
+        }
+
+        if (advisoryLocksSupported == null) {
+            advisoryLocksSupported = dbSupport.supportsAdvisoryLocks();
+            if (!advisoryLocksSupported) {
+                LOG.warn("Advisory locks are not supported by this database. Locking metadata table " + table + " instead.");
+            }
+        }
+        return advisoryLocksSupported;
+    }
+
+    /**
+     * @return The name of the advisory lock protecting this metadata table. It is unique per database server.
+     */
+    private String getAdvisoryLockName() {
+        return "Flyway-" + table.getSchema().getName() + "." + table.getName();
     }
 
     public void addAppliedMigration(AppliedMigration appliedMigration) {
         createIfNotExists();
+        if (!cacheCheckedUnderLock) {
+            refreshCache();
+        }
 
         MigrationVersion version = appliedMigration.getVersion();
         try {
-            int versionRank = calculateVersionRank(version);
-
-            jdbcTemplate.update("UPDATE " + table
-                    + " SET " + dbSupport.quote("version_rank") + " = " + dbSupport.quote("version_rank")
-                    + " + 1 WHERE " + dbSupport.quote("version_rank") + " >= ?", versionRank);
+            int versionRank = calculateVersionRank(cachedAppliedMigrations, version);
+            int installedRank = cachedMaxInstalledRank + 1;
+
+            if (versionRank <= getMaxVersionRank()) {
+                // Out of order: make room for the new version amongst the existing ones.
+                jdbcTemplate.update("UPDATE " + table
+                        + " SET " + dbSupport.quote("version_rank") + " = " + dbSupport.quote("version_rank")
+                        + " + 1 WHERE " + dbSupport.quote("version_rank") + " >= ?", versionRank);
+            }
             jdbcTemplate.update("INSERT INTO " + table
                     + " (" + dbSupport.quote("version_rank")
                     + "," + dbSupport.quote("installed_rank")
@@ -145,7 +273,7 @@ public class MetaDataTableImpl implements MetaDataTable {
                     + ")"
                     + " VALUES (?, ?, ?, ?, ?, ?, ?, " + dbSupport.getCurrentUserFunction() + ", ?, ?)",
                     versionRank,
-                    calculateInstalledRank(),
+                    installedRank,
                     version.toString(),
                     appliedMigration.getDescription(),
                     appliedMigration.getType().name(),
@@ -154,49 +282,178 @@ public class MetaDataTableImpl implements MetaDataTable {
                     appliedMigration.getExecutionTime(),
                     appliedMigration.isSuccess());
             LOG.debug("MetaData table " + table + " successfully updated to reflect changes");
+
+            addToCache(versionRank, findAppliedMigration(installedRank));
         } catch (SQLException e) {
             throw new FlywayException("Unable to insert row for version '" + version + "' in metadata table " + table, e);
         }
     }
 
     /**
-     * Calculates the installed rank for the new migration to be inserted.
-     *
-     * @return The installed rank.
+     * @return The highest version rank amongst the cached applied migrations. {@code 0} if there are none.
      */
-    private int calculateInstalledRank() throws SQLException {
-        int currentMax = jdbcTemplate.queryForInt("SELECT MAX(" + dbSupport.quote("installed_rank") + ")"
-                + " FROM " + table);
-        return currentMax + 1;
+    private int getMaxVersionRank() {
+        if (cachedAppliedMigrations.isEmpty()) {
+            return 0;
+        }
+        return cachedAppliedMigrations.get(cachedAppliedMigrations.size() - 1).getVersionRank();
     }
 
     /**
-     * Calculate the rank for this new version about to be inserted.
+     * Calculate the rank for this new version about to be inserted, based on the cached applied migrations. This is
+     * the rank of the first applied migration with a higher version, or the highest rank + 1 if there is none (the
+     * common case of a migration applied in order).
      *
-     * @param version The version to calculated for.
+     * @param appliedMigrations The applied migrations, sorted by version rank.
+     * @param version           The version to calculated for.
      * @return The rank.
      */
-    private int calculateVersionRank(MigrationVersion version) throws SQLException {
-        List<String> versions = jdbcTemplate.queryForStringList("select " + dbSupport.quote("version") + " from " + table);
+    /* private -> for testing */
+    static int calculateVersionRank(List<AppliedMigration> appliedMigrations, MigrationVersion version) {
+        if (appliedMigrations.isEmpty()) {
+            return 1;
+        }
 
-        List<MigrationVersion> migrationVersions = new ArrayList<MigrationVersion>();
-        for (String versionStr : versions) {
-            migrationVersions.add(new MigrationVersion(versionStr));
+        AppliedMigration last = appliedMigrations.get(appliedMigrations.size() - 1);
+        if (version.compareTo(last.getVersion()) >= 0) {
+            return last.getVersionRank() + 1;
         }
 
-        Collections.sort(migrationVersions);
+        // Binary search for the first applied migration with a higher version.
+        int low = 0;
+        int high = appliedMigrations.size() - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (version.compareTo(appliedMigrations.get(middle).getVersion()) < 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return appliedMigrations.get(low).getVersionRank();
+    }
+
+    /**
+     * Reads the migration that was just inserted back from the metadata table, as its installation timestamp and
+     * installing user are generated by the database.
+     *
+     * @param installedRank The installed rank of the new migration.
+     * @return The new migration.
+     */
+    private AppliedMigration findAppliedMigration(int installedRank) throws SQLException {
+        String query = createSelectQuery() + " WHERE " + dbSupport.quote("installed_rank") + " = " + installedRank;
+        return jdbcTemplate.query(query, new AppliedMigrationRowMapper()).get(0);
+    }
+
+    /**
+     * Adds this newly inserted migration to the cached applied migrations, shifting the version rank of all cached
+     * migrations with a higher version just like the UPDATE in the metadata table did.
+     *
+     * @param versionRank  The version rank of the new migration.
+     * @param newMigration The new migration, as read back from the metadata table.
+     */
+    private void addToCache(int versionRank, AppliedMigration newMigration) {
+        List<AppliedMigration> appliedMigrations = new ArrayList<AppliedMigration>(cachedAppliedMigrations.size() + 1);
+
+        boolean added = false;
+        for (AppliedMigration cached : cachedAppliedMigrations) {
+            if (cached.getVersionRank() < versionRank) {
+                appliedMigrations.add(cached);
+                continue;
+            }
 
-        for (int i = 0; i < migrationVersions.size(); i++) {
-            if (version.compareTo(migrationVersions.get(i)) < 0) {
-                return i + 1;
+            if (!added) {
+                appliedMigrations.add(newMigration);
+                added = true;
             }
+            appliedMigrations.add(new AppliedMigration(cached.getVersionRank() + 1, cached.getInstalledRank(),
+                    cached.getVersion(), cached.getDescription(), cached.getType(), cached.getScript(),
+                    cached.getChecksum(), cached.getInstalledOn(), cached.getInstalledBy(),
+                    cached.getExecutionTime(), cached.isSuccess()));
+        }
+        if (!added) {
+            appliedMigrations.add(newMigration);
         }
 
-        return migrationVersions.size() + 1;
+        cachedAppliedMigrations = appliedMigrations;
+        cachedMaxInstalledRank = Math.max(cachedMaxInstalledRank, newMigration.getInstalledRank());
     }
 
+    /**
+     * Retrieves all applied migrations. They are only read from the metadata table the first time. Afterwards the
+     * in-memory copy is returned, unless a cheap check shows that the metadata table was changed by someone else (like
+     * another node migrating the same schema) in the meantime. The existence of the metadata table is only checked
+     * as long as nothing has been read yet.
+     *
+     * @return The applied migrations, sorted by version rank.
+     */
     public List<AppliedMigration> allAppliedMigrations() {
-        return findAppliedMigrations();
+        if ((cachedAppliedMigrations == null) && !table.existsNoQuotes() && !table.exists()) {
+            return new ArrayList<AppliedMigration>();
+        }
+
+        refreshCache();
+        return new ArrayList<AppliedMigration>(cachedAppliedMigrations);
+    }
+
+    /**
+     * Makes sure the cached applied migrations match the contents of the metadata table, reading them again if
+     * necessary.
+     */
+    private void refreshCache() {
+        if ((cachedAppliedMigrations == null) || !isCacheUpToDate()) {
+            cachedAppliedMigrations = findAppliedMigrations();
+            cachedMaxInstalledRank = 0;
+            for (AppliedMigration appliedMigration : cachedAppliedMigrations) {
+                cachedMaxInstalledRank = Math.max(cachedMaxInstalledRank, appliedMigration.getInstalledRank());
+            }
+        }
+        cacheCheckedUnderLock = locked;
+    }
+
+    /**
+     * Checks whether the cached applied migrations still match the contents of the metadata table. This compares the
+     * row count, the highest installed rank, the latest installation timestamp and the number of successful
+     * migrations, which catches new rows as well as a repair followed by a new migration. Changes to existing rows
+     * that leave all of these untouched, such as a manual update of a checksum, are not detected.
+     *
+     * @return {@code true} if they do, {@code false} if the metadata table must be read again.
+     */
+    private boolean isCacheUpToDate() {
+        long latestInstalledOn = 0;
+        int successCount = 0;
+        for (AppliedMigration appliedMigration : cachedAppliedMigrations) {
+            if (appliedMigration.getInstalledOn() != null) {
+                latestInstalledOn = Math.max(latestInstalledOn, appliedMigration.getInstalledOn().getTime());
+            }
+            if (appliedMigration.isSuccess()) {
+                successCount++;
+            }
+        }
+
+        try {
+            long[] summary = jdbcTemplate.query("SELECT COUNT(*), MAX(" + dbSupport.quote("installed_rank") + "),"
+                    + " MAX(" + dbSupport.quote("installed_on") + "),"
+                    + " SUM(CASE WHEN " + dbSupport.quote("success") + "=" + dbSupport.getBooleanTrue()
+                    + " THEN 1 ELSE 0 END) FROM " + table, new RowMapper<long[]>() {
+                public long[] mapRow(ResultSet rs) throws SQLException {
+                    Timestamp latestInstalledOn = rs.getTimestamp(3);
+                    return new long[]{rs.getInt(1), rs.getInt(2),
+                            (latestInstalledOn == null) ? 0 : latestInstalledOn.getTime(), rs.getInt(4)};
+                }
+            }).get(0);
+
+            boolean upToDate = (summary[0] == cachedAppliedMigrations.size())
+                    && (summary[1] == cachedMaxInstalledRank)
+                    && (summary[2] == latestInstalledOn)
+                    && (summary[3] == successCount);
+            if (!upToDate) {
+                LOG.debug("Metadata table " + table + " was changed by another client. Reloading applied migrations.");
+            }
+            return upToDate;
+        } catch (SQLException e) {
+            throw new FlywayException("Unable to check the metadata table " + table + " for changes", e);
+        }
     }
 
     /**
@@ -212,18 +469,7 @@ public class MetaDataTableImpl implements MetaDataTable {
 
         createIfNotExists();
 
-        String query = "SELECT " + dbSupport.quote("version_rank")
-                + "," + dbSupport.quote("installed_rank")
-                + "," + dbSupport.quote("version")
-                + "," + dbSupport.quote("description")
-                + "," + dbSupport.quote("type")
-                + "," + dbSupport.quote("script")
-                + "," + dbSupport.quote("checksum")
-                + "," + dbSupport.quote("installed_on")
-                + "," + dbSupport.quote("installed_by")
-                + "," + dbSupport.quote("execution_time")
-                + "," + dbSupport.quote("success")
-                + " FROM " + table;
+        String query = createSelectQuery();
 
         if (migrationTypes.length > 0) {
             query += " WHERE " + dbSupport.quote("type") + " IN (";
@@ -239,29 +485,52 @@ public class MetaDataTableImpl implements MetaDataTable {
         query += " ORDER BY " + dbSupport.quote("version_rank");
 
         try {
-            return jdbcTemplate.query(query, new RowMapper<AppliedMigration>() {
-                public AppliedMigration mapRow(final ResultSet rs) throws SQLException {
-                    return new AppliedMigration(
-                            rs.getInt("version_rank"),
-                            rs.getInt("installed_rank"),
-                            new MigrationVersion(rs.getString("version")),
-                            rs.getString("description"),
-                            MigrationType.valueOf(rs.getString("type")),
-                            rs.getString("script"),
-                            toInteger((Number) rs.getObject("checksum")),
-                            rs.getTimestamp("installed_on"),
-                            rs.getString("installed_by"),
-                            toInteger((Number) rs.getObject("execution_time")),
-                            rs.getBoolean("success")
-                    );
-                }
-            });
+            return jdbcTemplate.query(query, new AppliedMigrationRowMapper());
         } catch (SQLException e) {
             throw new FlywayException("Error while retrieving the list of applied migrations from metadata table "
                     + table, e);
         }
     }
 
+    /**
+     * @return The query selecting all columns of the applied migrations in the metadata table.
+     */
+    private String createSelectQuery() {
+        return "SELECT " + dbSupport.quote("version_rank")
+                + "," + dbSupport.quote("installed_rank")
+                + "," + dbSupport.quote("version")
+                + "," + dbSupport.quote("description")
+                + "," + dbSupport.quote("type")
+                + "," + dbSupport.quote("script")
+                + "," + dbSupport.quote("checksum")
+                + "," + dbSupport.quote("installed_on")
+                + "," + dbSupport.quote("installed_by")
+                + "," + dbSupport.quote("execution_time")
+                + "," + dbSupport.quote("success")
+                + " FROM " + table;
+    }
+
+    /**
+     * Maps a row of the metadata table to an applied migration.
+     */
+    private class AppliedMigrationRowMapper implements RowMapper<AppliedMigration> {
+        public AppliedMigration mapRow(final ResultSet rs) throws SQLException {
+            return new AppliedMigration(
+                    rs.getInt("version_rank"),
+                    rs.getInt("installed_rank"),
+                    internVersion(rs.getString("version")),
+                    rs.getString("description"),
+                    MigrationType.valueOf(rs.getString("type")),
+                    rs.getString("script"),
+                    toInteger((Number) rs.getObject("checksum")),
+                    rs.getTimestamp("installed_on"),
+                    rs.getString("installed_by"),
+                    toInteger((Number) rs.getObject("execution_time")),
+                    rs.getBoolean("success")
+            );
+        }
+    }
+
     /**
      * Converts this number into an Integer.
      *
@@ -276,6 +545,27 @@ public class MetaDataTableImpl implements MetaDataTable {
         return number.intValue();
     }
 
+    /**
+     * Retrieves the version matching this version string, reusing the instance of a previous read if possible.
+     *
+     * @param version The version string, as stored in the metadata table.
+     * @return The version.
+     */
+    /* private -> for testing */
+    static MigrationVersion internVersion(String version) {
+        MigrationVersion migrationVersion = INTERNED_VERSIONS.get(version);
+        if (migrationVersion == null) {
+            migrationVersion = MigrationVersion.fromVersion(version);
+            if (INTERNED_VERSIONS.size() < MAX_INTERNED_VERSIONS) {
+                MigrationVersion existing = INTERNED_VERSIONS.putIfAbsent(version, migrationVersion);
+                if (existing != null) {
+                    migrationVersion = existing;
+                }
+            }
+        }
+        return migrationVersion;
+    }
+
     public void addInitMarker(final MigrationVersion initVersion, final String initDescription) {
         addAppliedMigration(new AppliedMigration(initVersion, initDescription, MigrationType.INIT, initDescription, null,
                 0, true));
@@ -306,6 +596,7 @@ public class MetaDataTableImpl implements MetaDataTable {
         try {
             jdbcTemplate.execute("DELETE FROM " + table
                     + " WHERE " + dbSupport.quote("success") + " = " + dbSupport.getBooleanFalse());
+            cachedAppliedMigrations = null;
         } catch (SQLException e) {
             throw new FlywayException("Unable to repair metadata table " + table, e);
         }
@@ -320,7 +611,7 @@ public class MetaDataTableImpl implements MetaDataTable {
     public void addSchemasMarker(final Schema[] schemas) {
         createIfNotExists();
 
-        addAppliedMigration(new AppliedMigration(new MigrationVersion("0"), "<< Flyway Schema Creation >>",
+        addAppliedMigration(new AppliedMigration(MigrationVersion.fromVersion("0"), "<< Flyway Schema Creation >>",
                 MigrationType.SCHEMA, StringUtils.arrayToCommaDelimitedString(schemas), null, 0, true));
     }
 
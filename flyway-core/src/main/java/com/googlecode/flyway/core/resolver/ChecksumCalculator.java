@@ -0,0 +1,66 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.resolver;
+
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.util.ParallelExecutor;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Calculates the checksums of resolved migrations concurrently.
+ */
+public class ChecksumCalculator {
+    /**
+     * Prevents instantiation.
+     */
+    private ChecksumCalculator() {
+        //Do nothing.
+    }
+
+    /**
+     * Calculates the checksums of these migrations concurrently, one thread per available processor. Migrations
+     * whose checksum is calculated lazily then have it available immediately. Failures are ignored here: as they
+     * aren't cached, they occur again as soon as the checksum of the migration is read.
+     *
+     * @param resolvedMigrations The migrations to calculate the checksums for.
+     */
+    public static void calculateChecksums(Collection<ResolvedMigration> resolvedMigrations) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if ((resolvedMigrations.size() < 2) || (parallelism < 2)) {
+            return;
+        }
+
+        Map<String, Callable<Integer>> tasks = new LinkedHashMap<String, Callable<Integer>>();
+        int i = 0;
+        for (final ResolvedMigration resolvedMigration : resolvedMigrations) {
+            tasks.put(resolvedMigration.getVersion() + "#" + i++, new Callable<Integer>() {
+                public Integer call() {
+                    try {
+                        return resolvedMigration.getChecksum();
+                    } catch (FlywayException e) {
+                        return null;
+                    }
+                }
+            });
+        }
+
+        ParallelExecutor.execute(parallelism, tasks);
+    }
+}
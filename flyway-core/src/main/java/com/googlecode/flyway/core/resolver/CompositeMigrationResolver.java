@@ -25,6 +25,10 @@ import com.googlecode.flyway.core.util.FeatureDetector;
 import com.googlecode.flyway.core.util.Location;
 import com.googlecode.flyway.core.util.Locations;
 import com.googlecode.flyway.core.util.PlaceholderReplacer;
+import com.googlecode.flyway.core.util.logging.Log;
+import com.googlecode.flyway.core.util.logging.LogFactory;
+import com.googlecode.flyway.core.util.scanner.classpath.ClassPathScanner;
+import com.googlecode.flyway.core.util.scanner.filesystem.FileSystemScanner;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -39,6 +43,8 @@ import java.util.Set;
  * resolvers.
  */
 public class CompositeMigrationResolver implements MigrationResolver {
+    private static final Log LOG = LogFactory.getLog(CompositeMigrationResolver.class);
+
     /**
      * Database-specific support.
      */
@@ -79,6 +85,31 @@ public class CompositeMigrationResolver implements MigrationResolver {
      */
     private final String placeholderSuffix;
 
+    /**
+     * Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     */
+    private final boolean stream;
+
+    /**
+     * The maximum number of consecutive data manipulation statements of a sql migration to send as a single JDBC batch. {@code 0} to disable batching.
+     */
+    private final int batchSize;
+
+    /**
+     * The maximum number of filesystem directories to list concurrently.
+     */
+    private final int scanParallelism;
+
+    /**
+     * The cache of the migrations resolved from filesystem locations by previous runs. {@code null} if disabled.
+     */
+    private final ResolutionCache resolutionCache;
+
+    /**
+     * Whether the migration manifest on the classpath should be used instead of scanning the locations it covers.
+     */
+    private final boolean useManifest;
+
     /**
      * The available migrations, sorted by version, newest first. An empty list is returned when no migrations can be
      * found.
@@ -88,7 +119,7 @@ public class CompositeMigrationResolver implements MigrationResolver {
     /**
      * Creates a new CompositeMigrationResolver.
      *
-     * @param dbSupport           The database-specific support.
+     * @param dbSupport          The database-specific support.
      * @param locations          The locations where migrations are located.
      * @param encoding           The encoding of Sql migrations.
      * @param sqlMigrationPrefix The file name prefix for sql migrations.
@@ -98,6 +129,31 @@ public class CompositeMigrationResolver implements MigrationResolver {
      * @param placeholderSuffix  The suffix of every placeholder.
      */
     public CompositeMigrationResolver(DbSupport dbSupport, Locations locations, String encoding, String sqlMigrationPrefix, String sqlMigrationSuffix, Map<String, String> placeholders, String placeholderPrefix, String placeholderSuffix) {
+        this(dbSupport, locations, encoding, sqlMigrationPrefix, sqlMigrationSuffix, placeholders, placeholderPrefix, placeholderSuffix, false, 0, 1, null, false);
+    }
+
+    /**
+     * Creates a new CompositeMigrationResolver.
+     *
+     * @param dbSupport          The database-specific support.
+     * @param locations          The locations where migrations are located.
+     * @param encoding           The encoding of Sql migrations.
+     * @param sqlMigrationPrefix The file name prefix for sql migrations.
+     * @param sqlMigrationSuffix The file name suffix for sql migrations.
+     * @param placeholders       A map of &lt;placeholder, replacementValue&gt; to apply to sql migration scripts.
+     * @param placeholderPrefix  The prefix of every placeholder.
+     * @param placeholderSuffix  The suffix of every placeholder.
+     * @param stream             Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     * @param batchSize          The maximum number of consecutive data manipulation statements of a sql migration to
+     *                           send as a single JDBC batch. {@code 0} to disable batching.
+     * @param scanParallelism    The maximum number of filesystem directories to list concurrently. {@code 1} to list
+     *                           them one by one.
+     * @param resolutionCache    The cache of the migrations resolved from filesystem locations by previous runs. It is
+     *                           saved once the migrations have been resolved. {@code null} to disable it.
+     * @param useManifest        Whether the migration manifest on the classpath should be used instead of scanning the
+     *                           locations it covers.
+     */
+    public CompositeMigrationResolver(DbSupport dbSupport, Locations locations, String encoding, String sqlMigrationPrefix, String sqlMigrationSuffix, Map<String, String> placeholders, String placeholderPrefix, String placeholderSuffix, boolean stream, int batchSize, int scanParallelism, ResolutionCache resolutionCache, boolean useManifest) {
         this.dbSupport = dbSupport;
         this.locations = locations;
         this.encoding = encoding;
@@ -106,6 +162,11 @@ public class CompositeMigrationResolver implements MigrationResolver {
         this.placeholders = placeholders;
         this.placeholderPrefix = placeholderPrefix;
         this.placeholderSuffix = placeholderSuffix;
+        this.stream = stream;
+        this.batchSize = batchSize;
+        this.scanParallelism = scanParallelism;
+        this.resolutionCache = resolutionCache;
+        this.useManifest = useManifest;
     }
 
     /**
@@ -133,15 +194,18 @@ public class CompositeMigrationResolver implements MigrationResolver {
     private List<ResolvedMigration> doFindAvailableMigrations() throws FlywayException {
         PlaceholderReplacer placeholderReplacer = new PlaceholderReplacer(placeholders, placeholderPrefix, placeholderSuffix);
 
+        MigrationManifest manifest = useManifest ? MigrationManifest.load() : null;
+        ClassPathScanner classPathScanner = new ClassPathScanner();
+        FileSystemScanner fileSystemScanner = new FileSystemScanner(scanParallelism);
+
         Collection<MigrationResolver> migrationResolvers = new ArrayList<MigrationResolver>();
 
         for (Location location : locations.getLocations()) {
-            migrationResolvers.add(new SqlMigrationResolver(dbSupport, location, placeholderReplacer, encoding, sqlMigrationPrefix, sqlMigrationSuffix));
-            migrationResolvers.add(new JdbcMigrationResolver(location));
-
-            if (FeatureDetector.isSpringJdbcAvailable()) {
-                migrationResolvers.add(new SpringJdbcMigrationResolver(location));
-                migrationResolvers.add(new JavaMigrationResolver(location));
+            if ((manifest != null) && location.isClassPath() && manifest.covers(location)) {
+                LOG.debug("Using migration manifest for location: " + location);
+                migrationResolvers.add(new ManifestMigrationResolver(manifest, location, dbSupport, placeholderReplacer, encoding, stream, batchSize));
+            } else {
+                migrationResolvers.addAll(createScanningResolvers(location, placeholderReplacer, classPathScanner, fileSystemScanner));
             }
         }
 
@@ -150,9 +214,65 @@ public class CompositeMigrationResolver implements MigrationResolver {
 
         checkForIncompatibilities(migrations);
 
+        if (resolutionCache != null) {
+            resolutionCache.save();
+        }
+
         return migrations;
     }
 
+    /**
+     * Creates the resolvers scanning this location for migrations (sql, java, ...). They share the scanner, so the
+     * location is only listed once for all of them.
+     *
+     * @param location            The location to scan.
+     * @param placeholderReplacer The placeholder replacer to apply to sql migration scripts.
+     * @param classPathScanner    The scanner to use to find migrations on the classpath.
+     * @param fileSystemScanner   The scanner to use to find migrations on the filesystem.
+     * @return The resolvers.
+     */
+    private List<MigrationResolver> createScanningResolvers(Location location, PlaceholderReplacer placeholderReplacer, ClassPathScanner classPathScanner, FileSystemScanner fileSystemScanner) {
+        List<MigrationResolver> migrationResolvers = new ArrayList<MigrationResolver>();
+
+        migrationResolvers.add(new SqlMigrationResolver(dbSupport, location, placeholderReplacer, encoding, sqlMigrationPrefix, sqlMigrationSuffix, stream, batchSize, classPathScanner, fileSystemScanner, resolutionCache));
+        migrationResolvers.add(new JdbcMigrationResolver(location, classPathScanner));
+
+        if (FeatureDetector.isSpringJdbcAvailable()) {
+            migrationResolvers.add(new SpringJdbcMigrationResolver(location, classPathScanner));
+            migrationResolvers.add(new JavaMigrationResolver(location, classPathScanner));
+        }
+
+        return migrationResolvers;
+    }
+
+    /**
+     * Creates the migration manifest of the classpath locations by scanning them. Filesystem locations are not
+     * included as they can change after the build.
+     *
+     * @return The new manifest.
+     * @throws FlywayException when the available migrations have overlapping versions.
+     */
+    public MigrationManifest createManifest() {
+        PlaceholderReplacer placeholderReplacer = new PlaceholderReplacer(placeholders, placeholderPrefix, placeholderSuffix);
+
+        ClassPathScanner classPathScanner = new ClassPathScanner();
+
+        MigrationManifest manifest = new MigrationManifest();
+        for (Location location : locations.getLocations()) {
+            if (!location.isClassPath()) {
+                continue;
+            }
+
+            List<ResolvedMigration> migrations =
+                    new ArrayList<ResolvedMigration>(collectMigrations(createScanningResolvers(location, placeholderReplacer, classPathScanner, new FileSystemScanner())));
+            Collections.sort(migrations);
+            checkForIncompatibilities(migrations);
+
+            manifest.add(location, migrations);
+        }
+        return manifest;
+    }
+
     /**
      * Collects all the migrations for all migration resolvers.
      *
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.resolver;
+
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.api.MigrationType;
+import com.googlecode.flyway.core.api.migration.jdbc.JdbcMigration;
+import com.googlecode.flyway.core.api.migration.spring.SpringJdbcMigration;
+import com.googlecode.flyway.core.dbsupport.DbSupport;
+import com.googlecode.flyway.core.resolver.java.JavaMigrationExecutor;
+import com.googlecode.flyway.core.resolver.jdbc.JdbcMigrationExecutor;
+import com.googlecode.flyway.core.resolver.spring.SpringJdbcMigrationExecutor;
+import com.googlecode.flyway.core.resolver.sql.SqlMigrationExecutor;
+import com.googlecode.flyway.core.util.ClassPathResource;
+import com.googlecode.flyway.core.util.ClassUtils;
+import com.googlecode.flyway.core.util.Location;
+import com.googlecode.flyway.core.util.PlaceholderReplacer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Migration resolver for the migrations of a classpath location listed in the migration manifest. Unlike the other
+ * resolvers, it doesn't need to scan the classpath or to read sql migrations to calculate their checksum.
+ */
+public class ManifestMigrationResolver implements MigrationResolver {
+    /**
+     * The migration manifest.
+     */
+    private final MigrationManifest manifest;
+
+    /**
+     * The location on the classpath where the migrations are located.
+     */
+    private final Location location;
+
+    /**
+     * Database-specific support.
+     */
+    private final DbSupport dbSupport;
+
+    /**
+     * The placeholder replacer to apply to sql migration scripts.
+     */
+    private final PlaceholderReplacer placeholderReplacer;
+
+    /**
+     * The encoding of Sql migrations.
+     */
+    private final String encoding;
+
+    /**
+     * Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     */
+    private final boolean stream;
+
+    /**
+     * The maximum number of consecutive data manipulation statements of a sql migration to send as a single JDBC batch. {@code 0} to disable batching.
+     */
+    private final int batchSize;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param manifest            The migration manifest.
+     * @param location            The location on the classpath where the migrations are located.
+     * @param dbSupport           The database-specific support.
+     * @param placeholderReplacer The placeholder replacer to apply to sql migration scripts.
+     * @param encoding            The encoding of Sql migrations.
+     * @param stream              Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     * @param batchSize           The maximum number of consecutive data manipulation statements to send as a single
+     *                            JDBC batch. {@code 0} to disable batching.
+     */
+    public ManifestMigrationResolver(MigrationManifest manifest, Location location, DbSupport dbSupport,
+                                     PlaceholderReplacer placeholderReplacer, String encoding, boolean stream, int batchSize) {
+        this.manifest = manifest;
+        this.location = location;
+        this.dbSupport = dbSupport;
+        this.placeholderReplacer = placeholderReplacer;
+        this.encoding = encoding;
+        this.stream = stream;
+        this.batchSize = batchSize;
+    }
+
+    public List<ResolvedMigration> resolveMigrations() {
+        List<ResolvedMigration> migrations = new ArrayList<ResolvedMigration>();
+
+        for (ResolvedMigration manifestMigration : manifest.getMigrations(location)) {
+            ResolvedMigration resolvedMigration = new ResolvedMigration();
+            resolvedMigration.setVersion(manifestMigration.getVersion());
+            resolvedMigration.setDescription(manifestMigration.getDescription());
+            resolvedMigration.setScript(manifestMigration.getScript());
+            resolvedMigration.setChecksum(manifestMigration.getChecksum());
+            resolvedMigration.setType(manifestMigration.getType());
+
+            if (manifestMigration.getType() == MigrationType.SQL) {
+                ClassPathResource resource = new ClassPathResource(getResourceLocation(manifestMigration.getScript()));
+                resolvedMigration.setPhysicalLocation(resource.getLocationOnDisk());
+                resolvedMigration.setExecutor(new SqlMigrationExecutor(dbSupport, resource, placeholderReplacer, encoding, stream, batchSize));
+            } else {
+                Object migration;
+                try {
+                    migration = ClassUtils.instantiate(manifestMigration.getScript());
+                } catch (Exception e) {
+                    throw new FlywayException("Unable to instantiate migration " + manifestMigration.getScript()
+                            + " listed in migration manifest for location: " + location, e);
+                }
+                resolvedMigration.setPhysicalLocation(ClassUtils.getLocationOnDisk(migration.getClass()));
+                resolvedMigration.setExecutor(createExecutor(migration));
+            }
+
+            migrations.add(resolvedMigration);
+        }
+
+        Collections.sort(migrations);
+        return migrations;
+    }
+
+    /**
+     * Retrieves the location on the classpath of this sql migration script.
+     *
+     * @param script The script name, relative to the location.
+     * @return The location of the script on the classpath.
+     */
+    private String getResourceLocation(String script) {
+        if (location.getPath().length() == 0) {
+            return script;
+        }
+        return location.getPath() + "/" + script;
+    }
+
+    /**
+     * Creates the executor for this java-based migration.
+     *
+     * @param migration The migration instance.
+     * @return The matching executor.
+     */
+    @SuppressWarnings("deprecation")
+    private MigrationExecutor createExecutor(Object migration) {
+        if (migration instanceof JdbcMigration) {
+            return new JdbcMigrationExecutor((JdbcMigration) migration);
+        }
+        if (migration instanceof SpringJdbcMigration) {
+            return new SpringJdbcMigrationExecutor((SpringJdbcMigration) migration);
+        }
+        if (migration instanceof com.googlecode.flyway.core.migration.java.JavaMigration) {
+            return new JavaMigrationExecutor((com.googlecode.flyway.core.migration.java.JavaMigration) migration);
+        }
+        throw new FlywayException("Unsupported migration " + migration.getClass().getName()
+                + " listed in migration manifest for location: " + location);
+    }
+}
@@ -24,6 +24,11 @@ import com.googlecode.flyway.core.util.Pair;
  * migrations have names like 1_2__Description .
  */
 public class MigrationInfoHelper {
+    /**
+     * The separator between the version and the description in a migration name.
+     */
+    public static final String DESCRIPTION_SEPARATOR = "__";
+
     /**
      * Prevents instantiation.
      */
@@ -45,12 +50,12 @@ public class MigrationInfoHelper {
         String description;
 
         // Handle the description
-        int descriptionPos = cleanMigrationName.indexOf("__");
+        int descriptionPos = cleanMigrationName.indexOf(DESCRIPTION_SEPARATOR);
         if (descriptionPos < 0) {
             throw new FlywayException("Wrong migration name format: " + migrationName + "(It should look like this: " + prefix + "1_2__Description" + suffix + ")");
         } else {
             version = cleanMigrationName.substring(0, descriptionPos);
-            description = cleanMigrationName.substring(descriptionPos + 2).replaceAll("_", " ");
+            description = cleanMigrationName.substring(descriptionPos + DESCRIPTION_SEPARATOR.length()).replaceAll("_", " ");
         }
 
         return Pair.of(new MigrationVersion(version), description);
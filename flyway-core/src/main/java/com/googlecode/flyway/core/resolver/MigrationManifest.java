@@ -0,0 +1,239 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.resolver;
+
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.api.MigrationType;
+import com.googlecode.flyway.core.api.MigrationVersion;
+import com.googlecode.flyway.core.util.Location;
+import com.googlecode.flyway.core.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index of the migrations available in a set of classpath locations, generated at build time so they don't have to be
+ * found by scanning the classpath at runtime.
+ *
+ * <p>The manifest is a UTF-8 text file with one tab-separated record per line. A {@code location} record declares a
+ * location as covered by the manifest. A {@code migration} record describes a migration of a covered location with
+ * its type, version, description, script (or class name) and checksum.</p>
+ */
+public class MigrationManifest {
+    /**
+     * The path of the manifest on the classpath.
+     */
+    public static final String PATH = "META-INF/flyway/migrations.idx";
+
+    /**
+     * The record type declaring a covered location.
+     */
+    private static final String LOCATION = "location";
+
+    /**
+     * The record type describing a migration.
+     */
+    private static final String MIGRATION = "migration";
+
+    /**
+     * The migrations of each covered location.
+     */
+    private final Map<Location, List<ResolvedMigration>> migrations = new TreeMap<Location, List<ResolvedMigration>>();
+
+    /**
+     * Loads and merges all manifests on the classpath.
+     *
+     * @return The merged manifest. {@code null} if there is none.
+     * @throws FlywayException when a manifest could not be read.
+     */
+    public static MigrationManifest load() {
+        try {
+            Enumeration<URL> urls = Thread.currentThread().getContextClassLoader().getResources(PATH);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+
+            MigrationManifest manifest = new MigrationManifest();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                Reader reader = new InputStreamReader(url.openStream(), "UTF-8");
+                try {
+                    manifest.read(reader);
+                } catch (FlywayException e) {
+                    throw new FlywayException("Invalid migration manifest: " + url, e);
+                } finally {
+                    reader.close();
+                }
+            }
+            return manifest;
+        } catch (IOException e) {
+            throw new FlywayException("Unable to load migration manifest " + PATH, e);
+        }
+    }
+
+    /**
+     * Checks whether this manifest covers this location.
+     *
+     * @param location The location to check.
+     * @return {@code true} if it does, {@code false} if the location must be scanned.
+     */
+    public boolean covers(Location location) {
+        return migrations.containsKey(location);
+    }
+
+    /**
+     * Retrieves the migrations of this location.
+     *
+     * @param location The location.
+     * @return The migrations, without executor or physical location. An empty list if the location isn't covered.
+     */
+    public List<ResolvedMigration> getMigrations(Location location) {
+        List<ResolvedMigration> result = migrations.get(location);
+        if (result == null) {
+            return new ArrayList<ResolvedMigration>();
+        }
+        return result;
+    }
+
+    /**
+     * Adds this location and its migrations to the manifest.
+     *
+     * @param location           The location.
+     * @param resolvedMigrations The migrations found in this location.
+     */
+    public void add(Location location, List<ResolvedMigration> resolvedMigrations) {
+        List<ResolvedMigration> locationMigrations = migrations.get(location);
+        if (locationMigrations == null) {
+            locationMigrations = new ArrayList<ResolvedMigration>();
+            migrations.put(location, locationMigrations);
+        }
+        locationMigrations.addAll(resolvedMigrations);
+    }
+
+    /**
+     * Reads the records of a manifest and adds them to this one.
+     *
+     * @param reader The reader for the manifest.
+     * @throws IOException when the manifest could not be read.
+     */
+    /* private -> for testing */ void read(Reader reader) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            if ((line.trim().length() == 0) || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = line.split("\t", -1);
+            if (LOCATION.equals(fields[0]) && (fields.length == 2)) {
+                add(new Location(unescape(fields[1])), new ArrayList<ResolvedMigration>());
+            } else if (MIGRATION.equals(fields[0]) && (fields.length == 7)) {
+                ResolvedMigration resolvedMigration = new ResolvedMigration();
+                try {
+                    resolvedMigration.setType(MigrationType.valueOf(fields[2]));
+                    resolvedMigration.setVersion(MigrationVersion.fromVersion(unescape(fields[3])));
+                    if (fields[6].length() > 0) {
+                        resolvedMigration.setChecksum(Integer.valueOf(fields[6]));
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new FlywayException("Invalid record: " + line, e);
+                }
+                resolvedMigration.setDescription(unescape(fields[4]));
+                resolvedMigration.setScript(unescape(fields[5]));
+
+                List<ResolvedMigration> resolvedMigrations = new ArrayList<ResolvedMigration>();
+                resolvedMigrations.add(resolvedMigration);
+                add(new Location(unescape(fields[1])), resolvedMigrations);
+            } else {
+                throw new FlywayException("Invalid record: " + line);
+            }
+        }
+    }
+
+    /**
+     * Writes this manifest.
+     *
+     * @param writer The writer to write the manifest to.
+     * @throws IOException when the manifest could not be written.
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write("# Flyway migration manifest. Generated at build time. Do not edit.\n");
+        for (Map.Entry<Location, List<ResolvedMigration>> entry : migrations.entrySet()) {
+            String location = escape(entry.getKey().getDescriptor());
+            writer.write(LOCATION + "\t" + location + "\n");
+            for (ResolvedMigration resolvedMigration : entry.getValue()) {
+                writer.write(MIGRATION
+                        + "\t" + location
+                        + "\t" + resolvedMigration.getType()
+                        + "\t" + escape(resolvedMigration.getVersion().toString())
+                        + "\t" + escape(resolvedMigration.getDescription())
+                        + "\t" + escape(resolvedMigration.getScript())
+                        + "\t" + (resolvedMigration.getChecksum() == null ? "" : resolvedMigration.getChecksum())
+                        + "\n");
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Escapes the tabs, line breaks and backslashes in this value.
+     *
+     * @param value The value to escape.
+     * @return The escaped value.
+     */
+    static String escape(String value) {
+        return StringUtils.replaceAll(StringUtils.replaceAll(StringUtils.replaceAll(StringUtils.replaceAll(value,
+                "\\", "\\\\"), "\t", "\\t"), "\n", "\\n"), "\r", "\\r");
+    }
+
+    /**
+     * Reverts the escaping of {@link #escape(String)}.
+     *
+     * @param value The escaped value.
+     * @return The original value.
+     */
+    static String unescape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c == '\\') && (i + 1 < value.length())) {
+                i++;
+                char next = value.charAt(i);
+                if (next == 't') {
+                    result.append('\t');
+                } else if (next == 'n') {
+                    result.append('\n');
+                } else if (next == 'r') {
+                    result.append('\r');
+                } else {
+                    result.append(next);
+                }
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
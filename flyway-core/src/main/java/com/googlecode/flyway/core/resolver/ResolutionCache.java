@@ -0,0 +1,311 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.resolver;
+
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.api.MigrationVersion;
+import com.googlecode.flyway.core.util.logging.Log;
+import com.googlecode.flyway.core.util.logging.LogFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * On-disk cache of the sql migrations resolved from filesystem locations, so later runs don't have to parse their
+ * names and read their contents again.
+ *
+ * <p>Each migration is keyed by the absolute path of its file and is only reused as long as the size and the last
+ * modification time of that file still match. The cache is a UTF-8 text file with one tab-separated record per line.
+ * The first one holds the prefix, suffix and description separator of the migration names the cache was built with, as
+ * the cache is discarded as a whole when these change. Every following one holds the path, size, last modification time,
+ * version, description and checksum of a migration.</p>
+ */
+public class ResolutionCache {
+    private static final Log LOG = LogFactory.getLog(ResolutionCache.class);
+
+    /**
+     * The type of the record holding the naming of the cached migrations.
+     */
+    private static final String NAMING = "naming";
+
+    /**
+     * The file the cache is stored in.
+     */
+    private final File file;
+
+    /**
+     * The naming of the cached migrations: their file name prefix, suffix and description separator, separated by tabs.
+     */
+    private final String naming;
+
+    /**
+     * The cache entries, by absolute path of the migration file.
+     */
+    private final Map<String, Entry> entries = new TreeMap<String, Entry>();
+
+    /**
+     * Whether the entries have changed since the cache was loaded.
+     */
+    private boolean dirty;
+
+    /**
+     * Creates a new, empty cache.
+     *
+     * @param file               The file the cache is stored in.
+     * @param sqlMigrationPrefix The file name prefix for sql migrations.
+     * @param sqlMigrationSuffix The file name suffix for sql migrations.
+     */
+    /* private -> for testing */ ResolutionCache(File file, String sqlMigrationPrefix, String sqlMigrationSuffix) {
+        this.file = file;
+        this.naming = MigrationManifest.escape(sqlMigrationPrefix) + "\t" + MigrationManifest.escape(sqlMigrationSuffix)
+                + "\t" + MigrationManifest.escape(MigrationInfoHelper.DESCRIPTION_SEPARATOR);
+    }
+
+    /**
+     * Loads the cache from this file. A missing or unreadable file, or one built for migrations named differently,
+     * simply results in an empty cache.
+     *
+     * @param file               The file the cache is stored in.
+     * @param sqlMigrationPrefix The file name prefix for sql migrations.
+     * @param sqlMigrationSuffix The file name suffix for sql migrations.
+     * @return The cache.
+     */
+    public static ResolutionCache load(File file, String sqlMigrationPrefix, String sqlMigrationSuffix) {
+        ResolutionCache resolutionCache = new ResolutionCache(file, sqlMigrationPrefix, sqlMigrationSuffix);
+        if (!file.isFile()) {
+            LOG.debug("No resolution cache found at " + file.getAbsolutePath());
+            return resolutionCache;
+        }
+
+        try {
+            Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+            try {
+                resolutionCache.read(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (Exception e) {
+            LOG.warn("Ignoring invalid resolution cache " + file.getAbsolutePath() + ": " + e.getMessage());
+            resolutionCache.entries.clear();
+        }
+        return resolutionCache;
+    }
+
+    /**
+     * Retrieves the cached information about the migration in this file, provided the file hasn't changed since.
+     *
+     * @param migrationFile The migration file.
+     * @return A new migration with the cached version, description and checksum. {@code null} if there is none or the
+     *         file has changed.
+     */
+    public synchronized ResolvedMigration get(File migrationFile) {
+        Entry entry = entries.get(migrationFile.getAbsolutePath());
+        if ((entry == null) || (entry.checksum == null)
+                || (entry.size != migrationFile.length()) || (entry.lastModified != migrationFile.lastModified())) {
+            return null;
+        }
+
+        ResolvedMigration resolvedMigration = new ResolvedMigration();
+        resolvedMigration.setVersion(entry.version);
+        resolvedMigration.setDescription(entry.description);
+        resolvedMigration.setChecksum(entry.checksum);
+        return resolvedMigration;
+    }
+
+    /**
+     * Caches the information about the migration in this file. Its checksum is only calculated when the cache is
+     * saved.
+     *
+     * @param migrationFile     The migration file.
+     * @param resolvedMigration The migration resolved from it.
+     */
+    public synchronized void put(File migrationFile, ResolvedMigration resolvedMigration) {
+        Entry entry = new Entry();
+        entry.size = migrationFile.length();
+        entry.lastModified = migrationFile.lastModified();
+        entry.version = resolvedMigration.getVersion();
+        entry.description = resolvedMigration.getDescription();
+        entry.resolvedMigration = resolvedMigration;
+
+        entries.put(migrationFile.getAbsolutePath(), entry);
+        dirty = true;
+    }
+
+    /**
+     * Saves the cache if it has changed, calculating the checksums of the migrations that were added to it
+     * concurrently. Failures are only logged, as the next run can always do without the cache.
+     */
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+
+        List<ResolvedMigration> pendingMigrations = new ArrayList<ResolvedMigration>();
+        for (Entry entry : entries.values()) {
+            if (entry.resolvedMigration != null) {
+                pendingMigrations.add(entry.resolvedMigration);
+            }
+        }
+        ChecksumCalculator.calculateChecksums(pendingMigrations);
+
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (entry.resolvedMigration != null) {
+                try {
+                    entry.checksum = entry.resolvedMigration.getChecksum();
+                } catch (FlywayException e) {
+                    LOG.debug("Not caching migration " + entry.resolvedMigration.getScript() + ": " + e.getMessage());
+                    iterator.remove();
+                    continue;
+                }
+                entry.resolvedMigration = null;
+            }
+        }
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), "UTF-8");
+            try {
+                write(writer);
+            } finally {
+                writer.close();
+            }
+            if ((file.exists() && !file.delete()) || !tempFile.renameTo(file)) {
+                throw new IOException("Unable to replace " + file.getAbsolutePath());
+            }
+            dirty = false;
+            LOG.debug("Saved resolution cache with " + entries.size() + " migrations to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            LOG.warn("Unable to save resolution cache " + file.getAbsolutePath() + ": " + e.getMessage());
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Reads the records of a cache file into this cache, dropping the ones of migration files that no longer exist.
+     * Nothing is read if the migrations of the cache file were named differently.
+     *
+     * @param reader The reader for the cache file.
+     * @throws IOException when the cache file could not be read.
+     */
+    /* private -> for testing */ void read(Reader reader) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        boolean namingChecked = false;
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            if ((line.trim().length() == 0) || line.startsWith("#")) {
+                continue;
+            }
+
+            if (!namingChecked) {
+                if (!line.equals(NAMING + "\t" + naming)) {
+                    LOG.debug("Discarding resolution cache built for differently named migrations");
+                    dirty = true;
+                    return;
+                }
+                namingChecked = true;
+                continue;
+            }
+
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 6) {
+                throw new FlywayException("Invalid record: " + line);
+            }
+
+            String path = MigrationManifest.unescape(fields[0]);
+            if (!new File(path).isFile()) {
+                dirty = true;
+                continue;
+            }
+
+            Entry entry = new Entry();
+            entry.size = Long.parseLong(fields[1]);
+            entry.lastModified = Long.parseLong(fields[2]);
+            entry.version = MigrationVersion.fromVersion(MigrationManifest.unescape(fields[3]));
+            entry.description = MigrationManifest.unescape(fields[4]);
+            entry.checksum = Integer.valueOf(fields[5]);
+            entries.put(path, entry);
+        }
+    }
+
+    /**
+     * Writes the records of this cache.
+     *
+     * @param writer The writer to write the cache file to.
+     * @throws IOException when the cache file could not be written.
+     */
+    /* private -> for testing */ void write(Writer writer) throws IOException {
+        writer.write("# Flyway resolution cache. Generated automatically. Safe to delete.\n");
+        writer.write(NAMING + "\t" + naming + "\n");
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            writer.write(MigrationManifest.escape(entry.getKey())
+                    + "\t" + entry.getValue().size
+                    + "\t" + entry.getValue().lastModified
+                    + "\t" + MigrationManifest.escape(entry.getValue().version.toString())
+                    + "\t" + MigrationManifest.escape(entry.getValue().description)
+                    + "\t" + entry.getValue().checksum
+                    + "\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * The cached information about a migration file.
+     */
+    private static class Entry {
+        /**
+         * The size of the file (in bytes).
+         */
+        private long size;
+
+        /**
+         * The last modification time of the file.
+         */
+        private long lastModified;
+
+        /**
+         * The version of the migration.
+         */
+        private MigrationVersion version;
+
+        /**
+         * The description of the migration.
+         */
+        private String description;
+
+        /**
+         * The checksum of the migration. {@code null} if it hasn't been calculated yet.
+         */
+        private Integer checksum;
+
+        /**
+         * The migration to calculate the checksum from when the cache is saved. {@code null} if it is already known.
+         */
+        private ResolvedMigration resolvedMigration;
+    }
+}
@@ -17,6 +17,8 @@ package com.googlecode.flyway.core.resolver;
 
 import com.googlecode.flyway.core.api.MigrationType;
 import com.googlecode.flyway.core.api.MigrationVersion;
+import com.googlecode.flyway.core.util.ObjectUtils;
+import com.googlecode.flyway.core.util.Resource;
 
 /**
  * A migration available on the classpath.
@@ -42,6 +44,12 @@ public class ResolvedMigration implements Comparable<ResolvedMigration> {
      */
     private Integer checksum;
 
+    /**
+     * The resource to calculate the checksum of the migration from when it is first needed. {@code null} if the
+     * checksum is known upfront.
+     */
+    private Resource checksumResource;
+
     /**
      * The type of migration (INIT, SQL, ...)
      */
@@ -103,6 +111,9 @@ public class ResolvedMigration implements Comparable<ResolvedMigration> {
      * @return The checksum of the migration.
      */
     public Integer getChecksum() {
+        if (checksumResource != null) {
+            return checksumResource.calculateChecksum();
+        }
         return checksum;
     }
 
@@ -111,6 +122,18 @@ public class ResolvedMigration implements Comparable<ResolvedMigration> {
      */
     public void setChecksum(Integer checksum) {
         this.checksum = checksum;
+        this.checksumResource = null;
+    }
+
+    /**
+     * Defers the calculation of the checksum of the migration until it is first needed, so the contents of migrations
+     * which are never validated or executed are never read.
+     *
+     * @param checksumResource The resource to calculate the checksum of the migration from.
+     */
+    public void setChecksumResource(Resource checksumResource) {
+        this.checksum = null;
+        this.checksumResource = checksumResource;
     }
 
     /**
@@ -166,14 +189,15 @@ public class ResolvedMigration implements Comparable<ResolvedMigration> {
 
         ResolvedMigration migration = (ResolvedMigration) o;
 
-        if (checksum != null ? !checksum.equals(migration.checksum) : migration.checksum != null) return false;
         if (description != null ? !description.equals(migration.description) : migration.description != null)
             return false;
         if (physicalLocation != null ? !physicalLocation.equals(migration.physicalLocation) : migration.physicalLocation != null)
             return false;
         if (script != null ? !script.equals(migration.script) : migration.script != null) return false;
         if (type != migration.type) return false;
-        return version.equals(migration.version);
+        if (!version.equals(migration.version)) return false;
+        // Compared last, as it may have to be calculated first
+        return ObjectUtils.nullSafeEquals(getChecksum(), migration.getChecksum());
     }
 
     @Override
@@ -181,7 +205,6 @@ public class ResolvedMigration implements Comparable<ResolvedMigration> {
         int result = version.hashCode();
         result = 31 * result + (description != null ? description.hashCode() : 0);
         result = 31 * result + (script != null ? script.hashCode() : 0);
-        result = 31 * result + (checksum != null ? checksum.hashCode() : 0);
         result = 31 * result + type.hashCode();
         result = 31 * result + (physicalLocation != null ? physicalLocation.hashCode() : 0);
         return result;
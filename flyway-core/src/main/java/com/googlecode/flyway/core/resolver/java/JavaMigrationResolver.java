@@ -44,13 +44,29 @@ public class JavaMigrationResolver implements MigrationResolver {
      */
     private final Location location;
 
+    /**
+     * The scanner to use to find the migration classes.
+     */
+    private final ClassPathScanner classPathScanner;
+
     /**
      * Creates a new instance.
      *
      * @param location The base package on the classpath where to migrations are located.
      */
     public JavaMigrationResolver(Location location) {
+        this(location, new ClassPathScanner());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param location         The base package on the classpath where to migrations are located.
+     * @param classPathScanner The scanner to use to find the migration classes.
+     */
+    public JavaMigrationResolver(Location location, ClassPathScanner classPathScanner) {
         this.location = location;
+        this.classPathScanner = classPathScanner;
     }
 
     public List<ResolvedMigration> resolveMigrations() {
@@ -61,7 +77,7 @@ public class JavaMigrationResolver implements MigrationResolver {
         }
 
         try {
-            Class<?>[] classes = new ClassPathScanner().scanForClasses(location.getPath(), JavaMigration.class);
+            Class<?>[] classes = classPathScanner.scanForClasses(location.getPath(), JavaMigration.class);
             for (Class<?> clazz : classes) {
                 JavaMigration javaMigration = (JavaMigration) ClassUtils.instantiate(clazz.getName());
 
@@ -50,6 +50,28 @@ public class SqlMigrationExecutor implements MigrationExecutor {
      */
     private final String encoding;
 
+    /**
+     * Whether the sql script should be streamed instead of being loaded and parsed upfront.
+     */
+    private final boolean stream;
+
+    /**
+     * The maximum number of consecutive data manipulation statements to send as a single JDBC batch. {@code 0} to
+     * disable batching.
+     */
+    private final int batchSize;
+
+    /**
+     * Whether the parsed sql script should be kept in memory once loaded, so it can be executed against further
+     * schemas or databases without being loaded and parsed again.
+     */
+    private boolean cacheSqlScript;
+
+    /**
+     * The parsed sql script, if it is cached.
+     */
+    private SqlScript sqlScript;
+
     /**
      * Creates a new sql script migration based on this sql script.
      *
@@ -57,18 +79,55 @@ public class SqlMigrationExecutor implements MigrationExecutor {
      * @param sqlScriptResource   The resource containing the sql script.
      * @param placeholderReplacer The placeholder replacer to apply to sql migration scripts.
      * @param encoding            The encoding of this Sql migration.
+     * @param stream              Whether the sql script should be streamed instead of being loaded and parsed upfront.
+     * @param batchSize           The maximum number of consecutive data manipulation statements to send as a single
+     *                            JDBC batch. {@code 0} to disable batching.
      */
-    public SqlMigrationExecutor(DbSupport dbSupport, Resource sqlScriptResource, PlaceholderReplacer placeholderReplacer, String encoding) {
+    public SqlMigrationExecutor(DbSupport dbSupport, Resource sqlScriptResource, PlaceholderReplacer placeholderReplacer, String encoding, boolean stream, int batchSize) {
         this.dbSupport = dbSupport;
         this.sqlScriptResource = sqlScriptResource;
         this.encoding = encoding;
         this.placeholderReplacer = placeholderReplacer;
+        this.stream = stream;
+        this.batchSize = batchSize;
     }
 
     public void execute(Connection connection) {
+        if (stream) {
+            SqlScript sqlScript = new SqlScript(sqlScriptResource.openReader(encoding), placeholderReplacer, dbSupport);
+            sqlScript.execute(new JdbcTemplate(connection, 0), batchSize);
+            return;
+        }
+
+        getSqlScript().execute(new JdbcTemplate(connection, 0), batchSize);
+    }
+
+    /**
+     * Whether the parsed sql script should be kept in memory once loaded, so it can be executed against further
+     * schemas or databases without being loaded and parsed again. This has no effect on streamed sql scripts.
+     *
+     * @param cacheSqlScript {@code true} to cache the parsed sql script, {@code false} to load it on each execution.
+     */
+    public void setCacheSqlScript(boolean cacheSqlScript) {
+        this.cacheSqlScript = cacheSqlScript;
+    }
+
+    /**
+     * Loads and parses the sql script, unless it is already cached.
+     *
+     * @return The parsed sql script.
+     */
+    private synchronized SqlScript getSqlScript() {
+        if (sqlScript != null) {
+            return sqlScript;
+        }
+
         String sqlScriptSource = sqlScriptResource.loadAsString(encoding);
         String sqlScriptSourceNoPlaceholders = placeholderReplacer.replacePlaceholders(sqlScriptSource);
-        SqlScript sqlScript = new SqlScript(sqlScriptSourceNoPlaceholders, dbSupport);
-        sqlScript.execute(new JdbcTemplate(connection, 0));
+        SqlScript parsedSqlScript = new SqlScript(sqlScriptSourceNoPlaceholders, dbSupport);
+        if (cacheSqlScript) {
+            sqlScript = parsedSqlScript;
+        }
+        return parsedSqlScript;
     }
 }
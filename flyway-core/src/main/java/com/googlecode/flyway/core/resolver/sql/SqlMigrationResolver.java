@@ -21,6 +21,7 @@ import com.googlecode.flyway.core.api.MigrationVersion;
 import com.googlecode.flyway.core.dbsupport.DbSupport;
 import com.googlecode.flyway.core.resolver.MigrationInfoHelper;
 import com.googlecode.flyway.core.resolver.MigrationResolver;
+import com.googlecode.flyway.core.resolver.ResolutionCache;
 import com.googlecode.flyway.core.resolver.ResolvedMigration;
 import com.googlecode.flyway.core.util.Location;
 import com.googlecode.flyway.core.util.Pair;
@@ -29,11 +30,11 @@ import com.googlecode.flyway.core.util.Resource;
 import com.googlecode.flyway.core.util.scanner.classpath.ClassPathScanner;
 import com.googlecode.flyway.core.util.scanner.filesystem.FileSystemScanner;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.zip.CRC32;
 
 /**
  * Migration resolver for sql files on the classpath. The sql files must have names like
@@ -70,6 +71,31 @@ public class SqlMigrationResolver implements MigrationResolver {
      */
     private final String sqlMigrationSuffix;
 
+    /**
+     * Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     */
+    private final boolean stream;
+
+    /**
+     * The maximum number of consecutive data manipulation statements of a sql migration to send as a single JDBC batch. {@code 0} to disable batching.
+     */
+    private final int batchSize;
+
+    /**
+     * The scanner to use to find the sql migrations on the classpath.
+     */
+    private final ClassPathScanner classPathScanner;
+
+    /**
+     * The scanner to use to find the sql migrations on the filesystem.
+     */
+    private final FileSystemScanner fileSystemScanner;
+
+    /**
+     * The cache of the migrations resolved from filesystem locations by previous runs. {@code null} if disabled.
+     */
+    private final ResolutionCache resolutionCache;
+
     /**
      * Creates a new instance.
      *
@@ -81,12 +107,73 @@ public class SqlMigrationResolver implements MigrationResolver {
      * @param sqlMigrationSuffix  The suffix for sql migrations
      */
     public SqlMigrationResolver(DbSupport dbSupport, Location location, PlaceholderReplacer placeholderReplacer, String encoding, String sqlMigrationPrefix, String sqlMigrationSuffix) {
+        this(dbSupport, location, placeholderReplacer, encoding, sqlMigrationPrefix, sqlMigrationSuffix, false, 0);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param dbSupport           The database-specific support.
+     * @param location            The location on the classpath where to migrations are located.
+     * @param placeholderReplacer The placeholder replacer to apply to sql migration scripts.
+     * @param encoding            The encoding of Sql migrations.
+     * @param sqlMigrationPrefix  The prefix for sql migrations
+     * @param sqlMigrationSuffix  The suffix for sql migrations
+     * @param stream              Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     * @param batchSize           The maximum number of consecutive data manipulation statements to send as a single
+     *                            JDBC batch. {@code 0} to disable batching.
+     */
+    public SqlMigrationResolver(DbSupport dbSupport, Location location, PlaceholderReplacer placeholderReplacer, String encoding, String sqlMigrationPrefix, String sqlMigrationSuffix, boolean stream, int batchSize) {
+        this(dbSupport, location, placeholderReplacer, encoding, sqlMigrationPrefix, sqlMigrationSuffix, stream, batchSize, new ClassPathScanner());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param dbSupport           The database-specific support.
+     * @param location            The location on the classpath where to migrations are located.
+     * @param placeholderReplacer The placeholder replacer to apply to sql migration scripts.
+     * @param encoding            The encoding of Sql migrations.
+     * @param sqlMigrationPrefix  The prefix for sql migrations
+     * @param sqlMigrationSuffix  The suffix for sql migrations
+     * @param stream              Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     * @param batchSize           The maximum number of consecutive data manipulation statements to send as a single
+     *                            JDBC batch. {@code 0} to disable batching.
+     * @param classPathScanner    The scanner to use to find the sql migrations on the classpath.
+     */
+    public SqlMigrationResolver(DbSupport dbSupport, Location location, PlaceholderReplacer placeholderReplacer, String encoding, String sqlMigrationPrefix, String sqlMigrationSuffix, boolean stream, int batchSize, ClassPathScanner classPathScanner) {
+        this(dbSupport, location, placeholderReplacer, encoding, sqlMigrationPrefix, sqlMigrationSuffix, stream, batchSize, classPathScanner, new FileSystemScanner(), null);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param dbSupport           The database-specific support.
+     * @param location            The location on the classpath where to migrations are located.
+     * @param placeholderReplacer The placeholder replacer to apply to sql migration scripts.
+     * @param encoding            The encoding of Sql migrations.
+     * @param sqlMigrationPrefix  The prefix for sql migrations
+     * @param sqlMigrationSuffix  The suffix for sql migrations
+     * @param stream              Whether sql migrations should be streamed instead of being loaded and parsed upfront.
+     * @param batchSize           The maximum number of consecutive data manipulation statements to send as a single
+     *                            JDBC batch. {@code 0} to disable batching.
+     * @param classPathScanner    The scanner to use to find the sql migrations on the classpath.
+     * @param fileSystemScanner   The scanner to use to find the sql migrations on the filesystem.
+     * @param resolutionCache     The cache of the migrations resolved from filesystem locations by previous runs.
+     *                            {@code null} to disable it.
+     */
+    public SqlMigrationResolver(DbSupport dbSupport, Location location, PlaceholderReplacer placeholderReplacer, String encoding, String sqlMigrationPrefix, String sqlMigrationSuffix, boolean stream, int batchSize, ClassPathScanner classPathScanner, FileSystemScanner fileSystemScanner, ResolutionCache resolutionCache) {
         this.dbSupport = dbSupport;
         this.location = location;
         this.placeholderReplacer = placeholderReplacer;
         this.encoding = encoding;
         this.sqlMigrationPrefix = sqlMigrationPrefix;
         this.sqlMigrationSuffix = sqlMigrationSuffix;
+        this.stream = stream;
+        this.batchSize = batchSize;
+        this.classPathScanner = classPathScanner;
+        this.fileSystemScanner = fileSystemScanner;
+        this.resolutionCache = resolutionCache;
     }
 
     public List<ResolvedMigration> resolveMigrations() {
@@ -96,16 +183,16 @@ public class SqlMigrationResolver implements MigrationResolver {
         try {
             if (location.isClassPath()) {
                 resources =
-                        new ClassPathScanner().scanForResources(location.getPath(), sqlMigrationPrefix, sqlMigrationSuffix);
+                        classPathScanner.scanForResources(location.getPath(), sqlMigrationPrefix, sqlMigrationSuffix);
             } else if (location.isFileSystem()) {
                 resources =
-                        new FileSystemScanner().scanForResources(location.getPath(), sqlMigrationPrefix, sqlMigrationSuffix);
+                        fileSystemScanner.scanForResources(location.getPath(), sqlMigrationPrefix, sqlMigrationSuffix);
             }
 
             for (Resource resource : resources) {
                 ResolvedMigration resolvedMigration = extractMigrationInfo(resource);
                 resolvedMigration.setPhysicalLocation(resource.getLocationOnDisk());
-                resolvedMigration.setExecutor(new SqlMigrationExecutor(dbSupport, resource, placeholderReplacer, encoding));
+                resolvedMigration.setExecutor(new SqlMigrationExecutor(dbSupport, resource, placeholderReplacer, encoding, stream, batchSize));
 
                 migrations.add(resolvedMigration);
             }
@@ -124,16 +211,29 @@ public class SqlMigrationResolver implements MigrationResolver {
      * @return The migration info.
      */
     private ResolvedMigration extractMigrationInfo(Resource resource) {
-        ResolvedMigration migration = new ResolvedMigration();
+        File file = null;
+        ResolvedMigration migration = null;
+        if ((resolutionCache != null) && location.isFileSystem()) {
+            file = new File(resource.getLocationOnDisk());
+            migration = resolutionCache.get(file);
+        }
 
-        Pair<MigrationVersion, String> info =
-                MigrationInfoHelper.extractVersionAndDescription(resource.getFilename(), sqlMigrationPrefix, sqlMigrationSuffix);
-        migration.setVersion(info.getLeft());
-        migration.setDescription(info.getRight());
+        if (migration == null) {
+            migration = new ResolvedMigration();
 
-        migration.setScript(extractScriptName(resource));
+            Pair<MigrationVersion, String> info =
+                    MigrationInfoHelper.extractVersionAndDescription(resource.getFilename(), sqlMigrationPrefix, sqlMigrationSuffix);
+            migration.setVersion(info.getLeft());
+            migration.setDescription(info.getRight());
+
+            migration.setChecksumResource(resource);
 
-        migration.setChecksum(calculateChecksum(resource.loadAsBytes()));
+            if (file != null) {
+                resolutionCache.put(file, migration);
+            }
+        }
+
+        migration.setScript(extractScriptName(resource));
         migration.setType(MigrationType.SQL);
         return migration;
     }
@@ -172,16 +272,4 @@ public class SqlMigrationResolver implements MigrationResolver {
         }
         return withoutPathAndSuffix;
     }
-
-    /**
-     * Calculates the checksum of these bytes.
-     *
-     * @param bytes The bytes to calculate the checksum for.
-     * @return The crc-32 checksum of the bytes.
-     */
-    private static int calculateChecksum(byte[] bytes) {
-        final CRC32 crc32 = new CRC32();
-        crc32.update(bytes);
-        return (int) crc32.getValue();
-    }
 }
@@ -35,6 +35,11 @@ public class ClassPathResource implements Comparable<ClassPathResource>, Resourc
      */
     private String location;
 
+    /**
+     * The checksum of the contents of the resource. {@code null} if not calculated yet.
+     */
+    private Integer checksum;
+
     /**
      * Creates a new ClassPathResource.
      *
@@ -76,18 +81,20 @@ public class ClassPathResource implements Comparable<ClassPathResource>, Resourc
 
     public String loadAsString(String encoding) {
         try {
-            InputStream inputStream = getClassLoader().getResourceAsStream(location);
-            if (inputStream == null) {
-                throw new FlywayException("Unable to obtain inputstream for resource: " + location);
-            }
-            Reader reader = new InputStreamReader(inputStream, Charset.forName(encoding));
-
-            return FileCopyUtils.copyToString(reader);
+            return FileCopyUtils.copyToString(openReader(encoding));
         } catch (IOException e) {
             throw new FlywayException("Unable to load resource: " + location + " (encoding: " + encoding + ")", e);
         }
     }
 
+    public Reader openReader(String encoding) {
+        InputStream inputStream = getClassLoader().getResourceAsStream(location);
+        if (inputStream == null) {
+            throw new FlywayException("Unable to obtain inputstream for resource: " + location);
+        }
+        return new InputStreamReader(inputStream, Charset.forName(encoding));
+    }
+
     public byte[] loadAsBytes() {
         try {
             InputStream inputStream = getClassLoader().getResourceAsStream(location);
@@ -100,6 +107,21 @@ public class ClassPathResource implements Comparable<ClassPathResource>, Resourc
         }
     }
 
+    public synchronized int calculateChecksum() {
+        if (checksum == null) {
+            try {
+                InputStream inputStream = getClassLoader().getResourceAsStream(location);
+                if (inputStream == null) {
+                    throw new FlywayException("Unable to obtain inputstream for resource: " + location);
+                }
+                checksum = FileCopyUtils.calculateChecksum(inputStream);
+            } catch (IOException e) {
+                throw new FlywayException("Unable to calculate checksum of resource: " + location, e);
+            }
+        }
+        return checksum;
+    }
+
     public String getFilename() {
         return location.substring(location.lastIndexOf("/") + 1);
     }
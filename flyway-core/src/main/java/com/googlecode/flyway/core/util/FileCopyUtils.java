@@ -22,6 +22,7 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.zip.CRC32;
 
 /**
  * Utility class for copying files and their contents. Inspired by Spring's own.
@@ -69,6 +70,33 @@ public class FileCopyUtils {
         return out.toByteArray();
     }
 
+    /**
+     * Calculates the CRC-32 checksum of the contents of the given InputStream, streaming them through a fixed-size
+     * buffer instead of loading them into memory.
+     * Closes the stream when done.
+     *
+     * @param in the stream to read from
+     * @return the crc-32 checksum of the contents
+     * @throws IOException in case of I/O errors
+     */
+    public static int calculateChecksum(InputStream in) throws IOException {
+        try {
+            CRC32 crc32 = new CRC32();
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                crc32.update(buffer, 0, bytesRead);
+            }
+            return (int) crc32.getValue();
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                //Ignore
+            }
+        }
+    }
+
     /**
      * Copy the contents of the given Reader to the given Writer.
      * Closes both when done.
@@ -34,6 +34,11 @@ public class FileSystemResource implements Resource, Comparable<FileSystemResour
      */
     private File location;
 
+    /**
+     * The checksum of the contents of the resource. {@code null} if not calculated yet.
+     */
+    private Integer checksum;
+
     /**
      * Creates a new ClassPathResource.
      *
@@ -71,15 +76,27 @@ public class FileSystemResource implements Resource, Comparable<FileSystemResour
      */
     public String loadAsString(String encoding) {
         try {
-            InputStream inputStream = new FileInputStream(location);
-            Reader reader = new InputStreamReader(inputStream, Charset.forName(encoding));
-
-            return FileCopyUtils.copyToString(reader);
+            return FileCopyUtils.copyToString(openReader(encoding));
         } catch (IOException e) {
             throw new FlywayException("Unable to load filesystem resource: " + location.getPath() + " (encoding: " + encoding + ")", e);
         }
     }
 
+    /**
+     * Opens a reader for the contents of this resource. The caller is responsible for closing it.
+     *
+     * @param encoding The encoding to use.
+     * @return The reader.
+     */
+    public Reader openReader(String encoding) {
+        try {
+            InputStream inputStream = new FileInputStream(location);
+            return new InputStreamReader(inputStream, Charset.forName(encoding));
+        } catch (IOException e) {
+            throw new FlywayException("Unable to open filesystem resource: " + location.getPath() + " (encoding: " + encoding + ")", e);
+        }
+    }
+
     /**
      * Loads this resource as a byte array.
      *
@@ -94,6 +111,23 @@ public class FileSystemResource implements Resource, Comparable<FileSystemResour
         }
     }
 
+    /**
+     * Calculates the CRC-32 checksum of the contents of this resource. The contents are streamed instead of being
+     * loaded into memory and the checksum is only calculated once.
+     *
+     * @return The checksum.
+     */
+    public synchronized int calculateChecksum() {
+        if (checksum == null) {
+            try {
+                checksum = FileCopyUtils.calculateChecksum(new FileInputStream(location));
+            } catch (IOException e) {
+                throw new FlywayException("Unable to calculate checksum of filesystem resource: " + location.getPath(), e);
+            }
+        }
+        return checksum;
+    }
+
     /**
      * @return The filename of this resource, without the path.
      */
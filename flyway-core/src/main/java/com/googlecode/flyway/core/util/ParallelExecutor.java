@@ -0,0 +1,201 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.util;
+
+import com.googlecode.flyway.core.api.ExecutionResult;
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.util.logging.Log;
+import com.googlecode.flyway.core.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes named tasks concurrently on a bounded pool of worker threads, isolating the failures of each task.
+ */
+public class ParallelExecutor {
+    private static final Log LOG = LogFactory.getLog(ParallelExecutor.class);
+
+    /**
+     * Prevents instantiation.
+     */
+    private ParallelExecutor() {
+        // Do nothing.
+    }
+
+    /**
+     * Executes these tasks concurrently and waits for all of them to complete.
+     *
+     * @param parallelism The maximum number of tasks to execute concurrently.
+     * @param tasks       The tasks to execute, by name.
+     * @param <T>         The type of the result of the tasks.
+     * @return The result of each task, in the iteration order of the map.
+     */
+    public static <T> List<ExecutionResult<T>> execute(int parallelism, Map<String, Callable<T>> tasks) {
+        return execute(parallelism, -1, tasks);
+    }
+
+    /**
+     * Executes these tasks concurrently and waits for all of them to complete or time out.
+     * <p>A task that times out is reported as failed and its thread is interrupted. As JDBC calls generally can't be
+     * interrupted, it may however keep running in the background until the database call it is waiting for returns.</p>
+     *
+     * @param parallelism The maximum number of tasks to execute concurrently.
+     * @param timeout     The maximum execution time of each task (in seconds). A negative value waits indefinitely.
+     * @param tasks       The tasks to execute, by name.
+     * @param <T>         The type of the result of the tasks.
+     * @return The result of each task, in the iteration order of the map.
+     */
+    public static <T> List<ExecutionResult<T>> execute(int parallelism, int timeout, Map<String, Callable<T>> tasks) {
+        if (parallelism < 1) {
+            throw new FlywayException("Invalid parallelism: " + parallelism + " (must be at least 1)");
+        }
+
+        ExecutorService executorService = createExecutorService(Math.min(parallelism, Math.max(tasks.size(), 1)));
+        try {
+            List<Future<ExecutionResult<T>>> futures = new ArrayList<Future<ExecutionResult<T>>>();
+            for (Map.Entry<String, Callable<T>> task : tasks.entrySet()) {
+                futures.add(executorService.submit(new IsolatedTask<T>(task.getKey(), task.getValue(), timeout)));
+            }
+
+            List<ExecutionResult<T>> results = new ArrayList<ExecutionResult<T>>();
+            for (Future<ExecutionResult<T>> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FlywayException("Interrupted while waiting for tasks to complete", e);
+                } catch (ExecutionException e) {
+                    // Can't happen: IsolatedTask catches everything
+                    throw new FlywayException("Unexpected task failure", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a thread pool of named daemon worker threads, which don't keep the JVM alive. It must be shut down once
+     * it is no longer needed.
+     *
+     * @param threads The number of threads in the pool.
+     * @return The thread pool.
+     */
+    public static ExecutorService createExecutorService(int threads) {
+        return Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+    }
+
+    /**
+     * Wraps a task to time it and turn its failure into a result.
+     *
+     * @param <T> The type of the result of the task.
+     */
+    private static class IsolatedTask<T> implements Callable<ExecutionResult<T>> {
+        /**
+         * The name of the task.
+         */
+        private final String name;
+
+        /**
+         * The task to execute.
+         */
+        private final Callable<T> task;
+
+        /**
+         * The maximum execution time of the task (in seconds). A negative value waits indefinitely.
+         */
+        private final int timeout;
+
+        /**
+         * Creates a new isolated task.
+         *
+         * @param name    The name of the task.
+         * @param task    The task to execute.
+         * @param timeout The maximum execution time of the task (in seconds). A negative value waits indefinitely.
+         */
+        private IsolatedTask(String name, Callable<T> task, int timeout) {
+            this.name = name;
+            this.task = task;
+            this.timeout = timeout;
+        }
+
+        public ExecutionResult<T> call() {
+            StopWatch stopWatch = new StopWatch();
+            stopWatch.start();
+            try {
+                T result = timeout < 0 ? task.call() : callWithTimeout();
+                stopWatch.stop();
+                return new ExecutionResult<T>(name, result, null, stopWatch.getTotalTimeMillis());
+            } catch (Exception e) {
+                stopWatch.stop();
+                LOG.debug(name + " failed: " + e.getMessage());
+                return new ExecutionResult<T>(name, null, e, stopWatch.getTotalTimeMillis());
+            }
+        }
+
+        /**
+         * Executes the task on a separate thread and waits for it at most until the timeout expires.
+         *
+         * @return The result of the task.
+         * @throws Exception when the task failed or timed out.
+         */
+        private T callWithTimeout() throws Exception {
+            ExecutorService executorService = Executors.newSingleThreadExecutor(new WorkerThreadFactory());
+            Future<T> future = executorService.submit(task);
+            try {
+                return future.get(timeout, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw new FlywayException("Timed out after " + timeout + " seconds");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            } finally {
+                executorService.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Creates named daemon worker threads.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory {
+        /**
+         * The number of threads created so far.
+         */
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "flyway-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -48,6 +48,11 @@ public class PlaceholderReplacer {
      */
     private final String placeholderSuffix;
 
+    /**
+     * The pattern matching any placeholder expression. {@code null} if placeholders are disabled.
+     */
+    private final Pattern placeholderPattern;
+
     /**
      * Creates a new PlaceholderReplacer.
      *
@@ -59,6 +64,13 @@ public class PlaceholderReplacer {
         this.placeholders = placeholders;
         this.placeholderPrefix = placeholderPrefix;
         this.placeholderSuffix = placeholderSuffix;
+
+        if (StringUtils.hasLength(placeholderPrefix)) {
+            placeholderPattern =
+                    Pattern.compile(Pattern.quote(placeholderPrefix) + "(.+?)" + Pattern.quote(placeholderSuffix));
+        } else {
+            placeholderPattern = null;
+        }
     }
 
     /**
@@ -87,8 +99,11 @@ public class PlaceholderReplacer {
      * @throws FlywayException An exception listing the unmatched expressions.
      */
     private void checkForUnmatchedPlaceholderExpression(String input) {
-        String regex = Pattern.quote(placeholderPrefix) + "(.+?)" + Pattern.quote(placeholderSuffix);
-        Matcher matcher = Pattern.compile(regex).matcher(input);
+        if (placeholderPattern == null) {
+            return;
+        }
+
+        Matcher matcher = placeholderPattern.matcher(input);
 
         Set<String> unmatchedPlaceHolderExpressions = new TreeSet<String>();
         while (matcher.find()) {
@@ -15,6 +15,8 @@
  */
 package com.googlecode.flyway.core.util;
 
+import java.io.Reader;
+
 /**
  * A loadable resource.
  */
@@ -39,6 +41,14 @@ public interface Resource {
      */
     String loadAsString(String encoding);
 
+    /**
+     * Opens a reader for the contents of this resource. The caller is responsible for closing it.
+     *
+     * @param encoding The encoding to use.
+     * @return The reader.
+     */
+    Reader openReader(String encoding);
+
     /**
      * Loads this resource as a byte array.
      *
@@ -46,6 +56,14 @@ public interface Resource {
      */
     byte[] loadAsBytes();
 
+    /**
+     * Calculates the CRC-32 checksum of the contents of this resource. The contents are streamed instead of being
+     * loaded into memory and the checksum is only calculated once.
+     *
+     * @return The checksum.
+     */
+    int calculateChecksum();
+
     /**
      * @return The filename of this resource, without the path.
      */
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.util.scanner.classpath;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The header of a class file: its access flags, its name, its super class and the interfaces it directly implements.
+ * Reading it doesn't require loading the class.
+ */
+public class ClassFileHeader {
+    /**
+     * The magic number every class file starts with.
+     */
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /**
+     * Access flag of interfaces.
+     */
+    private static final int ACC_INTERFACE = 0x0200;
+
+    /**
+     * Access flag of abstract classes and interfaces.
+     */
+    private static final int ACC_ABSTRACT = 0x0400;
+
+    /**
+     * The access flags of the class.
+     */
+    private final int accessFlags;
+
+    /**
+     * The fully qualified name of the class.
+     */
+    private final String className;
+
+    /**
+     * The fully qualified name of the super class. {@code null} for java.lang.Object.
+     */
+    private final String superClassName;
+
+    /**
+     * The fully qualified names of the interfaces directly implemented by the class.
+     */
+    private final String[] interfaceNames;
+
+    /**
+     * Creates a new class file header.
+     *
+     * @param accessFlags    The access flags of the class.
+     * @param className      The fully qualified name of the class.
+     * @param superClassName The fully qualified name of the super class. {@code null} for java.lang.Object.
+     * @param interfaceNames The fully qualified names of the interfaces directly implemented by the class.
+     */
+    private ClassFileHeader(int accessFlags, String className, String superClassName, String[] interfaceNames) {
+        this.accessFlags = accessFlags;
+        this.className = className;
+        this.superClassName = superClassName;
+        this.interfaceNames = interfaceNames;
+    }
+
+    /**
+     * Reads the header of this class file. Only the constant pool and the type declaration are read, the fields,
+     * methods and attributes are skipped.
+     *
+     * @param inputStream The stream of the class file. It is not closed.
+     * @return The header.
+     * @throws IOException when the class file could not be read or is invalid.
+     */
+    public static ClassFileHeader read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        // minor_version, major_version
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        int constantPoolCount = in.readUnsignedShort();
+        String[] utf8Constants = new String[constantPoolCount];
+        int[] classNameIndexes = new int[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8Constants[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                    classNameIndexes[i] = in.readUnsignedShort();
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skip(in, 2);
+                    break;
+                case 15: // MethodHandle
+                    skip(in, 3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skip(in, 4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    skip(in, 8);
+                    // Takes up two entries in the constant pool
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag: " + tag);
+            }
+        }
+
+        int accessFlags = in.readUnsignedShort();
+        String className = toClassName(utf8Constants, classNameIndexes, in.readUnsignedShort());
+        String superClassName = toClassName(utf8Constants, classNameIndexes, in.readUnsignedShort());
+
+        int interfacesCount = in.readUnsignedShort();
+        String[] interfaceNames = new String[interfacesCount];
+        for (int i = 0; i < interfacesCount; i++) {
+            interfaceNames[i] = toClassName(utf8Constants, classNameIndexes, in.readUnsignedShort());
+        }
+
+        return new ClassFileHeader(accessFlags, className, superClassName, interfaceNames);
+    }
+
+    /**
+     * Skips this number of bytes.
+     *
+     * @param in    The stream to read from.
+     * @param bytes The number of bytes to skip.
+     * @throws IOException when the end of the stream was reached.
+     */
+    private static void skip(DataInputStream in, int bytes) throws IOException {
+        in.readFully(new byte[bytes]);
+    }
+
+    /**
+     * Resolves the fully qualified class name referenced by this Class constant.
+     *
+     * @param utf8Constants    The Utf8 constants of the constant pool.
+     * @param classNameIndexes The name indexes of the Class constants of the constant pool.
+     * @param index            The index of the Class constant. {@code 0} for none.
+     * @return The class name. {@code null} for none.
+     * @throws IOException when the index doesn't reference a Class constant.
+     */
+    private static String toClassName(String[] utf8Constants, int[] classNameIndexes, int index) throws IOException {
+        if (index == 0) {
+            return null;
+        }
+        if ((index >= classNameIndexes.length) || (classNameIndexes[index] == 0)
+                || (utf8Constants[classNameIndexes[index]] == null)) {
+            throw new IOException("Invalid class reference in constant pool: " + index);
+        }
+        return utf8Constants[classNameIndexes[index]].replace('/', '.');
+    }
+
+    /**
+     * @return The fully qualified name of the class.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return The fully qualified name of the super class. {@code null} for java.lang.Object.
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    /**
+     * @return The fully qualified names of the interfaces directly implemented by the class.
+     */
+    public String[] getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    /**
+     * @return {@code true} if this is a concrete class, {@code false} if it is an interface or an abstract class.
+     */
+    public boolean isConcrete() {
+        return (accessFlags & (ACC_INTERFACE | ACC_ABSTRACT)) == 0;
+    }
+}
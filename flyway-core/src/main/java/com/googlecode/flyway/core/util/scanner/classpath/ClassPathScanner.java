@@ -17,7 +17,6 @@ package com.googlecode.flyway.core.util.scanner.classpath;
 
 import com.googlecode.flyway.core.api.FlywayException;
 import com.googlecode.flyway.core.util.ClassPathResource;
-import com.googlecode.flyway.core.util.ClassUtils;
 import com.googlecode.flyway.core.util.FeatureDetector;
 import com.googlecode.flyway.core.util.Resource;
 import com.googlecode.flyway.core.util.UrlUtils;
@@ -26,22 +25,41 @@ import com.googlecode.flyway.core.util.logging.LogFactory;
 import com.googlecode.flyway.core.util.scanner.classpath.jboss.JBossVFSv2UrlResolver;
 import com.googlecode.flyway.core.util.scanner.classpath.jboss.JBossVFSv3ClassPathLocationScanner;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Modifier;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 /**
  * ClassPath scanner.
+ *
+ * <p>Each location is only listed once per scanner instance. Further scans of the same location, for other prefixes
+ * and suffixes, are served from memory. Share one instance between the scans of a single run to avoid walking the
+ * same directories and jar entries repeatedly, and create a new one to pick up changes on the classpath.</p>
  */
 public class ClassPathScanner {
     private static final Log LOG = LogFactory.getLog(ClassPathScanner.class);
 
+    /**
+     * The names of all resources found so far, by scanned path.
+     */
+    private final Map<String, Set<String>> resourceNameCache = new HashMap<String, Set<String>>();
+
+    /**
+     * The class file headers read so far, by class name. {@code null} for the ones that could not be read.
+     */
+    private final Map<String, ClassFileHeader> classFileHeaderCache = new HashMap<String, ClassFileHeader>();
+
     /**
      * Scans the classpath for resources under the specified location, starting with the specified prefix and ending with
      * the specified suffix.
@@ -70,6 +88,10 @@ public class ClassPathScanner {
      * Scans the classpath for concrete classes under the specified package implementing this interface.
      * Non-instantiable abstract classes are filtered out.
      *
+     * <p>The candidates are first filtered by reading the headers of their class files and of those of their super
+     * types, so only the classes that actually implement this interface get loaded. Classes whose hierarchy can't be
+     * read this way are loaded and checked as well. The classes are not instantiated.</p>
+     *
      * @param location             The location (package) in the classpath to start scanning.
      *                             Subpackages are also scanned.
      * @param implementedInterface The interface the matching classes should implement.
@@ -84,6 +106,19 @@ public class ClassPathScanner {
         Set<String> resourceNames = findResourceNames(location, "", ".class");
         for (String resourceName : resourceNames) {
             String className = toClassName(resourceName);
+
+            ClassFileHeader classFileHeader = readClassFileHeader(className);
+            if (classFileHeader != null) {
+                if (!classFileHeader.isConcrete()) {
+                    LOG.debug("Skipping abstract class: " + className);
+                    continue;
+                }
+
+                if (Boolean.FALSE.equals(isSubtypeOf(className, implementedInterface.getName()))) {
+                    continue;
+                }
+            }
+
             Class<?> clazz = getClassLoader().loadClass(className);
 
             if (Modifier.isAbstract(clazz.getModifiers())) {
@@ -95,12 +130,6 @@ public class ClassPathScanner {
                 continue;
             }
 
-            try {
-                ClassUtils.instantiate(className);
-            } catch (Exception e) {
-                throw new FlywayException("Unable to instantiate class: " + className);
-            }
-
             classes.add(clazz);
             LOG.debug("Found class: " + className);
         }
@@ -108,6 +137,79 @@ public class ClassPathScanner {
         return classes.toArray(new Class<?>[classes.size()]);
     }
 
+    /**
+     * Checks whether this class extends or implements this type, based on the class file headers of its hierarchy.
+     *
+     * @param className The fully qualified name of the class to check.
+     * @param typeName  The fully qualified name of the type to look for.
+     * @return {@code true} if it does, {@code false} if it doesn't, {@code null} if this could not be determined as
+     * part of the hierarchy could not be read.
+     */
+    private Boolean isSubtypeOf(String className, String typeName) {
+        if (className.equals(typeName)) {
+            return true;
+        }
+
+        if ("java.lang.Object".equals(className)
+                || (className.startsWith("java.") && !typeName.startsWith("java."))) {
+            // Platform classes can't extend or implement application types
+            return false;
+        }
+
+        ClassFileHeader classFileHeader = readClassFileHeader(className);
+        if (classFileHeader == null) {
+            return null;
+        }
+
+        List<String> superTypeNames = new ArrayList<String>(Arrays.asList(classFileHeader.getInterfaceNames()));
+        if (classFileHeader.getSuperClassName() != null) {
+            superTypeNames.add(classFileHeader.getSuperClassName());
+        }
+
+        boolean unknown = false;
+        for (String superTypeName : superTypeNames) {
+            Boolean subtype = isSubtypeOf(superTypeName, typeName);
+            if (subtype == null) {
+                unknown = true;
+            } else if (subtype) {
+                return true;
+            }
+        }
+
+        return unknown ? null : false;
+    }
+
+    /**
+     * Reads the header of the class file of this class without loading it.
+     *
+     * @param className The fully qualified name of the class.
+     * @return The header. {@code null} if the class file could not be found or read.
+     */
+    private ClassFileHeader readClassFileHeader(String className) {
+        if (classFileHeaderCache.containsKey(className)) {
+            return classFileHeaderCache.get(className);
+        }
+
+        ClassFileHeader classFileHeader = null;
+        InputStream inputStream = getClassLoader().getResourceAsStream(className.replace('.', '/') + ".class");
+        if (inputStream != null) {
+            try {
+                classFileHeader = ClassFileHeader.read(new BufferedInputStream(inputStream));
+            } catch (IOException e) {
+                LOG.debug("Unable to read class file header of " + className + ": " + e.getMessage());
+            } finally {
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+
+        classFileHeaderCache.put(className, classFileHeader);
+        return classFileHeader;
+    }
+
     /**
      * Converts this resource name to a fully qualified class name.
      *
@@ -130,6 +232,25 @@ public class ClassPathScanner {
      * @throws IOException when scanning this location failed.
      */
     private Set<String> findResourceNames(String path, String prefix, String suffix) throws IOException {
+        Set<String> resourceNames = resourceNameCache.get(path);
+        if (resourceNames == null) {
+            resourceNames = scanResourceNames(path);
+            resourceNameCache.put(path, resourceNames);
+        } else {
+            LOG.debug("Using cached scan results for location: " + path);
+        }
+
+        return filterResourceNames(resourceNames, prefix, suffix);
+    }
+
+    /**
+     * Lists the names of all resources present at this location and below on the classpath.
+     *
+     * @param path The path on the classpath to scan.
+     * @return The resource names.
+     * @throws IOException when scanning this location failed.
+     */
+    private Set<String> scanResourceNames(String path) throws IOException {
         Set<String> resourceNames = new TreeSet<String>();
 
         List<URL> locationsUrls = getLocationUrlsForPath(path);
@@ -149,7 +270,7 @@ public class ClassPathScanner {
             }
         }
 
-        return filterResourceNames(resourceNames, prefix, suffix);
+        return resourceNames;
     }
 
     /**
@@ -17,21 +17,54 @@ package com.googlecode.flyway.core.util.scanner.filesystem;
 
 import com.googlecode.flyway.core.api.FlywayException;
 import com.googlecode.flyway.core.util.FileSystemResource;
+import com.googlecode.flyway.core.util.ParallelExecutor;
 import com.googlecode.flyway.core.util.Resource;
 import com.googlecode.flyway.core.util.logging.Log;
 import com.googlecode.flyway.core.util.logging.LogFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 
 /**
  * FileSystem scanner.
+ *
+ * <p>File names are matched while walking the tree, and each entry costs a single file attribute lookup, which
+ * matters on network filesystems. Subdirectories are listed concurrently when the scanner has a parallelism above
+ * 1.</p>
  */
 public class FileSystemScanner {
     private static final Log LOG = LogFactory.getLog(FileSystemScanner.class);
 
+    /**
+     * The maximum number of directories to list concurrently.
+     */
+    private final int parallelism;
+
+    /**
+     * Creates a new filesystem scanner listing the directories one by one.
+     */
+    public FileSystemScanner() {
+        this(1);
+    }
+
+    /**
+     * Creates a new filesystem scanner.
+     *
+     * @param parallelism The maximum number of directories to list concurrently. {@code 1} to list them one by one.
+     */
+    public FileSystemScanner(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     /**
      * Scans the FileSystem for resources under the specified location, starting with the specified prefix and ending with
      * the specified suffix.
@@ -61,67 +94,129 @@ public class FileSystemScanner {
     }
 
     /**
-     * Finds the resources names present at this location and below on the classpath starting with this prefix and
+     * Finds the resources names present at this location and below on the filesystem starting with this prefix and
      * ending with this suffix.
      *
-     * @param path   The path on the classpath to scan.
+     * @param path   The path on the filesystem to scan.
      * @param prefix The filename prefix to match.
      * @param suffix The filename suffix to match.
      * @return The resource names.
      * @throws java.io.IOException when scanning this location failed.
      */
     private Set<String> findResourceNames(String path, String prefix, String suffix) throws IOException {
-        Set<String> resourceNames = findResourceNamesFromFileSystem(path, new File(path));
-        return filterResourceNames(resourceNames, prefix, suffix);
+        if (parallelism < 2) {
+            Set<String> resourceNames = new TreeSet<String>();
+            List<File> folders = new ArrayList<File>();
+            folders.add(new File(path));
+            while (!folders.isEmpty()) {
+                Folder folder = listFolder(folders.remove(folders.size() - 1), prefix, suffix);
+                resourceNames.addAll(folder.resourceNames);
+                folders.addAll(folder.subFolders);
+            }
+            return resourceNames;
+        }
+
+        ExecutorService executorService = ParallelExecutor.createExecutorService(parallelism);
+        try {
+            return findResourceNames(new ExecutorCompletionService<Folder>(executorService), path, prefix, suffix);
+        } finally {
+            executorService.shutdownNow();
+        }
     }
 
     /**
-     * Finds all the resource names contained in this file system folder.
+     * Finds the resources names present at this location and below on the filesystem starting with this prefix and
+     * ending with this suffix, listing the folders concurrently.
      *
-     * @param scanRootLocation The root location of the scan on disk.
-     * @param folder           The folder to look for resources under on disk.
-     * @return The resource names;
-     * @throws IOException when the folder could not be read.
+     * @param completionService The service to list the folders with.
+     * @param path              The path on the filesystem to scan.
+     * @param prefix            The filename prefix to match.
+     * @param suffix            The filename suffix to match.
+     * @return The resource names.
+     * @throws java.io.IOException when scanning this location failed.
      */
-    @SuppressWarnings("ConstantConditions")
-    private Set<String> findResourceNamesFromFileSystem(String scanRootLocation, File folder) throws IOException {
-        LOG.debug("Scanning for resources in path: " + folder.getPath() + " (" + scanRootLocation + ")");
-
+    private Set<String> findResourceNames(CompletionService<Folder> completionService, String path,
+                                          final String prefix, final String suffix) throws IOException {
         Set<String> resourceNames = new TreeSet<String>();
 
-        File[] files = folder.listFiles();
-        for (File file : files) {
-            if (file.canRead()) {
-                if (file.isDirectory()) {
-                    resourceNames.addAll(findResourceNamesFromFileSystem(scanRootLocation, file));
-                } else {
-                    resourceNames.add(file.getPath());
-                }
+        int pending = 0;
+        List<File> folders = new ArrayList<File>();
+        folders.add(new File(path));
+        do {
+            for (final File folder : folders) {
+                completionService.submit(new Callable<Folder>() {
+                    public Folder call() {
+                        return listFolder(folder, prefix, suffix);
+                    }
+                });
+                pending++;
             }
-        }
+
+            Folder folder;
+            try {
+                folder = completionService.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FlywayException("Interrupted while scanning filesystem path: " + path, e);
+            } catch (ExecutionException e) {
+                throw new FlywayException("Unable to scan filesystem path: " + path, e.getCause());
+            }
+            pending--;
+
+            resourceNames.addAll(folder.resourceNames);
+            folders = folder.subFolders;
+        } while ((pending > 0) || !folders.isEmpty());
 
         return resourceNames;
     }
 
     /**
-     * Filters this list of resource names to only include the ones whose filename matches this prefix and this suffix.
+     * Lists the resources directly contained in this folder whose filename matches this prefix and this suffix, as well
+     * as its subfolders. Every entry is only looked up once, to determine whether it is a folder.
      *
-     * @param resourceNames The names to filter.
-     * @param prefix        The prefix to match.
-     * @param suffix        The suffix to match.
-     * @return The filtered names set.
+     * @param folder The folder to list.
+     * @param prefix The filename prefix to match.
+     * @param suffix The filename suffix to match.
+     * @return The contents of the folder.
      */
-    private Set<String> filterResourceNames(Set<String> resourceNames, String prefix, String suffix) {
-        Set<String> filteredResourceNames = new TreeSet<String>();
-        for (String resourceName : resourceNames) {
-            String fileName = resourceName.substring(resourceName.lastIndexOf(File.separator) + 1);
-            if (fileName.startsWith(prefix) && fileName.endsWith(suffix)
-                    && (fileName.length() > (prefix + suffix).length())) {
-                filteredResourceNames.add(resourceName);
+    private Folder listFolder(File folder, String prefix, String suffix) {
+        LOG.debug("Scanning for resources in path: " + folder.getPath());
+
+        Folder result = new Folder();
+
+        String[] fileNames = folder.list();
+        if (fileNames == null) {
+            LOG.debug("Skipping unreadable path: " + folder.getPath());
+            return result;
+        }
+
+        for (String fileName : fileNames) {
+            File file = new File(folder, fileName);
+            if (file.isDirectory()) {
+                result.subFolders.add(file);
+            } else if (fileName.startsWith(prefix) && fileName.endsWith(suffix)
+                    && (fileName.length() > (prefix + suffix).length()) && file.canRead()) {
+                result.resourceNames.add(file.getPath());
             } else {
-                LOG.debug("Filtering out resource: " + resourceName + " (filename: " + fileName + ")");
+                LOG.debug("Filtering out resource: " + file.getPath() + " (filename: " + fileName + ")");
             }
         }
-        return filteredResourceNames;
+
+        return result;
+    }
+
+    /**
+     * The matching resources and the subfolders directly contained in a folder.
+     */
+    private static class Folder {
+        /**
+         * The names of the matching resources.
+         */
+        private final List<String> resourceNames = new ArrayList<String>();
+
+        /**
+         * The subfolders.
+         */
+        private final List<File> subFolders = new ArrayList<File>();
     }
 }
@@ -17,6 +17,11 @@ package com.googlecode.flyway.core.api;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -164,5 +169,37 @@ public class MigrationVersionSmallTest {
     public void alphaNumeric() {
         new MigrationVersion("1.2.1a-3");
     }
-}
 
+    @Test(expected = FlywayException.class)
+    public void tooLarge() {
+        new MigrationVersion("9223372036854775808");
+    }
+
+    @Test
+    public void largest() {
+        assertEquals("9223372036854775807", new MigrationVersion("9223372036854775807").toString());
+        assertTrue(new MigrationVersion("9223372036854775806.9").compareTo(new MigrationVersion("9223372036854775807")) < 0);
+    }
+
+    @Test
+    public void underscores() {
+        assertEquals(new MigrationVersion("1.2.3"), new MigrationVersion("1_2_3"));
+        assertEquals("1.2.3", new MigrationVersion("1_2_3").toString());
+    }
+
+    @Test
+    public void sortManyVersions() {
+        List<MigrationVersion> versions = new ArrayList<MigrationVersion>();
+        for (int i = 0; i < 100000; i++) {
+            versions.add(new MigrationVersion((i / 1000) + "." + (i % 1000) + ".0"));
+        }
+        List<MigrationVersion> shuffled = new ArrayList<MigrationVersion>(versions);
+        Collections.shuffle(shuffled, new Random(42));
+        Collections.sort(shuffled);
+
+        assertEquals(versions, shuffled);
+        for (int i = 0; i < 100000; i++) {
+            assertEquals(versions.get(i).hashCode(), new MigrationVersion((i / 1000) + "." + (i % 1000)).hashCode());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.command;
+
+import com.googlecode.flyway.core.api.MigrationType;
+import com.googlecode.flyway.core.api.MigrationVersion;
+import com.googlecode.flyway.core.resolver.ResolvedMigration;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test for DbFingerprint.
+ */
+public class DbFingerprintSmallTest {
+    @Test
+    public void calculateFingerprint() {
+        String fingerprint = DbFingerprint.calculateFingerprint(
+                Arrays.asList(createMigration("1", 123), createMigration("2", 456)), MigrationVersion.LATEST);
+
+        assertEquals(40, fingerprint.length());
+        assertEquals(fingerprint, DbFingerprint.calculateFingerprint(
+                Arrays.asList(createMigration("1", 123), createMigration("2", 456)), MigrationVersion.LATEST));
+    }
+
+    @Test
+    public void calculateFingerprintChecksumChanged() {
+        assertFalse(DbFingerprint.calculateFingerprint(Arrays.asList(createMigration("1", 123)), MigrationVersion.LATEST)
+                .equals(DbFingerprint.calculateFingerprint(Arrays.asList(createMigration("1", 124)), MigrationVersion.LATEST)));
+    }
+
+    @Test
+    public void calculateFingerprintTarget() {
+        List<ResolvedMigration> migrations = Arrays.asList(createMigration("1", 123), createMigration("2", 456));
+
+        assertEquals(DbFingerprint.calculateFingerprint(migrations.subList(0, 1), MigrationVersion.LATEST),
+                DbFingerprint.calculateFingerprint(migrations, new MigrationVersion("1")));
+        assertFalse(DbFingerprint.calculateFingerprint(migrations, new MigrationVersion("1"))
+                .equals(DbFingerprint.calculateFingerprint(migrations, MigrationVersion.LATEST)));
+    }
+
+    /**
+     * Creates a new resolved sql migration.
+     *
+     * @param version  The version of the migration.
+     * @param checksum The checksum of the migration.
+     * @return The resolved migration.
+     */
+    private ResolvedMigration createMigration(String version, int checksum) {
+        ResolvedMigration migration = new ResolvedMigration();
+        migration.setVersion(new MigrationVersion(version));
+        migration.setDescription("abc");
+        migration.setScript("x");
+        migration.setType(MigrationType.SQL);
+        migration.setChecksum(checksum);
+        return migration;
+    }
+}
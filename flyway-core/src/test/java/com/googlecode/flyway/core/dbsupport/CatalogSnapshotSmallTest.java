@@ -0,0 +1,64 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.dbsupport;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for CatalogSnapshot.
+ */
+public class CatalogSnapshotSmallTest {
+    @Test
+    public void objects() {
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+        catalogSnapshot.addObject("TABLE", "orders");
+        catalogSnapshot.addObject("F", "fk_customer", "orders");
+        catalogSnapshot.addObject("TABLE", "customers");
+        catalogSnapshot.addObject("F", "fk_country", "customers");
+
+        assertEquals(Arrays.asList("orders", "customers"), catalogSnapshot.getNames("TABLE"));
+        assertEquals(Arrays.asList(null, null), catalogSnapshot.getDetails("TABLE"));
+        assertEquals(Arrays.asList("fk_customer", "fk_country"), catalogSnapshot.getNames("F"));
+        assertEquals(Arrays.asList("orders", "customers"), catalogSnapshot.getDetails("F"));
+        assertTrue(catalogSnapshot.getNames("VIEW").isEmpty());
+        assertTrue(catalogSnapshot.getDetails("VIEW").isEmpty());
+    }
+
+    @Test
+    public void dependencies() {
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+        catalogSnapshot.addObject("TABLE", "orders");
+        catalogSnapshot.addObject("TABLE", "customers");
+        catalogSnapshot.addDependency("orders", "customers");
+
+        CleanPlan cleanPlan = new CleanPlan();
+        for (String tableName : catalogSnapshot.getNames("TABLE")) {
+            cleanPlan.addDrop(tableName, "DROP " + tableName);
+        }
+        catalogSnapshot.addDependenciesTo(cleanPlan);
+
+        List<List<String>> waves = cleanPlan.getWaves();
+        assertEquals(2, waves.size());
+        assertEquals(Arrays.asList("DROP orders"), waves.get(0));
+        assertEquals(Arrays.asList("DROP customers"), waves.get(1));
+    }
+}
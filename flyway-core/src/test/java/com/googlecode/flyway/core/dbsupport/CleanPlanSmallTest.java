@@ -0,0 +1,81 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.dbsupport;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test for CleanPlan.
+ */
+public class CleanPlanSmallTest {
+    @Test
+    public void independent() {
+        CleanPlan cleanPlan = new CleanPlan();
+        cleanPlan.addDrop("a", "DROP a");
+        cleanPlan.addDrop("b", "DROP b");
+        cleanPlan.addDrop("c", "DROP c");
+
+        List<List<String>> waves = cleanPlan.getWaves();
+        assertEquals(1, waves.size());
+        assertEquals(Arrays.asList("DROP a", "DROP b", "DROP c"), waves.get(0));
+    }
+
+    @Test
+    public void dependencies() {
+        CleanPlan cleanPlan = new CleanPlan();
+        cleanPlan.addDrop("parent", "DROP parent");
+        cleanPlan.addDrop("child", "DROP child");
+        cleanPlan.addDrop("view", "DROP view");
+        cleanPlan.addDrop("other", "DROP other");
+        cleanPlan.addDependency("child", "parent");
+        cleanPlan.addDependency("view", "child");
+        cleanPlan.addDependency("view", "parent");
+        cleanPlan.addDependency("view", "parent");
+        cleanPlan.addDependency("other", "other");
+        cleanPlan.addDependency("other", "unknown");
+
+        List<List<String>> waves = cleanPlan.getWaves();
+        assertEquals(3, waves.size());
+        assertEquals(Arrays.asList("DROP view", "DROP other"), waves.get(0));
+        assertEquals(Arrays.asList("DROP child"), waves.get(1));
+        assertEquals(Arrays.asList("DROP parent"), waves.get(2));
+
+        assertEquals(Arrays.asList("DROP parent", "DROP child", "DROP view", "DROP other"), cleanPlan.getStatements());
+    }
+
+    @Test
+    public void circular() {
+        CleanPlan cleanPlan = new CleanPlan();
+        cleanPlan.addDrop("a", "DROP a");
+        cleanPlan.addDrop("b", "DROP b");
+        cleanPlan.addDrop("c", "DROP c");
+        cleanPlan.addDependency("a", "b");
+        cleanPlan.addDependency("b", "a");
+
+        assertNull(cleanPlan.getWaves());
+    }
+
+    @Test
+    public void empty() {
+        assertEquals(0, new CleanPlan().getWaves().size());
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.dbsupport;
+
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test for Schema.
+ */
+public class SchemaSmallTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    public void executeDropStatementsInBatches() throws SQLException {
+        when(jdbcTemplate.supportsBatchUpdates()).thenReturn(true);
+
+        new DropSchema(jdbcTemplate, statements(250)).clean();
+
+        verify(jdbcTemplate).executeBatch(statements(250).subList(0, 100));
+        verify(jdbcTemplate).executeBatch(statements(250).subList(100, 200));
+        verify(jdbcTemplate).executeBatch(statements(250).subList(200, 250));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    public void executeDropStatementsSingleStatement() throws SQLException {
+        when(jdbcTemplate.supportsBatchUpdates()).thenReturn(true);
+
+        new DropSchema(jdbcTemplate, statements(101)).clean();
+
+        verify(jdbcTemplate).executeBatch(statements(101).subList(0, 100));
+        verify(jdbcTemplate).execute("DROP TABLE t100");
+    }
+
+    @Test
+    public void executeDropStatementsWithoutBatchSupport() throws SQLException {
+        when(jdbcTemplate.supportsBatchUpdates()).thenReturn(false);
+
+        new DropSchema(jdbcTemplate, statements(3)).clean();
+
+        verify(jdbcTemplate, never()).executeBatch(anyListOf(String.class));
+        verify(jdbcTemplate, times(3)).execute(anyString());
+    }
+
+    @Test
+    public void executeDropStatementsNone() throws SQLException {
+        new DropSchema(jdbcTemplate, statements(0)).clean();
+
+        verify(jdbcTemplate, never()).executeBatch(anyListOf(String.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    /**
+     * Generates these number of drop statements.
+     *
+     * @param count The number of statements.
+     * @return The statements.
+     */
+    private static List<String> statements(int count) {
+        List<String> statements = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            statements.add("DROP TABLE t" + i);
+        }
+        return statements;
+    }
+
+    /**
+     * Schema whose clean simply executes a fixed list of drop statements.
+     */
+    private static class DropSchema extends Schema {
+        /**
+         * The drop statements to execute on clean.
+         */
+        private final List<String> statements;
+
+        public DropSchema(JdbcTemplate jdbcTemplate, List<String> statements) {
+            super(jdbcTemplate, null, "schema");
+            this.statements = statements;
+        }
+
+        @Override
+        protected boolean doExists() {
+            return true;
+        }
+
+        @Override
+        protected boolean doEmpty() {
+            return false;
+        }
+
+        @Override
+        protected void doCreate() {
+        }
+
+        @Override
+        protected void doDrop() {
+        }
+
+        @Override
+        protected void doClean() throws SQLException {
+            executeDropStatements(statements);
+        }
+
+        @Override
+        protected Table[] doAllTables() {
+            return new Table[0];
+        }
+
+        @Override
+        public Table getTable(String tableName) {
+            return null;
+        }
+    }
+}
@@ -15,18 +15,33 @@
  */
 package com.googlecode.flyway.core.dbsupport;
 
+import com.googlecode.flyway.core.command.FlywaySqlScriptException;
 import com.googlecode.flyway.core.dbsupport.mysql.MySQLDbSupport;
 import com.googlecode.flyway.core.util.PlaceholderReplacer;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.InOrder;
 
+import java.io.StringReader;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Test for SqlScript.
@@ -290,4 +305,129 @@ public class SqlScriptSmallTest {
         List<SqlStatement> statements = sqlScript.parse(sql);
         assertEquals(2, statements.size());
     }
+
+    @Test
+    public void executeStreamed() throws Exception {
+        String source = "CREATE TABLE ${table} (id INT);\n" +
+                "\n" +
+                "-- comment\n" +
+                "INSERT INTO ${table}\n" +
+                "VALUES (1);\n" +
+                "INSERT INTO ${table} VALUES (2)";
+
+        Map<String, String> placeholders = new HashMap<String, String>();
+        placeholders.put("table", "t");
+        PlaceholderReplacer placeholderReplacer = new PlaceholderReplacer(placeholders, "${", "}");
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        new SqlScript(new StringReader(source), placeholderReplacer, new MySQLDbSupport(null)).execute(jdbcTemplate);
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).executeStatement("CREATE TABLE t (id INT)");
+        inOrder.verify(jdbcTemplate).executeStatement("INSERT INTO t\nVALUES (1)");
+        inOrder.verify(jdbcTemplate).executeStatement("INSERT INTO t VALUES (2)");
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void executeStreamedFailureLineNumber() throws Exception {
+        String source = "CREATE TABLE t (id INT);\n" +
+                "\n" +
+                "INSERT INTO t\n" +
+                "VALUES ('x');\n" +
+                "INSERT INTO t VALUES (2);";
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doThrow(new SQLException("Invalid value")).when(jdbcTemplate).executeStatement("INSERT INTO t\nVALUES ('x')");
+
+        try {
+            new SqlScript(new StringReader(source), PlaceholderReplacer.NO_PLACEHOLDERS, new MySQLDbSupport(null)).execute(jdbcTemplate);
+            fail();
+        } catch (FlywaySqlScriptException e) {
+            assertEquals(3, e.getLineNumber());
+        }
+        verify(jdbcTemplate, never()).executeStatement("INSERT INTO t VALUES (2)");
+    }
+
+    @Test
+    public void executeBatched() throws Exception {
+        String source = "CREATE TABLE t (id INT);\n" +
+                "INSERT INTO t VALUES (1);\n" +
+                "INSERT INTO t VALUES (2);\n" +
+                "update t set id = 3 where id = 2;\n" +
+                "SELECT * FROM t;\n" +
+                "DELETE FROM t WHERE id = 1;\n" +
+                "DROP TABLE t;";
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.supportsBatchUpdates()).thenReturn(true);
+        new SqlScript(source, new MySQLDbSupport(null)).execute(jdbcTemplate, 2);
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).executeStatement("CREATE TABLE t (id INT)");
+        inOrder.verify(jdbcTemplate).executeBatch(Arrays.asList("INSERT INTO t VALUES (1)", "INSERT INTO t VALUES (2)"));
+        inOrder.verify(jdbcTemplate).executeStatement("update t set id = 3 where id = 2");
+        inOrder.verify(jdbcTemplate).executeStatement("SELECT * FROM t");
+        inOrder.verify(jdbcTemplate).executeStatement("DELETE FROM t WHERE id = 1");
+        inOrder.verify(jdbcTemplate).executeStatement("DROP TABLE t");
+    }
+
+    @Test
+    public void executeBatchedReturning() throws Exception {
+        String source = "INSERT INTO t VALUES (1);\n" +
+                "INSERT INTO t VALUES (2)\n" +
+                "RETURNING id;\n" +
+                "INSERT INTO t VALUES (3);\n" +
+                "INSERT INTO t (returning_id) VALUES (4);";
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.supportsBatchUpdates()).thenReturn(true);
+        new SqlScript(source, new MySQLDbSupport(null)).execute(jdbcTemplate, 100);
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).executeStatement("INSERT INTO t VALUES (1)");
+        inOrder.verify(jdbcTemplate).executeStatement("INSERT INTO t VALUES (2)\nRETURNING id");
+        inOrder.verify(jdbcTemplate).executeBatch(Arrays.asList("INSERT INTO t VALUES (3)", "INSERT INTO t (returning_id) VALUES (4)"));
+    }
+
+    @Test
+    public void executeBatchedUnsupported() throws Exception {
+        String source = "INSERT INTO t VALUES (1);\n" +
+                "INSERT INTO t VALUES (2);";
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        new SqlScript(source, new MySQLDbSupport(null)).execute(jdbcTemplate, 100);
+
+        verify(jdbcTemplate).executeStatement("INSERT INTO t VALUES (1)");
+        verify(jdbcTemplate).executeStatement("INSERT INTO t VALUES (2)");
+        verify(jdbcTemplate, never()).executeBatch(anyListOf(String.class));
+    }
+
+    @Test
+    public void executeBatchedFailureLineNumber() throws Exception {
+        String source = "INSERT INTO t VALUES (1);\n" +
+                "\n" +
+                "INSERT INTO t\n" +
+                "VALUES ('x');\n" +
+                "INSERT INTO t VALUES (3);";
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.supportsBatchUpdates()).thenReturn(true);
+        when(jdbcTemplate.executeBatch(anyListOf(String.class))).thenThrow(new BatchUpdateException(new int[]{1}));
+
+        try {
+            new SqlScript(source, new MySQLDbSupport(null)).execute(jdbcTemplate, 100);
+            fail();
+        } catch (FlywaySqlScriptException e) {
+            assertEquals(3, e.getLineNumber());
+            assertEquals("INSERT INTO t\nVALUES ('x')", e.getStatement());
+        }
+    }
+
+    @Test
+    public void failedStatementIndex() {
+        assertEquals(0, SqlScript.getFailedStatementIndex(null, 3));
+        assertEquals(2, SqlScript.getFailedStatementIndex(new int[]{1, 1}, 3));
+        assertEquals(1, SqlScript.getFailedStatementIndex(new int[]{1, Statement.EXECUTE_FAILED, 1}, 3));
+    }
 }
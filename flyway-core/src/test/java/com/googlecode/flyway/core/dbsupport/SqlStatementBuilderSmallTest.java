@@ -16,8 +16,10 @@
 package com.googlecode.flyway.core.dbsupport;
 
 import com.googlecode.flyway.core.dbsupport.h2.H2SqlStatementBuilder;
+import com.googlecode.flyway.core.dbsupport.mysql.MySQLSqlStatementBuilder;
 import com.googlecode.flyway.core.dbsupport.oracle.OracleSqlStatementBuilder;
 import com.googlecode.flyway.core.dbsupport.postgresql.PostgreSQLSqlStatementBuilder;
+import com.googlecode.flyway.core.dbsupport.sqlserver.SQLServerSqlStatementBuilder;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -97,23 +99,61 @@ public class SqlStatementBuilderSmallTest {
 
     }
 
+    @Test
+    public void postgreSqlDollarQuotesOnSingleLine() {
+        assertFalse(new PostgreSQLSqlStatementBuilder().endsWithOpenMultilineStringLiteral("INSERT INTO dollar VALUES($abc$Hello 'quotes' and $'s$abc$);"));
+        assertFalse(new PostgreSQLSqlStatementBuilder().endsWithOpenMultilineStringLiteral("SELECT $1 + $2;"));
+        assertTrue(new PostgreSQLSqlStatementBuilder().endsWithOpenMultilineStringLiteral("AS $_$select $1 + $2;"));
+    }
+
+    @Test
+    public void quotedIdentifiers() {
+        assertFalse(new H2SqlStatementBuilder().endsWithOpenMultilineStringLiteral("SELECT \"it's\" FROM t;"));
+        assertFalse(new MySQLSqlStatementBuilder().endsWithOpenMultilineStringLiteral("SELECT `it's` FROM t;"));
+        assertFalse(new SQLServerSqlStatementBuilder().endsWithOpenMultilineStringLiteral("SELECT [it's] FROM t"));
+    }
+
+    @Test
+    public void delimiterInsideMultiLineComment() {
+        SqlStatementBuilder builder = new H2SqlStatementBuilder();
+        builder.addLine("CREATE TABLE t ( /* old;");
+        assertFalse(builder.isTerminated());
+        builder.addLine("*/ id INT);");
+        assertTrue(builder.isTerminated());
+        assertEquals("CREATE TABLE t ( /* old;\n*/ id INT)", builder.getSqlStatement().getSql());
+    }
+
     @Test
     public void stripDelimiter() {
-        assertEquals("SELECT * FROM t WHERE a = 'Straßenpaß'",
-                SqlStatementBuilder.stripDelimiter("SELECT * FROM t WHERE a = 'Straßenpaß';", new Delimiter(";", false)));
+        SqlStatementBuilder builder = new SqlStatementBuilder();
+        builder.addLine("SELECT * FROM t WHERE a = 'Straßenpaß';");
+        assertTrue(builder.isTerminated());
+        assertEquals("SELECT * FROM t WHERE a = 'Straßenpaß'", builder.getSqlStatement().getSql());
     }
 
     @Test
     public void stripDelimiterGo() {
-        assertEquals("SELECT * FROM t WHERE a = 'Straßenpaß'\n",
-                SqlStatementBuilder.stripDelimiter("SELECT * FROM t WHERE a = 'Straßenpaß'\nGO", new Delimiter("GO", true)));
-        assertEquals("SELECT * FROM t WHERE a = 'Straßenpaß'\n",
-                SqlStatementBuilder.stripDelimiter("SELECT * FROM t WHERE a = 'Straßenpaß'\ngo", new Delimiter("GO", true)));
+        SqlStatementBuilder builder = new SqlStatementBuilder();
+        builder.setDelimiter(new Delimiter("GO", true));
+        builder.addLine("SELECT * FROM t WHERE a = 'Straßenpaß'");
+        builder.addLine("GO");
+        assertTrue(builder.isTerminated());
+        assertEquals("SELECT * FROM t WHERE a = 'Straßenpaß'\n", builder.getSqlStatement().getSql());
+
+        builder = new SqlStatementBuilder();
+        builder.setDelimiter(new Delimiter("GO", true));
+        builder.addLine("SELECT * FROM t WHERE a = 'Straßenpaß'");
+        builder.addLine("go");
+        assertTrue(builder.isTerminated());
+        assertEquals("SELECT * FROM t WHERE a = 'Straßenpaß'\n", builder.getSqlStatement().getSql());
     }
 
     @Test
     public void stripDelimiterCustom() {
-        assertEquals("SELECT * FROM t WHERE a = 'Straßenpaß'",
-                SqlStatementBuilder.stripDelimiter("SELECT * FROM t WHERE a = 'Straßenpaß'$ßß$", new Delimiter("$ßß$", false)));
+        SqlStatementBuilder builder = new SqlStatementBuilder();
+        builder.setDelimiter(new Delimiter("$ßß$", false));
+        builder.addLine("SELECT * FROM t WHERE a = 'Straßenpaß'$ßß$");
+        assertTrue(builder.isTerminated());
+        assertEquals("SELECT * FROM t WHERE a = 'Straßenpaß'", builder.getSqlStatement().getSql());
     }
 }
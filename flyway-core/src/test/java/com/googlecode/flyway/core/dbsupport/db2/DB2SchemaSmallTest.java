@@ -16,6 +16,7 @@
 package com.googlecode.flyway.core.dbsupport.db2;
 
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -23,7 +24,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -63,10 +66,13 @@ public class DB2SchemaSmallTest {
         when(jdbcTemplate.getMetaData().getUDTs(null, "SCHEMA", null, null)).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
 
-        // Return a VERSIONED_TABLE when the SQL to find version tables is called.
-        List<String> versionedTables = new ArrayList<String>();
-        versionedTables.add("VERSIONED_TABLE");
-        when(jdbcTemplate.queryForStringList("select rtrim(TABNAME) from SYSCAT.TABLES where TEMPORALTYPE <> 'N' and TABSCHEMA = ?", "SCHEMA")).thenReturn(versionedTables);
+        // Return a VERSIONED_TABLE when the catalog snapshot is taken.
+        List<Map<String, String>> objects = new ArrayList<Map<String, String>>();
+        Map<String, String> versionedTable = new HashMap<String, String>();
+        versionedTable.put("OBJECT_TYPE", "VERSIONED TABLE");
+        versionedTable.put("OBJECT_NAME", "VERSIONED_TABLE");
+        objects.add(versionedTable);
+        when(jdbcTemplate.queryForList(anyString(), eq("SCHEMA"), eq("SCHEMA"), eq("SCHEMA"), eq("SCHEMA"))).thenReturn(objects);
 
         when(dbSupport.quote("SCHEMA", "VERSIONED_TABLE")).thenReturn("SCHEMA.VERSIONED_TABLE");
 
@@ -49,6 +49,12 @@ public class DerbyMigrationMediumTest extends MigrationTestCase {
         return new DriverDataSource(null, "jdbc:derby:memory:flyway_db;create=true", "", "");
     }
 
+    @Override
+    protected int getTenantParallelism() {
+        // Concurrent DDL deadlocks on the Derby system catalog
+        return 1;
+    }
+
     @Override
     protected String getQuoteLocation() {
         return "migration/quote";
@@ -16,6 +16,8 @@
 package com.googlecode.flyway.core.dbsupport.h2;
 
 import com.googlecode.flyway.core.Flyway;
+import com.googlecode.flyway.core.api.ExecutionResult;
+import com.googlecode.flyway.core.api.MigrationInfoService;
 import com.googlecode.flyway.core.migration.MigrationTestCase;
 import com.googlecode.flyway.core.migration.SchemaVersion;
 import com.googlecode.flyway.core.util.jdbc.DriverDataSource;
@@ -24,9 +26,13 @@ import org.junit.experimental.categories.Category;
 import com.googlecode.flyway.core.DbCategory;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test to demonstrate the migration functionality using H2.
@@ -43,6 +49,41 @@ public class H2MigrationMediumTest extends MigrationTestCase {
         return "migration/quote";
     }
 
+    @Test
+    public void migrateMultipleDataSources() throws Exception {
+        List<DataSource> dataSources = new ArrayList<DataSource>();
+        for (int i = 1; i <= 3; i++) {
+            dataSources.add(new DriverDataSource(null, "jdbc:h2:mem:flyway_shard" + i + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        }
+        dataSources.add(new DriverDataSource(null, "jdbc:h2:mem:flyway_shard1", "invalid", "invalid"));
+
+        flyway.setLocations(BASEDIR);
+        List<ExecutionResult<Integer>> results = flyway.migrate(dataSources, 2, 60);
+        assertEquals(4, results.size());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(results.get(i).toString(), results.get(i).isSuccess());
+            assertEquals(4, results.get(i).getResult().intValue());
+        }
+        assertFalse(results.get(3).isSuccess());
+        assertEquals("#4 jdbc:h2:mem:flyway_shard1", results.get(3).getName());
+
+        dataSources.remove(3);
+        for (ExecutionResult<Void> result : flyway.validate(dataSources, 2, 60)) {
+            assertTrue(result.toString(), result.isSuccess());
+        }
+        for (ExecutionResult<MigrationInfoService> result : flyway.info(dataSources, 2, 60)) {
+            assertEquals("2.0", result.getResult().current().getVersion().toString());
+        }
+
+        // An unreachable first database doesn't prevent the migrations from being resolved against the others
+        dataSources.add(0, new DriverDataSource(null, "jdbc:h2:mem:flyway_shard1", "invalid", "invalid"));
+        List<ExecutionResult<MigrationInfoService>> infos = flyway.info(dataSources, 2, 60);
+        assertFalse(infos.get(0).isSuccess());
+        for (int i = 1; i < 4; i++) {
+            assertEquals("2.0", infos.get(i).getResult().current().getVersion().toString());
+        }
+    }
+
     @Test
     public void mysqlMode() throws Exception {
         Flyway flyway = new Flyway();
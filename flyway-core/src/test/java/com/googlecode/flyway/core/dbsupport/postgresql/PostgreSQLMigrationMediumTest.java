@@ -16,6 +16,7 @@
 package com.googlecode.flyway.core.dbsupport.postgresql;
 
 import com.googlecode.flyway.core.Flyway;
+import com.googlecode.flyway.core.dbsupport.Schema;
 import com.googlecode.flyway.core.migration.MigrationTestCase;
 import com.googlecode.flyway.core.util.jdbc.DriverDataSource;
 import com.googlecode.flyway.core.util.jdbc.JdbcUtils;
@@ -30,6 +31,7 @@ import java.sql.Statement;
 import java.util.Properties;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test to demonstrate the migration functionality using PostgreSQL.
@@ -221,6 +223,48 @@ public class PostgreSQLMigrationMediumTest extends MigrationTestCase {
         flyway.migrate();
     }
 
+    @Test
+    public void recreateSchemaKeepsComment() throws Exception {
+        Schema schema = dbSupport.getSchema("flyway_1");
+        try {
+            schema.create();
+            jdbcTemplate.execute("COMMENT ON SCHEMA flyway_1 IS 'It''s mine'");
+
+            flyway.setRecreateSchemasOnClean(true);
+            flyway.setSchemas("flyway_1");
+            flyway.setLocations(BASEDIR);
+            flyway.migrate();
+            flyway.clean();
+
+            assertTrue(schema.empty());
+            assertEquals("It's mine", jdbcTemplate.queryForString(
+                    "SELECT obj_description(oid, 'pg_namespace') FROM pg_namespace WHERE nspname = 'flyway_1'"));
+        } finally {
+            schema.drop();
+        }
+    }
+
+    @Test
+    public void recreateSchemaKeepsDefaultPrivileges() throws Exception {
+        Schema schema = dbSupport.getSchema("flyway_1");
+        try {
+            schema.create();
+            jdbcTemplate.execute("ALTER DEFAULT PRIVILEGES IN SCHEMA flyway_1 GRANT SELECT ON TABLES TO PUBLIC");
+
+            flyway.setRecreateSchemasOnClean(true);
+            flyway.setSchemas("flyway_1");
+            flyway.setLocations(BASEDIR);
+            flyway.migrate();
+            flyway.clean();
+
+            assertTrue(schema.empty());
+            assertEquals(1, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM pg_default_acl d, pg_namespace n"
+                    + " WHERE d.defaclnamespace = n.oid AND n.nspname = 'flyway_1'"));
+        } finally {
+            schema.drop();
+        }
+    }
+
     @Test
     public void emptySearchPath() {
         Flyway flyway1 = new Flyway();
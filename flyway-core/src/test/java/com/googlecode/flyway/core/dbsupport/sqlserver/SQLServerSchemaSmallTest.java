@@ -0,0 +1,76 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.dbsupport.sqlserver;
+
+import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test for SQLServerSchema.
+ */
+public class SQLServerSchemaSmallTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final Statement statement = mock(Statement.class);
+
+    private final SQLServerSchema schema = new SQLServerSchema(jdbcTemplate, null, "dbo");
+
+    public SQLServerSchemaSmallTest() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(jdbcTemplate.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+    }
+
+    @Test
+    public void executeDropBatch() throws SQLException {
+        when(statement.execute(anyString())).thenReturn(false);
+        when(statement.getUpdateCount()).thenReturn(0, 0, -1);
+        when(statement.getMoreResults()).thenReturn(false);
+
+        schema.doExecuteDropBatch(Arrays.asList("DROP TABLE t0", "DROP TABLE t1", "DROP TABLE t2"));
+
+        verify(statement).execute("DROP TABLE t0;\nDROP TABLE t1;\nDROP TABLE t2;\n");
+        verify(statement).close();
+    }
+
+    @Test
+    public void executeDropBatchFailingStatement() throws SQLException {
+        // The driver only reports the failure of a statement after the first one when stepping to its result
+        when(statement.execute(anyString())).thenReturn(false);
+        when(statement.getUpdateCount()).thenReturn(0);
+        when(statement.getMoreResults()).thenThrow(new SQLException("Cannot drop the table 't1'"));
+
+        try {
+            schema.doExecuteDropBatch(Arrays.asList("DROP TABLE t0", "DROP TABLE t1", "DROP TABLE t2"));
+            fail();
+        } catch (SQLException e) {
+            assertEquals("Cannot drop the table 't1'", e.getMessage());
+        }
+        verify(statement).close();
+    }
+}
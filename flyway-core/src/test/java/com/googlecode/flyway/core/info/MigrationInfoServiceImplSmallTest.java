@@ -22,6 +22,7 @@ import com.googlecode.flyway.core.metadatatable.AppliedMigration;
 import com.googlecode.flyway.core.metadatatable.MetaDataTable;
 import com.googlecode.flyway.core.resolver.MigrationResolver;
 import com.googlecode.flyway.core.resolver.ResolvedMigration;
+import com.googlecode.flyway.core.util.Resource;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -29,8 +30,11 @@ import java.util.Date;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -139,6 +143,51 @@ public class MigrationInfoServiceImplSmallTest {
         assertEquals(0, migrationInfoService.pending().length);
     }
 
+    @Test
+    public void unsortedAndInterleaved() {
+        MigrationInfoServiceImpl migrationInfoService =
+                new MigrationInfoServiceImpl(
+                        createMigrationResolver(createAvailableMigration(5), createAvailableMigration(1), createAvailableMigration(3)),
+                        createMetaDataTable(createAppliedMigration(1), createAppliedMigration(2), createAppliedMigration(3)),
+                        MigrationVersion.LATEST, false);
+        migrationInfoService.refresh();
+
+        assertEquals(4, migrationInfoService.all().length);
+        assertEquals("1", migrationInfoService.all()[0].getVersion().toString());
+        assertEquals(MigrationState.MISSING_SUCCESS, migrationInfoService.all()[1].getState());
+        assertEquals("3", migrationInfoService.all()[2].getVersion().toString());
+        assertEquals("5", migrationInfoService.all()[3].getVersion().toString());
+        assertEquals("3", migrationInfoService.current().getVersion().toString());
+        assertEquals(3, migrationInfoService.applied().length);
+        assertEquals(3, migrationInfoService.resolved().length);
+        assertEquals(1, migrationInfoService.pending().length);
+        assertEquals("5", migrationInfoService.pending()[0].getVersion().toString());
+        assertEquals(0, migrationInfoService.failed().length);
+        assertEquals(0, migrationInfoService.future().length);
+        assertEquals(0, migrationInfoService.outOfOrder().length);
+    }
+
+    @Test
+    public void validateChecksumLimit() {
+        Resource resource = mock(Resource.class);
+        when(resource.calculateChecksum()).thenReturn(42);
+        ResolvedMigration changedMigration = createAvailableMigration(1);
+        changedMigration.setChecksumResource(resource);
+
+        MigrationInfoServiceImpl migrationInfoService =
+                new MigrationInfoServiceImpl(
+                        createMigrationResolver(changedMigration, createAvailableMigration(2), createAvailableMigration(3)),
+                        createMetaDataTable(createAppliedMigration(1), createAppliedMigration(2), createAppliedMigration(3)),
+                        MigrationVersion.LATEST, false);
+        migrationInfoService.refresh();
+
+        assertNull(migrationInfoService.validate(2));
+        verify(resource, never()).calculateChecksum();
+
+        assertNotNull(migrationInfoService.validate(3));
+        assertNotNull(migrationInfoService.validate());
+    }
+
     /**
      * Creates a new available migration with this version.
      *
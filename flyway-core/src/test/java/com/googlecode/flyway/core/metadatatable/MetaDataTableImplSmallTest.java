@@ -0,0 +1,75 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.metadatatable;
+
+import com.googlecode.flyway.core.api.MigrationType;
+import com.googlecode.flyway.core.api.MigrationVersion;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test for MetaDataTableImpl.
+ */
+public class MetaDataTableImplSmallTest {
+    @Test
+    public void calculateVersionRankEmpty() {
+        assertEquals(1, MetaDataTableImpl.calculateVersionRank(new ArrayList<AppliedMigration>(), new MigrationVersion("1")));
+    }
+
+    @Test
+    public void calculateVersionRankInOrder() {
+        List<AppliedMigration> appliedMigrations = createAppliedMigrations("1", "2", "3");
+        assertEquals(4, MetaDataTableImpl.calculateVersionRank(appliedMigrations, new MigrationVersion("4")));
+        assertEquals(4, MetaDataTableImpl.calculateVersionRank(appliedMigrations, new MigrationVersion("3")));
+    }
+
+    @Test
+    public void calculateVersionRankOutOfOrder() {
+        List<AppliedMigration> appliedMigrations = createAppliedMigrations("1", "2", "3", "5", "8");
+        assertEquals(1, MetaDataTableImpl.calculateVersionRank(appliedMigrations, new MigrationVersion("0.5")));
+        assertEquals(2, MetaDataTableImpl.calculateVersionRank(appliedMigrations, new MigrationVersion("1.1")));
+        assertEquals(3, MetaDataTableImpl.calculateVersionRank(appliedMigrations, new MigrationVersion("2")));
+        assertEquals(4, MetaDataTableImpl.calculateVersionRank(appliedMigrations, new MigrationVersion("4")));
+        assertEquals(5, MetaDataTableImpl.calculateVersionRank(appliedMigrations, new MigrationVersion("7.9")));
+    }
+
+    @Test
+    public void internVersion() {
+        MigrationVersion version = MetaDataTableImpl.internVersion("1.2.3");
+        assertEquals(new MigrationVersion("1.2.3"), version);
+        assertSame(version, MetaDataTableImpl.internVersion("1.2.3"));
+    }
+
+    /**
+     * Creates applied migrations for these versions, ranked in this order.
+     *
+     * @param versions The versions.
+     * @return The applied migrations.
+     */
+    private List<AppliedMigration> createAppliedMigrations(String... versions) {
+        List<AppliedMigration> appliedMigrations = new ArrayList<AppliedMigration>();
+        for (int i = 0; i < versions.length; i++) {
+            appliedMigrations.add(new AppliedMigration(i + 1, i + 1, new MigrationVersion(versions[i]), "Migration " + i,
+                    MigrationType.SQL, "V" + versions[i] + "__Migration.sql", null, null, null, 0, true));
+        }
+        return appliedMigrations;
+    }
+}
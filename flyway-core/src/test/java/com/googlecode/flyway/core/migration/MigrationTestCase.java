@@ -16,6 +16,8 @@
 package com.googlecode.flyway.core.migration;
 
 import com.googlecode.flyway.core.Flyway;
+import com.googlecode.flyway.core.FlywaySession;
+import com.googlecode.flyway.core.api.ExecutionResult;
 import com.googlecode.flyway.core.api.FlywayException;
 import com.googlecode.flyway.core.api.MigrationInfo;
 import com.googlecode.flyway.core.api.MigrationState;
@@ -27,6 +29,8 @@ import com.googlecode.flyway.core.dbsupport.DbSupportFactory;
 import com.googlecode.flyway.core.dbsupport.JdbcTemplate;
 import com.googlecode.flyway.core.dbsupport.Schema;
 import com.googlecode.flyway.core.dbsupport.SqlScript;
+import com.googlecode.flyway.core.metadatatable.AppliedMigration;
+import com.googlecode.flyway.core.metadatatable.MetaDataTableImpl;
 import com.googlecode.flyway.core.metadatatable.MetaDataTableRow;
 import com.googlecode.flyway.core.metadatatable.MetaDataTableTo202FormatUpgrader;
 import com.googlecode.flyway.core.metadatatable.MetaDataTableTo20FormatUpgrader;
@@ -137,6 +141,13 @@ public abstract class MigrationTestCase {
      */
     protected abstract String getQuoteLocation();
 
+    /**
+     * @return The number of schemas to migrate concurrently in the multi-tenant tests.
+     */
+    protected int getTenantParallelism() {
+        return 2;
+    }
+
     @Test
     public void migrate() throws Exception {
         flyway.setLocations(BASEDIR);
@@ -154,6 +165,164 @@ public abstract class MigrationTestCase {
         assertEquals(2, jdbcTemplate.queryForInt("select count(*) from all_misters"));
     }
 
+    @Test
+    public void migrateBatched() throws Exception {
+        flyway.setLocations(BASEDIR);
+        flyway.setBatchSize(100);
+        flyway.migrate();
+        assertEquals("2.0", flyway.info().current().getVersion().toString());
+        assertEquals(2, jdbcTemplate.queryForInt("select count(*) from all_misters"));
+    }
+
+    @Test
+    public void migrateAdvisoryLock() throws Exception {
+        flyway.setLocations(BASEDIR);
+        flyway.setAdvisoryLock(true);
+        flyway.setLockTimeout(10);
+        assertEquals(4, flyway.migrate());
+        assertEquals("2.0", flyway.info().current().getVersion().toString());
+        assertEquals(0, flyway.migrate());
+
+        if (!dbSupport.supportsAdvisoryLocks()) {
+            try {
+                dbSupport.acquireAdvisoryLock("flyway-test", 10);
+                fail();
+            } catch (FlywayException e) {
+                // Expected, migrate fell back to locking the metadata table
+            }
+        }
+    }
+
+    @Test
+    public void session() throws Exception {
+        flyway.setLocations(BASEDIR);
+        FlywaySession session = flyway.openSession();
+        try {
+            session.validate();
+            assertEquals(4, session.migrate());
+            assertEquals("2.0", session.info().current().getVersion().toString());
+            assertEquals(0, session.migrate());
+            session.validate();
+
+            session.clean();
+            assertNull(session.info().current());
+            assertEquals(4, session.migrate());
+        } finally {
+            session.close();
+        }
+        assertEquals("2.0", flyway.info().current().getVersion().toString());
+
+        try {
+            session.migrate();
+            fail();
+        } catch (FlywayException e) {
+            //Expected
+        }
+    }
+
+    @Test
+    public void migrateFingerprint() throws Exception {
+        flyway.setLocations(BASEDIR);
+        flyway.setFingerprint(true);
+        flyway.setTarget(new MigrationVersion("1.1"));
+        assertEquals(2, flyway.migrate());
+        assertTrue(dbSupport.getCurrentSchema().getTable(flyway.getTable() + "_fp").exists());
+        assertEquals(0, flyway.migrate());
+        flyway.validate();
+
+        // A higher target changes the fingerprint
+        flyway.setTarget(MigrationVersion.LATEST);
+        assertEquals(2, flyway.migrate());
+        assertEquals(0, flyway.migrate());
+
+        // New migrations added by another client invalidate the fingerprint
+        flyway.setFingerprint(false);
+        flyway.setLocations(BASEDIR, "migration/outoforder");
+        flyway.setOutOfOrder(true);
+        assertEquals(1, flyway.migrate());
+        flyway.setFingerprint(true);
+        flyway.setLocations(BASEDIR);
+        flyway.setOutOfOrder(false);
+        try {
+            flyway.validate();
+            fail();
+        } catch (FlywayException e) {
+            //Expected
+        }
+    }
+
+    @Test
+    public void reset() throws Exception {
+        flyway.setLocations(BASEDIR);
+        if (!dbSupport.supportsSnapshots()) {
+            // Falls back to clean followed by migrate
+            assertEquals(4, flyway.reset());
+            jdbcTemplate.execute("DROP VIEW all_misters");
+            assertEquals(4, flyway.reset());
+            assertEquals("2.0", flyway.info().current().getVersion().toString());
+            assertEquals(2, jdbcTemplate.queryForInt("select count(*) from all_misters"));
+            return;
+        }
+
+        assertEquals(4, flyway.reset());
+        assertEquals("2.0", flyway.info().current().getVersion().toString());
+        assertEquals(2, jdbcTemplate.queryForInt("select count(*) from all_misters"));
+
+        jdbcTemplate.execute("DROP VIEW all_misters");
+        assertEquals(0, flyway.reset());
+        assertEquals("2.0", flyway.info().current().getVersion().toString());
+        assertEquals(2, jdbcTemplate.queryForInt("select count(*) from all_misters"));
+        assertEquals(0, flyway.migrate());
+
+        // New migrations invalidate the snapshot
+        flyway.setLocations(BASEDIR, "migration/outoforder");
+        assertEquals(5, flyway.reset());
+        assertEquals(0, flyway.reset());
+        assertEquals(5, flyway.info().applied().length);
+        flyway.validate();
+
+        // Snapshots are neither kept once released nor shared with other instances
+        flyway.releaseSnapshots();
+        assertEquals(5, flyway.reset());
+        Flyway other = new Flyway();
+        other.setDataSource(flyway.getDataSource());
+        other.setSchemas(flyway.getSchemas());
+        other.setLocations(BASEDIR, "migration/outoforder");
+        assertEquals(5, other.reset());
+    }
+
+    @Test
+    public void appliedMigrationsCache() throws Exception {
+        flyway.setLocations(BASEDIR);
+        flyway.setTarget(new MigrationVersion("1.1"));
+        flyway.migrate();
+
+        MetaDataTableImpl metaDataTable =
+                new MetaDataTableImpl(dbSupport, dbSupport.getCurrentSchema().getTable(flyway.getTable()), null);
+        assertEquals(2, metaDataTable.allAppliedMigrations().size());
+
+        // Changes by another client must be detected
+        flyway.setTarget(MigrationVersion.LATEST);
+        flyway.migrate();
+        assertEquals(4, metaDataTable.allAppliedMigrations().size());
+
+        // Own changes must be reflected in memory, including version rank shifts
+        metaDataTable.addAppliedMigration(new AppliedMigration(new MigrationVersion("1.3"), "Out of order",
+                MigrationType.SQL, "V1_3__Out_of_order.sql", 123, 0, true));
+        List<AppliedMigration> appliedMigrations = metaDataTable.allAppliedMigrations();
+        assertEquals(5, appliedMigrations.size());
+        assertEquals("1.3", appliedMigrations.get(3).getVersion().toString());
+        assertEquals(4, appliedMigrations.get(3).getVersionRank());
+        assertEquals(5, appliedMigrations.get(3).getInstalledRank());
+        assertEquals("2.0", appliedMigrations.get(4).getVersion().toString());
+        assertEquals(5, appliedMigrations.get(4).getVersionRank());
+        List<AppliedMigration> storedMigrations = new MetaDataTableImpl(dbSupport,
+                dbSupport.getCurrentSchema().getTable(flyway.getTable()), null).allAppliedMigrations();
+        assertEquals(appliedMigrations.size(), storedMigrations.size());
+        assertEquals(storedMigrations.get(3).getInstalledOn(), appliedMigrations.get(3).getInstalledOn());
+        assertEquals(storedMigrations.get(3).getInstalledBy(), appliedMigrations.get(3).getInstalledBy());
+    }
+
     @Test
     public void target() throws Exception {
         flyway.setLocations(BASEDIR);
@@ -502,6 +671,28 @@ public abstract class MigrationTestCase {
         flyway.clean();
     }
 
+    @Test
+    public void migrateTenants() throws Exception {
+        flyway.setSchemas("flyway_1", "flyway_2", "flyway_3");
+        flyway.clean();
+
+        flyway.setLocations(BASEDIR);
+        List<ExecutionResult<Integer>> results = flyway.migrateTenants(getTenantParallelism(), "flyway_1", "flyway_2", "flyway_3");
+        assertEquals(3, results.size());
+        assertEquals("flyway_2", results.get(1).getName());
+        for (ExecutionResult<Integer> result : results) {
+            assertTrue(result.toString(), result.isSuccess());
+            assertEquals(4, result.getResult().intValue());
+        }
+
+        flyway.setSchemas("flyway_3");
+        assertEquals("2.0", flyway.info().current().getVersion().toString());
+        assertEquals(0, flyway.migrateTenants(getTenantParallelism(), "flyway_1", "flyway_2", "flyway_3").get(0).getResult().intValue());
+
+        flyway.setSchemas("flyway_1", "flyway_2", "flyway_3");
+        flyway.clean();
+    }
+
     @Test
     public void migrateMultipleSchemas() throws Exception {
         flyway.setSchemas("flyway_1", "flyway_2", "flyway_3");
@@ -527,6 +718,77 @@ public abstract class MigrationTestCase {
         flyway.clean();
     }
 
+    @Test
+    public void cleanParallel() throws Exception {
+        flyway.setCleanParallelism(3);
+        flyway.setLocations(BASEDIR);
+        flyway.migrate();
+        flyway.clean();
+        assertTrue(dbSupport.getSchema(flyway.getSchemas()[0]).empty());
+
+        Schema[] schemas = new Schema[]{
+                dbSupport.getSchema("flyway_1"), dbSupport.getSchema("flyway_2"), dbSupport.getSchema("flyway_3")};
+        try {
+            for (Schema schema : schemas) {
+                schema.create();
+            }
+
+            flyway.setSchemas("flyway_1", "flyway_2", "flyway_3");
+            flyway.setLocations("migration/multi");
+            Map<String, String> placeholders = new HashMap<String, String>();
+            placeholders.put("schema1", dbSupport.quote("flyway_1"));
+            placeholders.put("schema2", dbSupport.quote("flyway_2"));
+            placeholders.put("schema3", dbSupport.quote("flyway_3"));
+            flyway.setPlaceholders(placeholders);
+            assertEquals(3, flyway.migrate());
+
+            flyway.clean();
+            for (Schema schema : schemas) {
+                assertTrue(schema.exists());
+                assertTrue(schema.empty());
+            }
+            assertEquals(3, flyway.migrate());
+            flyway.clean();
+        } finally {
+            for (Schema schema : schemas) {
+                schema.drop();
+            }
+        }
+    }
+
+    @Test
+    public void cleanRecreateSchemas() throws Exception {
+        flyway.setRecreateSchemasOnClean(true);
+        flyway.setLocations(BASEDIR);
+        flyway.migrate();
+        flyway.clean();
+        assertTrue(dbSupport.getSchema(flyway.getSchemas()[0]).empty());
+        assertEquals(4, flyway.migrate());
+
+        Schema[] schemas = new Schema[]{dbSupport.getSchema("flyway_1"), dbSupport.getSchema("flyway_2")};
+        try {
+            for (Schema schema : schemas) {
+                schema.create();
+            }
+
+            flyway.setSchemas("flyway_1", "flyway_2");
+            assertEquals(4, flyway.migrate());
+
+            flyway.clean();
+            for (Schema schema : schemas) {
+                assertTrue(schema.exists());
+                assertTrue(schema.empty());
+            }
+            assertNull(flyway.info().current());
+            assertEquals(4, flyway.migrate());
+            flyway.clean();
+        } finally {
+            for (Schema schema : schemas) {
+                schema.drop();
+            }
+        }
+    }
+
     @Test
     public void setCurrentSchema() throws Exception {
         Schema schema = dbSupport.getSchema("current_schema_test");
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.resolver;
+
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.api.MigrationVersion;
+import com.googlecode.flyway.core.util.ClassPathResource;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for ChecksumCalculator.
+ */
+public class ChecksumCalculatorSmallTest {
+    @Test
+    public void calculateChecksums() {
+        List<ResolvedMigration> resolvedMigrations = new ArrayList<ResolvedMigration>();
+        resolvedMigrations.add(createResolvedMigration("1", "migration/subdir/dir1/V1__First.sql"));
+        resolvedMigrations.add(createResolvedMigration("2", "migration/subdir/dir2/V2_0__Add_foreign_key.sql"));
+        resolvedMigrations.add(createResolvedMigration("3", "migration/subdir/missing.sql"));
+
+        ChecksumCalculator.calculateChecksums(resolvedMigrations);
+
+        assertEquals(new ClassPathResource("migration/subdir/dir1/V1__First.sql").calculateChecksum(),
+                resolvedMigrations.get(0).getChecksum().intValue());
+        assertEquals(new ClassPathResource("migration/subdir/dir2/V2_0__Add_foreign_key.sql").calculateChecksum(),
+                resolvedMigrations.get(1).getChecksum().intValue());
+        try {
+            resolvedMigrations.get(2).getChecksum();
+            fail();
+        } catch (FlywayException e) {
+            // Expected
+        }
+    }
+
+    private ResolvedMigration createResolvedMigration(String version, String location) {
+        ResolvedMigration resolvedMigration = new ResolvedMigration();
+        resolvedMigration.setVersion(MigrationVersion.fromVersion(version));
+        resolvedMigration.setChecksumResource(new ClassPathResource(location));
+        return resolvedMigration;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.resolver;
+
+import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.api.MigrationType;
+import com.googlecode.flyway.core.api.MigrationVersion;
+import com.googlecode.flyway.core.resolver.jdbc.JdbcMigrationExecutor;
+import com.googlecode.flyway.core.resolver.sql.SqlMigrationExecutor;
+import com.googlecode.flyway.core.util.Location;
+import com.googlecode.flyway.core.util.Locations;
+import com.googlecode.flyway.core.util.PlaceholderReplacer;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for MigrationManifest.
+ */
+public class MigrationManifestSmallTest {
+    @Test
+    public void roundTrip() throws Exception {
+        Location sqlLocation = new Location("migration/subdir");
+        Location jdbcLocation = new Location("com/googlecode/flyway/core/resolver/jdbc/dummy");
+        Location fileLocation = new Location("filesystem:src/test/resources/migration/validate");
+
+        CompositeMigrationResolver compositeMigrationResolver = new CompositeMigrationResolver(null,
+                new Locations(sqlLocation.getDescriptor(), jdbcLocation.getDescriptor(), fileLocation.getDescriptor()),
+                "UTF-8", "V", ".sql", new HashMap<String, String>(), "${", "}");
+        MigrationManifest manifest = compositeMigrationResolver.createManifest();
+        assertFalse(manifest.covers(fileLocation));
+
+        StringWriter writer = new StringWriter();
+        manifest.write(writer);
+        MigrationManifest readManifest = new MigrationManifest();
+        readManifest.read(new StringReader(writer.toString()));
+
+        assertTrue(readManifest.covers(sqlLocation));
+        assertTrue(readManifest.covers(jdbcLocation));
+        assertFalse(readManifest.covers(fileLocation));
+
+        List<ResolvedMigration> scanned = new ArrayList<ResolvedMigration>();
+        scanned.addAll(new ManifestMigrationResolver(manifest, sqlLocation, null, PlaceholderReplacer.NO_PLACEHOLDERS, "UTF-8", false, 0).resolveMigrations());
+        scanned.addAll(new ManifestMigrationResolver(manifest, jdbcLocation, null, PlaceholderReplacer.NO_PLACEHOLDERS, "UTF-8", false, 0).resolveMigrations());
+
+        List<ResolvedMigration> loaded = new ArrayList<ResolvedMigration>();
+        loaded.addAll(new ManifestMigrationResolver(readManifest, sqlLocation, null, PlaceholderReplacer.NO_PLACEHOLDERS, "UTF-8", false, 0).resolveMigrations());
+        loaded.addAll(new ManifestMigrationResolver(readManifest, jdbcLocation, null, PlaceholderReplacer.NO_PLACEHOLDERS, "UTF-8", false, 0).resolveMigrations());
+
+        assertEquals(6, loaded.size());
+        for (int i = 0; i < scanned.size(); i++) {
+            assertEquals(0, scanned.get(i).compareTo(loaded.get(i)));
+            assertEquals(scanned.get(i).getScript(), loaded.get(i).getScript());
+            assertEquals(scanned.get(i).getDescription(), loaded.get(i).getDescription());
+            assertEquals(scanned.get(i).getChecksum(), loaded.get(i).getChecksum());
+            assertEquals(scanned.get(i).getType(), loaded.get(i).getType());
+        }
+
+        assertEquals(MigrationType.SQL, loaded.get(0).getType());
+        assertEquals("dir1/V1__First.sql", loaded.get(0).getScript());
+        assertTrue(loaded.get(0).getExecutor() instanceof SqlMigrationExecutor);
+        assertEquals(MigrationType.JDBC, loaded.get(3).getType());
+        assertTrue(loaded.get(3).getExecutor() instanceof JdbcMigrationExecutor);
+    }
+
+    @Test
+    public void escaping() throws Exception {
+        ResolvedMigration resolvedMigration = new ResolvedMigration();
+        resolvedMigration.setVersion(new MigrationVersion("1.2"));
+        resolvedMigration.setDescription("Tab\there, new\nline and back\\slash");
+        resolvedMigration.setScript("V1_2__Weird.sql");
+        resolvedMigration.setType(MigrationType.SQL);
+
+        List<ResolvedMigration> resolvedMigrations = new ArrayList<ResolvedMigration>();
+        resolvedMigrations.add(resolvedMigration);
+
+        Location location = new Location("db/migration");
+        MigrationManifest manifest = new MigrationManifest();
+        manifest.add(location, resolvedMigrations);
+        manifest.add(new Location("db/empty"), new ArrayList<ResolvedMigration>());
+
+        StringWriter writer = new StringWriter();
+        manifest.write(writer);
+        MigrationManifest readManifest = new MigrationManifest();
+        readManifest.read(new StringReader(writer.toString()));
+
+        assertTrue(readManifest.covers(new Location("db/empty")));
+        assertEquals(0, readManifest.getMigrations(new Location("db/empty")).size());
+
+        ResolvedMigration readMigration = readManifest.getMigrations(location).get(0);
+        assertEquals("1.2", readMigration.getVersion().toString());
+        assertEquals("Tab\there, new\nline and back\\slash", readMigration.getDescription());
+        assertEquals("V1_2__Weird.sql", readMigration.getScript());
+        assertNull(readMigration.getChecksum());
+    }
+
+    @Test(expected = FlywayException.class)
+    public void invalidRecord() throws Exception {
+        new MigrationManifest().read(new StringReader("# comment\nmigration\tdb/migration\tSQL\t1\n"));
+    }
+
+    @Test(expected = FlywayException.class)
+    public void invalidType() throws Exception {
+        new MigrationManifest().read(new StringReader("migration\tdb/migration\tPERL\t1\tDesc\tV1__Desc.pl\t\n"));
+    }
+
+    @Test
+    public void noManifestOnClasspath() {
+        assertNull(MigrationManifest.load());
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.resolver;
+
+import com.googlecode.flyway.core.resolver.sql.SqlMigrationResolver;
+import com.googlecode.flyway.core.util.Location;
+import com.googlecode.flyway.core.util.PlaceholderReplacer;
+import com.googlecode.flyway.core.util.scanner.classpath.ClassPathScanner;
+import com.googlecode.flyway.core.util.scanner.filesystem.FileSystemScanner;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for ResolutionCache.
+ */
+public class ResolutionCacheSmallTest {
+    /**
+     * The naming record of a cache built for migrations named like V1__Description.sql.
+     */
+    private static final String NAMING = "naming\tV\t.sql\t__\n";
+
+    @Test
+    public void saveAndLoad() throws Exception {
+        File cacheFile = new File("target/ResolutionCacheSmallTest.cache");
+        cacheFile.delete();
+
+        List<ResolvedMigration> migrations = resolveMigrations(ResolutionCache.load(cacheFile, "V", ".sql"));
+        assertEquals(3, migrations.size());
+        assertTrue(cacheFile.isFile());
+
+        ResolutionCache resolutionCache = ResolutionCache.load(cacheFile, "V", ".sql");
+        ResolvedMigration cached = resolutionCache.get(new File("src/test/resources/migration/subdir/dir1/V1__First.sql"));
+        assertNotNull(cached);
+        assertEquals("1", cached.getVersion().toString());
+        assertEquals("First", cached.getDescription());
+
+        List<ResolvedMigration> cachedMigrations = resolveMigrations(resolutionCache);
+        assertEquals(migrations.size(), cachedMigrations.size());
+        for (int i = 0; i < migrations.size(); i++) {
+            assertEquals(migrations.get(i).getVersion(), cachedMigrations.get(i).getVersion());
+            assertEquals(migrations.get(i).getDescription(), cachedMigrations.get(i).getDescription());
+            assertEquals(migrations.get(i).getScript(), cachedMigrations.get(i).getScript());
+            assertEquals(migrations.get(i).getChecksum(), cachedMigrations.get(i).getChecksum());
+        }
+
+        cacheFile.delete();
+    }
+
+    @Test
+    public void changedFile() throws Exception {
+        File file = new File("src/test/resources/migration/subdir/dir1/V1__First.sql");
+        String path = MigrationManifest.escape(file.getAbsolutePath());
+
+        ResolutionCache resolutionCache = new ResolutionCache(null, "V", ".sql");
+        resolutionCache.read(new StringReader(NAMING + path + "\t" + (file.length() + 1) + "\t" + file.lastModified() + "\t1\tFirst\t123\n"));
+        assertNull(resolutionCache.get(file));
+
+        resolutionCache = new ResolutionCache(null, "V", ".sql");
+        resolutionCache.read(new StringReader(NAMING + path + "\t" + file.length() + "\t" + file.lastModified() + "\t1\tFirst\t123\n"));
+        assertEquals(123, resolutionCache.get(file).getChecksum().intValue());
+    }
+
+    @Test
+    public void missingFile() throws Exception {
+        File file = new File("src/test/resources/migration/subdir/dir1/V9__Missing.sql");
+
+        ResolutionCache resolutionCache = new ResolutionCache(null, "V", ".sql");
+        resolutionCache.read(new StringReader(NAMING + file.getAbsolutePath() + "\t0\t0\t9\tMissing\t123\n"));
+        assertNull(resolutionCache.get(file));
+    }
+
+    @Test
+    public void changedNaming() throws Exception {
+        File file = new File("src/test/resources/migration/subdir/dir1/V1__First.sql");
+        String record = MigrationManifest.escape(file.getAbsolutePath()) + "\t" + file.length() + "\t" + file.lastModified() + "\t1\tFirst\t123\n";
+
+        ResolutionCache resolutionCache = new ResolutionCache(null, "V", ".txt");
+        resolutionCache.read(new StringReader(NAMING + record));
+        assertNull(resolutionCache.get(file));
+
+        resolutionCache = new ResolutionCache(null, "V", ".sql");
+        resolutionCache.read(new StringReader(record));
+        assertNull(resolutionCache.get(file));
+    }
+
+    /**
+     * Resolves the sql migrations of the subdir test location on the filesystem using this cache.
+     *
+     * @param resolutionCache The cache to use.
+     * @return The resolved migrations.
+     */
+    private List<ResolvedMigration> resolveMigrations(ResolutionCache resolutionCache) {
+        List<ResolvedMigration> migrations = new SqlMigrationResolver(null,
+                new Location("filesystem:src/test/resources/migration/subdir"), PlaceholderReplacer.NO_PLACEHOLDERS,
+                "UTF-8", "V", ".sql", false, 0, new ClassPathScanner(), new FileSystemScanner(), resolutionCache).resolveMigrations();
+        resolutionCache.save();
+        return migrations;
+    }
+}
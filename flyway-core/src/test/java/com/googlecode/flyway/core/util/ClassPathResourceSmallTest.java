@@ -17,6 +17,8 @@ package com.googlecode.flyway.core.util;
 
 import org.junit.Test;
 
+import java.util.zip.CRC32;
+
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -40,4 +42,15 @@ public class ClassPathResourceSmallTest {
         assertEquals("SELECT 1 FROM DUAL;",
                 new ClassPathResource("com/googlecode/flyway/core/util/utf8bom.nofilter").loadAsString("UTF-8"));
     }
+
+    @Test
+    public void calculateChecksum() {
+        ClassPathResource resource = new ClassPathResource("migration/sql/V1__First.sql");
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(resource.loadAsBytes());
+
+        assertEquals((int) crc32.getValue(), resource.calculateChecksum());
+        assertEquals((int) crc32.getValue(), resource.calculateChecksum());
+    }
 }
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.util;
+
+import com.googlecode.flyway.core.api.ExecutionResult;
+import com.googlecode.flyway.core.api.FlywayException;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for ParallelExecutor.
+ */
+public class ParallelExecutorSmallTest {
+    @Test
+    public void execute() {
+        Map<String, Callable<Integer>> tasks = new LinkedHashMap<String, Callable<Integer>>();
+        for (int i = 0; i < 10; i++) {
+            final int value = i;
+            tasks.put("task" + i, new Callable<Integer>() {
+                public Integer call() throws Exception {
+                    Thread.sleep(10 - value);
+                    return value;
+                }
+            });
+        }
+
+        List<ExecutionResult<Integer>> results = ParallelExecutor.execute(3, tasks);
+        assertEquals(10, results.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("task" + i, results.get(i).getName());
+            assertTrue(results.get(i).isSuccess());
+            assertEquals(i, results.get(i).getResult().intValue());
+        }
+    }
+
+    @Test
+    public void executeFailureIsolated() {
+        Map<String, Callable<String>> tasks = new LinkedHashMap<String, Callable<String>>();
+        tasks.put("failing", new Callable<String>() {
+            public String call() {
+                throw new FlywayException("Failed");
+            }
+        });
+        tasks.put("succeeding", new Callable<String>() {
+            public String call() {
+                return "OK";
+            }
+        });
+
+        List<ExecutionResult<String>> results = ParallelExecutor.execute(1, tasks);
+        assertFalse(results.get(0).isSuccess());
+        assertNull(results.get(0).getResult());
+        assertEquals("Failed", results.get(0).getException().getMessage());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals("OK", results.get(1).getResult());
+    }
+
+    @Test
+    public void executeTimeout() {
+        Map<String, Callable<String>> tasks = new LinkedHashMap<String, Callable<String>>();
+        tasks.put("slow", new Callable<String>() {
+            public String call() throws Exception {
+                Thread.sleep(10000);
+                return "Too late";
+            }
+        });
+        tasks.put("fast", new Callable<String>() {
+            public String call() {
+                return "OK";
+            }
+        });
+
+        List<ExecutionResult<String>> results = ParallelExecutor.execute(2, 1, tasks);
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(0).getExecutionTime() < 5000);
+        assertTrue(results.get(1).isSuccess());
+        assertEquals("OK", results.get(1).getResult());
+    }
+
+    @Test(expected = FlywayException.class)
+    public void executeInvalidParallelism() {
+        ParallelExecutor.execute(0, new LinkedHashMap<String, Callable<String>>());
+    }
+}
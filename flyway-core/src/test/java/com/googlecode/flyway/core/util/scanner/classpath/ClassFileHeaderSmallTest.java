@@ -0,0 +1,96 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.core.util.scanner.classpath;
+
+import com.googlecode.flyway.core.api.migration.jdbc.JdbcMigration;
+import com.googlecode.flyway.core.resolver.jdbc.dummy.DummyAbstractJdbcMigration;
+import com.googlecode.flyway.core.resolver.jdbc.dummy.V2__InterfaceBasedMigration;
+import com.googlecode.flyway.core.resolver.jdbc.dummy.V4__DummyExtendedAbstractJdbcMigration;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for ClassFileHeader.
+ */
+public class ClassFileHeaderSmallTest {
+    @Test
+    public void concreteClass() throws Exception {
+        ClassFileHeader classFileHeader = read(V2__InterfaceBasedMigration.class);
+
+        assertTrue(classFileHeader.isConcrete());
+        assertEquals(V2__InterfaceBasedMigration.class.getName(), classFileHeader.getClassName());
+        assertEquals("java.lang.Object", classFileHeader.getSuperClassName());
+        assertArrayEquals(new String[]{JdbcMigration.class.getName()}, classFileHeader.getInterfaceNames());
+    }
+
+    @Test
+    public void subclass() throws Exception {
+        ClassFileHeader classFileHeader = read(V4__DummyExtendedAbstractJdbcMigration.class);
+
+        assertTrue(classFileHeader.isConcrete());
+        assertEquals(DummyAbstractJdbcMigration.class.getName(), classFileHeader.getSuperClassName());
+        assertEquals(0, classFileHeader.getInterfaceNames().length);
+    }
+
+    @Test
+    public void abstractClassAndInterface() throws Exception {
+        assertFalse(read(DummyAbstractJdbcMigration.class).isConcrete());
+        assertFalse(read(JdbcMigration.class).isConcrete());
+    }
+
+    @Test
+    public void object() throws Exception {
+        assertNull(read(Object.class).getSuperClassName());
+    }
+
+    @Test
+    public void longAndDoubleConstants() throws Exception {
+        ClassFileHeader classFileHeader = read(Math.class);
+
+        assertEquals("java.lang.Math", classFileHeader.getClassName());
+        assertEquals("java.lang.Object", classFileHeader.getSuperClassName());
+    }
+
+    @Test(expected = IOException.class)
+    public void notAClassFile() throws Exception {
+        ClassFileHeader.read(new ByteArrayInputStream("SELECT 1;".getBytes("UTF-8")));
+    }
+
+    /**
+     * Reads the class file header of this class.
+     *
+     * @param aClass The class.
+     * @return The header.
+     * @throws IOException when the class file could not be read.
+     */
+    private ClassFileHeader read(Class<?> aClass) throws IOException {
+        InputStream inputStream = getClass().getClassLoader().getResourceAsStream(aClass.getName().replace('.', '/') + ".class");
+        try {
+            return ClassFileHeader.read(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
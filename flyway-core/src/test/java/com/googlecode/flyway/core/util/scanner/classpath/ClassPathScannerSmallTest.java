@@ -90,6 +90,20 @@ public class ClassPathScannerSmallTest {
         assertEquals("migration/subdir/dir2/V2_0__Add_foreign_key.sql", resources[2].getLocation());
     }
 
+    @Test
+    public void scanForResourcesSameLocationTwice() throws Exception {
+        ClassPathScanner classPathScanner = new ClassPathScanner();
+
+        assertEquals(3, classPathScanner.scanForResources("migration/subdir", "V", ".sql").length);
+
+        Resource[] resources = classPathScanner.scanForResources("migration/subdir", "V1", ".sql");
+        assertEquals(2, resources.length);
+        assertEquals("migration/subdir/V1_1__Populate_table.sql", resources[0].getLocation());
+        assertEquals("migration/subdir/dir1/V1__First.sql", resources[1].getLocation());
+
+        assertEquals(0, classPathScanner.scanForClasses("migration/subdir", JdbcMigration.class).length);
+    }
+
     @Test(expected = FlywayException.class)
     public void scanForResourcesInvalidPath() throws Exception {
         new ClassPathScanner().scanForResources("invalid", "V", ".sql");
@@ -16,8 +16,11 @@
 package com.googlecode.flyway.core.util.scanner.filesystem;
 
 import com.googlecode.flyway.core.api.FlywayException;
+import com.googlecode.flyway.core.util.Resource;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * Test for FileSystemScanner.
  */
@@ -26,4 +29,31 @@ public class FileSystemScannerMediumTest {
     public void nonExistentDirectory() throws Exception {
         new FileSystemScanner().scanForResources("/invalid-path", "", "");
     }
+
+    @Test
+    public void scanForResources() throws Exception {
+        assertSubdirMigrations(new FileSystemScanner(1).scanForResources("src/test/resources/migration/subdir", "V", ".sql"));
+    }
+
+    @Test
+    public void scanForResourcesParallel() throws Exception {
+        assertSubdirMigrations(new FileSystemScanner(4).scanForResources("src/test/resources/migration/subdir", "V", ".sql"));
+    }
+
+    @Test
+    public void scanForResourcesNoMatch() throws Exception {
+        assertEquals(0, new FileSystemScanner(4).scanForResources("src/test/resources/migration/subdir", "X", ".sql").length);
+    }
+
+    /**
+     * Checks that these are the migrations of the subdir test location, in order.
+     *
+     * @param resources The resources that were found.
+     */
+    private void assertSubdirMigrations(Resource[] resources) {
+        assertEquals(3, resources.length);
+        assertEquals("V1_1__Populate_table.sql", resources[0].getFilename());
+        assertEquals("V1__First.sql", resources[1].getFilename());
+        assertEquals("V2_0__Add_foreign_key.sql", resources[2].getFilename());
+    }
 }
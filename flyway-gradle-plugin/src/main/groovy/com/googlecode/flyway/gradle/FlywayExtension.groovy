@@ -95,4 +95,34 @@ public class FlywayExtension {
      * with no metadata table.
      */
     Boolean initOnMigrate
+
+    /** Whether Sql migrations should be streamed instead of being loaded and parsed upfront */
+    Boolean stream
+
+    /** The maximum number of consecutive data manipulation statements of a Sql migration to send as a single JDBC batch */
+    Integer batchSize
+
+    /** Whether to coordinate concurrent migrations using a native advisory lock instead of locking the metadata table */
+    Boolean advisoryLock
+
+    /** The maximum time to wait for the advisory lock, in seconds */
+    Integer lockTimeout
+
+    /** Whether to skip migrate and validate while the fingerprint of the available migrations still matches */
+    Boolean fingerprint
+
+    /** Whether to read the classpath migrations from the migration manifest instead of scanning the classpath */
+    Boolean useManifest
+
+    /** The number of most recently applied migrations whose checksum is validated */
+    Integer checksumValidationLimit
+
+    /** The maximum number of connections to use concurrently when cleaning the database */
+    Integer cleanParallelism
+
+    /** Whether to clean the schemas by dropping and recreating them instead of dropping their objects one by one */
+    Boolean recreateSchemasOnClean
+
+    /** The maximum number of directories to list concurrently when scanning filesystem locations for sql migrations */
+    Integer scanParallelism
 }
@@ -18,6 +18,7 @@ package com.googlecode.flyway.gradle;
 import com.googlecode.flyway.gradle.task.FlywayCleanTask;
 import com.googlecode.flyway.gradle.task.FlywayInfoTask;
 import com.googlecode.flyway.gradle.task.FlywayInitTask;
+import com.googlecode.flyway.gradle.task.FlywayManifestTask;
 import com.googlecode.flyway.gradle.task.FlywayMigrateTask;
 import com.googlecode.flyway.gradle.task.FlywayRepairTask;
 import com.googlecode.flyway.gradle.task.FlywayValidateTask;
@@ -40,5 +41,6 @@ public class FlywayPlugin implements Plugin<Project> {
         project.getTasks().create("flywayValidate", FlywayValidateTask.class);
         project.getTasks().create("flywayInfo", FlywayInfoTask.class);
         project.getTasks().create("flywayRepair", FlywayRepairTask.class);
+        project.getTasks().create("flywayManifest", FlywayManifestTask.class);
     }
 }
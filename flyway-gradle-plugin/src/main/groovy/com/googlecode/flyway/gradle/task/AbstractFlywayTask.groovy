@@ -80,10 +80,17 @@ abstract class AbstractFlywayTask extends DefaultTask {
     /** Executes the task's custom behavior. */
     def abstract run(Flyway flyway)
 
+    /** Whether the task needs a connection to the database. */
+    protected boolean requiresDataSource() {
+        true
+    }
+
     /** Creates a new, configured flyway instance */
     protected def createFlyway() {
         def flyway = new Flyway()
-        flyway.setDataSource(new DriverDataSource(prop("driver"), prop("url"), prop("user"), prop("password")))
+        if (requiresDataSource()) {
+            flyway.setDataSource(new DriverDataSource(prop("driver"), prop("url"), prop("user"), prop("password")))
+        }
 
         propSet(flyway, 'table')
         propSet(flyway, 'initVersion')
@@ -98,6 +105,16 @@ abstract class AbstractFlywayTask extends DefaultTask {
         propSetAsBoolean(flyway, 'validateOnMigrate')
         propSetAsBoolean(flyway, 'cleanOnValidationError')
         propSetAsBoolean(flyway, 'initOnMigrate')
+        propSetAsBoolean(flyway, 'stream')
+        propSetAsInt(flyway, 'batchSize')
+        propSetAsBoolean(flyway, 'advisoryLock')
+        propSetAsInt(flyway, 'lockTimeout')
+        propSetAsBoolean(flyway, 'fingerprint')
+        propSetAsBoolean(flyway, 'useManifest')
+        propSetAsInt(flyway, 'checksumValidationLimit')
+        propSetAsInt(flyway, 'cleanParallelism')
+        propSetAsBoolean(flyway, 'recreateSchemasOnClean')
+        propSetAsInt(flyway, 'scanParallelism')
 
         def sysSchemas = System.getProperty("flyway.schemas")
         if (sysSchemas != null) {
@@ -162,6 +179,18 @@ abstract class AbstractFlywayTask extends DefaultTask {
         }
     }
 
+    /**
+     * Sets this property on this Flyway instance if a value has been defined.
+     * @param flyway The Flyway instance.
+     * @param property The property to set.
+     */
+    private void propSetAsInt(Flyway flyway, String property) {
+        String value = prop(property);
+        if (value != null) {
+            flyway."set${property.capitalize()}"(value.toInteger())
+        }
+    }
+
     /**
      * Retrieves the value of this property, first trying System Properties, then Gradle properties and finally the Flyway extension.
      * @param property The property whose value to get.
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.gradle.task
+
+import com.googlecode.flyway.core.Flyway
+import com.googlecode.flyway.core.resolver.MigrationManifest
+
+/**
+ * Writes the manifest of the classpath migrations to the resources output directory, so they don't have to be found
+ * by scanning the classpath at runtime when useManifest is enabled. Does not require a database connection.
+ */
+class FlywayManifestTask extends AbstractFlywayTask {
+
+  FlywayManifestTask() {
+    description = 'Writes the manifest of the migrations available on the classpath.'
+    project.afterEvaluate {
+      if (isJavaProject()) {
+        // processResources would otherwise overwrite the resources output directory after the manifest was written
+        this.dependsOn(project.tasks.processResources)
+      }
+    }
+  }
+
+  @Override
+  protected boolean requiresDataSource() {
+    false
+  }
+
+  def run(Flyway flyway) {
+    flyway.writeManifest(new File(project.sourceSets.main.output.resourcesDir, MigrationManifest.PATH))
+  }
+}
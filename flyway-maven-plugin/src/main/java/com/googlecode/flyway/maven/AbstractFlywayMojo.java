@@ -337,6 +337,98 @@ abstract class AbstractFlywayMojo extends AbstractMojo {
      */
     private boolean validateOnMigrate;
 
+    /**
+     * Whether Sql migrations should be streamed instead of being loaded and parsed upfront. (default: {@code false})
+     * <p>Statements are then read and executed one at a time, which keeps the memory usage bounded by the size of the
+     * largest statement instead of the size of the whole script.</p>
+     * <p>Also configurable with Maven or System Property: ${flyway.stream}</p>
+     *
+     * @parameter property="flyway.stream"
+     */
+    private boolean stream;
+
+    /**
+     * The maximum number of consecutive data manipulation statements (INSERT, UPDATE, DELETE, MERGE) of a Sql migration
+     * to send to the database as a single JDBC batch. {@code 0} disables batching. (default: {@code 0})
+     * <p>Also configurable with Maven or System Property: ${flyway.batchSize}</p>
+     *
+     * @parameter property="flyway.batchSize"
+     */
+    private Integer batchSize;
+
+    /**
+     * Whether to coordinate concurrent migrations using a native advisory lock (PostgreSQL, MySQL, SQL Server and
+     * Oracle with EXECUTE on DBMS_LOCK) instead of locking the metadata table. Flyway falls back to locking the metadata
+     * table on databases without advisory lock support. (default: {@code false})
+     * <p>Also configurable with Maven or System Property: ${flyway.advisoryLock}</p>
+     *
+     * @parameter property="flyway.advisoryLock"
+     */
+    private boolean advisoryLock;
+
+    /**
+     * The maximum time to wait for the advisory lock, in seconds. A negative value waits indefinitely. (default: {@code -1})
+     * <p>Also configurable with Maven or System Property: ${flyway.lockTimeout}</p>
+     *
+     * @parameter property="flyway.lockTimeout"
+     */
+    private Integer lockTimeout;
+
+    /**
+     * Whether to store a fingerprint of the available migrations next to the metadata table once the schema is fully
+     * migrated, and to skip migrate and validate entirely while it still matches. (default: {@code false})
+     * <p>Also configurable with Maven or System Property: ${flyway.fingerprint}</p>
+     *
+     * @parameter property="flyway.fingerprint"
+     */
+    private boolean fingerprint;
+
+    /**
+     * Whether to read the migrations of the classpath locations covered by the migration manifest
+     * (META-INF/flyway/migrations.idx) from it instead of scanning the classpath. The manifest must be regenerated
+     * whenever migrations are added. (default: {@code false})
+     * <p>Also configurable with Maven or System Property: ${flyway.useManifest}</p>
+     *
+     * @parameter property="flyway.useManifest"
+     */
+    private boolean useManifest;
+
+    /**
+     * The number of most recently applied migrations whose checksum is compared with the one of the available migration
+     * during validation. {@code 0} validates the checksums of all applied migrations. (default: {@code 0})
+     * <p>Also configurable with Maven or System Property: ${flyway.checksumValidationLimit}</p>
+     *
+     * @parameter property="flyway.checksumValidationLimit"
+     */
+    private Integer checksumValidationLimit;
+
+    /**
+     * The maximum number of connections to use concurrently when cleaning the database. {@code 1} cleans everything
+     * sequentially on a single connection. (default: {@code 1})
+     * <p>Also configurable with Maven or System Property: ${flyway.cleanParallelism}</p>
+     *
+     * @parameter property="flyway.cleanParallelism"
+     */
+    private Integer cleanParallelism;
+
+    /**
+     * Whether to clean the schemas by dropping and recreating them with the same owner and privileges, instead of
+     * dropping all their objects one by one. Only supported by H2, Hsql and PostgreSQL. (default: {@code false})
+     * <p>Also configurable with Maven or System Property: ${flyway.recreateSchemasOnClean}</p>
+     *
+     * @parameter property="flyway.recreateSchemasOnClean"
+     */
+    private boolean recreateSchemasOnClean;
+
+    /**
+     * The maximum number of directories to list concurrently when scanning filesystem locations for sql migrations.
+     * {@code 1} lists them one by one. (default: {@code 1})
+     * <p>Also configurable with Maven or System Property: ${flyway.scanParallelism}</p>
+     *
+     * @parameter property="flyway.scanParallelism"
+     */
+    private Integer scanParallelism;
+
     /**
      * The id of the server tag in settings.xml (default: flyway-db)<br/>
      * The credentials can be specified by user/password or {@code serverId} from settings.xml<br>
@@ -415,6 +507,21 @@ abstract class AbstractFlywayMojo extends AbstractMojo {
         return mavenPropertyValue;
     }
 
+    /**
+     * Retrieves the value of this integer property, based on the matching System on the Maven property.
+     *
+     * @param systemPropertyName The name of the System property.
+     * @param mavenPropertyValue The value of the Maven property.
+     * @return The value to use. {@code null} if neither is set.
+     */
+    private Integer getIntegerProperty(String systemPropertyName, Integer mavenPropertyValue) {
+        String systemPropertyValue = System.getProperty(systemPropertyName);
+        if (systemPropertyValue != null) {
+            return Integer.valueOf(systemPropertyValue);
+        }
+        return mavenPropertyValue;
+    }
+
     public final void execute() throws MojoExecutionException, MojoFailureException {
         LogFactory.setLogCreator(new MavenLogCreator(this));
         log = LogFactory.getLog(getClass());
@@ -428,7 +535,9 @@ abstract class AbstractFlywayMojo extends AbstractMojo {
             loadCredentialsFromSettings();
 
             Flyway flyway = new Flyway();
-            flyway.setDataSource(createDataSource());
+            if (requiresDataSource()) {
+                flyway.setDataSource(createDataSource());
+            }
 
             String schemasProperty = System.getProperty("flyway.schemas", mavenProject.getProperties().getProperty("flyway.schemas"));
             if (schemasProperty != null) {
@@ -530,6 +639,31 @@ abstract class AbstractFlywayMojo extends AbstractMojo {
                 flyway.setValidationMode(ValidationMode.valueOf(validationModeProperty.toUpperCase()));
             }
             flyway.setValidateOnMigrate(getBooleanProperty("flyway.validateOnMigrate", validateOnMigrate));
+            flyway.setStream(getBooleanProperty("flyway.stream", stream));
+            Integer batchSizeProperty = getIntegerProperty("flyway.batchSize", batchSize);
+            if (batchSizeProperty != null) {
+                flyway.setBatchSize(batchSizeProperty);
+            }
+            flyway.setAdvisoryLock(getBooleanProperty("flyway.advisoryLock", advisoryLock));
+            Integer lockTimeoutProperty = getIntegerProperty("flyway.lockTimeout", lockTimeout);
+            if (lockTimeoutProperty != null) {
+                flyway.setLockTimeout(lockTimeoutProperty);
+            }
+            flyway.setFingerprint(getBooleanProperty("flyway.fingerprint", fingerprint));
+            flyway.setUseManifest(getBooleanProperty("flyway.useManifest", useManifest));
+            Integer checksumValidationLimitProperty = getIntegerProperty("flyway.checksumValidationLimit", checksumValidationLimit);
+            if (checksumValidationLimitProperty != null) {
+                flyway.setChecksumValidationLimit(checksumValidationLimitProperty);
+            }
+            Integer cleanParallelismProperty = getIntegerProperty("flyway.cleanParallelism", cleanParallelism);
+            if (cleanParallelismProperty != null) {
+                flyway.setCleanParallelism(cleanParallelismProperty);
+            }
+            flyway.setRecreateSchemasOnClean(getBooleanProperty("flyway.recreateSchemasOnClean", recreateSchemasOnClean));
+            Integer scanParallelismProperty = getIntegerProperty("flyway.scanParallelism", scanParallelism);
+            if (scanParallelismProperty != null) {
+                flyway.setScanParallelism(scanParallelismProperty);
+            }
 
             doExecute(flyway);
         } catch (Exception e) {
@@ -553,6 +687,15 @@ abstract class AbstractFlywayMojo extends AbstractMojo {
         return mavenProject.getProperties().getProperty(name);
     }
 
+    /**
+     * Checks whether this mojo needs a connection to the database.
+     *
+     * @return {@code true} if it does (default), {@code false} if it only works with the available migrations.
+     */
+    protected boolean requiresDataSource() {
+        return true;
+    }
+
     /**
      * Executes this mojo.
      *
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2010-2014 Axel Fontaine and the many contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.googlecode.flyway.maven;
+
+import com.googlecode.flyway.core.Flyway;
+import com.googlecode.flyway.core.resolver.MigrationManifest;
+
+import java.io.File;
+
+/**
+ * Maven goal that writes the manifest of the classpath migrations to the build output directory, so they don't have
+ * to be found by scanning the classpath at runtime when useManifest is enabled. Does not require a database connection.
+ *
+ * @goal manifest
+ * @phase process-classes
+ */
+@SuppressWarnings({"UnusedDeclaration", "JavaDoc"})
+public class ManifestMojo extends AbstractFlywayMojo {
+    @Override
+    protected boolean requiresDataSource() {
+        return false;
+    }
+
+    @Override
+    protected void doExecute(Flyway flyway) throws Exception {
+        File outputFile = new File(mavenProject.getBuild().getOutputDirectory(), MigrationManifest.PATH);
+        if (flyway.writeManifest(outputFile) == 0) {
+            log.warn("Possible solution: run mvn compile first so Flyway can find the migrations");
+        }
+    }
+}
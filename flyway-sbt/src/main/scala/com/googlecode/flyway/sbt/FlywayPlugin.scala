@@ -42,6 +42,10 @@ object FlywayPlugin extends Plugin {
   val flywayTable = settingKey[String]("The name of the metadata table that will be used by Flyway. (default: schema_version) By default (single-schema mode) the metadata table is placed in the default schema for the connection provided by the datasource. When the flyway.schemas property is set (multi-schema mode), the metadata table is placed in the first schema of the list.")
   val flywayInitVersion = settingKey[String]("The version to tag an existing schema with when executing init. (default: 1)")
   val flywayInitDescription = settingKey[String]("The description to tag an existing schema with when executing init. (default: << Flyway Init >>)")
+  val flywayAdvisoryLock = settingKey[Boolean]("Whether to coordinate concurrent migrations using a native advisory lock (PostgreSQL, MySQL, SQL Server and Oracle with EXECUTE on DBMS_LOCK) instead of locking the metadata table. Flyway falls back to locking the metadata table on databases without advisory lock support. (default: {@code false})")
+  val flywayLockTimeout = settingKey[Int]("The maximum time to wait for the advisory lock, in seconds. A negative value waits indefinitely. (default: {@code -1})")
+  val flywayCleanParallelism = settingKey[Int]("The maximum number of connections to use concurrently when cleaning the database. {@code 1} cleans everything sequentially on a single connection. (default: {@code 1})")
+  val flywayRecreateSchemasOnClean = settingKey[Boolean]("Whether to clean the schemas by dropping and recreating them with the same owner and privileges, instead of dropping all their objects one by one. Only supported by H2, Hsql and PostgreSQL. (default: {@code false})")
 
   //*********************
   // common settings for migration loading tasks (used by migrate, validate, info)
@@ -54,6 +58,11 @@ object FlywayPlugin extends Plugin {
   val flywayCleanOnValidationError = settingKey[Boolean]("Whether to automatically call clean or not when a validation error occurs. (default: {@code false})<br/> This is exclusively intended as a convenience for development. Even tough we strongly recommend not to change migration scripts once they have been checked into SCM and run, this provides a way of dealing with this case in a smooth manner. The database will be wiped clean automatically, ensuring that the next migration will bring you back to the state checked into SCM. Warning ! Do not enable in production !")
   val flywayTarget = settingKey[String]("The target version up to which Flyway should run migrations. Migrations with a higher version number will not be  applied. (default: the latest version)")
   val flywayOutOfOrder = settingKey[Boolean]("Allows migrations to be run \"out of order\" (default: {@code false}). If you already have versions 1 and 3 applied, and now a version 2 is found, it will be applied too instead of being ignored.")
+  val flywayStream = settingKey[Boolean]("Whether Sql migrations should be streamed instead of being loaded and parsed upfront. (default: {@code false}) Statements are then read and executed one at a time, which keeps the memory usage bounded by the size of the largest statement instead of the size of the whole script.")
+  val flywayFingerprint = settingKey[Boolean]("Whether to store a fingerprint of the available migrations next to the metadata table once the schema is fully migrated, and to skip migrate and validate entirely while it still matches. (default: {@code false})")
+  val flywayUseManifest = settingKey[Boolean]("Whether to read the migrations of the classpath locations covered by the migration manifest (META-INF/flyway/migrations.idx) from it instead of scanning the classpath. The manifest must be regenerated whenever migrations are added. (default: {@code false})")
+  val flywayChecksumValidationLimit = settingKey[Int]("The number of most recently applied migrations whose checksum is compared with the one of the available migration during validation. {@code 0} validates the checksums of all applied migrations. (default: {@code 0})")
+  val flywayScanParallelism = settingKey[Int]("The maximum number of directories to list concurrently when scanning filesystem locations for sql migrations. {@code 1} lists them one by one. (default: {@code 1})")
 
   //*********************
   // settings for migrate
@@ -65,17 +74,18 @@ object FlywayPlugin extends Plugin {
   val flywayPlaceholderSuffix = settingKey[String]("The suffix of every placeholder. (default: } )")
   val flywayInitOnMigrate = settingKey[Boolean]("Whether to automatically call init when migrate is executed against a non-empty schema with no metadata table. This schema will then be initialized with the {@code initialVersion} before executing the migrations. Only migrations above {@code initialVersion} will then be applied. This is useful for initial Flyway production deployments on projects with an existing DB. Be careful when enabling this as it removes the safety net that ensures Flyway does not migrate the wrong database in case of a configuration mistake! (default: {@code false})")
   val flywayValidateOnMigrate = settingKey[Boolean]("Whether to automatically call validate or not when running migrate. (default: {@code false})")
+  val flywayBatchSize = settingKey[Int]("The maximum number of consecutive data manipulation statements (INSERT, UPDATE, DELETE, MERGE) of a Sql migration to send to the database as a single JDBC batch. {@code 0} disables batching. (default: {@code 0})")
 
   //*********************
   // convenience settings
   //*********************
 
   private case class ConfigDataSource(driver: String, url: String, user: String, password: String)
-  private case class ConfigBase(schemas: Seq[String], table: String, initVersion: String, initDescription: String)
+  private case class ConfigBase(schemas: Seq[String], table: String, initVersion: String, initDescription: String, advisoryLock: Boolean, lockTimeout: Int, cleanParallelism: Int, recreateSchemasOnClean: Boolean)
   private case class ConfigMigrationLoading(locations: Seq[String], encoding: String, sqlMigrationPrefix: String, sqlMigrationSuffix: String,
-                                           cleanOnValidationError: Boolean, target: String, outOfOrder: Boolean)
+                                           cleanOnValidationError: Boolean, target: String, outOfOrder: Boolean, stream: Boolean, fingerprint: Boolean, useManifest: Boolean, checksumValidationLimit: Int, scanParallelism: Int)
   private case class ConfigMigrate(ignoreFailedFutureMigration: Boolean, placeholders: Map[String, String],
-                                         placeholderPrefix: String, placeholderSuffix: String, initOnMigrate: Boolean, validateOnMigrate: Boolean)
+                                         placeholderPrefix: String, placeholderSuffix: String, initOnMigrate: Boolean, validateOnMigrate: Boolean, batchSize: Int)
   private case class Config(dataSource: ConfigDataSource, base: ConfigBase, migrationLoading: ConfigMigrationLoading, migrate: ConfigMigrate)
 
   private lazy val flywayConfigDataSource = taskKey[ConfigDataSource]("The flyway data source configuration.")
@@ -123,20 +133,30 @@ object FlywayPlugin extends Plugin {
       flywayPlaceholderSuffix := defaults.getPlaceholderSuffix,
       flywayInitOnMigrate := defaults.isInitOnMigrate,
       flywayValidateOnMigrate := defaults.isValidateOnMigrate,
+      flywayStream := defaults.isStream,
+      flywayBatchSize := defaults.getBatchSize,
+      flywayAdvisoryLock := defaults.isAdvisoryLock,
+      flywayLockTimeout := defaults.getLockTimeout,
+      flywayFingerprint := defaults.isFingerprint,
+      flywayUseManifest := defaults.isUseManifest,
+      flywayChecksumValidationLimit := defaults.getChecksumValidationLimit,
+      flywayCleanParallelism := defaults.getCleanParallelism,
+      flywayRecreateSchemasOnClean := defaults.isRecreateSchemasOnClean,
+      flywayScanParallelism := defaults.getScanParallelism,
       flywayConfigDataSource <<= (flywayDriver, flywayUrl, flywayUser, flywayPassword) map {
         (driver, url, user, password) => ConfigDataSource(driver, url, user, password)
       },
-      flywayConfigBase <<= (flywaySchemas, flywayTable, flywayInitVersion, flywayInitDescription) map {
-        (schemas, table, initVersion, initDescription) =>
-          ConfigBase(schemas, table, initVersion, initDescription)
+      flywayConfigBase <<= (flywaySchemas, flywayTable, flywayInitVersion, flywayInitDescription, flywayAdvisoryLock, flywayLockTimeout, flywayCleanParallelism, flywayRecreateSchemasOnClean) map {
+        (schemas, table, initVersion, initDescription, advisoryLock, lockTimeout, cleanParallelism, recreateSchemasOnClean) =>
+          ConfigBase(schemas, table, initVersion, initDescription, advisoryLock, lockTimeout, cleanParallelism, recreateSchemasOnClean)
       },
-      flywayConfigMigrationLoading <<= (flywayLocations, flywayEncoding, flywaySqlMigrationPrefix, flywaySqlMigrationSuffix, flywayCleanOnValidationError, flywayTarget, flywayOutOfOrder) map {
-        (locations, encoding, sqlMigrationPrefix, sqlMigrationSuffix, cleanOnValidationError, target, outOfOrder) =>
-          ConfigMigrationLoading(locations, encoding, sqlMigrationPrefix, sqlMigrationSuffix, cleanOnValidationError, target, outOfOrder)
+      flywayConfigMigrationLoading <<= (flywayLocations, flywayEncoding, flywaySqlMigrationPrefix, flywaySqlMigrationSuffix, flywayCleanOnValidationError, flywayTarget, flywayOutOfOrder, flywayStream, flywayFingerprint, flywayUseManifest, flywayChecksumValidationLimit, flywayScanParallelism) map {
+        (locations, encoding, sqlMigrationPrefix, sqlMigrationSuffix, cleanOnValidationError, target, outOfOrder, stream, fingerprint, useManifest, checksumValidationLimit, scanParallelism) =>
+          ConfigMigrationLoading(locations, encoding, sqlMigrationPrefix, sqlMigrationSuffix, cleanOnValidationError, target, outOfOrder, stream, fingerprint, useManifest, checksumValidationLimit, scanParallelism)
       },
-      flywayConfigMigrate <<= (flywayIgnoreFailedFutureMigration, flywayPlaceholders, flywayPlaceholderPrefix, flywayPlaceholderSuffix, flywayInitOnMigrate, flywayValidateOnMigrate) map {
-        (ignoreFailedFutureMigration, placeholders, placeholderPrefix, placeholderSuffix, initOnMigrate, validateOnMigrate) =>
-          ConfigMigrate(ignoreFailedFutureMigration, placeholders, placeholderPrefix, placeholderSuffix, initOnMigrate, validateOnMigrate)
+      flywayConfigMigrate <<= (flywayIgnoreFailedFutureMigration, flywayPlaceholders, flywayPlaceholderPrefix, flywayPlaceholderSuffix, flywayInitOnMigrate, flywayValidateOnMigrate, flywayBatchSize) map {
+        (ignoreFailedFutureMigration, placeholders, placeholderPrefix, placeholderSuffix, initOnMigrate, validateOnMigrate, batchSize) =>
+          ConfigMigrate(ignoreFailedFutureMigration, placeholders, placeholderPrefix, placeholderSuffix, initOnMigrate, validateOnMigrate, batchSize)
       },
       flywayConfig <<= (flywayConfigDataSource, flywayConfigBase, flywayConfigMigrationLoading, flywayConfigMigrate) map {
         (dataSource, base, migrationLoading, migrate) => Config(dataSource, base, migrationLoading, migrate)
@@ -219,6 +239,10 @@ object FlywayPlugin extends Plugin {
       flyway.setTable(config.table)
       flyway.setInitVersion(config.initVersion)
       flyway.setInitDescription(config.initDescription)
+      flyway.setAdvisoryLock(config.advisoryLock)
+      flyway.setLockTimeout(config.lockTimeout)
+      flyway.setCleanParallelism(config.cleanParallelism)
+      flyway.setRecreateSchemasOnClean(config.recreateSchemasOnClean)
       flyway
     }
     def configure(config: ConfigMigrationLoading): Flyway = {
@@ -229,6 +253,11 @@ object FlywayPlugin extends Plugin {
       flyway.setCleanOnValidationError(config.cleanOnValidationError)
       flyway.setTarget(config.target)
       flyway.setOutOfOrder(config.outOfOrder)
+      flyway.setStream(config.stream)
+      flyway.setFingerprint(config.fingerprint)
+      flyway.setUseManifest(config.useManifest)
+      flyway.setChecksumValidationLimit(config.checksumValidationLimit)
+      flyway.setScanParallelism(config.scanParallelism)
       flyway
     }
     def configure(config: ConfigMigrate): Flyway = {
@@ -238,6 +267,7 @@ object FlywayPlugin extends Plugin {
       flyway.setPlaceholderSuffix(config.placeholderSuffix)
       flyway.setInitOnMigrate(config.initOnMigrate)
       flyway.setValidateOnMigrate(config.validateOnMigrate)
+      flyway.setBatchSize(config.batchSize)
       flyway
     }
     def configureSysProps(): Flyway = {